@@ -39,6 +39,12 @@ public enum ConfigProperty {
     ANALYSIS_STATISTIC_CACHE_SECONDS("analysis.stats.cache.min", 300L),
     GC_EVENTS_MAX_INTERVAL_DAYS("user.gc.events.max.interval.days", 90),
     SURVIVOR_AGES_AVG_THRESHOLD("survivor.ages.avg.threshold", 100),
+    /**
+     * If positive, the survivor ages are persisted per window of that length, rather than as a single
+     * average over the log. The last ages are then the ones of the last window only.
+     */
+    SURVIVOR_AGES_WINDOW_SECONDS("survivor.ages.window.seconds", 0),
+    SURVIVOR_AGES_BATCH_SIZE("survivor.ages.batch.size", 100),
     TENURED_ACCUMULATE_SECONDS("tenured.accumulate.seconds", 10),
     FORBID_OTHER_GENERATION("forbid.other.generation", true),
     GC_EVENTS_INTERCEPTORS_ENABLED("gc.events.interceptors.enabled", false),
@@ -56,6 +62,58 @@ public enum ConfigProperty {
 
     PARSE_LOG_MAX_FILE_SIZE("parse.log.max.file.size", 512L * 1024 * 1024),
     PARSE_LOG_SAMPLING_SECONDS("parse.log.sampling.seconds", 0),
+    PARSE_LOG_PARALLEL_ENABLED("parse.log.parallel.enabled", true),
+    PARSE_LOG_PARALLEL_MIN_FILE_SIZE("parse.log.parallel.min.file.size", 64L * 1024 * 1024),
+    PARSE_LOG_PARALLEL_CHUNK_SIZE("parse.log.parallel.chunk.size", 16L * 1024 * 1024),
+    PARSE_LOG_CHECKPOINTS_ENABLED("parse.log.checkpoints.enabled", true),
+    PARSE_LOG_PERSIST_BATCH_SIZE("parse.log.persist.batch.size", 32),
+    PARSE_LOG_PERSIST_LINGER_MS("parse.log.persist.linger.ms", 200L),
+    PARSE_LOG_PERSIST_ASYNC("parse.log.persist.async", true),
+    PARSE_LOG_PERSIST_MAX_IN_FLIGHT("parse.log.persist.max.in.flight", 256),
+    PARSE_LOG_PERSIST_MAX_RETRIES("parse.log.persist.max.retries", 3),
+    PARSE_LOG_PERSIST_RETRY_DELAY_MS("parse.log.persist.retry.delay.ms", 100L),
+    PARSE_LOG_PROCESSING_SHARDS("parse.log.processing.shards", Math.max(Runtime.getRuntime().availableProcessors() / 2, 1)),
+    PARSE_LOG_MAPPERS("parse.log.mappers", Math.max(Runtime.getRuntime().availableProcessors() / 2, 1)),
+    PARSE_LOG_PERSISTERS("parse.log.persisters", Math.max(Runtime.getRuntime().availableProcessors() / 2, 1)),
+    PARSE_LOG_WAIT_STRATEGY("parse.log.wait.strategy", "blocking"),
+    PARSE_LOG_JOB_THREADS("parse.log.job.threads", Runtime.getRuntime().availableProcessors()),
+    PARSE_LOG_JOB_MAX_PENDING("parse.log.job.max.pending", 16),
+    PARSE_LOG_JOB_RETENTION_MINUTES("parse.log.job.retention.minutes", 60L),
+    PARSE_LOG_INPUT_SIZE("parse.log.input.size", 8 * 1024),
+    PARSE_LOG_OUTPUT_SIZE("parse.log.output.size", 16 * 1024),
+    PARSE_LOG_REALTIME_INPUT_SIZE("parse.log.realtime.input.size", 1024),
+    PARSE_LOG_REALTIME_OUTPUT_SIZE("parse.log.realtime.output.size", 2 * 1024),
+    PARSE_LOG_REALTIME_MAPPERS("parse.log.realtime.mappers", 1),
+    PARSE_LOG_REALTIME_SHARDS("parse.log.realtime.shards", 1),
+    PARSE_LOG_REALTIME_PERSISTERS("parse.log.realtime.persisters", 1),
+    PARSE_LOG_REALTIME_MAX_IN_FLIGHT("parse.log.realtime.max.in.flight", 64),
+    PARSE_LOG_REALTIME_MAX_RUNNING("parse.log.realtime.max.running", Runtime.getRuntime().availableProcessors()),
+    PARSE_LOG_FAIR_MAX_RUNNING("parse.log.fair.max.running", Runtime.getRuntime().availableProcessors() * 2),
+    PARSE_LOG_FAIR_MAX_RUNNING_PER_TENANT("parse.log.fair.max.running.per.tenant", Math.max(Runtime.getRuntime().availableProcessors() / 2, 1)),
+    PARSE_LOG_FAIR_MAX_QUEUED_PER_TENANT("parse.log.fair.max.queued.per.tenant", 64),
+    PARSE_LOG_FAIR_BY_ANALYSIS("parse.log.fair.by.analysis", false),
+    /**
+     * The comma-separated "accountId=weight" pairs, the other accounts have the weight of 1.
+     */
+    PARSE_LOG_FAIR_WEIGHTS("parse.log.fair.weights", ""),
+    /**
+     * How much of the streamed upload is retained to detect the VM properties and identify the log.
+     */
+    PARSE_LOG_STREAM_HEAD_SIZE("parse.log.stream.head.size", 1024 * 1024),
+    /**
+     * Whether the events are rolled up into the minute, hour and day buckets while being persisted.
+     */
+    PARSE_LOG_ROLLUPS_ENABLED("parse.log.rollups.enabled", true),
+    PARSE_LOG_ROLLUPS_BATCH_SIZE("parse.log.rollups.batch.size", 64),
+    /**
+     * The max number of the rollups writes in flight of the whole pipe, the sessions wait for a free one beyond it.
+     */
+    PARSE_LOG_ROLLUPS_MAX_IN_FLIGHT("parse.log.rollups.max.in.flight", 32),
+    /**
+     * The type of the PartitionGranularity the events of the new analyses are partitioned by,
+     * unless the analysis is created with its own one.
+     */
+    EVENTS_PARTITION_GRANULARITY("events.partition.granularity", 1),
 
     TRIGGERS_POLL_INTERVAL_MS("triggers.poll.interval.ms", 60 * 1000),
     TRIGGERS_EMAIL_ENABLED("triggers.email.enabled", false),
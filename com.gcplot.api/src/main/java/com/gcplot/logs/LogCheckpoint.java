@@ -0,0 +1,75 @@
+package com.gcplot.logs;
+
+/**
+ * The point at which the parsing of a log stopped, so that the next run over the same,
+ * possibly grown, log can resume from it rather than from the start.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class LogCheckpoint {
+    private final String analyseId;
+    public String analyseId() {
+        return analyseId;
+    }
+
+    private final String jvmId;
+    public String jvmId() {
+        return jvmId;
+    }
+
+    /**
+     * Identity of the log, which stays the same while the log grows.
+     */
+    private final String logId;
+    public String logId() {
+        return logId;
+    }
+
+    /**
+     * Number of the uncompressed log bytes which were fully processed.
+     */
+    private final long offset;
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Checksum of the last bytes before {@link #offset()}, to make sure it's still the same log.
+     */
+    private final String tailChecksum;
+    public String tailChecksum() {
+        return tailChecksum;
+    }
+
+    /**
+     * Opaque state of the parser at {@link #offset()}, see {@link ParseResult#getParserState()}.
+     */
+    private final String parserState;
+    public String parserState() {
+        return parserState;
+    }
+
+    public LogCheckpoint(String analyseId, String jvmId, String logId, long offset, String tailChecksum,
+                         String parserState) {
+        this.analyseId = analyseId;
+        this.jvmId = jvmId;
+        this.logId = logId;
+        this.offset = offset;
+        this.tailChecksum = tailChecksum;
+        this.parserState = parserState;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LogCheckpoint{");
+        sb.append("analyseId='").append(analyseId).append('\'');
+        sb.append(", jvmId='").append(jvmId).append('\'');
+        sb.append(", logId='").append(logId).append('\'');
+        sb.append(", offset=").append(offset);
+        sb.append(", tailChecksum='").append(tailChecksum).append('\'');
+        sb.append(", parserState='").append(parserState).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
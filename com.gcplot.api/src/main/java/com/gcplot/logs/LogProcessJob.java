@@ -0,0 +1,101 @@
+package com.gcplot.logs;
+
+import com.gcplot.Identifier;
+
+/**
+ * The log processed in the background, see {@link LogsProcessorService#submit(LogSource, com.gcplot.model.account.Account, String, String)}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class LogProcessJob {
+    private final String id;
+    private final Identifier accountId;
+    private final String analyseId;
+    private final String jvmId;
+    private final long bytesTotal;
+    private final long createdAt;
+    private final LogProcessProgress progress = new LogProcessProgress();
+    private volatile Status status = Status.QUEUED;
+    private volatile String errorMessage;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public LogProcessJob(String id, Identifier accountId, String analyseId, String jvmId, long bytesTotal) {
+        this.id = id;
+        this.accountId = accountId;
+        this.analyseId = analyseId;
+        this.jvmId = jvmId;
+        this.bytesTotal = bytesTotal;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Identifier getAccountId() {
+        return accountId;
+    }
+
+    public String getAnalyseId() {
+        return analyseId;
+    }
+
+    public String getJvmId() {
+        return jvmId;
+    }
+
+    /**
+     * @return the size of the log, or -1 if it's not known upfront
+     */
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public LogProcessProgress getProgress() {
+        return progress;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the error JSON, see {@link LogProcessResult#getErrorMessage()}
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isDone() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public void started() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    public void finished(LogProcessResult result) {
+        errorMessage = result.getErrorMessage();
+        finishedAt = System.currentTimeMillis();
+        status = result.isSuccess() ? Status.SUCCEEDED : Status.FAILED;
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+}
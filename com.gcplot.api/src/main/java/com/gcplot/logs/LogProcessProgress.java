@@ -0,0 +1,61 @@
+package com.gcplot.logs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of a single log processing, updated by the parsing and persisting threads.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class LogProcessProgress {
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder eventsParsed = new LongAdder();
+    private final LongAdder eventsPersisted = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+
+    public void bytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    public void eventParsed() {
+        eventsParsed.increment();
+    }
+
+    public void eventsPersisted(int events) {
+        eventsPersisted.add(events);
+    }
+
+    public void error() {
+        errors.increment();
+    }
+
+    /**
+     * The write was given up, so its events are missing. Counted as an {@link #error()} as well.
+     */
+    public void writeFailed() {
+        failedWrites.increment();
+        errors.increment();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getEventsParsed() {
+        return eventsParsed.sum();
+    }
+
+    public long getEventsPersisted() {
+        return eventsPersisted.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.sum();
+    }
+}
@@ -3,6 +3,7 @@ package com.gcplot.logs;
 import java.io.File;
 import java.io.InputStream;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -20,6 +21,23 @@ public interface LogSource {
 
     Optional<File> localFile();
 
+    /**
+     * @return the checksum provided with the log, or the one of the whole log, which identifies the events bucket
+     */
     String checksum();
 
+    /**
+     * Reads the log once, passing its lines to the consumer while it returns true and calculating
+     * the {@link #checksum()} on the way, if it's not known yet. Otherwise stops as soon as the
+     * consumer is done.
+     */
+    void scan(Predicate<String> lines);
+
+    /**
+     * @return false if the log can be read only once, so it's parsed from the start on the first read
+     */
+    default boolean isReplayable() {
+        return true;
+    }
+
 }
@@ -3,6 +3,10 @@ package com.gcplot.logs;
 import com.gcplot.logs.mapping.Mapper;
 import com.gcplot.model.gc.GCEvent;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -14,6 +18,30 @@ public interface LogsParser<RawEventType> {
      */
     ParseResult parse(InputStream reader, Consumer<RawEventType> eventsConsumer, ParserContext parserContext);
 
+    /**
+     * Parses the stream so that it can be resumed later: only the complete lines are parsed and the result
+     * contains the number of bytes after which the next run should start, along with the parser state
+     * to start it with. The state of the previous run is passed as {@code parserState}, or null if there
+     * was none. Parsers which can't resume return -1 as {@link ParseResult#getConsumedBytes()}.
+     */
+    default ParseResult parse(InputStream reader, Consumer<RawEventType> eventsConsumer, ParserContext parserContext,
+                              String parserState) {
+        return parse(reader, eventsConsumer, parserContext);
+    }
+
+    /**
+     * Parses the uncompressed GC log file. Implementations are free to split the file and parse
+     * its parts concurrently, though the events must be passed to the consumer sequentially and
+     * in the order they appear in the log.
+     */
+    default ParseResult parse(File file, Consumer<RawEventType> eventsConsumer, ParserContext parserContext) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return parse(in, eventsConsumer, parserContext);
+        } catch (IOException e) {
+            return ParseResult.failure(e);
+        }
+    }
+
     Mapper<RawEventType> getMapper();
 
 }
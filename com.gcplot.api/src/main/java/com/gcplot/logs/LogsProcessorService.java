@@ -1,8 +1,11 @@
 package com.gcplot.logs;
 
+import com.gcplot.Identifier;
 import com.gcplot.model.account.Account;
 import com.gcplot.model.gc.analysis.GCAnalyse;
 
+import java.util.Optional;
+
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         2/25/17
@@ -15,4 +18,14 @@ public interface LogsProcessorService {
 
     LogProcessResult process(LogSource log, Account account, GCAnalyse analyse, String jvmId);
 
+    /**
+     * Queues the log for processing in the background, the source is owned by the job since then.
+     */
+    LogProcessJob submit(LogSource log, Account account, String analyzeId, String jvmId);
+
+    /**
+     * @return the job of the account, while it's retained
+     */
+    Optional<LogProcessJob> job(Identifier accountId, String jobId);
+
 }
@@ -31,23 +31,44 @@ public class ParseResult {
         return Optional.ofNullable(logMetadata);
     }
 
-    private ParseResult(List<AgesState> agesState, LogMetadata logMetadata) {
-        this(true, null, agesState, logMetadata);
+    /**
+     * Number of the stream bytes which were fully processed, -1 if the parser can't resume.
+     */
+    private final long consumedBytes;
+    public long getConsumedBytes() {
+        return consumedBytes;
     }
 
-    private ParseResult(boolean isSuccessful, Throwable exception, List<AgesState> agesStates, LogMetadata logMetadata) {
+    private final String parserState;
+    public Optional<String> getParserState() {
+        return Optional.ofNullable(parserState);
+    }
+
+    private ParseResult(List<AgesState> agesState, LogMetadata logMetadata, long consumedBytes, String parserState) {
+        this(true, null, agesState, logMetadata, consumedBytes, parserState);
+    }
+
+    private ParseResult(boolean isSuccessful, Throwable exception, List<AgesState> agesStates, LogMetadata logMetadata,
+                        long consumedBytes, String parserState) {
         this.isSuccessful = isSuccessful;
         this.agesStates = agesStates;
         this.exception = exception;
         this.logMetadata = logMetadata;
+        this.consumedBytes = consumedBytes;
+        this.parserState = parserState;
     }
 
     public static ParseResult success(List<AgesState> agesStates, LogMetadata logMetadata) {
-        return new ParseResult(agesStates, logMetadata);
+        return new ParseResult(agesStates, logMetadata, -1, null);
+    }
+
+    public static ParseResult success(List<AgesState> agesStates, LogMetadata logMetadata, long consumedBytes,
+                                      String parserState) {
+        return new ParseResult(agesStates, logMetadata, consumedBytes, parserState);
     }
 
     public static ParseResult failure(Throwable t) {
-        return new ParseResult(false, t, Collections.emptyList(), null);
+        return new ParseResult(false, t, Collections.emptyList(), null, -1, null);
     }
 
 }
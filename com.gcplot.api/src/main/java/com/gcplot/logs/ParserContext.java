@@ -1,9 +1,12 @@
 package com.gcplot.logs;
 
 import com.gcplot.model.VMVersion;
+import com.gcplot.logs.survivor.AgesState;
 import com.gcplot.model.gc.GarbageCollectorType;
 import org.slf4j.Logger;
 
+import java.util.function.Consumer;
+
 /**
  * Had to move some parameters, which must be passed to the parser, into
  * the special Context, according to well known pattern for such cases -
@@ -45,15 +48,41 @@ public class ParserContext {
         return analysisId;
     }
 
+    /**
+     * The width of the windows the survivor ages are aggregated over, 0 if only the average over
+     * the whole log is needed.
+     */
+    private final long agesWindowMillis;
+    public long agesWindowMillis() {
+        return agesWindowMillis;
+    }
+
+    /**
+     * Receives the survivor ages of every window in the log order, as soon as the window is over.
+     */
+    private final Consumer<AgesState> agesConsumer;
+    public Consumer<AgesState> agesConsumer() {
+        return agesConsumer;
+    }
+
     public ParserContext(Logger logger, String streamChecksum,
                          GarbageCollectorType collectorType, VMVersion vmVersion,
                          String jvmId, String analysisId) {
+        this(logger, streamChecksum, collectorType, vmVersion, jvmId, analysisId, 0, null);
+    }
+
+    public ParserContext(Logger logger, String streamChecksum,
+                         GarbageCollectorType collectorType, VMVersion vmVersion,
+                         String jvmId, String analysisId, long agesWindowMillis,
+                         Consumer<AgesState> agesConsumer) {
         this.logger = logger;
         this.streamChecksum = streamChecksum;
         this.collectorType = collectorType;
         this.vmVersion = vmVersion;
         this.jvmId = jvmId;
         this.analysisId = analysisId;
+        this.agesWindowMillis = agesWindowMillis;
+        this.agesConsumer = agesConsumer;
     }
 
 }
@@ -11,6 +11,14 @@ import java.util.List;
  *         7/30/16
  */
 public class AgesState {
+    /**
+     * Epoch millis of the first collection of the window, or 0 if the state is averaged over the whole log.
+     */
+    private final long occurred;
+    public long getOccurred() {
+        return occurred;
+    }
+
     private final long desiredSurvivorSize;
     public long getDesiredSurvivorSize() {
         return desiredSurvivorSize;
@@ -32,7 +40,12 @@ public class AgesState {
     }
 
     public AgesState(long desiredSurvivorSize, List<Long> occupied, List<Long> total) {
+        this(0L, desiredSurvivorSize, occupied, total);
+    }
+
+    public AgesState(long occurred, long desiredSurvivorSize, List<Long> occupied, List<Long> total) {
         Preconditions.checkState(occupied.size() == total.size(), "Unknown situation where occupied.lenght != total.length");
+        this.occurred = occurred;
         this.desiredSurvivorSize = desiredSurvivorSize;
         this.ages = occupied.size();
         this.occupied = Collections.unmodifiableList(occupied);
@@ -49,7 +62,8 @@ public class AgesState {
     @Override
     public String toString() {
         final StringBuffer sb = new StringBuffer("AgesState{");
-        sb.append("desiredSurvivorSize=").append(desiredSurvivorSize);
+        sb.append("occurred=").append(occurred);
+        sb.append(", desiredSurvivorSize=").append(desiredSurvivorSize);
         sb.append(", ages=").append(ages);
         sb.append(", occupied=").append(occupied);
         sb.append(", total=").append(total);
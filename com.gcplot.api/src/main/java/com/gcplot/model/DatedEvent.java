@@ -10,4 +10,12 @@ public interface DatedEvent {
 
     DateTime occurred();
 
+    /**
+     * The same as {@link #occurred()} in UTC epoch millis, without creating DateTime if the
+     * implementation keeps them.
+     */
+    default long occurredMillis() {
+        return occurred().getMillis();
+    }
+
 }
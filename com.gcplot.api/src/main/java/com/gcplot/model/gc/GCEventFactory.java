@@ -1,7 +1,5 @@
 package com.gcplot.model.gc;
 
-import org.joda.time.DateTime;
-
 import java.util.EnumSet;
 import java.util.Map;
 
@@ -11,7 +9,10 @@ import java.util.Map;
  */
 public interface GCEventFactory {
 
-    GCEvent create(String id, String parentId, String bucketId, DateTime occurred, String description, VMEventType vmEventType,
+    /**
+     * @param occurred UTC epoch millis
+     */
+    GCEvent create(String id, String parentId, String bucketId, long occurred, String description, VMEventType vmEventType,
                    Capacity capacity, Capacity totalCapacity, double timestamp, long pauseMu, double user, double sys, double real,
                    EnumSet<Generation> generations, Phase phase, Cause cause, long properties, EventConcurrency concurrency,
                    Map<Generation, Capacity> generationCapacityMap, String ext);
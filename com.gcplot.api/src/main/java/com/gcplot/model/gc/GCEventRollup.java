@@ -0,0 +1,233 @@
+package com.gcplot.model.gc;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * The aggregate of the events of the same generations, concurrency and phase, which occurred within the same
+ * bucket. Keeps the pauses count and sum, and the events with the shortest and the longest pauses, and with
+ * the lowest and the highest heap usage, so that the long periods are sampled without reading every event.
+ *
+ * The rollups of the same bucket and group are combined with {@link #merge(GCEventRollup)}, since the events
+ * of a bucket might come from a few logs. The rollup of a log is identified by its {@link #source()} and its
+ * first event, so that the log which is processed again overwrites its rollups instead of adding to them.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class GCEventRollup {
+    private final String analyseId;
+    public String analyseId() {
+        return analyseId;
+    }
+
+    private final String jvmId;
+    public String jvmId() {
+        return jvmId;
+    }
+
+    private final RollupGranularity granularity;
+    public RollupGranularity granularity() {
+        return granularity;
+    }
+
+    /**
+     * The start of the bucket, in epoch millis.
+     */
+    private final long bucket;
+    public long bucket() {
+        return bucket;
+    }
+
+    private final EnumSet<Generation> generations;
+    public EnumSet<Generation> generations() {
+        return generations;
+    }
+
+    private final EventConcurrency concurrency;
+    public EventConcurrency concurrency() {
+        return concurrency;
+    }
+
+    private final Phase phase;
+    public Phase phase() {
+        return phase;
+    }
+
+    /**
+     * The log the events are rolled up from, e.g. its bucket id.
+     */
+    private String source;
+    public String source() {
+        return source;
+    }
+    public GCEventRollup source(String source) {
+        this.source = source;
+        return this;
+    }
+
+    /**
+     * The time of the first event added, which tells apart the rollups of the same bucket of a single log,
+     * if the log's events are out of order.
+     */
+    private long firstOccurred;
+    public long firstOccurred() {
+        return firstOccurred;
+    }
+
+    private long count;
+    public long count() {
+        return count;
+    }
+
+    private long pauseSum;
+    public long pauseSum() {
+        return pauseSum;
+    }
+
+    private GCEvent minPause;
+    public GCEvent minPause() {
+        return minPause;
+    }
+
+    private GCEvent maxPause;
+    public GCEvent maxPause() {
+        return maxPause;
+    }
+
+    /**
+     * The event with the lowest heap usage after the collection, or null if no event reported the heap.
+     */
+    private GCEvent minHeap;
+    public GCEvent minHeap() {
+        return minHeap;
+    }
+
+    /**
+     * The event with the highest heap usage before the collection, or null if no event reported the heap.
+     */
+    private GCEvent maxHeap;
+    public GCEvent maxHeap() {
+        return maxHeap;
+    }
+
+    public GCEventRollup(String analyseId, String jvmId, RollupGranularity granularity, long bucket,
+                         EnumSet<Generation> generations, EventConcurrency concurrency, Phase phase) {
+        this.analyseId = analyseId;
+        this.jvmId = jvmId;
+        this.granularity = granularity;
+        this.bucket = bucket;
+        this.generations = generations;
+        this.concurrency = concurrency;
+        this.phase = phase;
+    }
+
+    public GCEventRollup(String analyseId, String jvmId, RollupGranularity granularity, long bucket,
+                         EnumSet<Generation> generations, EventConcurrency concurrency, Phase phase,
+                         long count, long pauseSum, GCEvent minPause, GCEvent maxPause, GCEvent minHeap,
+                         GCEvent maxHeap) {
+        this(analyseId, jvmId, granularity, bucket, generations, concurrency, phase);
+        this.count = count;
+        this.pauseSum = pauseSum;
+        this.minPause = minPause;
+        this.maxPause = maxPause;
+        this.minHeap = minHeap;
+        this.maxHeap = maxHeap;
+    }
+
+    /**
+     * The rollup of the bucket of the event, having no events yet.
+     */
+    public static GCEventRollup of(GCEvent event, RollupGranularity granularity) {
+        return new GCEventRollup(event.analyseId(), event.jvmId(), granularity,
+                granularity.bucket(event.occurredMillis()), event.generations(), event.concurrency(), event.phase());
+    }
+
+    /**
+     * @return whether the event belongs to the same group, regardless of the bucket
+     */
+    public boolean isSameGroup(GCEvent event) {
+        return concurrency == event.concurrency() && phase == event.phase() && generations.equals(event.generations());
+    }
+
+    public boolean isSameGroup(GCEventRollup rollup) {
+        return concurrency == rollup.concurrency && phase == rollup.phase && generations.equals(rollup.generations);
+    }
+
+    public GCEventRollup add(GCEvent event) {
+        if (count == 0) {
+            firstOccurred = event.occurredMillis();
+        }
+        count++;
+        pauseSum += event.pauseMu();
+        minPause = minPause == null || event.pauseMu() < minPause.pauseMu() ? event : minPause;
+        maxPause = maxPause == null || event.pauseMu() > maxPause.pauseMu() ? event : maxPause;
+        if (hasHeap(event)) {
+            minHeap = minHeap == null || event.totalCapacity().usedAfter() < minHeap.totalCapacity().usedAfter() ?
+                    event : minHeap;
+            maxHeap = maxHeap == null || event.totalCapacity().usedBefore() > maxHeap.totalCapacity().usedBefore() ?
+                    event : maxHeap;
+        }
+        return this;
+    }
+
+    /**
+     * Adds the totals and the extreme events of another rollup of the same group.
+     */
+    public GCEventRollup merge(GCEventRollup other) {
+        count += other.count;
+        pauseSum += other.pauseSum;
+        if (other.minPause != null && (minPause == null || other.minPause.pauseMu() < minPause.pauseMu())) {
+            minPause = other.minPause;
+        }
+        if (other.maxPause != null && (maxPause == null || other.maxPause.pauseMu() > maxPause.pauseMu())) {
+            maxPause = other.maxPause;
+        }
+        if (other.minHeap != null && (minHeap == null ||
+                other.minHeap.totalCapacity().usedAfter() < minHeap.totalCapacity().usedAfter())) {
+            minHeap = other.minHeap;
+        }
+        if (other.maxHeap != null && (maxHeap == null ||
+                other.maxHeap.totalCapacity().usedBefore() > maxHeap.totalCapacity().usedBefore())) {
+            maxHeap = other.maxHeap;
+        }
+        return this;
+    }
+
+    /**
+     * @return the distinct extreme events, the most recent ones first
+     */
+    public List<GCEvent> exemplars() {
+        List<GCEvent> events = new ArrayList<>(4);
+        for (GCEvent e : new GCEvent[] { minPause, maxPause, minHeap, maxHeap }) {
+            if (e != null && events.stream().noneMatch(o -> o.occurredMillis() == e.occurredMillis()
+                    && GCEvents.lightEquals(o, e))) {
+                events.add(e);
+            }
+        }
+        events.sort((a, b) -> Long.compare(b.occurredMillis(), a.occurredMillis()));
+        return events;
+    }
+
+    private static boolean hasHeap(GCEvent event) {
+        return event.totalCapacity() != null && !Capacity.NONE.equals(event.totalCapacity());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("GCEventRollup{");
+        sb.append("analyseId='").append(analyseId).append('\'');
+        sb.append(", jvmId='").append(jvmId).append('\'');
+        sb.append(", granularity=").append(granularity);
+        sb.append(", bucket=").append(bucket);
+        sb.append(", generations=").append(generations);
+        sb.append(", concurrency=").append(concurrency);
+        sb.append(", phase=").append(phase);
+        sb.append(", source='").append(source).append('\'');
+        sb.append(", count=").append(count);
+        sb.append(", pauseSum=").append(pauseSum);
+        sb.append('}');
+        return sb.toString();
+    }
+}
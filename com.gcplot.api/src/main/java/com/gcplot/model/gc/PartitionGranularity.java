@@ -0,0 +1,69 @@
+package com.gcplot.model.gc;
+
+import com.gcplot.utils.enums.TypedEnum;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeFieldType;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+/**
+ * The length of the time buckets the events of an analysis are partitioned by. The finer ones keep
+ * the partitions of the busy JVMs small, for the price of more partitions to read for the same period.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public enum PartitionGranularity implements TypedEnum {
+    MONTH(1, DateTimeFieldType.monthOfYear(), "yyyy-MM"),
+    DAY(2, DateTimeFieldType.dayOfMonth(), "yyyy-MM-dd"),
+    HOUR(3, DateTimeFieldType.hourOfDay(), "yyyy-MM-dd'T'HH");
+
+    private final int type;
+    private final DateTimeFieldType field;
+    private final DateTimeFormatter format;
+    private static Int2ObjectMap<PartitionGranularity> types = new Int2ObjectOpenHashMap<>();
+
+    @Override
+    public int type() {
+        return type;
+    }
+
+    /**
+     * @return the start of the partition the given time belongs to
+     */
+    public DateTime floor(DateTime time) {
+        return time.property(field).roundFloorCopy();
+    }
+
+    /**
+     * @return the start of the partition the given amount of partitions after the given one
+     */
+    public DateTime plus(DateTime partition, int amount) {
+        return partition.property(field).addToCopy(amount);
+    }
+
+    /**
+     * @return the partition key of the given time, which is the same in all time zones
+     */
+    public String key(DateTime time) {
+        return format.print(time);
+    }
+
+    public static PartitionGranularity get(int type) {
+        return types.get(type);
+    }
+
+    PartitionGranularity(int type, DateTimeFieldType field, String pattern) {
+        this.type = type;
+        this.field = field;
+        this.format = DateTimeFormat.forPattern(pattern).withZoneUTC();
+    }
+
+    static {
+        for (PartitionGranularity g : PartitionGranularity.values()) {
+            types.put(g.type, g);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.gcplot.model.gc;
+
+import com.gcplot.utils.enums.TypedEnum;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * The length of the buckets the events are rolled up into, see {@link GCEventRollup}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public enum RollupGranularity implements TypedEnum {
+    MINUTE(1, 60), HOUR(2, 60 * 60), DAY(3, 24 * 60 * 60);
+
+    private final int type;
+    private final int seconds;
+    private static Int2ObjectMap<RollupGranularity> types = new Int2ObjectOpenHashMap<>();
+
+    @Override
+    public int type() {
+        return type;
+    }
+
+    public int seconds() {
+        return seconds;
+    }
+
+    public long millis() {
+        return seconds * 1000L;
+    }
+
+    /**
+     * @return the start of the bucket the given time belongs to
+     */
+    public long bucket(long occurred) {
+        return occurred - Math.floorMod(occurred, millis());
+    }
+
+    public static RollupGranularity get(int type) {
+        return types.get(type);
+    }
+
+    /**
+     * @return the coarsest granularity which still fits into the given sampling, or null if there is none
+     */
+    public static RollupGranularity coarsest(long sampleSeconds) {
+        RollupGranularity r = null;
+        for (RollupGranularity g : values()) {
+            if (g.seconds <= sampleSeconds) {
+                r = g;
+            }
+        }
+        return r;
+    }
+
+    RollupGranularity(int type, int seconds) {
+        this.type = type;
+        this.seconds = seconds;
+    }
+
+    static {
+        for (RollupGranularity g : RollupGranularity.values()) {
+            types.put(g.type, g);
+        }
+    }
+}
@@ -10,4 +10,9 @@ public interface VMPropertiesDetector {
 
     VMProperties detect(LogSource source);
 
+    /**
+     * @return the properties revealed by the single log line, or {@link VMProperties#EMPTY}
+     */
+    VMProperties detect(String line);
+
 }
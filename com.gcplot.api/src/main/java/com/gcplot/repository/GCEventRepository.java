@@ -1,6 +1,7 @@
 package com.gcplot.repository;
 
 import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.PartitionGranularity;
 import com.gcplot.utils.Range;
 import org.joda.time.DateTime;
 
@@ -12,6 +13,13 @@ public interface GCEventRepository extends VMEventsRepository<GCEvent> {
 
     Optional<GCEvent> lastEvent(String analyseId, String jvmId, String bucketId, DateTime start);
 
+    /**
+     * Marks the event as the last one of its JVM and bucket, unless some later event is marked already,
+     * so that the last events are looked up with a single read. The event should be persisted along with
+     * every earlier event of the session, the later sessions skip the events up to the marked one.
+     */
+    void updateLastEvent(GCEvent event);
+
     /**
      * Shortened events which contains only basic info about pauses, GC types, etc.
      *
@@ -24,4 +32,17 @@ public interface GCEventRepository extends VMEventsRepository<GCEvent> {
 
     Iterator<GCEvent> lazyPauseEvents(String analyseId, String jvmId, Range range);
 
+    /**
+     * Partitions the events of the new analysis by the given granularity, the analyses which were never
+     * assigned one are partitioned by month. It can't be changed once the analysis has events, since
+     * they are looked up in the partitions of the current granularity only.
+     */
+    void partitionBy(String analyseId, PartitionGranularity granularity);
+
+    /**
+     * The key of the partition the event is written to. The events with equal keys can be
+     * written with a single batch.
+     */
+    Object partitionKey(GCEvent event);
+
 }
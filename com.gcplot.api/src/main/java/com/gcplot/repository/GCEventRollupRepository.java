@@ -0,0 +1,42 @@
+package com.gcplot.repository;
+
+import com.gcplot.model.gc.GCEventRollup;
+import com.gcplot.model.gc.RollupGranularity;
+import com.gcplot.utils.Range;
+import org.joda.time.DateTime;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public interface GCEventRollupRepository {
+
+    /**
+     * @return the rollups of the buckets within the range, the most recent buckets first. The rollups
+     * of the same bucket and group written separately are merged.
+     */
+    Iterator<GCEventRollup> rollups(String analyseId, String jvmId, RollupGranularity granularity, Range range);
+
+    /**
+     * The rollups are added to the ones of the same buckets written before, rather than replace them.
+     *
+     * @return the future which completes once the write is acknowledged, or exceptionally if it fails
+     */
+    CompletableFuture<Void> addAsync(List<GCEventRollup> rollups);
+
+    void erase(String analyseId, String jvmId, Range range);
+
+    /**
+     * @return the time since which all the persisted events of the JVM are rolled up, if any, so the ranges
+     * which start earlier have to be read from the events
+     */
+    Optional<DateTime> coveredFrom(String analyseId, String jvmId);
+
+    void updateCoveredFrom(String analyseId, String jvmId, DateTime coveredFrom);
+
+}
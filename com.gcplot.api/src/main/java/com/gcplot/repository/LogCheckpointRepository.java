@@ -0,0 +1,19 @@
+package com.gcplot.repository;
+
+import com.gcplot.logs.LogCheckpoint;
+
+import java.util.Optional;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public interface LogCheckpointRepository {
+
+    Optional<LogCheckpoint> checkpoint(String analyseId, String jvmId, String logId);
+
+    void save(LogCheckpoint checkpoint);
+
+    void erase(String analyseId, String jvmId);
+
+}
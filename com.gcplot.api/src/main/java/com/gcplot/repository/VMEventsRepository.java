@@ -7,6 +7,7 @@ import org.joda.time.DateTime;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -28,8 +29,11 @@ public interface VMEventsRepository<T extends VMEvent> {
 
     void add(List<T> events);
 
-    void addAsync(T event);
+    /**
+     * @return the future which completes once the write is acknowledged, or exceptionally if it fails
+     */
+    CompletableFuture<Void> addAsync(T event);
 
-    void addAsync(List<T> events);
+    CompletableFuture<Void> addAsync(List<T> events);
 
 }
@@ -1,6 +1,8 @@
 package com.gcplot.resource;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -10,10 +12,28 @@ public interface ResourceManager {
 
     void upload(File file, String newPath, String contentType);
 
+    /**
+     * Uploads whatever the writer writes to the stream while it's being written, without storing it first.
+     * The upload is discarded if the writer fails.
+     *
+     * @param newPath the full path of the resource, including its name
+     */
+    void upload(String newPath, String contentType, ContentWriter writer);
+
     boolean isDisabled();
 
     default void upload(File file, String newPath) {
         upload(file, newPath, null);
     }
 
+    @FunctionalInterface
+    interface ContentWriter {
+
+        /**
+         * The stream may be closed by the writer, e.g. through the wrapping stream.
+         */
+        void write(OutputStream out) throws IOException;
+
+    }
+
 }
@@ -0,0 +1,39 @@
+package com.gcplot.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Secondary results reported by JMH as rates next to ops/s, i.e. MB/s and events/s.
+ * Bytes allocated per event are printed after each iteration; JMH's {@code -prof gc}
+ * gives the same per operation as {@code gc.alloc.rate.norm}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Counters {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    public double megabytes;
+    public long events;
+    private long allocatedBefore;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        events = 0;
+        allocatedBefore = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        if (events > 0) {
+            long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+            System.out.printf("%n%.1f bytes allocated per event%n", (double) allocated / events);
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.gcplot.benchmarks;
+
+import com.gcplot.log_processor.generator.GCLogGenerator;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.model.VMVersion;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.helpers.NOPLogger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The log to be processed by a benchmark operation, either a test one repeated up to {@link #TARGET_SIZE}
+ * or a generated one of that size, optionally gzipped, as uploads usually are.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+@State(Scope.Benchmark)
+public class LogState {
+    private static final int TARGET_SIZE = 8 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Log {
+        G1("gc_logs/g1_log_1.log", GarbageCollectorType.ORACLE_G1),
+        CMS("gc_logs/cms_full_gc_log.log", GarbageCollectorType.ORACLE_CMS),
+        PARALLEL_OLD("par_old_pigsty_log_1.log", GarbageCollectorType.ORACLE_PAR_OLD_GC),
+        SYNTHETIC_G1(null, GarbageCollectorType.ORACLE_G1),
+        SYNTHETIC_CMS(null, GarbageCollectorType.ORACLE_CMS),
+        SYNTHETIC_PARALLEL_OLD(null, GarbageCollectorType.ORACLE_PAR_OLD_GC);
+
+        private final String resource;
+        private final GarbageCollectorType collectorType;
+
+        Log(String resource, GarbageCollectorType collectorType) {
+            this.resource = resource;
+            this.collectorType = collectorType;
+        }
+    }
+
+    @Param({"G1", "CMS", "PARALLEL_OLD", "SYNTHETIC_G1", "SYNTHETIC_CMS", "SYNTHETIC_PARALLEL_OLD"})
+    public Log log;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private byte[] data;
+    private long size;
+    private ParserContext ctx;
+
+    @Setup
+    public void setup() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(TARGET_SIZE * 2);
+        try (OutputStream os = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out) {
+            if (log.resource == null) {
+                GCLogGenerator generator = new GCLogGenerator();
+                generator.setCollectorType(log.collectorType);
+                generator.setSize(TARGET_SIZE);
+                CountingOutputStream cos = new CountingOutputStream(os);
+                generator.generate(cos);
+                size = cos.getCount();
+            } else {
+                byte[] raw;
+                try (InputStream in = getClass().getClassLoader().getResourceAsStream(log.resource)) {
+                    raw = ByteStreams.toByteArray(in);
+                }
+                for (size = 0; size < TARGET_SIZE; size += raw.length) {
+                    os.write(raw);
+                }
+            }
+        }
+        data = out.toByteArray();
+        ctx = new ParserContext(NOPLogger.NOP_LOGGER, "benchmark", log.collectorType, VMVersion.HOTSPOT_1_8,
+                "jvm", UUID.randomUUID().toString());
+    }
+
+    public InputStream open() throws IOException {
+        InputStream in = new ByteArrayInputStream(data);
+        return gzip ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    public void forEachLine(Consumer<String> lines) throws IOException {
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(open(), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                lines.accept(line);
+            }
+        }
+    }
+
+    public ParserContext context() {
+        return ctx;
+    }
+
+    /**
+     * @return the uncompressed size of the log
+     */
+    public double megabytes() {
+        return size / (1024d * 1024d);
+    }
+
+}
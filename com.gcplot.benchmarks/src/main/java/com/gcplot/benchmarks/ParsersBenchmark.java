@@ -0,0 +1,64 @@
+package com.gcplot.benchmarks;
+
+import com.gcplot.log_processor.parser.adapter.GCViewerLogsParser;
+import com.gcplot.log_processor.parser.hotspot.HotSpotLogsParser;
+import com.gcplot.logs.ParseResult;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.model.DefaultGCEventFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole log parsing, including the mapping to {@link com.gcplot.model.gc.GCEvent}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class ParsersBenchmark {
+    private GCViewerLogsParser gcViewerParser;
+    private HotSpotLogsParser hotSpotParser;
+
+    @Setup
+    public void setup() {
+        gcViewerParser = new GCViewerLogsParser();
+        gcViewerParser.setEventFactory(new DefaultGCEventFactory());
+        hotSpotParser = new HotSpotLogsParser();
+        hotSpotParser.setEventFactory(new DefaultGCEventFactory());
+    }
+
+    @Benchmark
+    public ParseResult gcViewer(LogState log, Counters counters, Blackhole bh) throws IOException {
+        ParserContext ctx = log.context();
+        try (InputStream in = log.open()) {
+            ParseResult r = gcViewerParser.parse(in, e -> {
+                bh.consume(gcViewerParser.getMapper().map(ctx, e));
+                counters.events++;
+            }, ctx);
+            counters.megabytes += log.megabytes();
+            return r;
+        }
+    }
+
+    @Benchmark
+    public ParseResult hotSpot(LogState log, Counters counters, Blackhole bh) throws IOException {
+        try (InputStream in = log.open()) {
+            ParseResult r = hotSpotParser.parse(in, e -> {
+                bh.consume(e);
+                counters.events++;
+            }, log.context());
+            counters.megabytes += log.megabytes();
+            return r;
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.gcplot.benchmarks;
+
+import com.gcplot.log_processor.parser.detect.DefaultVMPropertiesDetector;
+import com.gcplot.log_processor.parser.producers.v8.MetadataInfoProducer;
+import com.gcplot.log_processor.parser.producers.v8.SurvivorAgesInfoProducer;
+import com.gcplot.logs.LogMetadata;
+import com.gcplot.logs.survivor.AgesState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The line consumers which run next to the parser, fed with every line of the log.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms1g", "-Xmx1g" })
+public class ProducersBenchmark {
+    private final DefaultVMPropertiesDetector detector = new DefaultVMPropertiesDetector();
+
+    @Benchmark
+    public AgesState survivorAges(LogState log, Counters counters) throws IOException {
+        SurvivorAgesInfoProducer producer = new SurvivorAgesInfoProducer();
+        log.forEachLine(producer::parse);
+        counters.megabytes += log.megabytes();
+        return producer.averageAgesState();
+    }
+
+    @Benchmark
+    public LogMetadata metadata(LogState log, Counters counters) throws IOException {
+        MetadataInfoProducer producer = new MetadataInfoProducer();
+        log.forEachLine(producer::parse);
+        counters.megabytes += log.megabytes();
+        return producer.getLogMetadata();
+    }
+
+    @Benchmark
+    public void vmProperties(LogState log, Counters counters, Blackhole bh) throws IOException {
+        log.forEachLine(line -> bh.consume(detector.detect(line)));
+        counters.megabytes += log.megabytes();
+    }
+
+}
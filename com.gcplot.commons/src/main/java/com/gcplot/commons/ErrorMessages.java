@@ -27,6 +27,7 @@ public class ErrorMessages {
     public static final long UNKNOWN_JVM_ID = 0x202;
     public static final long LOG_FILE_UNDETECTABLE = 0x203;
     public static final long GC_ANALYZE_SOURCE_ERROR = 0x204;
+    public static final long LOGS_QUEUE_IS_FULL = 0x205;
 
     public static final long INVALID_REQUEST_PARAM = 0x301;
     public static final long SERVING_IS_DISABLED = 0x999;
@@ -62,6 +63,7 @@ public class ErrorMessages {
         errorMessages.put(RESOURCE_NOT_FOUND_RESPONSE, "Requested resource was not found in the system.");
         errorMessages.put(ACCESS_DENIED, "The access to the given resource is denied by the internal role system.");
         errorMessages.put(LOG_FILE_UNDETECTABLE, "Unable to detect JVM version or GC type from the log file.");
+        errorMessages.put(LOGS_QUEUE_IS_FULL, "Too many logs are waiting for processing. Please try again in a few minutes.");
         errorMessages.put(SERVING_IS_DISABLED, "Application is on a maintenance. Please try again in a few minutes.");
     }
 
@@ -46,14 +46,15 @@ public abstract class FileUtils {
         while ((bytesCount = fis.read(byteArray)) != -1) {
             digest.update(byteArray, 0, bytesCount);
         }
-        byte[] bytes = digest.digest();
+        //return complete hash
+        return hex(digest.digest());
+    }
 
+    public static String hex(byte[] bytes) {
         StringBuilder sb = new StringBuilder();
         for (byte aByte : bytes) {
             sb.append(Integer.toString((aByte & 0xff) + 0x100, 16).substring(1));
         }
-
-        //return complete hash
         return sb.toString();
     }
 
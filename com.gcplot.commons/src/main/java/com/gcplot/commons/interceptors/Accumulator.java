@@ -4,7 +4,6 @@ import com.gcplot.model.gc.Capacity;
 import com.gcplot.model.gc.GCEvent;
 import com.gcplot.model.gc.GCEventFactory;
 import com.gcplot.model.gc.Phase;
-import org.joda.time.DateTime;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -20,8 +19,9 @@ public class Accumulator implements EventInterceptor<GCEvent> {
     private final Predicate<GCEvent> eventChooser;
     private final GCEventFactory eventFactory;
     private List<GCEvent> tenured = new ArrayList<>();
-    private DateTime edge = null;
-    private DateTime edgeMinus = null;
+    private boolean hasEdge = false;
+    private long edge;
+    private long edgeMinus;
 
     public Accumulator(int windowSeconds, GCEventFactory eventFactory,
                        Predicate<GCEvent> eventChooser) {
@@ -37,10 +37,10 @@ public class Accumulator implements EventInterceptor<GCEvent> {
 
     @Override
     public List<GCEvent> process(GCEvent event) {
-        if (edge == null) {
+        if (!hasEdge) {
             edge(event);
         }
-        if (edgeMinus.isBefore(event.occurred()) || edge == event.occurred()) {
+        if (edgeMinus < event.occurredMillis() || edge == event.occurredMillis()) {
             tenured.add(event);
             return Collections.emptyList();
         } else {
@@ -79,7 +79,8 @@ public class Accumulator implements EventInterceptor<GCEvent> {
     }
 
     private void edge(GCEvent event) {
-        edge = event.occurred();
-        edgeMinus = edge.minusSeconds(windowSeconds);
+        hasEdge = true;
+        edge = event.occurredMillis();
+        edgeMinus = edge - windowSeconds * 1000L;
     }
 }
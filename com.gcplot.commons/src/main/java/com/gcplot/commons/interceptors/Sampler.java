@@ -2,7 +2,6 @@ package com.gcplot.commons.interceptors;
 
 import com.gcplot.model.gc.GCEvent;
 import com.gcplot.model.gc.GCEvents;
-import org.joda.time.DateTime;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -18,8 +17,8 @@ public class Sampler implements EventInterceptor<GCEvent> {
     private final int sampleSeconds;
     private final boolean reverse;
     private EventsBundle events = new EventsBundle();
-    private DateTime edge = null;
-    private DateTime edgeTime = null;
+    private boolean hasEdge = false;
+    private long edgeTime;
 
     public Sampler(int sampleSeconds, Predicate<GCEvent> applyTo) {
         this(sampleSeconds, applyTo, false);
@@ -51,7 +50,7 @@ public class Sampler implements EventInterceptor<GCEvent> {
     protected List<GCEvent> process(GCEvent event, EventsBundle b) {
         initialProcess(event, b);
         List<GCEvent> events = Collections.emptyList();
-        boolean shouldSample = (reverse ? edgeTime.isAfter(event.occurred()) : edgeTime.isBefore(event.occurred()));
+        boolean shouldSample = (reverse ? edgeTime > event.occurredMillis() : edgeTime < event.occurredMillis());
         if (shouldSample) {
             if (event.pauseMu() < b.getMin().pauseMu()) {
                 b.setMin(event);
@@ -75,7 +74,7 @@ public class Sampler implements EventInterceptor<GCEvent> {
         if (b.getMax() == null) {
             b.setMax(event);
         }
-        if (edge == null) {
+        if (!hasEdge) {
             edge(event);
         }
     }
@@ -114,8 +113,9 @@ public class Sampler implements EventInterceptor<GCEvent> {
     }
 
     protected void edge(GCEvent event) {
-        edge = event.occurred();
-        edgeTime = reverse ? edge.plusSeconds(sampleSeconds) : edge.minusSeconds(sampleSeconds);
+        hasEdge = true;
+        long sampleMillis = sampleSeconds * 1000L;
+        edgeTime = reverse ? event.occurredMillis() + sampleMillis : event.occurredMillis() - sampleMillis;
     }
 
 }
@@ -1,7 +1,6 @@
 package com.gcplot.model;
 
 import com.gcplot.model.gc.*;
-import org.joda.time.DateTime;
 
 import java.util.EnumSet;
 import java.util.Map;
@@ -13,7 +12,7 @@ import java.util.Map;
 public class DefaultGCEventFactory implements GCEventFactory {
 
     @Override
-    public GCEvent create(String id, String parentId, String bucketId, DateTime occurred, String description, VMEventType vmEventType,
+    public GCEvent create(String id, String parentId, String bucketId, long occurred, String description, VMEventType vmEventType,
                           Capacity capacity, Capacity totalCapacity, double timestamp, long pauseMu, double user, double sys, double real,
                           EnumSet<Generation> generations, Phase phase, Cause cause, long properties, EventConcurrency concurrency,
                           Map<Generation, Capacity> generationCapacityMap, String ext) {
@@ -21,7 +20,7 @@ public class DefaultGCEventFactory implements GCEventFactory {
         event.id(id);
         event.parentEvent(parentId);
         event.bucketId(bucketId);
-        event.occurred(occurred);
+        event.occurredMillis(occurred);
         event.description(description);
         event.vmEventType(vmEventType);
         event.capacity(capacity);
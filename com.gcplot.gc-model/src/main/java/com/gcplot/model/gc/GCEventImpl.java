@@ -1,6 +1,7 @@
 package com.gcplot.model.gc;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 
 import java.util.Collections;
 import java.util.EnumSet;
@@ -65,9 +66,18 @@ public class GCEventImpl implements GCEvent {
 
     @Override
     public DateTime occurred() {
-        return occurred;
+        return occurred == NONE ? null : new DateTime(occurred, DateTimeZone.UTC);
     }
     public GCEventImpl occurred(DateTime occurred) {
+        this.occurred = occurred == null ? NONE : occurred.getMillis();
+        return this;
+    }
+
+    @Override
+    public long occurredMillis() {
+        return occurred;
+    }
+    public GCEventImpl occurredMillis(long occurred) {
         this.occurred = occurred;
         return this;
     }
@@ -217,7 +227,7 @@ public class GCEventImpl implements GCEvent {
         this.parentEvent = other.parentEvent().orElse(null);
         this.analyseId = other.analyseId();
         this.description = other.description();
-        this.occurred = other.occurred();
+        this.occurred = other.occurred() == null ? NONE : other.occurredMillis();
         this.timestamp = other.timestamp();
         this.vmEventType = other.vmEventType();
         this.phase = other.phase();
@@ -235,13 +245,18 @@ public class GCEventImpl implements GCEvent {
         this.ext = other.ext();
     }
 
+    /**
+     * The value of {@link #occurred} when it's not set.
+     */
+    protected static final long NONE = Long.MIN_VALUE;
+
     protected String id;
     protected String jvmId;
     protected String bucketId;
     protected String parentEvent;
     protected String analyseId;
     protected String description;
-    protected DateTime occurred;
+    protected long occurred = NONE;
     protected double timestamp;
     protected VMEventType vmEventType;
     protected Phase phase;
@@ -277,7 +292,7 @@ public class GCEventImpl implements GCEvent {
         if (parentEvent != null ? !parentEvent.equals(gcEvent.parentEvent) : gcEvent.parentEvent != null) return false;
         if (analyseId != null ? !analyseId.equals(gcEvent.analyseId) : gcEvent.analyseId != null) return false;
         if (description != null ? !description.equals(gcEvent.description) : gcEvent.description != null) return false;
-        if (occurred != null ? !occurred.equals(gcEvent.occurred) : gcEvent.occurred != null) return false;
+        if (occurred != gcEvent.occurred) return false;
         if (vmEventType != gcEvent.vmEventType) return false;
         if (phase != gcEvent.phase) return false;
         if (cause != gcEvent.cause) return false;
@@ -299,7 +314,7 @@ public class GCEventImpl implements GCEvent {
         result = 31 * result + (parentEvent != null ? parentEvent.hashCode() : 0);
         result = 31 * result + (analyseId != null ? analyseId.hashCode() : 0);
         result = 31 * result + (description != null ? description.hashCode() : 0);
-        result = 31 * result + (occurred != null ? occurred.hashCode() : 0);
+        result = 31 * result + (int) (occurred ^ (occurred >>> 32));
         temp = Double.doubleToLongBits(timestamp);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
         result = 31 * result + (vmEventType != null ? vmEventType.hashCode() : 0);
@@ -330,7 +345,7 @@ public class GCEventImpl implements GCEvent {
         sb.append(", parentEvent='").append(parentEvent).append('\'');
         sb.append(", analyseId='").append(analyseId).append('\'');
         sb.append(", description='").append(description).append('\'');
-        sb.append(", occurred=").append(occurred);
+        sb.append(", occurred=").append(occurred());
         sb.append(", timestamp=").append(timestamp);
         sb.append(", vmEventType=").append(vmEventType);
         sb.append(", phase=").append(phase);
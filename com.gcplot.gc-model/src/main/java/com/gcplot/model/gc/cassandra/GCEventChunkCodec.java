@@ -0,0 +1,231 @@
+package com.gcplot.model.gc.cassandra;
+
+import com.gcplot.model.gc.*;
+import com.gcplot.utils.Exceptions;
+import com.gcplot.utils.enums.EnumSetUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Packs the events into the compressed chunk. The numbers are written as the zigzag varints of their deltas
+ * from the previous event, since the neighbour events have mostly the same capacities and close timestamps,
+ * and the doubles with up to 3 decimals, like the JVM uptime and times, as the varints of the millis.
+ * The bucket ids are written once per chunk and referenced afterwards.
+ *
+ * Only the fields the events repository returns are kept.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public abstract class GCEventChunkCodec {
+    private static final int VERSION = 1;
+    private static final int RAW_TIMESTAMP = 1;
+    private static final int RAW_USER = 2;
+    private static final int RAW_SYS = 4;
+    private static final int NULL_BUCKET = 0;
+    private static final int NEW_BUCKET = 1;
+
+    public static ByteBuffer encode(List<GCEvent> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(events.size() * 32);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeByte(VERSION);
+            writeVarLong(out, events.size());
+            Map<String, Integer> buckets = new HashMap<>();
+            GCEvent prev = null;
+            long prevTimestamp = 0;
+            for (GCEvent e : events) {
+                long timestamp = millis(e.timestamp());
+                long user = millis(e.user());
+                long sys = millis(e.sys());
+                int flags = (timestamp == Long.MIN_VALUE ? RAW_TIMESTAMP : 0) | (user == Long.MIN_VALUE ? RAW_USER : 0)
+                        | (sys == Long.MIN_VALUE ? RAW_SYS : 0);
+                writeVarLong(out, flags);
+                writeZigZag(out, e.occurredMillis() - (prev != null ? prev.occurredMillis() : 0));
+                if (timestamp == Long.MIN_VALUE) {
+                    out.writeDouble(e.timestamp());
+                } else {
+                    writeZigZag(out, timestamp - prevTimestamp);
+                    prevTimestamp = timestamp;
+                }
+                writeDouble(out, e.user(), user);
+                writeDouble(out, e.sys(), sys);
+                writeZigZag(out, e.pauseMu());
+                writeZigZag(out, e.vmEventType().type());
+                writeZigZag(out, e.phase().type());
+                writeZigZag(out, e.cause().type());
+                writeZigZag(out, e.concurrency().type());
+                writeVarLong(out, EnumSetUtils.encode(e.generations()));
+                writeZigZag(out, e.properties());
+                writeCapacity(out, e.capacity(), prev != null ? prev.capacity() : Capacity.NONE);
+                writeCapacity(out, e.totalCapacity(), prev != null ? prev.totalCapacity() : Capacity.NONE);
+                Map<Generation, Capacity> byGeneration = e.capacityByGeneration();
+                writeVarLong(out, byGeneration != null ? byGeneration.size() : 0);
+                if (byGeneration != null) {
+                    for (Map.Entry<Generation, Capacity> c : byGeneration.entrySet()) {
+                        writeZigZag(out, c.getKey().type());
+                        writeCapacity(out, c.getValue(), Capacity.NONE);
+                    }
+                }
+                writeBucket(out, e.bucketId(), buckets);
+                prev = e;
+            }
+        } catch (IOException e) {
+            throw Exceptions.runtime(e);
+        } finally {
+            deflater.end();
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    /**
+     * @return the events in the order they were encoded, with all the fields of the chunk set
+     */
+    public static List<GCEventImpl> decode(ByteBuffer chunk) {
+        byte[] data = new byte[chunk.remaining()];
+        chunk.duplicate().get(data);
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data), inflater))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unknown events chunk version: " + version);
+            }
+            int count = (int) readVarLong(in);
+            List<GCEventImpl> events = new ArrayList<>(count);
+            List<String> buckets = new ArrayList<>();
+            long occurred = 0;
+            long timestamp = 0;
+            Capacity capacity = Capacity.NONE;
+            Capacity totalCapacity = Capacity.NONE;
+            for (int i = 0; i < count; i++) {
+                GCEventImpl e = new GCEventImpl();
+                int flags = (int) readVarLong(in);
+                occurred += readZigZag(in);
+                e.occurredMillis(occurred);
+                if ((flags & RAW_TIMESTAMP) != 0) {
+                    e.timestamp(in.readDouble());
+                } else {
+                    timestamp += readZigZag(in);
+                    e.timestamp(timestamp / 1000d);
+                }
+                e.user((flags & RAW_USER) != 0 ? in.readDouble() : readZigZag(in) / 1000d);
+                e.sys((flags & RAW_SYS) != 0 ? in.readDouble() : readZigZag(in) / 1000d);
+                e.pauseMu(readZigZag(in))
+                        .vmEventType(VMEventType.get((int) readZigZag(in)))
+                        .phase(Phase.get((int) readZigZag(in)))
+                        .cause(Cause.get((int) readZigZag(in)))
+                        .concurrency(EventConcurrency.get((int) readZigZag(in)))
+                        .generations(EnumSetUtils.decode(readVarLong(in), Generation.class))
+                        .properties(readZigZag(in));
+                capacity = readCapacity(in, capacity);
+                totalCapacity = readCapacity(in, totalCapacity);
+                e.capacity(capacity).totalCapacity(totalCapacity);
+                int generations = (int) readVarLong(in);
+                Map<Generation, Capacity> byGeneration = generations == 0 ? Collections.emptyMap() :
+                        new IdentityHashMap<>(generations);
+                for (int j = 0; j < generations; j++) {
+                    byGeneration.put(Generation.get((int) readZigZag(in)), readCapacity(in, Capacity.NONE));
+                }
+                e.capacityByGeneration(byGeneration);
+                e.bucketId(readBucket(in, buckets));
+                events.add(e);
+            }
+            return events;
+        } catch (IOException e) {
+            throw Exceptions.runtime(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @return Long.MIN_VALUE if the value can't be restored from its millis exactly
+     */
+    private static long millis(double value) {
+        long millis = Math.round(value * 1000);
+        return millis != Long.MIN_VALUE && millis != Long.MAX_VALUE && millis / 1000d == value ? millis : Long.MIN_VALUE;
+    }
+
+    private static void writeDouble(DataOutput out, double value, long millis) throws IOException {
+        if (millis == Long.MIN_VALUE) {
+            out.writeDouble(value);
+        } else {
+            writeZigZag(out, millis);
+        }
+    }
+
+    private static void writeCapacity(DataOutput out, Capacity c, Capacity prev) throws IOException {
+        writeZigZag(out, c.usedBefore() - prev.usedBefore());
+        writeZigZag(out, c.usedAfter() - prev.usedAfter());
+        writeZigZag(out, c.total() - prev.total());
+    }
+
+    private static Capacity readCapacity(DataInput in, Capacity prev) throws IOException {
+        return Capacity.of(prev.usedBefore() + readZigZag(in), prev.usedAfter() + readZigZag(in),
+                prev.total() + readZigZag(in));
+    }
+
+    private static void writeBucket(DataOutput out, String bucketId, Map<String, Integer> buckets) throws IOException {
+        if (bucketId == null) {
+            writeVarLong(out, NULL_BUCKET);
+            return;
+        }
+        Integer index = buckets.get(bucketId);
+        if (index == null) {
+            buckets.put(bucketId, buckets.size());
+            writeVarLong(out, NEW_BUCKET);
+            out.writeUTF(bucketId);
+        } else {
+            writeVarLong(out, index + 2);
+        }
+    }
+
+    private static String readBucket(DataInput in, List<String> buckets) throws IOException {
+        int code = (int) readVarLong(in);
+        if (code == NULL_BUCKET) {
+            return null;
+        } else if (code == NEW_BUCKET) {
+            String bucketId = in.readUTF();
+            buckets.add(bucketId);
+            return bucketId;
+        } else {
+            return buckets.get(code - 2);
+        }
+    }
+
+    private static void writeZigZag(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readZigZag(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+}
@@ -3,6 +3,7 @@ package com.gcplot.model.gc.cassandra;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.gcplot.Identifier;
+import com.gcplot.logs.LogCheckpoint;
 import com.gcplot.model.gc.analysis.GCAnalyse;
 import com.gcplot.utils.enums.EnumSetUtils;
 import com.gcplot.model.VMVersion;
@@ -108,7 +109,7 @@ public abstract class Mapper {
         }
         GCEventImpl gcEvent = new GCEventImpl();
         try {
-            gcEvent.occurred(new DateTime(row.getTimestamp(0), DateTimeZone.UTC))
+            gcEvent.occurredMillis(row.getTimestamp(0).getTime())
                     .pauseMu(row.getLong(1))
                     .timestamp(row.getDouble(2))
                     .generations(EnumSetUtils.decode(row.getLong(3), Generation.class))
@@ -146,7 +147,6 @@ public abstract class Mapper {
         try {
             gcEvent.bucketId(op(row, "bucket_id", r -> r.getString("bucket_id")))
                     .timestamp(dop(row, "tmstm", r -> r.getDouble("tmstm")))
-                    .occurred(op(row, "occurred", r -> new DateTime(r.getTimestamp("occurred"), DateTimeZone.UTC)))
                     .vmEventType(op(row, "vm_event_type", r -> VMEventType.get(r.getInt("vm_event_type"))))
                     .capacity(op(row, "capacity", r -> new Capacity(r.getList("capacity", Long.class))))
                     .totalCapacity(op(row, "total_capacity", r -> new Capacity(r.getList("total_capacity", Long.class))))
@@ -158,6 +158,9 @@ public abstract class Mapper {
                     .properties(lop(row, "properties", r -> r.getLong("properties")))
                     .generations(op(row, "generations", r -> EnumSetUtils.decode(r.getLong("generations"), Generation.class)))
                     .concurrency(op(row, "concurrency", r -> EventConcurrency.get(r.getInt("concurrency"))));
+            if (row.getColumnDefinitions().contains("occurred")) {
+                gcEvent.occurredMillis(row.getTimestamp("occurred").getTime());
+            }
 
             mapGenerations(row, gcEvent, true);
         } catch (Throwable t) {
@@ -213,6 +216,14 @@ public abstract class Mapper {
         return objectsAge;
     }
 
+    public static LogCheckpoint logCheckpointFrom(Row r) {
+        if (r == null) {
+            return null;
+        }
+        return new LogCheckpoint(r.getUUID("analyse_id").toString(), r.getString("jvm_id"), r.getString("log_id"),
+                r.getLong("log_offset"), r.getString("tail_checksum"), r.getString("parser_state"));
+    }
+
     private static <T> T op(Row row, String name, Function<Row, T> f) {
         if (row.getColumnDefinitions().contains(name)) {
             return f.apply(row);
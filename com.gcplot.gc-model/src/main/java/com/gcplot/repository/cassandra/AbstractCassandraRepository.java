@@ -1,13 +1,31 @@
 package com.gcplot.repository.cassandra;
 
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.gcplot.cassandra.CassandraConnector;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         8/4/16
  */
 public abstract class AbstractCassandraRepository {
+    private final ConcurrentMap<String, PreparedStatement> preparedStatements = new ConcurrentHashMap<>();
 
     public void init() {
         Preconditions.checkNotNull(connector, "Cassandra connector is required.");
@@ -29,4 +47,61 @@ public abstract class AbstractCassandraRepository {
         this.fetchSize = fetchSize;
     }
 
+    /**
+     * The max number of partitions read at once, when a range spans a few of them.
+     */
+    protected int readParallelism = 1;
+    public int getReadParallelism() {
+        return readParallelism;
+    }
+    public void setReadParallelism(int readParallelism) {
+        this.readParallelism = readParallelism;
+    }
+
+    /**
+     * Prepares the statement on the first use and caches it by the name.
+     */
+    protected PreparedStatement prepared(String name, Supplier<RegularStatement> statement) {
+        PreparedStatement ps = preparedStatements.get(name);
+        if (ps == null) {
+            ps = preparedStatements.computeIfAbsent(name, k -> connector.session().prepare(statement.get()));
+        }
+        return ps;
+    }
+
+    /**
+     * @param fetchSize of the statements, the next page is requested once a quarter of the current one is left
+     * @return the rows of the statements in their order, see {@link PrefetchingRowIterator}
+     */
+    protected Iterator<Row> rows(Iterator<? extends Statement> statements, int parallelism, int fetchSize) {
+        return new PrefetchingRowIterator(connector.session(), statements, parallelism, fetchSize / 4);
+    }
+
+    /**
+     * Builds the insert with the bind markers of the given columns, in the same order.
+     */
+    protected static RegularStatement insertStatement(String table, String[] columns) {
+        Insert insert = QueryBuilder.insertInto(table);
+        for (String column : columns) {
+            insert.value(column, QueryBuilder.bindMarker());
+        }
+        return insert;
+    }
+
+    protected CompletableFuture<Void> completable(ResultSetFuture rsf) {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        Futures.addCallback(rsf, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet result) {
+                f.complete(null);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                f.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        return f;
+    }
+
 }
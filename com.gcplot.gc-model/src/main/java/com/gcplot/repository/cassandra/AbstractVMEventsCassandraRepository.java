@@ -1,11 +1,12 @@
 package com.gcplot.repository.cassandra;
 
-import com.datastax.driver.core.RegularStatement;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Statement;
 import com.gcplot.model.VMEvent;
 import com.gcplot.repository.VMEventsRepository;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -14,7 +15,10 @@ import java.util.List;
 public abstract class AbstractVMEventsCassandraRepository<T extends VMEvent> extends AbstractCassandraRepository
         implements VMEventsRepository<T> {
 
-    abstract RegularStatement addStatement(T event);
+    /**
+     * @return the bound insert of the event, see {@link #prepared(String, java.util.function.Supplier)}
+     */
+    abstract Statement addStatement(T event);
 
     @Override
     public void add(T event) {
@@ -23,19 +27,25 @@ public abstract class AbstractVMEventsCassandraRepository<T extends VMEvent> ext
 
     @Override
     public void add(List<T> events) {
-        connector.session().execute(
-                QueryBuilder.unloggedBatch(events.stream().map(this::addStatement).toArray(RegularStatement[]::new)).setIdempotent(true));
+        connector.session().execute(batch(events));
     }
 
     @Override
-    public void addAsync(T event) {
-        connector.session().executeAsync(addStatement(event).setIdempotent(true));
+    public CompletableFuture<Void> addAsync(T event) {
+        return completable(connector.session().executeAsync(addStatement(event).setIdempotent(true)));
     }
 
     @Override
-    public void addAsync(List<T> events) {
-        connector.session().executeAsync(
-                QueryBuilder.unloggedBatch(events.stream().map(this::addStatement).toArray(RegularStatement[]::new)).setIdempotent(true));
+    public CompletableFuture<Void> addAsync(List<T> events) {
+        return completable(connector.session().executeAsync(batch(events)));
+    }
+
+    protected Statement batch(List<T> events) {
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        for (T event : events) {
+            batch.add(addStatement(event));
+        }
+        return batch.setIdempotent(true);
     }
 
 }
@@ -0,0 +1,277 @@
+package com.gcplot.repository.cassandra;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.utils.UUIDs;
+import com.gcplot.model.gc.Capacity;
+import com.gcplot.model.gc.Cause;
+import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GCEventImpl;
+import com.gcplot.model.gc.Generation;
+import com.gcplot.model.gc.cassandra.GCEventChunkCodec;
+import com.gcplot.utils.Range;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.*;
+
+/**
+ * Stores the events packed into the compressed chunks, see {@link GCEventChunkCodec}, instead of a row per event.
+ * Every write appends a chunk per hour of its events, and the reads decode the whole hours at once, so a long
+ * period costs a few rows per hour instead of a row per event.
+ *
+ * The events are returned the same way as {@link CassandraGCEventRepository} does, the most recent ones first
+ * and with the same fields loaded.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class CassandraGCEventChunkRepository extends CassandraGCEventRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CassandraGCEventChunkRepository.class);
+    protected static final String CHUNK_TABLE_NAME = "gc_event_chunk";
+    protected static final long HOUR_MILLIS = 60 * 60 * 1000;
+    /**
+     * The order of the bind markers of the insert, see {@link #chunkStatement(List)}.
+     */
+    protected static final String[] CHUNK_INSERT_FIELDS = new String[] {
+            "analyse_id", "jvm_id", "date", "hour", "seq", "data" };
+    /**
+     * Only the latest hours are needed for the last event.
+     */
+    private static final int LAST_EVENT_FETCH_SIZE = 16;
+
+    @Override
+    protected Optional<GCEvent> scanLastEvent(String analyseId, String jvmId, String bucketId, DateTime start) {
+        Iterator<GCEventImpl> i = events0(analyseId, jvmId, sinceMonthStart(start), LAST_EVENT_FETCH_SIZE, 1);
+        while (i.hasNext()) {
+            GCEventImpl e = i.next();
+            if (Objects.equals(bucketId, e.bucketId())) {
+                return Optional.of(nonKeyEvent(e).bucketId(bucketId));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected Optional<GCEvent> scanLastEvent(String analyseId, String jvmId, DateTime start) {
+        Iterator<GCEventImpl> i = events0(analyseId, jvmId, sinceMonthStart(start), LAST_EVENT_FETCH_SIZE, 1);
+        return i.hasNext() ? Optional.of(nonKeyEvent(i.next())) : Optional.empty();
+    }
+
+    @Override
+    public List<GCEvent> events(String analyseId, String jvmId, Range range) {
+        return toList(lazyEvents(analyseId, jvmId, range));
+    }
+
+    @Override
+    public Iterator<GCEvent> lazyEvents(String analyseId, String jvmId, Range range) {
+        return map(events0(analyseId, jvmId, range, fetchSize, readParallelism), CassandraGCEventChunkRepository::nonKeyEvent);
+    }
+
+    @Override
+    public List<GCEvent> pauseEvents(String analyseId, String jvmId, Range range) {
+        return toList(lazyPauseEvents(analyseId, jvmId, range));
+    }
+
+    @Override
+    public Iterator<GCEvent> lazyPauseEvents(String analyseId, String jvmId, Range range) {
+        return map(events0(analyseId, jvmId, range, fetchSize, readParallelism), CassandraGCEventChunkRepository::pauseEvent);
+    }
+
+    @Override
+    public void erase(String analyseId, String jvmId, Range range) {
+        erase(CHUNK_TABLE_NAME, analyseId, eq("jvm_id", jvmId), range);
+        eraseLastEvents(analyseId, Collections.singletonList(jvmId));
+    }
+
+    @Override
+    public void erase(String analyseId, List<String> jvmIds, Range range) {
+        erase(CHUNK_TABLE_NAME, analyseId, in("jvm_id", jvmIds), range);
+        eraseLastEvents(analyseId, jvmIds);
+    }
+
+    /**
+     * The events of the same hour are packed into a single chunk, so they are batched together.
+     */
+    @Override
+    public Object partitionKey(GCEvent event) {
+        return Arrays.asList(event.analyseId(), event.jvmId(), hour(event.occurredMillis()));
+    }
+
+    @Override
+    protected Statement addStatement(GCEvent event) {
+        return chunkStatement(Collections.singletonList(event));
+    }
+
+    @Override
+    protected Statement batch(List<GCEvent> events) {
+        Map<Object, List<GCEvent>> chunks = new LinkedHashMap<>();
+        for (GCEvent event : events) {
+            chunks.computeIfAbsent(partitionKey(event), k -> new ArrayList<>()).add(event);
+        }
+        if (chunks.size() == 1) {
+            return chunkStatement(events).setIdempotent(true);
+        }
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        for (List<GCEvent> chunk : chunks.values()) {
+            batch.add(chunkStatement(chunk));
+        }
+        return batch.setIdempotent(true);
+    }
+
+    /**
+     * @param events of the same analysis, JVM and hour
+     */
+    protected Statement chunkStatement(List<GCEvent> events) {
+        GCEvent first = events.get(0);
+        BoundStatement s = prepared(CHUNK_TABLE_NAME, () -> (RegularStatement) insertStatement(CHUNK_TABLE_NAME,
+                CHUNK_INSERT_FIELDS).setConsistencyLevel(ConsistencyLevel.ONE)).bind();
+        s.setUUID(0, analyseId(first.analyseId()));
+        s.setString(1, first.jvmId());
+        s.setString(2, partition(first.analyseId(), first.occurredMillis()));
+        s.setTimestamp(3, new Date(hour(first.occurredMillis())));
+        s.setUUID(4, UUIDs.timeBased());
+        s.setBytes(5, GCEventChunkCodec.encode(events));
+        return s;
+    }
+
+    /**
+     * @param parallelism the max number of partitions read at once
+     * @return the events of the range, the most recent ones first
+     */
+    protected Iterator<GCEventImpl> events0(String analyseId, String jvmId, Range range, int fetchSize,
+                                            int parallelism) {
+        final long from = range.from().getMillis();
+        final long to = range.to().getMillis();
+        final Iterator<Row> rows = rows(dates(analyseId, range).stream().map(date -> {
+            Statement statement = QueryBuilder.select("hour", "data").from(CHUNK_TABLE_NAME)
+                    .where(eq("analyse_id", UUID.fromString(analyseId)))
+                    .and(eq("jvm_id", jvmId))
+                    .and(eq("date", date))
+                    .and(gte("hour", new Date(hour(from))))
+                    .and(lte("hour", new Date(to))).setFetchSize(fetchSize);
+            LOG.debug("Query: {}", statement);
+            return statement;
+        }).iterator(), parallelism, fetchSize);
+        return new Iterator<GCEventImpl>() {
+            private Row next;
+            private Iterator<GCEventImpl> hourEvents = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!hourEvents.hasNext() && nextRow() != null) {
+                    hourEvents = nextHour();
+                }
+                return hourEvents.hasNext();
+            }
+
+            @Override
+            public GCEventImpl next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return hourEvents.next();
+            }
+
+            /**
+             * Decodes all the chunks of the next hour, since they may overlap.
+             */
+            private Iterator<GCEventImpl> nextHour() {
+                Date hour = next.getTimestamp(0);
+                List<GCEventImpl> events = new ArrayList<>();
+                do {
+                    for (GCEventImpl e : GCEventChunkCodec.decode(next.getBytes(1))) {
+                        if (e.occurredMillis() >= from && e.occurredMillis() <= to) {
+                            events.add(e);
+                        }
+                    }
+                    next = null;
+                } while (nextRow() != null && next.getTimestamp(0).equals(hour));
+                events.sort((a, b) -> Long.compare(b.occurredMillis(), a.occurredMillis()));
+                return events.iterator();
+            }
+
+            private Row nextRow() {
+                if (next == null && rows.hasNext()) {
+                    next = rows.next();
+                }
+                return next;
+            }
+        };
+    }
+
+    protected static long hour(long occurred) {
+        return occurred - Math.floorMod(occurred, HOUR_MILLIS);
+    }
+
+    /**
+     * The last event is the latest one of the months since the start, as with the event per row.
+     */
+    private static Range sinceMonthStart(DateTime start) {
+        return Range.of(start.toDateTime(DateTimeZone.UTC).monthOfYear().roundFloorCopy(),
+                DateTime.now(DateTimeZone.UTC));
+    }
+
+    /**
+     * The same fields as {@link CassandraGCEventRepository#NON_KEY_FIELDS} are loaded.
+     */
+    private static GCEventImpl nonKeyEvent(GCEventImpl e) {
+        e.bucketId(null).vmEventType(null);
+        if (e.generations().size() > 1) {
+            Map<Generation, Capacity> byGeneration = new IdentityHashMap<>(3);
+            for (Generation g : e.generations()) {
+                byGeneration.put(g, e.capacityByGeneration().getOrDefault(g, Capacity.NONE));
+            }
+            e.capacityByGeneration(byGeneration);
+        } else {
+            e.capacityByGeneration(Collections.emptyMap());
+        }
+        return e;
+    }
+
+    /**
+     * The same fields as {@link CassandraGCEventRepository#PAUSE_EVENT_FIELDS} are loaded.
+     */
+    private static GCEventImpl pauseEvent(GCEventImpl e) {
+        return new GCEventImpl().occurredMillis(e.occurredMillis())
+                .vmEventType(e.vmEventType())
+                .pauseMu(e.pauseMu())
+                .timestamp(e.timestamp())
+                .phase(e.phase())
+                .generations(e.generations())
+                .concurrency(e.concurrency())
+                .cause(Cause.OTHER)
+                .capacityByGeneration(Collections.emptyMap());
+    }
+
+    private static Iterator<GCEvent> map(Iterator<GCEventImpl> i, Function<GCEventImpl, GCEvent> f) {
+        return new Iterator<GCEvent>() {
+            @Override
+            public boolean hasNext() {
+                return i.hasNext();
+            }
+
+            @Override
+            public GCEvent next() {
+                return f.apply(i.next());
+            }
+        };
+    }
+
+    private static List<GCEvent> toList(Iterator<GCEvent> i) {
+        List<GCEvent> events = new LinkedList<>();
+        i.forEachRemaining(events::add);
+        return events;
+    }
+
+}
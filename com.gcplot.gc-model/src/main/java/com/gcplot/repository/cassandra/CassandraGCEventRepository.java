@@ -1,11 +1,18 @@
 package com.gcplot.repository.cassandra;
 
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.querybuilder.Update;
+import com.datastax.driver.core.utils.UUIDs;
+import com.gcplot.model.gc.PartitionGranularity;
+import com.gcplot.utils.Exceptions;
 import com.gcplot.utils.Range;
 import com.gcplot.utils.Utils;
 import com.gcplot.utils.enums.EnumSetUtils;
@@ -14,17 +21,17 @@ import com.gcplot.model.gc.GCEvent;
 import com.gcplot.model.gc.Generation;
 import com.gcplot.repository.GCEventRepository;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import org.apache.cassandra.utils.UUIDGen;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
-import org.joda.time.Months;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.ExecutionException;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.*;
 import static com.gcplot.utils.CollectionUtils.processKeyMap;
@@ -36,7 +43,22 @@ public class CassandraGCEventRepository extends AbstractVMEventsCassandraReposit
     private static final Logger LOG = LoggerFactory.getLogger(CassandraGCEventRepository.class);
     protected static final String TABLE_NAME = "gc_event";
     protected static final String BUCKET_TABLE_NAME = "gc_event_by_bucket";
-    protected static final String DATE_PATTERN = "yyyy-MM";
+    /**
+     * The last event of the JVM, and of each of its buckets, see {@link #updateLastEvent(GCEvent)}.
+     */
+    protected static final String LAST_TABLE_NAME = "gc_event_last";
+    /**
+     * The bucket id of the last event of the JVM itself.
+     */
+    protected static final String JVM_LAST_BUCKET = "";
+    /**
+     * The granularity of the partitions of each analysis, see {@link #partitionBy(String, PartitionGranularity)}.
+     */
+    protected static final String PARTITIONING_TABLE_NAME = "gc_event_partitioning";
+    /**
+     * The max number of the partitions a single delete is restricted to.
+     */
+    protected static final int MAX_ERASE_DATES = 128;
     // See Mapper#lazyEventFrom in case of update
     public static final String[] NON_KEY_FIELDS = new String[] {
             "occurred", "pause_mu", "tmstm", "generations",
@@ -44,17 +66,51 @@ public class CassandraGCEventRepository extends AbstractVMEventsCassandraReposit
             "gen_cap_before", "gen_cap_after", "gen_cap_total", "cause",
             "properties", "user_time", "sys_time"};
     public static final String[] LAST_EVENT_FIELDS = Utils.concat(NON_KEY_FIELDS, new String[] { "bucket_id" });
+    /**
+     * The last partition the events were written to, since they mostly come in order.
+     */
+    private volatile Partition lastPartition = new Partition("", 0, 0, null);
+    private final Cache<String, PartitionGranularity> granularities = CacheBuilder.newBuilder()
+            .maximumSize(10_000).build();
+    private volatile AnalyseKey lastAnalyse = new AnalyseKey("", null);
+    /**
+     * The order of the bind markers of the insert, see {@link #addStatement(GCEvent)}.
+     */
+    protected static final String[] INSERT_FIELDS = new String[] {
+            "id", "parent_id", "analyse_id", "bucket_id", "date", "jvm_id", "description", "tmstm",
+            "written_at", "occurred", "cause", "properties", "vm_event_type", "capacity", "total_capacity",
+            "pause_mu", "user_time", "sys_time", "real_time", "phase", "generations", "concurrency",
+            "gen_cap_before", "gen_cap_after", "gen_cap_total", "ext" };
     public static final String[] PAUSE_EVENT_FIELDS = new String[] { "occurred", "vm_event_type", "pause_mu", "tmstm",
             "phase", "generations", "concurrency" };
+    /**
+     * Whether the bucket lookups which miss the last event table may query the {@link #BUCKET_TABLE_NAME} view.
+     * Once it's disabled, they scan the months of the JVM instead, so the view can be dropped.
+     */
+    private boolean bucketViewEnabled = true;
 
     @Override
     public Optional<GCEvent> lastEvent(String analyseId, String jvmId, String bucketId, DateTime start) {
-        return singleEvent(analyseId, jvmId, bucketId, start, LAST_EVENT_FIELDS).flatMap(e -> Optional.of(eventFrom(e)));
+        Optional<GCEvent> last = markedEvent(analyseId, jvmId, Strings.nullToEmpty(bucketId), start, LAST_EVENT_FIELDS);
+        return last.isPresent() ? last : scanLastEvent(analyseId, jvmId, bucketId, start);
     }
 
     @Override
     public Optional<GCEvent> lastEvent(String analyseId, String jvmId, DateTime start) {
-        return singleEvent(analyseId, jvmId, null, start, NON_KEY_FIELDS).flatMap(e -> Optional.of(eventFrom(e)));
+        Optional<GCEvent> last = markedEvent(analyseId, jvmId, JVM_LAST_BUCKET, start, NON_KEY_FIELDS);
+        return last.isPresent() ? last : scanLastEvent(analyseId, jvmId, start);
+    }
+
+    /**
+     * The mark is only moved forward, with the lightweight transactions, so that the concurrent sessions
+     * of the same JVM never move it back, and the erase is still a plain delete.
+     */
+    @Override
+    public void updateLastEvent(GCEvent event) {
+        updateLastEvent(event, JVM_LAST_BUCKET);
+        if (!Strings.isNullOrEmpty(event.bucketId())) {
+            updateLastEvent(event, event.bucketId());
+        }
     }
 
     @Override
@@ -101,23 +157,105 @@ public class CassandraGCEventRepository extends AbstractVMEventsCassandraReposit
 
     @Override
     public void erase(String analyseId, String jvmId, Range range) {
-        connector.session().execute(QueryBuilder.delete().all().from(TABLE_NAME)
-                .where(eq("analyse_id", UUID.fromString(analyseId)))
-                .and(eq("jvm_id", jvmId))
-                .and(in("date", dates(range))));
+        erase(TABLE_NAME, analyseId, eq("jvm_id", jvmId), range);
+        eraseLastEvents(analyseId, Collections.singletonList(jvmId));
     }
 
     @Override
     public void erase(String analyseId, List<String> jvmIds, Range range) {
-        connector.session().execute(QueryBuilder.delete().all().from(TABLE_NAME)
+        erase(TABLE_NAME, analyseId, in("jvm_id", jvmIds), range);
+        eraseLastEvents(analyseId, jvmIds);
+    }
+
+    @Override
+    public void partitionBy(String analyseId, PartitionGranularity granularity) {
+        connector.session().execute(QueryBuilder.insertInto(PARTITIONING_TABLE_NAME)
+                .value("analyse_id", UUID.fromString(analyseId))
+                .value("granularity", granularity.type()));
+        granularities.put(analyseId, granularity);
+    }
+
+    /**
+     * Deletes the partitions of the range, a few of them at once, since there might be thousands
+     * of them with the finer granularities.
+     */
+    protected void erase(String table, String analyseId, Clause jvms, Range range) {
+        for (List<String> dates : Lists.partition(dates(analyseId, range), MAX_ERASE_DATES)) {
+            connector.session().execute(QueryBuilder.delete().all().from(table)
+                    .where(eq("analyse_id", UUID.fromString(analyseId)))
+                    .and(jvms)
+                    .and(in("date", dates)));
+        }
+    }
+
+    /**
+     * The last events are looked up by scanning the partitions from the start, when they aren't marked yet,
+     * e.g. for the events written before the marks were introduced.
+     */
+    protected Optional<GCEvent> scanLastEvent(String analyseId, String jvmId, String bucketId, DateTime start) {
+        if (!Strings.isNullOrEmpty(bucketId) && !bucketViewEnabled) {
+            Iterator<Row> i = events0(analyseId, jvmId, Range.of(start.toDateTime(DateTimeZone.UTC),
+                    DateTime.now(DateTimeZone.UTC)), LAST_EVENT_FIELDS);
+            while (i.hasNext()) {
+                Row row = i.next();
+                if (bucketId.equals(row.getString("bucket_id"))) {
+                    return Optional.ofNullable(eventFrom(row));
+                }
+            }
+            return Optional.empty();
+        }
+        return singleEvent(analyseId, jvmId, bucketId, start, LAST_EVENT_FIELDS).flatMap(e -> Optional.of(eventFrom(e)));
+    }
+
+    protected Optional<GCEvent> scanLastEvent(String analyseId, String jvmId, DateTime start) {
+        return singleEvent(analyseId, jvmId, null, start, NON_KEY_FIELDS).flatMap(e -> Optional.of(eventFrom(e)));
+    }
+
+    /**
+     * @return the marked last event, unless it's older than the partition of the start, as the scan wouldn't find it
+     */
+    protected Optional<GCEvent> markedEvent(String analyseId, String jvmId, String bucketId, DateTime start,
+                                            String[] fields) {
+        Row row = connector.session().execute(QueryBuilder.select(fields).from(LAST_TABLE_NAME)
+                .where(eq("analyse_id", UUID.fromString(analyseId)))
+                .and(eq("jvm_id", jvmId))
+                .and(eq("bucket_id", bucketId))).one();
+        if (row == null || row.getTimestamp("occurred").getTime() <
+                granularity(analyseId).floor(start.toDateTime(DateTimeZone.UTC)).getMillis()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(eventFrom(row));
+    }
+
+    protected void updateLastEvent(GCEvent event, String bucketId) {
+        UUID analyseId = UUID.fromString(event.analyseId());
+        Insert insert = QueryBuilder.insertInto(LAST_TABLE_NAME)
+                .value("analyse_id", analyseId)
+                .value("jvm_id", event.jvmId())
+                .value("bucket_id", bucketId);
+        Update.Assignments update = QueryBuilder.update(LAST_TABLE_NAME).with();
+        Map<String, Object> values = lastEventValues(event);
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            insert.value(value.getKey(), value.getValue());
+            update.and(set(value.getKey(), value.getValue()));
+        }
+        if (!connector.session().execute(insert.ifNotExists()).wasApplied()) {
+            connector.session().execute(update.where(eq("analyse_id", analyseId))
+                    .and(eq("jvm_id", event.jvmId()))
+                    .and(eq("bucket_id", bucketId))
+                    .onlyIf(lt("occurred", values.get("occurred"))));
+        }
+    }
+
+    protected void eraseLastEvents(String analyseId, List<String> jvmIds) {
+        connector.session().execute(QueryBuilder.delete().all().from(LAST_TABLE_NAME)
                 .where(eq("analyse_id", UUID.fromString(analyseId)))
-                .and(in("jvm_id", jvmIds))
-                .and(in("date", dates(range))));
+                .and(in("jvm_id", jvmIds)));
     }
 
     protected Optional<Row> singleEvent(String analyseId, String jvmId, String bucketId,
                                         DateTime start, String[] fields) {
-        List<String> dates = dates(Range.of(start.toDateTime(DateTimeZone.UTC),
+        List<String> dates = dates(analyseId, Range.of(start.toDateTime(DateTimeZone.UTC),
                 DateTime.now(DateTimeZone.UTC)));
         for (String date : dates) {
             Select from = QueryBuilder.select(fields).from(Strings.isNullOrEmpty(bucketId) ? TABLE_NAME : BUCKET_TABLE_NAME);
@@ -136,86 +274,174 @@ public class CassandraGCEventRepository extends AbstractVMEventsCassandraReposit
         return Optional.empty();
     }
 
+    /**
+     * The partitions are read concurrently, up to {@link #readParallelism} of them, yet the rows
+     * still come the most recent first.
+     */
     private Iterator<Row> events0(String analyseId, String jvmId, Range range, String[] fields) {
-        final Iterator<String> dates = dates(range).iterator();
-        return new Iterator<Row>() {
-            private Iterator<Row> resultIterator;
+        return rows(dates(analyseId, range).stream().map(date -> {
+            Statement statement = QueryBuilder.select(fields).from(TABLE_NAME)
+                    .where(eq("analyse_id", UUID.fromString(analyseId)))
+                    .and(eq("jvm_id", jvmId))
+                    .and(eq("date", date))
+                    .and(gte("written_at", QueryBuilder.fcall("minTimeuuid", range.from().getMillis())))
+                    .and(lte("written_at", QueryBuilder.fcall("maxTimeuuid", range.to().getMillis()))).setFetchSize(fetchSize);
+            LOG.debug("Query: {}", statement);
+            return statement;
+        }).iterator(), readParallelism, fetchSize);
+    }
 
-            @Override
-            public boolean hasNext() {
-                checkIterator();
-                return resultIterator != null && resultIterator.hasNext();
-            }
+    @Override
+    public Object partitionKey(GCEvent event) {
+        return Arrays.asList(event.analyseId(), event.jvmId(), partition(event.analyseId(), event.occurredMillis()));
+    }
 
-            @Override
-            public Row next() {
-                checkIterator();
-                return resultIterator.next();
-            }
+    /**
+     * Returns the partitions of the range in the granularity of the analysis, starting from the most recent one.
+     */
+    protected List<String> dates(String analyseId, Range range) {
+        PartitionGranularity g = granularity(analyseId);
+        DateTime from = g.floor(range.from().toDateTime(DateTimeZone.UTC));
+        List<String> dates = new ArrayList<>();
+        for (DateTime date = g.floor(range.to().toDateTime(DateTimeZone.UTC)); !date.isBefore(from);
+             date = g.plus(date, -1)) {
+            dates.add(g.key(date));
+        }
+        return dates;
+    }
 
-            private void selectNext() {
-                if (dates.hasNext()) {
-                    String date = dates.next();
-                    Statement statement = QueryBuilder.select(fields).from(TABLE_NAME)
-                            .where(eq("analyse_id", UUID.fromString(analyseId)))
-                            .and(eq("jvm_id", jvmId))
-                            .and(eq("date", date))
-                            .and(gte("written_at", QueryBuilder.fcall("minTimeuuid", range.from().getMillis())))
-                            .and(lte("written_at", QueryBuilder.fcall("maxTimeuuid", range.to().getMillis()))).setFetchSize(fetchSize);
-                    LOG.debug("Query: {}", statement);
-                    resultIterator = connector.session().execute(statement).iterator();
-                }
-            }
+    /**
+     * @return the partition of the event in the granularity of the analysis, formatted once per partition
+     */
+    protected String partition(String analyseId, long occurred) {
+        Partition p = lastPartition;
+        if (occurred < p.from || occurred >= p.to || !analyseId.equals(p.analyseId)) {
+            PartitionGranularity g = granularity(analyseId);
+            DateTime date = g.floor(new DateTime(occurred, DateTimeZone.UTC));
+            p = new Partition(analyseId, date.getMillis(), g.plus(date, 1).getMillis(), g.key(date));
+            lastPartition = p;
+        }
+        return p.date;
+    }
 
-            private void checkIterator() {
-                while ((resultIterator == null || !resultIterator.hasNext()) && dates.hasNext()) {
-                    selectNext();
-                }
-            }
-        };
+    /**
+     * The analyses which were never assigned a granularity, like all the ones created before it became
+     * configurable, keep being partitioned by month.
+     */
+    protected PartitionGranularity granularity(String analyseId) {
+        try {
+            return granularities.get(analyseId, () -> {
+                Row row = connector.session().execute(QueryBuilder.select("granularity").from(PARTITIONING_TABLE_NAME)
+                        .where(eq("analyse_id", UUID.fromString(analyseId)))).one();
+                return row != null ? PartitionGranularity.get(row.getInt(0)) : PartitionGranularity.MONTH;
+            });
+        } catch (ExecutionException e) {
+            throw Exceptions.runtime(e.getCause());
+        }
+    }
+
+    protected Statement addStatement(GCEvent event) {
+        BoundStatement s = prepared(TABLE_NAME, () -> (RegularStatement) insertStatement(TABLE_NAME, INSERT_FIELDS)
+                .setConsistencyLevel(ConsistencyLevel.ONE)).bind();
+        s.setUUID(0, event.id() != null ? UUID.fromString(event.id()) : UUIDs.random());
+        if (event.parentEvent().isPresent()) {
+            s.setUUID(1, UUID.fromString(event.parentEvent().get()));
+        }
+        s.setUUID(2, analyseId(event.analyseId()));
+        s.setString(3, event.bucketId());
+        s.setString(4, partition(event.analyseId(), event.occurredMillis()));
+        s.setString(5, event.jvmId());
+        s.setString(6, event.description());
+        s.setDouble(7, event.timestamp());
+        s.setUUID(8, UUIDGen.getTimeUUID(event.occurredMillis()));
+        s.setTimestamp(9, new Date(event.occurredMillis()));
+        s.setInt(10, event.cause().type());
+        s.setLong(11, event.properties());
+        s.setInt(12, event.vmEventType().type());
+        s.setList(13, capacity(event.capacity()));
+        s.setList(14, capacity(event.totalCapacity()));
+        s.setLong(15, event.pauseMu());
+        s.setDouble(16, event.user());
+        s.setDouble(17, event.sys());
+        s.setDouble(18, event.real());
+        s.setInt(19, event.phase().type());
+        s.setLong(20, EnumSetUtils.encode(event.generations()));
+        s.setInt(21, event.concurrency().type());
+        s.setMap(22, processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::usedBefore));
+        s.setMap(23, processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::usedAfter));
+        s.setMap(24, processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::total));
+        s.setString(25, event.ext());
+        return s;
+    }
+
+    private static List<Long> capacity(Capacity capacity) {
+        return Arrays.asList(capacity.usedBefore(), capacity.usedAfter(), capacity.total());
     }
 
     /**
-     * Returns a range of dates in format YYYY-MM, starting from the most recent one.
-     *
-     * @param range
-     * @return
+     * @return the values of {@link #NON_KEY_FIELDS}, the way {@link #addStatement(GCEvent)} writes them
      */
-    protected List<String> dates(Range range) {
-        return Lists.reverse(IntStream.range(0, Months.monthsBetween(
-                range.from().monthOfYear().roundFloorCopy(),
-                range.to().monthOfYear().roundCeilingCopy()).getMonths())
-                .mapToObj(i -> range.from().plusMonths(i).toString(DATE_PATTERN))
-                .collect(Collectors.toList()));
+    private static Map<String, Object> lastEventValues(GCEvent event) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("occurred", new Date(event.occurredMillis()));
+        values.put("pause_mu", event.pauseMu());
+        values.put("tmstm", event.timestamp());
+        values.put("generations", EnumSetUtils.encode(event.generations()));
+        values.put("concurrency", event.concurrency().type());
+        values.put("phase", event.phase().type());
+        values.put("capacity", capacity(event.capacity()));
+        values.put("total_capacity", capacity(event.totalCapacity()));
+        values.put("gen_cap_before", processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::usedBefore));
+        values.put("gen_cap_after", processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::usedAfter));
+        values.put("gen_cap_total", processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::total));
+        values.put("cause", event.cause().type());
+        values.put("properties", event.properties());
+        values.put("user_time", event.user());
+        values.put("sys_time", event.sys());
+        return values;
     }
 
-    protected RegularStatement addStatement(GCEvent event) {
-        return (RegularStatement) QueryBuilder.insertInto(TABLE_NAME).value("id", event.id() != null ? UUID.fromString(event.id()) : uuid())
-                .value("parent_id", event.parentEvent().isPresent() ? UUID.fromString(event.parentEvent().orElse(null)) : null)
-                .value("analyse_id", UUID.fromString(event.analyseId()))
-                .value("bucket_id", event.bucketId())
-                .value("date", event.occurred().toString(DATE_PATTERN))
-                .value("jvm_id", event.jvmId())
-                .value("description", event.description())
-                .value("tmstm", event.timestamp())
-                .value("written_at", UUIDGen.getTimeUUID(event.occurred().getMillis()))
-                .value("occurred", event.occurred().getMillis())
-                .value("cause", event.cause().type())
-                .value("properties", event.properties())
-                .value("vm_event_type", event.vmEventType().type())
-                .value("capacity", Arrays.asList(event.capacity().usedBefore(), event.capacity().usedAfter(), event.capacity().total()))
-                .value("total_capacity", Arrays.asList(event.totalCapacity().usedBefore(), event.totalCapacity().usedAfter(), event.totalCapacity().total()))
-                .value("pause_mu", event.pauseMu())
-                .value("user_time", event.user())
-                .value("sys_time", event.sys())
-                .value("real_time", event.real())
-                .value("phase", event.phase().type())
-                .value("generations", EnumSetUtils.encode(event.generations()))
-                .value("concurrency", event.concurrency().type())
-                .value("gen_cap_before", processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::usedBefore))
-                .value("gen_cap_after", processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::usedAfter))
-                .value("gen_cap_total", processKeyMap(event.capacityByGeneration(), Generation::type, Capacity::total))
-                .value("ext", event.ext()).setConsistencyLevel(ConsistencyLevel.ONE);
+    /**
+     * The events of a parsing session share the analysis, so its id is parsed once per session.
+     */
+    protected UUID analyseId(String analyseId) {
+        AnalyseKey k = lastAnalyse;
+        if (!analyseId.equals(k.id)) {
+            k = new AnalyseKey(analyseId, UUID.fromString(analyseId));
+            lastAnalyse = k;
+        }
+        return k.uuid;
+    }
+
+    public boolean isBucketViewEnabled() {
+        return bucketViewEnabled;
+    }
+    public void setBucketViewEnabled(boolean bucketViewEnabled) {
+        this.bucketViewEnabled = bucketViewEnabled;
+    }
+
+    private static class AnalyseKey {
+        private final String id;
+        private final UUID uuid;
+
+        private AnalyseKey(String id, UUID uuid) {
+            this.id = id;
+            this.uuid = uuid;
+        }
+    }
+
+    private static class Partition {
+        private final String analyseId;
+        private final long from;
+        private final long to;
+        private final String date;
+
+        private Partition(String analyseId, long from, long to, String date) {
+            this.analyseId = analyseId;
+            this.from = from;
+            this.to = to;
+            this.date = date;
+        }
     }
 
 }
@@ -0,0 +1,221 @@
+package com.gcplot.repository.cassandra;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.gcplot.model.gc.*;
+import com.gcplot.model.gc.cassandra.GCEventChunkCodec;
+import com.gcplot.repository.GCEventRollupRepository;
+import com.gcplot.utils.Range;
+import com.gcplot.utils.enums.EnumSetUtils;
+import com.google.common.base.Strings;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.*;
+
+/**
+ * Every rollup is a row of its own, keyed by its bucket, source log, group and first event, which are merged
+ * with the ones of the same bucket and group on read. So the rollups of a bucket spread over a few logs are
+ * still written blindly, while the rollups of the log processed again overwrite the ones written before.
+ *
+ * The minute rollups are partitioned by month, the coarser ones by year.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class CassandraGCEventRollupRepository extends AbstractCassandraRepository implements GCEventRollupRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(CassandraGCEventRollupRepository.class);
+    protected static final String TABLE_NAME = "gc_event_rollup";
+    protected static final String COVERAGE_TABLE_NAME = "gc_event_rollup_coverage";
+    protected static final String[] INSERT_FIELDS = new String[] { "analyse_id", "jvm_id", "granularity", "date",
+            "bucket", "source", "seq", "generations", "concurrency", "phase", "count", "pause_sum", "exemplars" };
+    protected static final String[] SELECT_FIELDS = new String[] { "bucket", "generations", "concurrency", "phase",
+            "count", "pause_sum", "exemplars" };
+    protected static final String MONTH_PATTERN = "yyyy-MM";
+    protected static final String YEAR_PATTERN = "yyyy";
+
+    @Override
+    public Iterator<GCEventRollup> rollups(String analyseId, String jvmId, RollupGranularity granularity, Range range) {
+        final Date from = new Date(granularity.bucket(range.from().getMillis()));
+        final Date to = range.to().toDate();
+        final Iterator<Row> rows = rows(dates(granularity, range).stream().map(date -> {
+            Statement statement = QueryBuilder.select(SELECT_FIELDS).from(TABLE_NAME)
+                    .where(eq("analyse_id", UUID.fromString(analyseId)))
+                    .and(eq("jvm_id", jvmId))
+                    .and(eq("granularity", granularity.type()))
+                    .and(eq("date", date))
+                    .and(gte("bucket", from))
+                    .and(lte("bucket", to)).setFetchSize(fetchSize);
+            LOG.debug("Query: {}", statement);
+            return statement;
+        }).iterator(), readParallelism, fetchSize);
+        return new Iterator<GCEventRollup>() {
+            private Row next;
+            private Iterator<GCEventRollup> bucketRollups = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!bucketRollups.hasNext() && nextRow() != null) {
+                    bucketRollups = nextBucket();
+                }
+                return bucketRollups.hasNext();
+            }
+
+            @Override
+            public GCEventRollup next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return bucketRollups.next();
+            }
+
+            private Iterator<GCEventRollup> nextBucket() {
+                Date bucket = next.getTimestamp(0);
+                List<GCEventRollup> rollups = new ArrayList<>(4);
+                do {
+                    GCEventRollup r = rollupFrom(analyseId, jvmId, granularity, next);
+                    Optional<GCEventRollup> same = rollups.stream().filter(r::isSameGroup).findFirst();
+                    if (same.isPresent()) {
+                        same.get().merge(r);
+                    } else {
+                        rollups.add(r);
+                    }
+                    next = null;
+                } while (nextRow() != null && next.getTimestamp(0).equals(bucket));
+                return rollups.iterator();
+            }
+
+            private Row nextRow() {
+                if (next == null && rows.hasNext()) {
+                    next = rows.next();
+                }
+                return next;
+            }
+        };
+    }
+
+    /**
+     * The rollups of the same partition are written with a single batch.
+     */
+    @Override
+    public CompletableFuture<Void> addAsync(List<GCEventRollup> rollups) {
+        Map<List<Object>, BatchStatement> batches = new LinkedHashMap<>();
+        for (GCEventRollup rollup : rollups) {
+            String date = partition(rollup.granularity(), rollup.bucket());
+            batches.computeIfAbsent(Arrays.asList(rollup.analyseId(), rollup.jvmId(), rollup.granularity(), date),
+                    k -> new BatchStatement(BatchStatement.Type.UNLOGGED)).add(addStatement(rollup, date));
+        }
+        CompletableFuture[] writes = batches.values().stream()
+                .map(b -> completable(connector.session().executeAsync(b.setIdempotent(true))))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(writes);
+    }
+
+    /**
+     * Only the buckets within the range are deleted, since the coarser partitions span much longer periods.
+     */
+    @Override
+    public void erase(String analyseId, String jvmId, Range range) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            for (String date : dates(granularity, range)) {
+                connector.session().execute(QueryBuilder.delete().all().from(TABLE_NAME)
+                        .where(eq("analyse_id", UUID.fromString(analyseId)))
+                        .and(eq("jvm_id", jvmId))
+                        .and(eq("granularity", granularity.type()))
+                        .and(eq("date", date))
+                        .and(gte("bucket", new Date(granularity.bucket(range.from().getMillis()))))
+                        .and(lte("bucket", range.to().toDate())));
+            }
+        }
+    }
+
+    @Override
+    public Optional<DateTime> coveredFrom(String analyseId, String jvmId) {
+        Row row = connector.session().execute(QueryBuilder.select("covered_from").from(COVERAGE_TABLE_NAME)
+                .where(eq("analyse_id", UUID.fromString(analyseId)))
+                .and(eq("jvm_id", jvmId))).one();
+        return row == null || row.isNull(0) ? Optional.empty() : Optional.of(new DateTime(row.getTimestamp(0), DateTimeZone.UTC));
+    }
+
+    @Override
+    public void updateCoveredFrom(String analyseId, String jvmId, DateTime coveredFrom) {
+        connector.session().execute(QueryBuilder.insertInto(COVERAGE_TABLE_NAME)
+                .value("analyse_id", UUID.fromString(analyseId))
+                .value("jvm_id", jvmId)
+                .value("covered_from", coveredFrom.toDate()));
+    }
+
+    protected Statement addStatement(GCEventRollup rollup, String date) {
+        BoundStatement s = prepared(TABLE_NAME, () -> (RegularStatement) insertStatement(TABLE_NAME, INSERT_FIELDS)
+                .setConsistencyLevel(ConsistencyLevel.ONE)).bind();
+        s.setUUID(0, UUID.fromString(rollup.analyseId()));
+        s.setString(1, rollup.jvmId());
+        s.setInt(2, rollup.granularity().type());
+        s.setString(3, date);
+        s.setTimestamp(4, new Date(rollup.bucket()));
+        s.setString(5, Strings.nullToEmpty(rollup.source()));
+        s.setLong(6, rollup.firstOccurred());
+        s.setLong(7, EnumSetUtils.encode(rollup.generations()));
+        s.setInt(8, rollup.concurrency().type());
+        s.setInt(9, rollup.phase().type());
+        s.setLong(10, rollup.count());
+        s.setLong(11, rollup.pauseSum());
+        List<GCEvent> exemplars = new ArrayList<>(4);
+        exemplars.add(rollup.minPause());
+        exemplars.add(rollup.maxPause());
+        if (rollup.minHeap() != null) {
+            exemplars.add(rollup.minHeap());
+            exemplars.add(rollup.maxHeap());
+        }
+        s.setBytes(12, GCEventChunkCodec.encode(exemplars));
+        return s;
+    }
+
+    /**
+     * The exemplars are the events with the extreme pauses, followed by the ones with the extreme heap usage,
+     * if there are any.
+     */
+    private static GCEventRollup rollupFrom(String analyseId, String jvmId, RollupGranularity granularity, Row r) {
+        List<GCEventImpl> exemplars = GCEventChunkCodec.decode(r.getBytes(6));
+        for (GCEventImpl e : exemplars) {
+            e.analyseId(analyseId).jvmId(jvmId);
+        }
+        boolean hasHeap = exemplars.size() > 2;
+        return new GCEventRollup(analyseId, jvmId, granularity, r.getTimestamp(0).getTime(),
+                EnumSetUtils.decode(r.getLong(1), Generation.class), EventConcurrency.get(r.getInt(2)),
+                Phase.get(r.getInt(3)), r.getLong(4), r.getLong(5), exemplars.get(0), exemplars.get(1),
+                hasHeap ? exemplars.get(2) : null, hasHeap ? exemplars.get(3) : null);
+    }
+
+    /**
+     * @return the partitions of the range, starting from the most recent one
+     */
+    protected static List<String> dates(RollupGranularity granularity, Range range) {
+        boolean monthly = granularity == RollupGranularity.MINUTE;
+        DateTime from = range.from().toDateTime(DateTimeZone.UTC);
+        DateTime date = range.to().toDateTime(DateTimeZone.UTC);
+        date = monthly ? date.monthOfYear().roundFloorCopy() : date.year().roundFloorCopy();
+        List<String> dates = new ArrayList<>();
+        while (!date.isBefore(monthly ? from.monthOfYear().roundFloorCopy() : from.year().roundFloorCopy())) {
+            dates.add(date.toString(monthly ? MONTH_PATTERN : YEAR_PATTERN));
+            date = monthly ? date.minusMonths(1) : date.minusYears(1);
+        }
+        return dates;
+    }
+
+    protected static String partition(RollupGranularity granularity, long bucket) {
+        return new DateTime(bucket, DateTimeZone.UTC).toString(granularity == RollupGranularity.MINUTE ?
+                MONTH_PATTERN : YEAR_PATTERN);
+    }
+
+}
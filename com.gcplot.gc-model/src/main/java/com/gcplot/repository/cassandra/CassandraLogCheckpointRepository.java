@@ -0,0 +1,49 @@
+package com.gcplot.repository.cassandra;
+
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.gcplot.logs.LogCheckpoint;
+import com.gcplot.repository.LogCheckpointRepository;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.gcplot.model.gc.cassandra.Mapper.logCheckpointFrom;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class CassandraLogCheckpointRepository extends AbstractCassandraRepository implements LogCheckpointRepository {
+    protected static final String TABLE_NAME = "log_checkpoint";
+
+    @Override
+    public Optional<LogCheckpoint> checkpoint(String analyseId, String jvmId, String logId) {
+        Statement statement = QueryBuilder.select().all().from(TABLE_NAME)
+                .where(eq("analyse_id", UUID.fromString(analyseId)))
+                .and(eq("jvm_id", jvmId))
+                .and(eq("log_id", logId));
+        return Optional.ofNullable(logCheckpointFrom(connector.session().execute(statement).one()));
+    }
+
+    @Override
+    public void save(LogCheckpoint checkpoint) {
+        connector.session().execute(QueryBuilder.insertInto(TABLE_NAME)
+                .value("analyse_id", UUID.fromString(checkpoint.analyseId()))
+                .value("jvm_id", checkpoint.jvmId())
+                .value("log_id", checkpoint.logId())
+                .value("log_offset", checkpoint.offset())
+                .value("tail_checksum", checkpoint.tailChecksum())
+                .value("parser_state", checkpoint.parserState())
+                .value("updated", new Date()));
+    }
+
+    @Override
+    public void erase(String analyseId, String jvmId) {
+        connector.session().execute(QueryBuilder.delete().all().from(TABLE_NAME)
+                .where(eq("analyse_id", UUID.fromString(analyseId)))
+                .and(eq("jvm_id", jvmId)));
+    }
+}
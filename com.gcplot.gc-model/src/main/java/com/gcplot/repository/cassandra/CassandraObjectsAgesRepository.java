@@ -1,8 +1,9 @@
 package com.gcplot.repository.cassandra;
 
-import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.gcplot.utils.Range;
 import com.gcplot.model.gc.ObjectsAges;
@@ -25,6 +26,8 @@ import static com.gcplot.model.gc.cassandra.Mapper.objectsAgesFrom;
 public class CassandraObjectsAgesRepository extends AbstractVMEventsCassandraRepository<ObjectsAges> {
     protected static final String TABLE_NAME = "objects_ages";
     protected static final String[] FIELDS = new String[] { "occurred", "desired_sv_size", "occupied", "total", "ext"};
+    protected static final String[] INSERT_FIELDS = new String[] { "analyse_id", "occurred", "written_at", "jvm_id",
+            "desired_sv_size", "occupied", "total", "ext" };
 
     @Override
     public Optional<ObjectsAges> lastEvent(String analyseId, String jvmId, DateTime start) {
@@ -86,15 +89,16 @@ public class CassandraObjectsAgesRepository extends AbstractVMEventsCassandraRep
                 .and(lte("written_at", QueryBuilder.fcall("maxTimeuuid", range.to().getMillis()))).setFetchSize(fetchSize));
     }
 
-    protected RegularStatement addStatement(ObjectsAges oa) {
-        return QueryBuilder.insertInto(TABLE_NAME)
-                .value("analyse_id", UUID.fromString(oa.analyseId()))
-                .value("occurred", oa.occurred().toDate())
-                .value("written_at", UUIDGen.getTimeUUID(oa.occurred().getMillis()))
-                .value("jvm_id", oa.jvmId())
-                .value("desired_sv_size", oa.desiredSurvivorSize())
-                .value("occupied", oa.occupied())
-                .value("total", oa.total())
-                .value("ext", oa.ext());
+    protected Statement addStatement(ObjectsAges oa) {
+        BoundStatement s = prepared(TABLE_NAME, () -> insertStatement(TABLE_NAME, INSERT_FIELDS)).bind();
+        s.setUUID(0, UUID.fromString(oa.analyseId()));
+        s.setTimestamp(1, oa.occurred().toDate());
+        s.setUUID(2, UUIDGen.getTimeUUID(oa.occurredMillis()));
+        s.setString(3, oa.jvmId());
+        s.setLong(4, oa.desiredSurvivorSize());
+        s.setList(5, oa.occupied());
+        s.setList(6, oa.total());
+        s.setString(7, oa.ext());
+        return s;
     }
 }
@@ -0,0 +1,80 @@
+package com.gcplot.repository.cassandra;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the rows of the statements in their order, while the next statements are already being executed,
+ * up to {@code parallelism} of them at once, and the next page of the current one is fetched in the background
+ * once the most of the current page is consumed. So reading a few partitions takes about as long as reading the
+ * slowest of them, rather than all of them in turn.
+ *
+ * Only the first page of the statements ahead is fetched, so the memory is bounded by the fetch size.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class PrefetchingRowIterator implements Iterator<Row> {
+    private final Session session;
+    private final Iterator<? extends Statement> statements;
+    private final int parallelism;
+    private final int prefetchThreshold;
+    private final Deque<ResultSetFuture> pending = new ArrayDeque<>();
+    private ResultSet current;
+
+    /**
+     * @param parallelism the max number of statements being read at once, 1 reads them one by one
+     * @param prefetchThreshold the number of rows left in the current page, when the next page is requested
+     */
+    public PrefetchingRowIterator(Session session, Iterator<? extends Statement> statements, int parallelism,
+                                  int prefetchThreshold) {
+        this.session = session;
+        this.statements = statements;
+        this.parallelism = Math.max(parallelism, 1);
+        this.prefetchThreshold = prefetchThreshold;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (true) {
+            if (current != null) {
+                if (!current.isExhausted()) {
+                    if (!current.isFullyFetched() && current.getAvailableWithoutFetching() <= prefetchThreshold) {
+                        current.fetchMoreResults();
+                    }
+                    return true;
+                }
+                current = null;
+            }
+            executeAhead();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            current = pending.poll().getUninterruptibly();
+            executeAhead();
+        }
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.one();
+    }
+
+    private void executeAhead() {
+        while (pending.size() + (current != null ? 1 : 0) < parallelism && statements.hasNext()) {
+            pending.add(session.executeAsync(statements.next()));
+        }
+    }
+
+}
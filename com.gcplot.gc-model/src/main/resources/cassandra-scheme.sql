@@ -68,6 +68,69 @@ AS SELECT * FROM gc_event
 WHERE bucket_id IS NOT NULL AND analyse_id IS NOT NULL AND jvm_id IS NOT NULL AND date IS NOT NULL AND written_at IS NOT NULL
 PRIMARY KEY ((bucket_id, analyse_id, jvm_id, date), written_at);
 
+CREATE TABLE IF NOT EXISTS gc_event_partitioning (
+  analyse_id uuid,
+  granularity int,
+  PRIMARY KEY (analyse_id)
+);
+
+CREATE TABLE IF NOT EXISTS gc_event_last (
+  analyse_id uuid,
+  jvm_id varchar,
+  bucket_id varchar,
+  occurred timestamp,
+  tmstm double,
+  capacity list<bigint>,
+  total_capacity list<bigint>,
+  pause_mu bigint,
+  generations bigint,
+  phase int,
+  cause int,
+  properties bigint,
+  concurrency int,
+  gen_cap_before map<int, bigint>,
+  gen_cap_after map<int, bigint>,
+  gen_cap_total map<int, bigint>,
+  user_time double,
+  sys_time double,
+  PRIMARY KEY ((analyse_id, jvm_id), bucket_id)
+);
+
+CREATE TABLE IF NOT EXISTS gc_event_chunk (
+  analyse_id uuid,
+  jvm_id varchar,
+  date varchar,
+  hour timestamp,
+  seq timeuuid,
+  data blob,
+  PRIMARY KEY ((analyse_id, jvm_id, date), hour, seq)
+) WITH CLUSTERING ORDER BY (hour DESC, seq DESC) AND gc_grace_seconds = 60;
+
+CREATE TABLE IF NOT EXISTS gc_event_rollup (
+  analyse_id uuid,
+  jvm_id varchar,
+  granularity int,
+  date varchar,
+  bucket timestamp,
+  source varchar,
+  seq bigint,
+  generations bigint,
+  concurrency int,
+  phase int,
+  count bigint,
+  pause_sum bigint,
+  exemplars blob,
+  PRIMARY KEY ((analyse_id, jvm_id, granularity, date), bucket, source, generations, concurrency, phase, seq)
+) WITH CLUSTERING ORDER BY (bucket DESC, source ASC, generations ASC, concurrency ASC, phase ASC, seq ASC)
+  AND gc_grace_seconds = 60;
+
+CREATE TABLE IF NOT EXISTS gc_event_rollup_coverage (
+  analyse_id uuid,
+  jvm_id varchar,
+  covered_from timestamp,
+  PRIMARY KEY ((analyse_id, jvm_id))
+);
+
 CREATE TABLE IF NOT EXISTS objects_ages (
   analyse_id uuid,
   occurred timestamp,
@@ -80,4 +143,15 @@ CREATE TABLE IF NOT EXISTS objects_ages (
   PRIMARY KEY ((analyse_id, jvm_id), written_at)
 ) WITH CLUSTERING ORDER BY (written_at DESC);
 
-CREATE INDEX IF NOT EXISTS objects_ages_occurred ON objects_ages( occurred );
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS objects_ages_occurred ON objects_ages( occurred );
+
+CREATE TABLE IF NOT EXISTS log_checkpoint (
+  analyse_id uuid,
+  jvm_id varchar,
+  log_id varchar,
+  log_offset bigint,
+  tail_checksum varchar,
+  parser_state varchar,
+  updated timestamp,
+  PRIMARY KEY ((analyse_id, jvm_id), log_id)
+);
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.gcplot.model.gc.cassandra;
+
+import com.gcplot.model.gc.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class GCEventChunkCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        List<GCEvent> events = new ArrayList<>();
+        long occurred = 1483218000000L;
+        for (int i = 0; i < 500; i++) {
+            Map<Generation, Capacity> byGeneration = new IdentityHashMap<>();
+            if (i % 10 == 0) {
+                byGeneration.put(Generation.YOUNG, Capacity.of(1000 + i, 10, 2000));
+                byGeneration.put(Generation.TENURED, Capacity.of(5000, 4000 - i, 8000));
+            }
+            events.add(new GCEventImpl()
+                    .occurredMillis(occurred + i * 1500L)
+                    .timestamp(i % 7 == 0 ? Math.PI * i : 123.456 + i * 1.5)
+                    .user(i % 3 == 0 ? -1 : 0.01 * i)
+                    .sys(0.02)
+                    .pauseMu(51321 + i * 7)
+                    .vmEventType(VMEventType.GARBAGE_COLLECTION)
+                    .phase(Phase.OTHER)
+                    .cause(Cause.OTHER)
+                    .concurrency(i % 2 == 0 ? EventConcurrency.SERIAL : EventConcurrency.CONCURRENT)
+                    .generations(i % 10 == 0 ? EnumSet.of(Generation.YOUNG, Generation.TENURED) :
+                            EnumSet.of(Generation.YOUNG))
+                    .properties(i % 5)
+                    .capacity(Capacity.of(3000 + i * 100, 1000 - i, 6000))
+                    .totalCapacity(Capacity.of(10000, 5000 + i, 20000))
+                    .capacityByGeneration(byGeneration)
+                    .bucketId(i < 250 ? "a" : i % 2 == 0 ? "b" : null));
+        }
+        ByteBuffer chunk = GCEventChunkCodec.encode(events);
+        Assert.assertTrue(chunk.remaining() < events.size() * 16);
+
+        List<GCEventImpl> decoded = GCEventChunkCodec.decode(chunk);
+        Assert.assertEquals(events, decoded);
+        for (int i = 0; i < events.size(); i++) {
+            Map<Generation, Capacity> expected = events.get(i).capacityByGeneration();
+            Assert.assertEquals(expected.size(), decoded.get(i).capacityByGeneration().size());
+            for (Map.Entry<Generation, Capacity> c : expected.entrySet()) {
+                Assert.assertEquals(c.getValue(), decoded.get(i).capacityByGeneration().get(c.getKey()));
+            }
+        }
+    }
+
+}
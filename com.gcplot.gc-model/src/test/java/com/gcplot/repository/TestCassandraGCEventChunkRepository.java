@@ -0,0 +1,19 @@
+package com.gcplot.repository;
+
+import com.gcplot.repository.cassandra.CassandraGCEventChunkRepository;
+import com.gcplot.repository.cassandra.CassandraGCEventRepository;
+
+/**
+ * The chunks should be indistinguishable from the event per row.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class TestCassandraGCEventChunkRepository extends TestCassandraGCEventRepository {
+
+    @Override
+    protected CassandraGCEventRepository repository() {
+        return new CassandraGCEventChunkRepository();
+    }
+
+}
@@ -2,6 +2,7 @@ package com.gcplot.repository;
 
 import com.gcplot.model.gc.*;
 import com.gcplot.repository.cassandra.CassandraGCEventRepository;
+import com.gcplot.utils.Range;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -17,7 +18,7 @@ public class TestCassandraGCEventRepository extends BaseCassandraTest {
     public void test() throws Exception {
         String analyseId = UUID.randomUUID().toString();
         String jvmId = "jvm1";
-        CassandraGCEventRepository r = new CassandraGCEventRepository();
+        CassandraGCEventRepository r = repository();
         r.setConnector(connector);
         r.init();
         Assert.assertEquals(0, r.events(analyseId, jvmId,
@@ -81,7 +82,7 @@ public class TestCassandraGCEventRepository extends BaseCassandraTest {
         String analyseId = UUID.randomUUID().toString();
         String jvmId = "jvm1";
 
-        CassandraGCEventRepository r = new CassandraGCEventRepository();
+        CassandraGCEventRepository r = repository();
         r.setConnector(connector);
         r.setFetchSize(5);
         r.init();
@@ -120,6 +121,109 @@ public class TestCassandraGCEventRepository extends BaseCassandraTest {
         Assert.assertEquals(TIMESTAMP_START + 30, lastHalfBucket.get().timestamp(), 0.001);
     }
 
+    @Test
+    public void testParallelMonths() throws Exception {
+        String analyseId = UUID.randomUUID().toString();
+        String jvmId = "jvm1";
+
+        CassandraGCEventRepository r = repository();
+        r.setConnector(connector);
+        r.setFetchSize(4);
+        r.setReadParallelism(3);
+        r.init();
+
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+        for (int month = 0; month < 5; month++) {
+            List<GCEvent> events = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                GCEventImpl event = new GCEventImpl();
+                fillEvent(analyseId, jvmId, bucketId(analyseId + jvmId), i, event);
+                event.occurred(now.minusMonths(month).minusDays(1).plusSeconds(i));
+                events.add(event);
+            }
+            r.add(events);
+        }
+
+        List<GCEvent> events = r.events(analyseId, jvmId, Range.of(now.minusMonths(6), now.plusDays(1)));
+        Assert.assertEquals(50, events.size());
+        for (int i = 1; i < events.size(); i++) {
+            Assert.assertTrue(events.get(i - 1).occurredMillis() > events.get(i).occurredMillis());
+        }
+    }
+
+    @Test
+    public void testLastEventMark() throws Exception {
+        String analyseId = UUID.randomUUID().toString();
+        String jvmId = "jvm1";
+        String bucketId = bucketId(analyseId + jvmId);
+
+        CassandraGCEventRepository r = repository();
+        r.setConnector(connector);
+        r.setBucketViewEnabled(false);
+        r.init();
+
+        List<GCEvent> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            GCEventImpl event = new GCEventImpl();
+            fillEvent(analyseId, jvmId, bucketId, i, event);
+            events.add(event);
+        }
+        r.add(events);
+        DateTime start = DateTime.now(DateTimeZone.UTC).minusDays(2);
+        Assert.assertEquals(TIMESTAMP_START + 2, r.lastEvent(analyseId, jvmId, bucketId, start).get().timestamp(), 0.001);
+
+        r.updateLastEvent(events.get(1));
+        Assert.assertEquals(TIMESTAMP_START + 1, r.lastEvent(analyseId, jvmId, start).get().timestamp(), 0.001);
+        r.updateLastEvent(events.get(2));
+        r.updateLastEvent(events.get(0));
+        Optional<GCEvent> oe = r.lastEvent(analyseId, jvmId, bucketId, start);
+        Assert.assertTrue(oe.isPresent());
+        Assert.assertEquals(bucketId, oe.get().bucketId());
+        Assert.assertEquals(TIMESTAMP_START + 2, oe.get().timestamp(), 0.001);
+        Assert.assertEquals(events.get(2).occurredMillis(), r.lastEvent(analyseId, jvmId, start).get().occurredMillis());
+
+        r.erase(analyseId, jvmId, wideDays(7));
+        Assert.assertFalse(r.lastEvent(analyseId, jvmId, start).isPresent());
+        Assert.assertFalse(r.lastEvent(analyseId, jvmId, bucketId, start).isPresent());
+    }
+
+    @Test
+    public void testHourPartitions() throws Exception {
+        String analyseId = UUID.randomUUID().toString();
+        String jvmId = "jvm1";
+
+        CassandraGCEventRepository r = repository();
+        r.setConnector(connector);
+        r.setFetchSize(4);
+        r.init();
+        r.partitionBy(analyseId, PartitionGranularity.HOUR);
+
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+        List<GCEvent> events = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            GCEventImpl event = new GCEventImpl();
+            fillEvent(analyseId, jvmId, bucketId(analyseId + jvmId), i, event);
+            event.occurred(now.minusDays(1).plusMinutes(i * 7));
+            events.add(event);
+        }
+        r.add(events);
+
+        List<GCEvent> read = r.events(analyseId, jvmId, wideDays(2));
+        Assert.assertEquals(30, read.size());
+        for (int i = 1; i < read.size(); i++) {
+            Assert.assertTrue(read.get(i - 1).occurredMillis() > read.get(i).occurredMillis());
+        }
+        Assert.assertEquals(TIMESTAMP_START + 29, r.lastEvent(analyseId, jvmId, now.minusDays(2)).get().timestamp(),
+                0.001);
+
+        r.erase(analyseId, jvmId, wideDays(2));
+        Assert.assertEquals(0, r.events(analyseId, jvmId, wideDays(2)).size());
+    }
+
+    protected CassandraGCEventRepository repository() {
+        return new CassandraGCEventRepository();
+    }
+
     protected void fillEvent(String analyseId, String jvmId, String bucketId, GCEventImpl event) {
         fillEvent(analyseId, jvmId, bucketId, 0, event);
     }
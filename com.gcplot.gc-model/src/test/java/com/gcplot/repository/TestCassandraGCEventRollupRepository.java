@@ -0,0 +1,136 @@
+package com.gcplot.repository;
+
+import com.gcplot.model.gc.*;
+import com.gcplot.repository.cassandra.CassandraGCEventRollupRepository;
+import com.google.common.collect.Lists;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class TestCassandraGCEventRollupRepository extends BaseCassandraTest {
+
+    @Test
+    public void test() throws Exception {
+        String analyseId = UUID.randomUUID().toString();
+        String jvmId = "jvm1";
+        CassandraGCEventRollupRepository r = new CassandraGCEventRollupRepository();
+        r.setConnector(connector);
+        r.init();
+        Assert.assertFalse(r.rollups(analyseId, jvmId, RollupGranularity.MINUTE, wideDays(7)).hasNext());
+
+        long minute = RollupGranularity.MINUTE.bucket(DateTime.now(DateTimeZone.UTC).minusDays(1).getMillis());
+        List<GCEvent> young = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            young.add(event(analyseId, jvmId, minute + i * 1000, 100 * (i + 1), EventConcurrency.SERIAL)
+                    .totalCapacity(Capacity.of(5000 + i * 10, 1000 - i * 10, 10000)));
+        }
+        GCEvent concurrent = event(analyseId, jvmId, minute + 7000, 10, EventConcurrency.CONCURRENT)
+                .totalCapacity(Capacity.NONE);
+        // the same bucket written by two logs
+        GCEventRollup first = GCEventRollup.of(young.get(0), RollupGranularity.MINUTE).source("log1");
+        young.subList(0, 3).forEach(first::add);
+        GCEventRollup second = GCEventRollup.of(young.get(3), RollupGranularity.MINUTE).source("log2");
+        young.subList(3, 6).forEach(second::add);
+        GCEventRollup concurrentRollup = GCEventRollup.of(concurrent, RollupGranularity.MINUTE).source("log1")
+                .add(concurrent);
+        r.addAsync(Arrays.asList(first, concurrentRollup)).get();
+        r.addAsync(Collections.singletonList(second)).get();
+
+        List<GCEventRollup> rollups = Lists.newArrayList(r.rollups(analyseId, jvmId, RollupGranularity.MINUTE,
+                wideDays(7)));
+        Assert.assertEquals(2, rollups.size());
+        GCEventRollup y = rollups.stream().filter(e -> e.concurrency() == EventConcurrency.SERIAL).findFirst().get();
+        Assert.assertEquals(minute, y.bucket());
+        Assert.assertEquals(6, y.count());
+        Assert.assertEquals(2100, y.pauseSum());
+        Assert.assertEquals(100, y.minPause().pauseMu());
+        Assert.assertEquals(600, y.maxPause().pauseMu());
+        Assert.assertEquals(young.get(5).occurredMillis(), y.minHeap().occurredMillis());
+        Assert.assertEquals(young.get(5).totalCapacity(), y.maxHeap().totalCapacity());
+        Assert.assertEquals(jvmId, y.maxPause().jvmId());
+
+        GCEventRollup c = rollups.stream().filter(e -> e.concurrency() == EventConcurrency.CONCURRENT).findFirst().get();
+        Assert.assertEquals(1, c.count());
+        Assert.assertNull(c.minHeap());
+        Assert.assertEquals(1, c.exemplars().size());
+
+        Assert.assertFalse(r.rollups(analyseId, jvmId, RollupGranularity.HOUR, wideDays(7)).hasNext());
+        r.erase(analyseId, jvmId, wideDays(7));
+        Assert.assertFalse(r.rollups(analyseId, jvmId, RollupGranularity.MINUTE, wideDays(7)).hasNext());
+    }
+
+    @Test
+    public void testSameLogTwice() throws Exception {
+        String analyseId = UUID.randomUUID().toString();
+        String jvmId = "jvm1";
+        CassandraGCEventRollupRepository r = new CassandraGCEventRollupRepository();
+        r.setConnector(connector);
+        r.init();
+
+        long minute = RollupGranularity.MINUTE.bucket(DateTime.now(DateTimeZone.UTC).minusDays(1).getMillis());
+        List<GCEvent> events = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            events.add(event(analyseId, jvmId, minute + i * 1000, 100 * (i + 1), EventConcurrency.SERIAL));
+        }
+        for (int ingest = 0; ingest < 2; ingest++) {
+            // the log's events are out of order, so its bucket is rolled up twice
+            GCEventRollup head = GCEventRollup.of(events.get(2), RollupGranularity.MINUTE).source("log1");
+            events.subList(2, 4).forEach(head::add);
+            GCEventRollup tail = GCEventRollup.of(events.get(0), RollupGranularity.MINUTE).source("log1");
+            events.subList(0, 2).forEach(tail::add);
+            r.addAsync(Arrays.asList(head, tail)).get();
+
+            List<GCEventRollup> rollups = Lists.newArrayList(r.rollups(analyseId, jvmId, RollupGranularity.MINUTE,
+                    wideDays(7)));
+            Assert.assertEquals(1, rollups.size());
+            Assert.assertEquals(4, rollups.get(0).count());
+            Assert.assertEquals(1000, rollups.get(0).pauseSum());
+            Assert.assertEquals(100, rollups.get(0).minPause().pauseMu());
+            Assert.assertEquals(400, rollups.get(0).maxPause().pauseMu());
+        }
+        r.erase(analyseId, jvmId, wideDays(7));
+    }
+
+    @Test
+    public void testCoverage() throws Exception {
+        String analyseId = UUID.randomUUID().toString();
+        CassandraGCEventRollupRepository r = new CassandraGCEventRollupRepository();
+        r.setConnector(connector);
+        r.init();
+        Assert.assertFalse(r.coveredFrom(analyseId, "jvm1").isPresent());
+
+        DateTime coveredFrom = new DateTime(2017, 3, 1, 10, 0, DateTimeZone.UTC);
+        r.updateCoveredFrom(analyseId, "jvm1", coveredFrom);
+        Assert.assertEquals(coveredFrom, r.coveredFrom(analyseId, "jvm1").get());
+        Assert.assertFalse(r.coveredFrom(analyseId, "jvm2").isPresent());
+
+        r.updateCoveredFrom(analyseId, "jvm1", coveredFrom.plusDays(1));
+        Assert.assertEquals(coveredFrom.plusDays(1), r.coveredFrom(analyseId, "jvm1").get());
+    }
+
+    private GCEventImpl event(String analyseId, String jvmId, long occurred, long pauseMu,
+                              EventConcurrency concurrency) {
+        GCEventImpl event = new GCEventImpl();
+        event.jvmId(jvmId).analyseId(analyseId)
+                .occurredMillis(occurred)
+                .vmEventType(VMEventType.GARBAGE_COLLECTION)
+                .timestamp(occurred / 1000d)
+                .capacity(Capacity.of(3000, 1000, 6000))
+                .pauseMu(pauseMu)
+                .phase(Phase.OTHER)
+                .cause(Cause.OTHER)
+                .properties(0)
+                .generations(EnumSet.of(Generation.YOUNG))
+                .capacityByGeneration(Collections.emptyMap())
+                .concurrency(concurrency);
+        return event;
+    }
+
+}
@@ -0,0 +1,719 @@
+package com.gcplot.log_processor.generator;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.gcplot.model.VMVersion;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.google.common.base.Preconditions;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates HotSpot 7/8 logs of G1, CMS or ParallelOld collectors, as written with
+ * {@code -XX:+PrintGCDetails -XX:+PrintGCDateStamps -XX:+PrintTenuringDistribution}, for load
+ * and soak testing. The output depends on the settings and the seed only, so the same log
+ * can be reproduced anywhere instead of being stored.
+ *
+ * The heap is simulated roughly: every young collection promotes a part of the eden, the old
+ * generation is collected by a CMS cycle or G1 marking and mixed collections once the initiating
+ * occupancy is reached, while full collections happen when it's exhausted and at random, once per
+ * {@code fullGcEvery} young collections on average.
+ *
+ * Can be run from the command line as well, see {@link #main(String[])}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class GCLogGenerator {
+    private static final long K = 1024;
+    private static final long M = 1024 * K;
+    private static final long DAY = 24 * 60 * 60 * 1000;
+    private static final int FLUSH_SIZE = 64 * 1024;
+    private static final double CMS_INITIATING_OCCUPANCY = 0.75;
+    private static final double G1_INITIATING_OCCUPANCY = 0.45;
+
+    @Parameter(names = { "-c", "--collector" }, description = "ORACLE_G1, ORACLE_CMS or ORACLE_PAR_OLD_GC")
+    private GarbageCollectorType collectorType = GarbageCollectorType.ORACLE_G1;
+    @Parameter(names = { "-v", "--vm-version" }, description = "HOTSPOT_1_7 or HOTSPOT_1_8")
+    private VMVersion vmVersion = VMVersion.HOTSPOT_1_8;
+    @Parameter(names = { "-s", "--seed" })
+    private long seed;
+    @Parameter(names = "--start", description = "JVM start time, epoch millis")
+    private long start = 1483228800000L;
+    @Parameter(names = "--heap-mb")
+    private int heapMb = 4096;
+    @Parameter(names = { "-r", "--rate" }, description = "Young collections per minute")
+    private double collectionsPerMinute = 60;
+    @Parameter(names = "--pause-mean-ms", description = "Mean young pause, full ones are 20 times longer")
+    private double pauseMeanMs = 30;
+    @Parameter(names = "--pause-sigma", description = "Sigma of the log-normal pauses distribution")
+    private double pauseSigma = 0.6;
+    @Parameter(names = "--full-gc-every", description = "Young collections per random full one, 0 for none")
+    private int fullGcEvery = 500;
+    @Parameter(names = "--survivor-ages", arity = 1)
+    private boolean survivorAges = true;
+    @Parameter(names = "--max-tenuring-threshold")
+    private int maxTenuringThreshold = 15;
+    @Parameter(names = "--header", arity = 1, description = "Whether to start with the VM version and flags")
+    private boolean header = true;
+    @Parameter(names = "--size", description = "Bytes per file")
+    private long size = 64 * M;
+    @Parameter(names = "--files", description = "More than one rotates them as -XX:+UseGCLogFileRotation")
+    private int files = 1;
+    @Parameter(names = { "-o", "--out" })
+    private String out = "gc.log";
+
+    private final StringBuilder sb = new StringBuilder(FLUSH_SIZE * 2);
+    private Random random;
+    private long uptime;
+    private long written;
+    private long youngCapacity;
+    private long survivorCapacity;
+    private long oldCapacity;
+    private long survivors;
+    private long old;
+    private long metaspace;
+    private int mixedLeft;
+    private long mixedReclaim;
+    private boolean initialMark;
+    private long cachedDay = Long.MIN_VALUE;
+    private String cachedDate;
+    private long youngCollections;
+    private long fullCollections;
+    private long concurrentCycles;
+
+    /**
+     * Usage: {@code GCLogGenerator -c ORACLE_CMS -s 42 --size 1073741824 --files 4 -o /tmp/gc.log}
+     */
+    public static void main(String[] args) throws IOException {
+        GCLogGenerator generator = new GCLogGenerator();
+        new JCommander(generator, args);
+        generator.generate(new File(generator.out)).forEach(System.out::println);
+    }
+
+    /**
+     * Writes a single log of about {@link #getSize()} bytes.
+     */
+    public void generate(OutputStream os) throws IOException {
+        reset();
+        write(os, null, null);
+    }
+
+    /**
+     * Writes {@link #getFiles()} logs of about {@link #getSize()} bytes each, continuing one another.
+     * A single one is written to the given file, otherwise they are suffixed with their index.
+     *
+     * @return the files written, in the log order
+     */
+    public List<File> generate(File file) throws IOException {
+        reset();
+        List<File> result = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            File f = files == 1 ? file : new File(file.getPath() + "." + i);
+            try (OutputStream os = new FileOutputStream(f)) {
+                write(os, i > 0 ? f : null, i < files - 1 ? f : null);
+            }
+            result.add(f);
+        }
+        return result;
+    }
+
+    private void reset() {
+        Preconditions.checkArgument(collectorType == GarbageCollectorType.ORACLE_G1
+                || collectorType == GarbageCollectorType.ORACLE_CMS
+                || collectorType == GarbageCollectorType.ORACLE_PAR_OLD_GC, "Unsupported collector " + collectorType);
+        Preconditions.checkArgument(vmVersion == VMVersion.HOTSPOT_1_7 || vmVersion == VMVersion.HOTSPOT_1_8,
+                "Unsupported VM version " + vmVersion);
+        random = new Random(seed);
+        uptime = 500 + random.nextInt(2000);
+        long heap = heapMb * M;
+        youngCapacity = heap / 3;
+        survivorCapacity = youngCapacity / 10;
+        oldCapacity = heap - youngCapacity;
+        survivors = 0;
+        old = 0;
+        metaspace = (20 + random.nextInt(40)) * M;
+        mixedLeft = 0;
+        initialMark = false;
+        youngCollections = 0;
+        fullCollections = 0;
+        concurrentCycles = 0;
+    }
+
+    private void write(OutputStream os, File created, File saved) throws IOException {
+        written = 0;
+        if (created != null) {
+            sb.append(plainDate()).append(" GC log file created ").append(created).append('\n');
+        }
+        if (header || created != null) {
+            header();
+        }
+        while (written + sb.length() < size) {
+            next();
+            if (sb.length() >= FLUSH_SIZE) {
+                flush(os);
+            }
+        }
+        if (saved != null) {
+            sb.append(plainDate()).append(" GC log file has reached the maximum size. Saved as ").append(saved).append('\n');
+        }
+        flush(os);
+    }
+
+    private void next() {
+        uptime += Math.max(1, (long) (-Math.log(1 - random.nextDouble()) * 60_000 / collectionsPerMinute));
+        if (fullGcEvery > 0 && random.nextInt(fullGcEvery) == 0) {
+            fullGc("System.gc()");
+            return;
+        }
+        long eden = youngCapacity - 2 * survivorCapacity;
+        long promoted = (long) (eden * (0.005 + random.nextDouble() * 0.025));
+        if (old + promoted > oldCapacity) {
+            fullGc(collectorType == GarbageCollectorType.ORACLE_PAR_OLD_GC ? "Ergonomics" : "Allocation Failure");
+            return;
+        }
+        if (collectorType == GarbageCollectorType.ORACLE_G1) {
+            g1Pause(eden, promoted);
+        } else {
+            youngGc(eden, promoted);
+        }
+        if (collectorType == GarbageCollectorType.ORACLE_CMS && old > oldCapacity * CMS_INITIATING_OCCUPANCY) {
+            cmsCycle();
+        } else if (collectorType == GarbageCollectorType.ORACLE_G1 && initialMark) {
+            initialMark = false;
+            g1Cycle();
+        }
+    }
+
+    private void youngGc(long eden, long promoted) {
+        long pause = pause(pauseMeanMs);
+        long newSurvivors = newSurvivors(eden);
+        long before = eden + survivors;
+        long heapBefore = before + old;
+        stamp().append("[GC").append(cause("Allocation Failure"));
+        boolean parNew = collectorType == GarbageCollectorType.ORACLE_CMS;
+        if (parNew) {
+            sb.append(vmVersion == VMVersion.HOTSPOT_1_8 ? " " : "");
+            stamp().append("[ParNew");
+        } else {
+            sb.append(' ');
+        }
+        if (survivorAges) {
+            sb.append('\n');
+            ages(newSurvivors, parNew);
+        }
+        if (parNew) {
+            sb.append(": ");
+        } else {
+            sb.append("[PSYoungGen: ");
+        }
+        kb(before).append("->");
+        kb(newSurvivors).append('(');
+        kb(youngCapacity - survivorCapacity).append(')');
+        if (parNew) {
+            sb.append(", ");
+            secs(pause - 100).append(" secs");
+        }
+        sb.append("] ");
+        old += promoted;
+        survivors = newSurvivors;
+        kb(heapBefore).append("->");
+        kb(survivors + old).append('(');
+        kb(youngCapacity - survivorCapacity + oldCapacity).append("), ");
+        secs(pause).append(" secs]");
+        times(pause).append('\n');
+        uptime += pause / 1000;
+        youngCollections++;
+    }
+
+    private void g1Pause(long eden, long promoted) {
+        boolean mixed = mixedLeft > 0;
+        long pause = pause(mixed ? pauseMeanMs * 1.5 : pauseMeanMs);
+        long newSurvivors = newSurvivors(eden);
+        long heapBefore = eden + survivors + old;
+        stamp().append("[GC pause").append(vmVersion == VMVersion.HOTSPOT_1_8 ? " (G1 Evacuation Pause)" : "")
+                .append(mixed ? " (mixed)" : " (young)").append(initialMark ? " (initial-mark)" : "");
+        if (survivorAges) {
+            sb.append('\n');
+            ages(newSurvivors, true);
+        }
+        sb.append(", ");
+        secs(pause).append(" secs]\n");
+        sb.append("   [Parallel Time: ");
+        ms(pause * 9 / 10).append(", GC Workers: 8]\n");
+        sb.append("   [Code Root Fixup: 0.1 ms]\n   [Code Root Purge: 0.0 ms]\n   [Clear CT: 0.5 ms]\n");
+        sb.append("   [Other: ");
+        ms(pause / 10).append("]\n");
+        old += promoted;
+        if (mixed) {
+            old -= mixedReclaim;
+            mixedLeft--;
+        }
+        sb.append("   [Eden: ");
+        mb(eden).append('(');
+        mb(eden).append(")->");
+        mb(0).append('(');
+        mb(eden).append(") Survivors: ");
+        mb(survivors).append("->");
+        mb(newSurvivors).append(" Heap: ");
+        survivors = newSurvivors;
+        mb(heapBefore).append('(');
+        mb(heapMb * M).append(")->");
+        mb(survivors + old).append('(');
+        mb(heapMb * M).append(")]\n");
+        times(pause).append('\n');
+        uptime += pause / 1000;
+        youngCollections++;
+        if (!mixed && old > heapMb * M * G1_INITIATING_OCCUPANCY) {
+            initialMark = true;
+        }
+    }
+
+    private void g1Cycle() {
+        concurrentCycles++;
+        long heap = heapMb * M;
+        stamp().append("[GC concurrent-root-region-scan-start]\n");
+        concurrent("[GC concurrent-root-region-scan-end, ", 5 + random.nextInt(20)).append(" secs]\n");
+        stamp().append("[GC concurrent-mark-start]\n");
+        concurrent("[GC concurrent-mark-end, ", 200 + random.nextInt(2000)).append(" secs]\n");
+        long pause = pause(pauseMeanMs);
+        stamp().append("[GC remark ");
+        if (vmVersion == VMVersion.HOTSPOT_1_8) {
+            stamp().append("[Finalize Marking, ");
+            secs(pause / 20).append(" secs] ");
+        }
+        stamp().append("[GC ref-proc, ");
+        secs(pause / 5).append(" secs]");
+        if (vmVersion == VMVersion.HOTSPOT_1_8) {
+            sb.append(' ');
+            stamp().append("[Unloading, ");
+            secs(pause / 3).append(" secs]");
+        }
+        sb.append(", ");
+        secs(pause).append(" secs]\n");
+        times(pause).append('\n');
+        uptime += pause / 1000;
+
+        long live = live();
+        long cleaned = Math.max(0, old - live) / (5 + random.nextInt(10));
+        pause = pause(pauseMeanMs / 5);
+        long heapBefore = survivors + old;
+        old -= cleaned;
+        stamp().append("[GC cleanup ").append(heapBefore / M).append("M->").append((survivors + old) / M)
+                .append("M(").append(heap / M).append("M), ");
+        secs(pause).append(" secs]\n");
+        times(pause).append('\n');
+        uptime += pause / 1000;
+        stamp().append("[GC concurrent-cleanup-start]\n");
+        concurrent("[GC concurrent-cleanup-end, ", 1).append(" secs]\n");
+
+        mixedLeft = 4 + random.nextInt(5);
+        mixedReclaim = Math.max(0, old - live) / mixedLeft;
+    }
+
+    private void cmsCycle() {
+        concurrentCycles++;
+        long total = youngCapacity - survivorCapacity + oldCapacity;
+        long pause = pause(pauseMeanMs / 5);
+        stamp().append("[GC ").append(vmVersion == VMVersion.HOTSPOT_1_8 ? "(CMS Initial Mark) " : "")
+                .append("[1 CMS-initial-mark: ");
+        kb(old).append('(');
+        kb(oldCapacity).append(")] ");
+        kb(old + survivors).append('(');
+        kb(total).append("), ");
+        secs(pause).append(" secs]");
+        times(pause).append('\n');
+        uptime += pause / 1000;
+        concurrentPhase("mark", 100 + random.nextInt(1000));
+        concurrentPhase("preclean", 10 + random.nextInt(50));
+        concurrentPhase("abortable-preclean", 100 + random.nextInt(5000));
+
+        pause = pause(pauseMeanMs * 2);
+        long yg = survivors + (long) ((youngCapacity - 2 * survivorCapacity) * random.nextDouble());
+        stamp().append("[GC").append(vmVersion == VMVersion.HOTSPOT_1_8 ? " (CMS Final Remark) " : "")
+                .append("[YG occupancy: ").append(yg / K).append(" K (").append((youngCapacity - survivorCapacity) / K)
+                .append(" K)]");
+        stamp().append("[Rescan (parallel) , ");
+        secs(pause * 3 / 4).append(" secs]");
+        stamp().append("[weak refs processing, ");
+        secs(pause / 50).append(" secs]");
+        stamp().append("[class unloading, ");
+        secs(pause / 10).append(" secs]");
+        stamp().append("[scrub symbol table, ");
+        secs(pause / 20).append(" secs]");
+        stamp().append("[scrub string table, ");
+        secs(pause / 20).append(" secs][1 CMS-remark: ");
+        kb(old).append('(');
+        kb(oldCapacity).append(")] ");
+        kb(old + yg).append('(');
+        kb(total).append("), ");
+        secs(pause).append(" secs]");
+        times(pause).append('\n');
+        uptime += pause / 1000;
+
+        concurrentPhase("sweep", 100 + random.nextInt(2000));
+        old = Math.min(old, live());
+        concurrentPhase("reset", 5 + random.nextInt(30));
+    }
+
+    private void fullGc(String cause) {
+        long pause = pause(pauseMeanMs * 20);
+        long young = survivors + (long) ((youngCapacity - 2 * survivorCapacity) * random.nextDouble());
+        long heapBefore = young + old;
+        long oldBefore = old;
+        old = live();
+        survivors = 0;
+        stamp().append("[Full GC").append(cause(cause));
+        if (collectorType == GarbageCollectorType.ORACLE_G1) {
+            sb.append("  ").append(heapBefore / M).append("M->").append(old / M).append("M(").append(heapMb).append("M), ");
+            secs(pause).append(" secs]\n   [Eden: ");
+            mb(young).append('(');
+            mb(youngCapacity).append(")->");
+            mb(0).append('(');
+            mb(youngCapacity).append(") Survivors: 0.0B->0.0B Heap: ");
+            mb(heapBefore).append('(');
+            mb(heapMb * M).append(")->");
+            mb(old).append('(');
+            mb(heapMb * M).append(")], ");
+            metaspace().append('\n');
+        } else {
+            if (collectorType == GarbageCollectorType.ORACLE_CMS) {
+                sb.append(vmVersion == VMVersion.HOTSPOT_1_8 ? " " : "");
+                stamp().append("[CMS: ");
+            } else {
+                sb.append(" [PSYoungGen: ");
+                kb(young).append("->0K(");
+                kb(youngCapacity - survivorCapacity).append(")] [ParOldGen: ");
+            }
+            kb(oldBefore).append("->");
+            kb(old).append('(');
+            kb(oldCapacity).append(')');
+            if (collectorType == GarbageCollectorType.ORACLE_CMS) {
+                sb.append(", ");
+                secs(pause - 300).append(" secs");
+            }
+            sb.append("] ");
+            kb(heapBefore).append("->");
+            kb(old).append('(');
+            kb(youngCapacity - survivorCapacity + oldCapacity).append("), ");
+            metaspace().append(", ");
+            secs(pause).append(" secs]");
+        }
+        times(pause).append('\n');
+        uptime += pause / 1000;
+        mixedLeft = 0;
+        initialMark = false;
+        fullCollections++;
+    }
+
+    private void concurrentPhase(String name, long millis) {
+        stamp().append("[CMS-concurrent-").append(name).append("-start]\n");
+        uptime += millis;
+        stamp().append("[CMS-concurrent-").append(name).append(": ");
+        seconds(millis * 1000, 3).append('/');
+        seconds(millis * 1000 + random.nextInt(100_000), 3).append(" secs]");
+        times(millis * 1000).append('\n');
+    }
+
+    private StringBuilder concurrent(String prefix, long millis) {
+        uptime += millis;
+        stamp().append(prefix);
+        return secs(millis * 1000 + random.nextInt(1000));
+    }
+
+    /**
+     * The tenuring distribution, either full or just the desired survivor size, as ParallelOld does.
+     */
+    private void ages(long newSurvivors, boolean distribution) {
+        int threshold = 1 + random.nextInt(maxTenuringThreshold);
+        sb.append("Desired survivor size ").append(survivorCapacity / 2).append(" bytes, new threshold ")
+                .append(threshold).append(" (max ").append(maxTenuringThreshold).append(")\n");
+        if (distribution) {
+            long total = 0;
+            long age = newSurvivors / 2;
+            for (int i = 1; i <= threshold && age > 0; i++) {
+                total += age;
+                sb.append("- age ");
+                pad(i, 3).append(": ");
+                pad(age, 10).append(" bytes, ");
+                pad(total, 10).append(" total\n");
+                age = (long) (age * (0.1 + random.nextDouble() * 0.5));
+            }
+        }
+    }
+
+    private void header() {
+        boolean v8 = vmVersion == VMVersion.HOTSPOT_1_8;
+        sb.append("Java HotSpot(TM) 64-Bit Server VM (").append(v8 ? "25.121-b13" : "24.80-b11")
+                .append(") for linux-amd64 JRE (").append(v8 ? "1.8.0_121-b13" : "1.7.0_80-b15")
+                .append("), built on Dec 12 2016 16:36:53 by \"java_re\" with gcc 4.3.0 20080428 (Red Hat 4.3.0-8)\n");
+        sb.append("Memory: 4k page, physical 16331492k(8123148k free), swap 0k(0k free)\n");
+        sb.append("CommandLine flags: -XX:InitialHeapSize=").append(heapMb * M).append(" -XX:MaxHeapSize=")
+                .append(heapMb * M).append(" -XX:MaxTenuringThreshold=").append(maxTenuringThreshold)
+                .append(" -XX:+PrintGC -XX:+PrintGCDateStamps -XX:+PrintGCDetails -XX:+PrintGCTimeStamps")
+                .append(survivorAges ? " -XX:+PrintTenuringDistribution" : "")
+                .append(" -XX:+UseCompressedOops");
+        if (collectorType == GarbageCollectorType.ORACLE_G1) {
+            sb.append(" -XX:+UseG1GC\n");
+        } else if (collectorType == GarbageCollectorType.ORACLE_CMS) {
+            sb.append(" -XX:+UseConcMarkSweepGC -XX:+UseParNewGC\n");
+        } else {
+            sb.append(" -XX:+UseParallelGC\n");
+        }
+    }
+
+    private String cause(String cause) {
+        return vmVersion == VMVersion.HOTSPOT_1_8 ? " (" + cause + ")" : "";
+    }
+
+    private StringBuilder metaspace() {
+        metaspace += random.nextInt(64) * K;
+        if (vmVersion == VMVersion.HOTSPOT_1_8) {
+            sb.append("[Metaspace: ");
+            kb(metaspace).append("->");
+            kb(metaspace).append("(1089536K)]");
+        } else {
+            sb.append(collectorType == GarbageCollectorType.ORACLE_CMS ? "[CMS Perm : "
+                    : collectorType == GarbageCollectorType.ORACLE_G1 ? "[Perm: " : "[PSPermGen: ");
+            kb(metaspace).append("->");
+            kb(metaspace).append("(262144K)]");
+        }
+        return sb;
+    }
+
+    private long newSurvivors(long eden) {
+        return Math.min(survivorCapacity, (long) (eden * (0.02 + random.nextDouble() * 0.06)));
+    }
+
+    /**
+     * @return the live part of the old generation, i.e. its occupancy after a full or concurrent collection
+     */
+    private long live() {
+        return Math.min(old, (long) (oldCapacity * (0.2 + random.nextDouble() * 0.2)));
+    }
+
+    /**
+     * @return the log-normally distributed pause, in microseconds
+     */
+    private long pause(double meanMs) {
+        double mu = Math.log(meanMs * 1000) - pauseSigma * pauseSigma / 2;
+        return Math.max(100, (long) Math.exp(mu + pauseSigma * random.nextGaussian()));
+    }
+
+    private StringBuilder times(long pause) {
+        sb.append(" [Times: user=");
+        seconds(pause * (2 + random.nextInt(6)), 2).append(" sys=");
+        seconds(pause / (5 + random.nextInt(20)), 2).append(", real=");
+        return seconds(pause, 2).append(" secs] ");
+    }
+
+    private StringBuilder stamp() {
+        long t = start + uptime;
+        long day = Math.floorDiv(t, DAY);
+        if (day != cachedDay) {
+            cachedDay = day;
+            cachedDate = LocalDate.ofEpochDay(day).toString() + "T";
+        }
+        int ms = (int) (t - day * DAY);
+        sb.append(cachedDate);
+        pad2(ms / 3_600_000).append(':');
+        pad2(ms / 60_000 % 60).append(':');
+        pad2(ms / 1000 % 60).append('.');
+        pad(ms % 1000, 3, '0').append("+0000: ");
+        sb.append(uptime / 1000).append('.');
+        return pad(uptime % 1000, 3, '0').append(": ");
+    }
+
+    private String plainDate() {
+        long t = start + uptime;
+        return LocalDate.ofEpochDay(Math.floorDiv(t, DAY)) + " " + String.format("%02d:%02d:%02d",
+                t % DAY / 3_600_000, t % DAY / 60_000 % 60, t % DAY / 1000 % 60);
+    }
+
+    /**
+     * Appends the seconds with 7 digits, as HotSpot prints the pauses.
+     */
+    private StringBuilder secs(long micros) {
+        micros = Math.max(0, micros);
+        sb.append(micros / 1_000_000).append('.');
+        return pad(micros % 1_000_000 * 10, 7, '0');
+    }
+
+    /**
+     * Appends the seconds with 2 or 3 digits.
+     */
+    private StringBuilder seconds(long micros, int scale) {
+        long div = scale == 2 ? 100 : 1000;
+        long units = micros / (1_000_000 / div);
+        sb.append(units / div).append('.');
+        return pad(units % div, scale, '0');
+    }
+
+    private StringBuilder ms(long micros) {
+        return sb.append(micros / 1000).append('.').append(micros / 100 % 10).append(" ms");
+    }
+
+    private StringBuilder kb(long bytes) {
+        return sb.append(bytes / K).append('K');
+    }
+
+    private StringBuilder mb(long bytes) {
+        if (bytes == 0) {
+            return sb.append("0.0B");
+        }
+        long tenths = bytes * 10 / M;
+        return sb.append(tenths / 10).append('.').append(tenths % 10).append('M');
+    }
+
+    private StringBuilder pad2(long v) {
+        return pad(v, 2, '0');
+    }
+
+    private StringBuilder pad(long v, int width) {
+        return pad(v, width, ' ');
+    }
+
+    private StringBuilder pad(long v, int width, char c) {
+        for (long i = Long.toString(v).length(); i < width; i++) {
+            sb.append(c);
+        }
+        return sb.append(v);
+    }
+
+    private void flush(OutputStream os) throws IOException {
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        os.write(bytes);
+        written += bytes.length;
+        sb.setLength(0);
+    }
+
+    public long getYoungCollections() {
+        return youngCollections;
+    }
+
+    public long getFullCollections() {
+        return fullCollections;
+    }
+
+    public long getConcurrentCycles() {
+        return concurrentCycles;
+    }
+
+    public GarbageCollectorType getCollectorType() {
+        return collectorType;
+    }
+
+    public void setCollectorType(GarbageCollectorType collectorType) {
+        this.collectorType = collectorType;
+    }
+
+    public VMVersion getVmVersion() {
+        return vmVersion;
+    }
+
+    public void setVmVersion(VMVersion vmVersion) {
+        this.vmVersion = vmVersion;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public void setStart(long start) {
+        this.start = start;
+    }
+
+    public int getHeapMb() {
+        return heapMb;
+    }
+
+    public void setHeapMb(int heapMb) {
+        this.heapMb = heapMb;
+    }
+
+    public double getCollectionsPerMinute() {
+        return collectionsPerMinute;
+    }
+
+    public void setCollectionsPerMinute(double collectionsPerMinute) {
+        this.collectionsPerMinute = collectionsPerMinute;
+    }
+
+    public double getPauseMeanMs() {
+        return pauseMeanMs;
+    }
+
+    public void setPauseMeanMs(double pauseMeanMs) {
+        this.pauseMeanMs = pauseMeanMs;
+    }
+
+    public double getPauseSigma() {
+        return pauseSigma;
+    }
+
+    public void setPauseSigma(double pauseSigma) {
+        this.pauseSigma = pauseSigma;
+    }
+
+    public int getFullGcEvery() {
+        return fullGcEvery;
+    }
+
+    public void setFullGcEvery(int fullGcEvery) {
+        this.fullGcEvery = fullGcEvery;
+    }
+
+    public boolean isSurvivorAges() {
+        return survivorAges;
+    }
+
+    public void setSurvivorAges(boolean survivorAges) {
+        this.survivorAges = survivorAges;
+    }
+
+    public int getMaxTenuringThreshold() {
+        return maxTenuringThreshold;
+    }
+
+    public void setMaxTenuringThreshold(int maxTenuringThreshold) {
+        this.maxTenuringThreshold = maxTenuringThreshold;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public void setFiles(int files) {
+        this.files = files;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.gcplot.log_processor.parser;
+
+import com.gcplot.logs.LogsParser;
+import com.gcplot.logs.ParseResult;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.logs.mapping.Mapper;
+import com.gcplot.model.VMVersion;
+import com.gcplot.model.gc.GarbageCollectorType;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Chooses the parser of the log by the VM version and collector of its {@link ParserContext}. The logs of
+ * JDK 6-8 CMS, Parallel and G1 collectors go to the native {@code hotSpotParser}, the rest, like the older VMs
+ * or Serial collector, go to the {@code fallbackParser}. The raw events are mapped by the mapper of the same parser.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+@SuppressWarnings("unchecked")
+public class DelegatingLogsParser implements LogsParser<Object> {
+    private static final Set<VMVersion> NATIVE_VERSIONS = EnumSet.of(VMVersion.HOTSPOT_1_6, VMVersion.HOTSPOT_1_7,
+            VMVersion.HOTSPOT_1_8);
+    private static final Set<GarbageCollectorType> NATIVE_COLLECTORS = EnumSet.of(GarbageCollectorType.ORACLE_OLD_GC,
+            GarbageCollectorType.ORACLE_PAR_OLD_GC, GarbageCollectorType.ORACLE_CMS, GarbageCollectorType.ORACLE_G1);
+    protected LogsParser hotSpotParser;
+    protected LogsParser fallbackParser;
+    private final Mapper<Object> mapper = (noDatestampOffset, ctx, rawEvent) ->
+            parser(ctx).getMapper().map(noDatestampOffset, ctx, rawEvent);
+
+    @Override
+    public ParseResult parse(InputStream reader, Consumer<Object> eventsConsumer, ParserContext ctx) {
+        return parser(ctx).parse(reader, eventsConsumer, ctx);
+    }
+
+    @Override
+    public ParseResult parse(InputStream reader, Consumer<Object> eventsConsumer, ParserContext ctx, String parserState) {
+        return parser(ctx).parse(reader, eventsConsumer, ctx, parserState);
+    }
+
+    @Override
+    public ParseResult parse(File file, Consumer<Object> eventsConsumer, ParserContext ctx) {
+        return parser(ctx).parse(file, eventsConsumer, ctx);
+    }
+
+    @Override
+    public Mapper<Object> getMapper() {
+        return mapper;
+    }
+
+    /**
+     * @return true if the log is parsed by the native HotSpot parser
+     */
+    public boolean isNative(ParserContext ctx) {
+        return NATIVE_VERSIONS.contains(ctx.vmVersion()) && NATIVE_COLLECTORS.contains(ctx.collectorType());
+    }
+
+    protected LogsParser parser(ParserContext ctx) {
+        return isNative(ctx) ? hotSpotParser : fallbackParser;
+    }
+
+    public void setHotSpotParser(LogsParser hotSpotParser) {
+        this.hotSpotParser = hotSpotParser;
+    }
+
+    public void setFallbackParser(LogsParser fallbackParser) {
+        this.fallbackParser = fallbackParser;
+    }
+}
@@ -0,0 +1,172 @@
+package com.gcplot.log_processor.parser.adapter;
+
+import com.gcplot.model.Property;
+import com.gcplot.model.gc.Cause;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.gcplot.model.gc.Phase;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Classifies the descriptions of GCViewer events. A log has only a few dozen distinct descriptions,
+ * so each of them is scanned for all the known tokens at once on the first occurrence and then
+ * looked up, the events sharing a single description instance.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class DescriptionClassifier {
+    private static final Token[] TOKENS = Token.values();
+    // longer tokens go first, the shorter ones they contain are implied, see IMPLIED
+    private static final Pattern PATTERN = Pattern.compile(Arrays.stream(TOKENS)
+            .map(t -> t.text).sorted(Comparator.comparingInt(String::length).reversed())
+            .map(Pattern::quote).collect(Collectors.joining("|")));
+    private static final long[] IMPLIED = new long[TOKENS.length];
+    private final Cache<String, EventDescription>[] caches;
+
+    @SuppressWarnings("unchecked")
+    public DescriptionClassifier(long maximumSize) {
+        // the phase depends on whether it's G1 and whether the event is concurrent
+        caches = new Cache[4];
+        for (int i = 0; i < caches.length; i++) {
+            caches[i] = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        }
+    }
+
+    public EventDescription classify(String description, boolean concurrent, GarbageCollectorType collectorType) {
+        boolean g1 = collectorType == GarbageCollectorType.ORACLE_G1;
+        return caches[(g1 ? 2 : 0) + (concurrent ? 1 : 0)].get(description, d -> scan(d, concurrent, g1));
+    }
+
+    private static EventDescription scan(String description, boolean concurrent, boolean g1) {
+        long tokens = 0;
+        Matcher m = PATTERN.matcher(description);
+        while (m.find()) {
+            tokens |= IMPLIED[Token.of(m.group()).ordinal()];
+        }
+        Cause cause = Cause.OTHER;
+        for (Token t : TOKENS) {
+            if (t.cause != null && has(tokens, t)) {
+                cause = t.cause;
+                break;
+            }
+        }
+        long properties = 0;
+        if (description.trim().endsWith(Token.MIXED.text)) {
+            properties |= Property.G1_MIXED;
+        }
+        return new EventDescription(description, cause, phase(tokens, concurrent, g1), properties);
+    }
+
+    private static Phase phase(long tokens, boolean concurrent, boolean g1) {
+        if (g1) {
+            if (has(tokens, Token.INITIAL_MARK)) {
+                return Phase.G1_INITIAL_MARK;
+            } else if (has(tokens, Token.GC_PAUSE) && (has(tokens, Token.YOUNG) || has(tokens, Token.MIXED))) {
+                return Phase.G1_COPYING;
+            } else if (concurrent && has(tokens, Token.ROOT_REGION_SCAN)) {
+                return Phase.G1_ROOT_REGION_SCANNING;
+            } else if (concurrent && has(tokens, Token.CONCURRENT_MARK)) {
+                return Phase.G1_CONCURRENT_MARKING;
+            } else if (has(tokens, Token.GC_REMARK)) {
+                return Phase.G1_REMARK;
+            } else if (concurrent && has(tokens, Token.CONCURRENT_CLEANUP)) {
+                return Phase.G1_CLEANUP;
+            }
+        } else {
+            if (has(tokens, Token.CMS_INITIAL_MARK)) {
+                return Phase.CMS_INITIAL_MARK;
+            } else if (concurrent && has(tokens, Token.CMS_CONCURRENT_MARK)) {
+                return Phase.CMS_CONCURRENT_MARK;
+            } else if (concurrent && has(tokens, Token.CMS_CONCURRENT) && has(tokens, Token.PRECLEAN)) {
+                return Phase.CMS_CONCURRENT_PRECLEAN;
+            } else if (has(tokens, Token.CMS_REMARK)) {
+                return Phase.CMS_REMARK;
+            } else if (concurrent && has(tokens, Token.CMS_CONCURRENT_SWEEP)) {
+                return Phase.CMS_CONCURRENT_SWEEP;
+            } else if (concurrent && has(tokens, Token.CMS_CONCURRENT_RESET)) {
+                return Phase.CMS_CONCURRENT_RESET;
+            }
+        }
+        return Phase.OTHER;
+    }
+
+    private static boolean has(long tokens, Token t) {
+        return (tokens & (1L << t.ordinal())) != 0;
+    }
+
+    /**
+     * The causes go in the order of precedence.
+     */
+    private enum Token {
+        ALLOCATION_FAILURE("Allocation Failure", Cause.ALLOCATION_FAILURE),
+        G1_EVACUATION_PAUSE("G1 Evacuation Pause", Cause.G1_EVACUATION_PAUSE),
+        GC_LOCKER("GCLocker Initiated GC", Cause.GC_LOCKER),
+        SYSTEM_GC("System.gc()", Cause.SYSTEM_GC),
+        ALLOCATION_PROFILER("Allocation Profiler", Cause.ALLOCATION_PROFILER),
+        METADATA_GC_THRESHOLD("Metadata GC Threshold", Cause.METADATA_GC_THRESHOLD),
+        PERM_GENERATION_FULL("Permanent Generation Full", Cause.PERM_GENERATION_FULL),
+        HEAP_INSPECTION("Heap Inspection Initiated GC", Cause.HEAP_INSPECTION),
+        HEAP_DUMP("Heap Dump Initiated GC", Cause.HEAP_DUMP),
+        NO_GC("No GC", Cause.NO_GC),
+        ERGONOMICS("Ergonomics", Cause.ADAPTIVE_SIZE_ERGONOMICS),
+        G1_HUMONGOUS_ALLOCATION("G1 Humongous Allocation", Cause.G1_HUMONGOUS_ALLOCATION),
+        CMS_INITIAL_MARK_CAUSE("CMS Initial Mark", Cause.CMS_INITIAL_MARK),
+        CMS_FINAL_REMARK("CMS Final Remark", Cause.CMS_FINAL_REMARK),
+        LAST_DITCH_COLLECTION("Last ditch collection", Cause.LAST_DITCH_COLLECTION),
+        JVMTI_ENV("JvmtiEnv ForceGarbageCollection", Cause.JVMTI_ENV),
+        INITIAL_MARK("(initial-mark)"),
+        GC_PAUSE("GC pause"),
+        YOUNG("(young)"),
+        MIXED("(mixed)"),
+        ROOT_REGION_SCAN("root-region-scan"),
+        CONCURRENT_MARK("concurrent-mark"),
+        GC_REMARK("GC remark"),
+        CONCURRENT_CLEANUP("concurrent-cleanup"),
+        CMS_INITIAL_MARK("CMS-initial-mark"),
+        CMS_CONCURRENT_MARK("CMS-concurrent-mark"),
+        CMS_CONCURRENT_SWEEP("CMS-concurrent-sweep"),
+        CMS_CONCURRENT_RESET("CMS-concurrent-reset"),
+        CMS_CONCURRENT("CMS-concurrent"),
+        PRECLEAN("preclean"),
+        CMS_REMARK("CMS-remark");
+
+        private final String text;
+        private final Cause cause;
+
+        Token(String text) {
+            this(text, null);
+        }
+
+        Token(String text, Cause cause) {
+            this.text = text;
+            this.cause = cause;
+        }
+
+        static Token of(String text) {
+            for (Token t : TOKENS) {
+                if (t.text.equals(text)) {
+                    return t;
+                }
+            }
+            throw new IllegalArgumentException(text);
+        }
+    }
+
+    static {
+        for (Token t : TOKENS) {
+            for (Token contained : TOKENS) {
+                if (t.text.contains(contained.text)) {
+                    IMPLIED[t.ordinal()] |= 1L << contained.ordinal();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.gcplot.log_processor.parser.adapter;
+
+import com.gcplot.model.gc.Cause;
+import com.gcplot.model.gc.Phase;
+
+/**
+ * The classified description of a GCViewer event, see {@link DescriptionClassifier}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class EventDescription {
+
+    private final String description;
+    public String description() {
+        return description;
+    }
+
+    private final Cause cause;
+    public Cause cause() {
+        return cause;
+    }
+
+    private final Phase phase;
+    public Phase phase() {
+        return phase;
+    }
+
+    private final long properties;
+    public long properties() {
+        return properties;
+    }
+
+    public EventDescription(String description, Cause cause, Phase phase, long properties) {
+        this.description = description;
+        this.cause = cause;
+        this.phase = phase;
+        this.properties = properties;
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.gcplot.log_processor.parser.adapter;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.gcplot.commons.Metrics;
 import com.gcplot.configuration.ConfigurationManager;
 import com.gcplot.logs.ParseResult;
 import com.gcplot.log_processor.parser.producers.v8.MetadataInfoProducer;
@@ -7,19 +10,18 @@ import com.gcplot.log_processor.parser.producers.v8.SurvivorAgesInfoProducer;
 import com.gcplot.logs.LogsParser;
 import com.gcplot.logs.ParserContext;
 import com.gcplot.logs.mapping.Mapper;
-import com.gcplot.model.Property;
 import com.gcplot.model.gc.*;
 import com.tagtraum.perf.gcviewer.imp.GcLogType;
 import com.tagtraum.perf.gcviewer.model.AbstractGCEvent;
 import com.tagtraum.perf.gcviewer.model.ConcurrentGCEvent;
 import com.tagtraum.perf.gcviewer.model.GCResource;
 import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -27,13 +29,17 @@ import java.util.function.Consumer;
  *         7/24/16
  */
 public class GCViewerLogsParser implements LogsParser<AbstractGCEvent> {
+    private static final String RETAINED_EVENTS_METRIC = Metrics.name(GCViewerLogsParser.class, "model", "retained");
+    private static final int MODEL_BATCH_SIZE = 1024;
+    private static final int DESCRIPTIONS_CACHE_SIZE = 1024;
+    protected final DescriptionClassifier descriptionClassifier = new DescriptionClassifier(DESCRIPTIONS_CACHE_SIZE);
+    protected final LongAdder retainedEvents = new LongAdder();
     protected ConfigurationManager configurationManager;
     protected GCEventFactory eventFactory;
-    protected volatile DateTimeZone tz;
 
     @Override
     public ParseResult parse(InputStream reader, Consumer<AbstractGCEvent> eventsConsumer, ParserContext ctx) {
-        SurvivorAgesInfoProducer agesInfoProducer = new SurvivorAgesInfoProducer();
+        SurvivorAgesInfoProducer agesInfoProducer = new SurvivorAgesInfoProducer(ctx.agesWindowMillis(), ctx.agesConsumer());
         MetadataInfoProducer metadataInfoProducer = new MetadataInfoProducer();
         GCResource gcResource = new GCResource("default");
         gcResource.setLogger(ctx.logger());
@@ -45,21 +51,24 @@ public class GCViewerLogsParser implements LogsParser<AbstractGCEvent> {
         };
         try {
             if (ctx.collectorType() == GarbageCollectorType.ORACLE_G1) {
-                dr = new HotSpotG1DataReader(c, 1024, gcResource, reader, fetchLogType(ctx));
+                dr = new HotSpotG1DataReader(c, MODEL_BATCH_SIZE, gcResource, reader, fetchLogType(ctx));
             } else {
-                dr = new HotSpotDataReader(c, 1024, gcResource, reader, fetchLogType(ctx));
+                dr = new HotSpotDataReader(c, MODEL_BATCH_SIZE, gcResource, reader, fetchLogType(ctx));
             }
         } catch (UnsupportedEncodingException e) {
             return ParseResult.failure(e);
         }
         dr.excludedHandler(agesInfoProducer::parse);
         dr.headerHandler(metadataInfoProducer::parse);
+        dr.retainedEventsCounter(retainedEvents);
+        dr.addedHandler(e -> agesInfoProducer.occurred(occurredMillis(Mapper.START, e)));
         StreamGCModel model;
         try {
             model = dr.readStream().finish();
         } catch (IOException e) {
             return ParseResult.failure(e);
         }
+        agesInfoProducer.finish();
         // temp stuff
         return ParseResult.success(Collections.singletonList(agesInfoProducer.averageAgesState()), metadataInfoProducer.getLogMetadata());
     }
@@ -96,7 +105,8 @@ public class GCViewerLogsParser implements LogsParser<AbstractGCEvent> {
     }
 
     public GCEvent map(DateTime now, ParserContext ctx, AbstractGCEvent<?> event) {
-        String description = event.getTypeAsString();
+        EventDescription description = descriptionClassifier.classify(event.getTypeAsString(), event.isConcurrent(),
+                ctx.collectorType());
         VMEventType vmEventType = VMEventType.GARBAGE_COLLECTION;
         if (event.isVmEvent()) {
             vmEventType = VMEventType.STW_NON_GC;
@@ -105,17 +115,8 @@ public class GCViewerLogsParser implements LogsParser<AbstractGCEvent> {
         Capacity totalCapacity = Capacity.NONE;
         EventConcurrency concurrency = event.isConcurrent() ? EventConcurrency.CONCURRENT : EventConcurrency.SERIAL;
         EnumSet<Generation> generations = EnumSet.noneOf(Generation.class);
-        DateTime datestamp;
+        long datestamp = occurredMillis(now, event);
         Map<Generation, Capacity> capacityByGeneration = Collections.emptyMap();
-        if (event.getDatestamp() == null) {
-            datestamp = now.plusMillis((int)(event.getTimestamp() * 1000));
-        } else {
-            if (tz == null) {
-                TimeZone timeZone = TimeZone.getTimeZone(event.getDatestamp().getZone().getId());
-                tz = DateTimeZone.forTimeZone(timeZone);
-            }
-            datestamp = new DateTime(new DateTime(event.getDatestamp().toInstant().toEpochMilli(), tz), DateTimeZone.UTC);
-        }
         double pause = event.getPause();
         if (event.isConcurrent()) {
             ConcurrentGCEvent concurrentGCEvent = (ConcurrentGCEvent) event;
@@ -181,98 +182,22 @@ public class GCViewerLogsParser implements LogsParser<AbstractGCEvent> {
                 ctx.logger().warn("Strangely, an event is considered OTHER: {}", event);
             }
         }
-        Phase phase = detectPhase(ctx, event);
-        Cause cause = detectCause(event);
-        long properties = detectProperties(event);
-        return eventFactory.create(null, null, ctx.streamChecksum(), datestamp, description, vmEventType, capacity, totalCapacity,
-                event.getTimestamp(), (long)(pause * 1_000_000), nonNuN(event.getUser()), nonNuN(event.getSys()), nonNuN(event.getReal()),
-                generations, phase, cause, properties, concurrency, capacityByGeneration, "");
-    }
-
-    private double nonNuN(double v) {
-        return Double.isNaN(v) ? -1.0 : v;
-    }
-
-    private long detectProperties(AbstractGCEvent<?> event) {
-        String type = event.getTypeAsString().trim();
-        long properties = 0;
-        if (type.endsWith("(mixed)")) {
-            properties |= Property.G1_MIXED;
-        }
-        return properties;
+        return eventFactory.create(null, null, ctx.streamChecksum(), datestamp, description.description(), vmEventType, capacity,
+                totalCapacity, event.getTimestamp(), (long)(pause * 1_000_000), nonNuN(event.getUser()), nonNuN(event.getSys()),
+                nonNuN(event.getReal()), generations, description.phase(), description.cause(), description.properties(),
+                concurrency, capacityByGeneration, "");
     }
 
-    private Cause detectCause(AbstractGCEvent<?> event) {
-        String type = event.getTypeAsString();
-        if (type.contains("Allocation Failure")) {
-            return Cause.ALLOCATION_FAILURE;
-        } else if (type.contains("G1 Evacuation Pause")) {
-            return Cause.G1_EVACUATION_PAUSE;
-        } else if (type.contains("GCLocker Initiated GC")) {
-            return Cause.GC_LOCKER;
-        } else if (type.contains("System.gc()")) {
-            return Cause.SYSTEM_GC;
-        } else if (type.contains("Allocation Profiler")) {
-            return Cause.ALLOCATION_PROFILER;
-        } else if (type.contains("Metadata GC Threshold")) {
-            return Cause.METADATA_GC_THRESHOLD;
-        } else if (type.contains("Permanent Generation Full")) {
-            return Cause.PERM_GENERATION_FULL;
-        } else if (type.contains("Heap Inspection Initiated GC")) {
-            return Cause.HEAP_INSPECTION;
-        } else if (type.contains("Heap Dump Initiated GC")) {
-            return Cause.HEAP_DUMP;
-        } else if (type.contains("No GC")) {
-            return Cause.NO_GC;
-        } else if (type.contains("Ergonomics")) {
-            return Cause.ADAPTIVE_SIZE_ERGONOMICS;
-        } else if (type.contains("G1 Humongous Allocation")) {
-            return Cause.G1_HUMONGOUS_ALLOCATION;
-        } else if (type.contains("CMS Initial Mark")) {
-            return Cause.CMS_INITIAL_MARK;
-        } else if (type.contains("CMS Final Remark")) {
-            return Cause.CMS_FINAL_REMARK;
-        } else if (type.contains("Last ditch collection")) {
-            return Cause.LAST_DITCH_COLLECTION;
-        } else if (type.contains("JvmtiEnv ForceGarbageCollection")) {
-            return Cause.JVMTI_ENV;
+    private long occurredMillis(DateTime noDatestampOffset, AbstractGCEvent<?> event) {
+        if (event.getDatestamp() == null) {
+            return noDatestampOffset.getMillis() + (int)(event.getTimestamp() * 1000);
         } else {
-            return Cause.OTHER;
+            return event.getDatestamp().toInstant().toEpochMilli();
         }
     }
 
-    private Phase detectPhase(ParserContext ctx, AbstractGCEvent<?> event) {
-        String type = event.getTypeAsString();
-        if (ctx.collectorType() == GarbageCollectorType.ORACLE_G1) {
-            if (type.contains("(initial-mark)")) {
-                return Phase.G1_INITIAL_MARK;
-            } else if (type.contains("GC pause") && (type.contains("(young)") || type.contains("(mixed)"))) {
-                return Phase.G1_COPYING;
-            } else if (event.isConcurrent() && type.contains("root-region-scan")) {
-                return Phase.G1_ROOT_REGION_SCANNING;
-            } else if (event.isConcurrent() && type.contains("concurrent-mark")) {
-                return Phase.G1_CONCURRENT_MARKING;
-            } else if (type.contains("GC remark")) {
-                return Phase.G1_REMARK;
-            } else if (event.isConcurrent() && type.contains("concurrent-cleanup")) {
-                return Phase.G1_CLEANUP;
-            }
-        } else {
-            if (type.contains("CMS-initial-mark")) {
-                return Phase.CMS_INITIAL_MARK;
-            } else if (event.isConcurrent() && type.contains("CMS-concurrent-mark")) {
-                return Phase.CMS_CONCURRENT_MARK;
-            } else if (event.isConcurrent() && type.contains("CMS-concurrent") && type.contains("preclean")) {
-                return Phase.CMS_CONCURRENT_PRECLEAN;
-            } else if (type.contains("CMS-remark")) {
-                return Phase.CMS_REMARK;
-            } else if (event.isConcurrent() && type.contains("CMS-concurrent-sweep")) {
-                return Phase.CMS_CONCURRENT_SWEEP;
-            } else if (event.isConcurrent() && type.contains("CMS-concurrent-reset")) {
-                return Phase.CMS_CONCURRENT_RESET;
-            }
-        }
-        return Phase.OTHER;
+    private double nonNuN(double v) {
+        return Double.isNaN(v) ? -1.0 : v;
     }
 
     protected Generation metaspaceGeneration(String type) {
@@ -296,4 +221,11 @@ public class GCViewerLogsParser implements LogsParser<AbstractGCEvent> {
     public void setEventFactory(GCEventFactory eventFactory) {
         this.eventFactory = eventFactory;
     }
+
+    /**
+     * Registers the gauge of events held by the models of all the parsing sessions in progress.
+     */
+    public void setMetrics(MetricRegistry metrics) {
+        metrics.register(RETAINED_EVENTS_METRIC, (Gauge<Long>) retainedEvents::sum);
+    }
 }
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -19,6 +20,9 @@ import java.util.function.Consumer;
 public class HotSpotG1DataReader extends DataReaderSun1_6_0G1 implements StreamDataReader {
     private final Consumer<List<AbstractGCEvent<?>>> eventsConsumer;
     private final int batchSize;
+    private LongAdder retainedEvents;
+    private Consumer<AbstractGCEvent<?>> addedHandler;
+    private StreamGCModel model;
 
     public HotSpotG1DataReader(Consumer<List<AbstractGCEvent<?>>> eventsConsumer, int batchSize,
                                GCResource gcResource, InputStream in, GcLogType gcLogType)
@@ -30,18 +34,31 @@ public class HotSpotG1DataReader extends DataReaderSun1_6_0G1 implements StreamD
 
     @Override
     protected GCModel createGCModel() {
-        StreamGCModel model = new StreamGCModel();
+        model = new StreamGCModel();
         model.setG1(true);
         model.setEventsConsumer(eventsConsumer);
         if (batchSize > 0) {
             model.setBatchSize(batchSize);
         }
+        if (retainedEvents != null) {
+            model.setRetainedEvents(retainedEvents);
+        }
+        if (addedHandler != null) {
+            model.setAddedHandler(addedHandler);
+        }
         return model;
     }
 
     @Override
     public StreamGCModel readStream() throws IOException {
-        return (StreamGCModel) read();
+        try {
+            return (StreamGCModel) read();
+        } catch (IOException | RuntimeException e) {
+            if (model != null) {
+                model.release();
+            }
+            throw e;
+        }
     }
 
     @Override
@@ -49,6 +66,16 @@ public class HotSpotG1DataReader extends DataReaderSun1_6_0G1 implements StreamD
         setExcludedHandler(c);
     }
 
+    @Override
+    public void retainedEventsCounter(LongAdder counter) {
+        this.retainedEvents = counter;
+    }
+
+    @Override
+    public void addedHandler(Consumer<AbstractGCEvent<?>> c) {
+        this.addedHandler = c;
+    }
+
     @Override
     public void headerHandler(Consumer<String> c) {
         setHeaderHandler(c);
@@ -0,0 +1,93 @@
+package com.gcplot.log_processor.parser.adapter;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the last {@code capacity} added elements only - on overflow the oldest one is
+ * overwritten and passed to the eviction handler. Indexes start from the oldest retained element.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class RingList<T> extends AbstractList<T> implements RandomAccess {
+    private final Object[] elements;
+    private final Consumer<T> evictionHandler;
+    private int head;
+    private int size;
+
+    public RingList(int capacity) {
+        this(capacity, e -> {});
+    }
+
+    public RingList(int capacity, Consumer<T> evictionHandler) {
+        Preconditions.checkArgument(capacity > 0, "Capacity should be positive!");
+        this.elements = new Object[capacity];
+        this.evictionHandler = evictionHandler;
+    }
+
+    @Override
+    public boolean add(T e) {
+        modCount++;
+        if (size == elements.length) {
+            T evicted = elementAt(head);
+            elements[head] = e;
+            head = next(head);
+            evictionHandler.accept(evicted);
+        } else {
+            elements[index(size++)] = e;
+        }
+        return true;
+    }
+
+    @Override
+    public T get(int index) {
+        Preconditions.checkElementIndex(index, size);
+        return elementAt(index(index));
+    }
+
+    @Override
+    public T set(int index, T e) {
+        Preconditions.checkElementIndex(index, size);
+        T old = elementAt(index(index));
+        elements[index(index)] = e;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        for (int i = 0; i < size; i++) {
+            elements[index(i)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int i) {
+        return (T) elements[i];
+    }
+
+    private int index(int i) {
+        int idx = head + i;
+        return idx >= elements.length ? idx - elements.length : idx;
+    }
+
+    private int next(int i) {
+        return i + 1 == elements.length ? 0 : i + 1;
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.gcplot.log_processor.parser.adapter;
 
+import com.tagtraum.perf.gcviewer.model.AbstractGCEvent;
+
 import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -15,4 +18,14 @@ public interface StreamDataReader {
 
     void headerHandler(Consumer<String> c);
 
+    /**
+     * The counter to account the events held by the model in.
+     */
+    void retainedEventsCounter(LongAdder counter);
+
+    /**
+     * Called with every event in the log order, as soon as it's read.
+     */
+    void addedHandler(Consumer<AbstractGCEvent<?>> c);
+
 }
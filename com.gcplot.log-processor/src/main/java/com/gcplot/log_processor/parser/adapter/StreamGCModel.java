@@ -7,9 +7,15 @@ import com.tagtraum.perf.gcviewer.model.GCModel;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
+ * GCViewer's model which doesn't accumulate the whole log. Its lists are replaced with rings, so
+ * only the last {@code batchSize} events are retained for the reader to look back at, and the older
+ * ones are passed to the consumer in batches of {@code batchSize / 2}. Thus a parsing session never
+ * holds more than {@code 1.5 * batchSize} events, no matter how long the log is.
+ *
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         8/7/16
  */
@@ -18,6 +24,13 @@ public class StreamGCModel extends GCModel {
     private static final int DEFAULT_BATCH_SIZE = 1 << 9;
     private boolean isG1 = false;
     private com.tagtraum.perf.gcviewer.model.GCEvent lastYoungEvent;
+    private List<AbstractGCEvent<?>> batch;
+    private LongAdder retainedEvents = new LongAdder();
+    private Consumer<AbstractGCEvent<?>> addedHandler = e -> {};
+
+    public StreamGCModel() {
+        window(DEFAULT_BATCH_SIZE);
+    }
 
     private int batchSize = DEFAULT_BATCH_SIZE;
     public int getBatchSize() {
@@ -27,14 +40,32 @@ public class StreamGCModel extends GCModel {
         Preconditions.checkArgument(Integer.bitCount(batchSize) == 1, "Batch size should be of power of 2 (bs=2^N)!");
         Preconditions.checkArgument(batchSize > BATCH_SIZE_MIN_THRESHOLD, "Batch size should be higher than %s!", BATCH_SIZE_MIN_THRESHOLD);
         this.batchSize = batchSize;
+        window(batchSize);
         return this;
     }
 
+    /**
+     * The batches are reused, so the consumer shouldn't keep a reference to them.
+     */
     private Consumer<List<AbstractGCEvent<?>>> eventsConsumer;
     public void setEventsConsumer(Consumer<List<AbstractGCEvent<?>>> eventsConsumer) {
         this.eventsConsumer = eventsConsumer;
     }
 
+    /**
+     * Called with every event as soon as it's read, before it's batched.
+     */
+    public void setAddedHandler(Consumer<AbstractGCEvent<?>> addedHandler) {
+        this.addedHandler = addedHandler;
+    }
+
+    /**
+     * The counter of events currently held by the model, usually shared by all parsing sessions.
+     */
+    public void setRetainedEvents(LongAdder retainedEvents) {
+        this.retainedEvents = retainedEvents;
+    }
+
     public boolean isG1() {
         return isG1;
     }
@@ -52,46 +83,53 @@ public class StreamGCModel extends GCModel {
                 g1e.setLastYoung(lastYoungEvent);
             }
         }
-        if (allEvents.size() % batchSize == 0 && allEvents.size() > 0) {
-            processNextBatch();
-        }
         if (e != null) {
+            addedHandler.accept(e);
+            retainedEvents.increment();
             super.add(e);
         }
     }
 
     public StreamGCModel finish() {
-        eventsConsumer.accept(allEvents);
+        batch.addAll(allEvents);
+        allEvents.clear();
+        flush();
         return this;
     }
 
-    private void processNextBatch() {
-        int size = allEvents.size();
-        List<AbstractGCEvent<?>> toConsume = new ArrayList<>(allEvents.subList(0, size / 2));
-        allEvents = cutBy(allEvents, 2);
-        if (stopTheWorldEvents.size() >= BATCH_SIZE_MIN_THRESHOLD) {
-            stopTheWorldEvents = cutBy(stopTheWorldEvents, 2);
-        }
-        if (gcEvents.size() >= BATCH_SIZE_MIN_THRESHOLD) {
-            gcEvents = cutBy(gcEvents, 2);
-        }
-        if (vmOperationEvents.size() >= BATCH_SIZE_MIN_THRESHOLD) {
-            vmOperationEvents = cutBy(vmOperationEvents, 2);
-        }
-        if (concurrentGCEvents.size() >= BATCH_SIZE_MIN_THRESHOLD) {
-            concurrentGCEvents = cutBy(concurrentGCEvents, 2);
-        }
-        if (currentNoFullGCEvents.size() >= BATCH_SIZE_MIN_THRESHOLD) {
-            currentNoFullGCEvents = cutBy(currentNoFullGCEvents, 2);
-        }
-        if (fullGCEvents.size() >= BATCH_SIZE_MIN_THRESHOLD) {
-            fullGCEvents = cutBy(fullGCEvents, 2);
+    /**
+     * Forgets the retained events without passing them to the consumer, e.g. when the log can't be read.
+     */
+    public void release() {
+        retainedEvents.add(-(allEvents.size() + batch.size()));
+        allEvents.clear();
+        batch.clear();
+    }
+
+    private void window(int batchSize) {
+        batch = new ArrayList<>(batchSize >> 1);
+        allEvents = new RingList<>(batchSize, this::evicted);
+        int size = Math.max(BATCH_SIZE_MIN_THRESHOLD, batchSize >> 1);
+        stopTheWorldEvents = new RingList<>(size);
+        gcEvents = new RingList<>(size);
+        vmOperationEvents = new RingList<>(size);
+        concurrentGCEvents = new RingList<>(size);
+        currentNoFullGCEvents = new RingList<>(size);
+        fullGCEvents = new RingList<>(size);
+    }
+
+    private void evicted(AbstractGCEvent<?> e) {
+        batch.add(e);
+        if (batch.size() == batchSize >> 1) {
+            flush();
         }
-        eventsConsumer.accept(toConsume);
     }
 
-    private <T> List<T> cutBy(List<T> list, int ratio) {
-        int size = list.size();
-        return new ArrayList<>(list.subList(size / ratio, size));
+    private void flush() {
+        if (batch.size() > 0) {
+            eventsConsumer.accept(batch);
+            retainedEvents.add(-batch.size());
+            batch.clear();
+        }
     }
 }
@@ -28,19 +28,9 @@ public class DefaultVMPropertiesDetector implements VMPropertiesDetector {
             try (BufferedReader br = new BufferedReader(new InputStreamReader(is.logStream()))) {
                 Iterator<String> i = br.lines().iterator();
                 while (i.hasNext()) {
-                    String s = i.next();
-                    if (s.indexOf(" (young)") > 0 || s.indexOf(" (mixed)") > 0 || s.indexOf("G1Ergonomics") > 0) {
-                        return new VMProperties(VMVersion.HOTSPOT_1_6, GarbageCollectorType.ORACLE_G1);
-                    } else if (s.indexOf("[Times:") > 0) {
-                        return new VMProperties(VMVersion.HOTSPOT_1_6, GarbageCollectorType.ORACLE_PAR_OLD_GC);
-                    } else if (s.contains("CMS-initial-mark") || s.contains("PSYoungGen")) {
-                        return new VMProperties(VMVersion.HOTSPOT_1_5, GarbageCollectorType.ORACLE_CMS);
-                    } else if (s.contains(": [GC")) {
-                        return new VMProperties(VMVersion.HOTSPOT_1_4, GarbageCollectorType.ORACLE_PAR_OLD_GC);
-                    } else if (s.contains("[GC") || s.contains("[Full GC") || s.contains("[Inc GC")) {
-                        return new VMProperties(VMVersion.HOTSPOT_1_3_1, GarbageCollectorType.ORACLE_PAR_OLD_GC);
-                    } else if (s.contains("<GC: managing allocation failure: need ")) {
-                        return new VMProperties(VMVersion.HOTSPOT_1_2_2, GarbageCollectorType.ORACLE_PAR_OLD_GC);
+                    VMProperties props = detect(i.next());
+                    if (props != VMProperties.EMPTY) {
+                        return props;
                     }
                 }
             }
@@ -51,4 +41,22 @@ public class DefaultVMPropertiesDetector implements VMPropertiesDetector {
         }
     }
 
+    @Override
+    public VMProperties detect(String s) {
+        if (s.indexOf(" (young)") > 0 || s.indexOf(" (mixed)") > 0 || s.indexOf("G1Ergonomics") > 0) {
+            return new VMProperties(VMVersion.HOTSPOT_1_6, GarbageCollectorType.ORACLE_G1);
+        } else if (s.indexOf("[Times:") > 0) {
+            return new VMProperties(VMVersion.HOTSPOT_1_6, GarbageCollectorType.ORACLE_PAR_OLD_GC);
+        } else if (s.contains("CMS-initial-mark") || s.contains("PSYoungGen")) {
+            return new VMProperties(VMVersion.HOTSPOT_1_5, GarbageCollectorType.ORACLE_CMS);
+        } else if (s.contains(": [GC")) {
+            return new VMProperties(VMVersion.HOTSPOT_1_4, GarbageCollectorType.ORACLE_PAR_OLD_GC);
+        } else if (s.contains("[GC") || s.contains("[Full GC") || s.contains("[Inc GC")) {
+            return new VMProperties(VMVersion.HOTSPOT_1_3_1, GarbageCollectorType.ORACLE_PAR_OLD_GC);
+        } else if (s.contains("<GC: managing allocation failure: need ")) {
+            return new VMProperties(VMVersion.HOTSPOT_1_2_2, GarbageCollectorType.ORACLE_PAR_OLD_GC);
+        }
+        return VMProperties.EMPTY;
+    }
+
 }
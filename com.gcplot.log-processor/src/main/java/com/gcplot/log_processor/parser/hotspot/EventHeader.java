@@ -0,0 +1,156 @@
+package com.gcplot.log_processor.parser.hotspot;
+
+import com.gcplot.model.Property;
+import com.gcplot.model.gc.Cause;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.gcplot.model.gc.Phase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The classified top-level part of an event line, e.g. "GC (Allocation Failure)" or
+ * "GC pause (G1 Evacuation Pause) (mixed)". A log contains only a handful of distinct
+ * headers, so they are classified once and then looked up by their bytes.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class EventHeader {
+    private static final Map<String, Cause> CAUSES = new HashMap<>();
+    public static final EventHeader IGNORED = new EventHeader("", Kind.IGNORED, Cause.OTHER, Phase.OTHER, 0);
+
+    public enum Kind {
+        GC, FULL_GC, G1_PAUSE, G1_REMARK, G1_CLEANUP, CONCURRENT, IGNORED
+    }
+
+    private final String description;
+    public String description() {
+        return description;
+    }
+
+    private final Kind kind;
+    public Kind kind() {
+        return kind;
+    }
+
+    private final Cause cause;
+    public Cause cause() {
+        return cause;
+    }
+
+    private final Phase phase;
+    public Phase phase() {
+        return phase;
+    }
+
+    private final long properties;
+    public long properties() {
+        return properties;
+    }
+
+    public EventHeader(String description, Kind kind, Cause cause, Phase phase, long properties) {
+        this.description = description;
+        this.kind = kind;
+        this.cause = cause;
+        this.phase = phase;
+        this.properties = properties;
+    }
+
+    public static EventHeader classify(String description, GarbageCollectorType collectorType) {
+        int groupStart = description.indexOf('(');
+        String name = (groupStart < 0 ? description : description.substring(0, groupStart)).trim();
+        Kind kind = kind(name);
+        if (kind == Kind.IGNORED) {
+            return IGNORED;
+        }
+        Cause cause = Cause.OTHER;
+        long properties = 0;
+        while (groupStart >= 0) {
+            int groupEnd = description.indexOf(')', groupStart);
+            if (groupEnd < 0) {
+                break;
+            }
+            String group = description.substring(groupStart + 1, groupEnd);
+            if (cause == Cause.OTHER) {
+                cause = CAUSES.getOrDefault(group, Cause.OTHER);
+            }
+            if (group.equals("mixed")) {
+                properties |= Property.G1_MIXED;
+            }
+            groupStart = description.indexOf('(', groupEnd);
+        }
+        return new EventHeader(description, kind, cause, phase(description, kind, collectorType), properties);
+    }
+
+    private static Kind kind(String name) {
+        if (name.endsWith("-start")) {
+            return Kind.IGNORED;
+        }
+        switch (name) {
+            case "GC":
+            case "GC--": return Kind.GC;
+            case "Full GC": return Kind.FULL_GC;
+            case "GC pause": return Kind.G1_PAUSE;
+            case "GC remark": return Kind.G1_REMARK;
+            case "GC cleanup": return Kind.G1_CLEANUP;
+            default: if (name.startsWith("GC concurrent-") || name.startsWith("CMS-concurrent-")) {
+                return Kind.CONCURRENT;
+            } else {
+                return Kind.IGNORED;
+            }
+        }
+    }
+
+    private static Phase phase(String description, Kind kind, GarbageCollectorType collectorType) {
+        if (collectorType == GarbageCollectorType.ORACLE_G1) {
+            if (description.contains("(initial-mark)")) {
+                return Phase.G1_INITIAL_MARK;
+            } else if (kind == Kind.G1_PAUSE && (description.contains("(young)") || description.contains("(mixed)"))) {
+                return Phase.G1_COPYING;
+            } else if (kind == Kind.G1_REMARK) {
+                return Phase.G1_REMARK;
+            } else if (kind == Kind.CONCURRENT) {
+                if (description.contains("root-region-scan")) {
+                    return Phase.G1_ROOT_REGION_SCANNING;
+                } else if (description.contains("concurrent-mark")) {
+                    return Phase.G1_CONCURRENT_MARKING;
+                } else if (description.contains("concurrent-cleanup")) {
+                    return Phase.G1_CLEANUP;
+                }
+            }
+        } else if (kind == Kind.CONCURRENT) {
+            // CMS-initial-mark and CMS-remark are nested blocks of a "GC" event, see HotSpotLogReader
+            if (description.startsWith("CMS-concurrent-mark")) {
+                return Phase.CMS_CONCURRENT_MARK;
+            } else if (description.contains("preclean")) {
+                return Phase.CMS_CONCURRENT_PRECLEAN;
+            } else if (description.startsWith("CMS-concurrent-sweep")) {
+                return Phase.CMS_CONCURRENT_SWEEP;
+            } else if (description.startsWith("CMS-concurrent-reset")) {
+                return Phase.CMS_CONCURRENT_RESET;
+            }
+        }
+        return Phase.OTHER;
+    }
+
+    static {
+        CAUSES.put("Allocation Failure", Cause.ALLOCATION_FAILURE);
+        CAUSES.put("G1 Evacuation Pause", Cause.G1_EVACUATION_PAUSE);
+        CAUSES.put("GCLocker Initiated GC", Cause.GC_LOCKER);
+        CAUSES.put("System.gc()", Cause.SYSTEM_GC);
+        CAUSES.put("Allocation Profiler", Cause.ALLOCATION_PROFILER);
+        CAUSES.put("Metadata GC Threshold", Cause.METADATA_GC_THRESHOLD);
+        CAUSES.put("Permanent Generation Full", Cause.PERM_GENERATION_FULL);
+        CAUSES.put("Heap Inspection Initiated GC", Cause.HEAP_INSPECTION);
+        CAUSES.put("Heap Dump Initiated GC", Cause.HEAP_DUMP);
+        CAUSES.put("No GC", Cause.NO_GC);
+        CAUSES.put("Ergonomics", Cause.ADAPTIVE_SIZE_ERGONOMICS);
+        CAUSES.put("G1 Humongous Allocation", Cause.G1_HUMONGOUS_ALLOCATION);
+        CAUSES.put("CMS Initial Mark", Cause.CMS_INITIAL_MARK);
+        CAUSES.put("CMS Final Remark", Cause.CMS_FINAL_REMARK);
+        CAUSES.put("Last ditch collection", Cause.LAST_DITCH_COLLECTION);
+        CAUSES.put("JvmtiEnv ForceGarbageCollection", Cause.JVMTI_ENV);
+    }
+
+}
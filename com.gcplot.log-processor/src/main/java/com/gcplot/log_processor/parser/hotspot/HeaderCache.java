@@ -0,0 +1,83 @@
+package com.gcplot.log_processor.parser.hotspot;
+
+import com.gcplot.model.gc.GarbageCollectorType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Open-addressing cache of {@link EventHeader} keyed by the raw header bytes, so that
+ * a hit costs neither a String nor a key object. Not thread-safe, one per parsing session.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class HeaderCache {
+    private final GarbageCollectorType collectorType;
+    private byte[][] keys = new byte[64][];
+    private EventHeader[] values = new EventHeader[64];
+    private int size;
+
+    public HeaderCache(GarbageCollectorType collectorType) {
+        this.collectorType = collectorType;
+    }
+
+    public EventHeader get(byte[] b, int from, int to) {
+        int hash = hash(b, from, to);
+        int mask = keys.length - 1;
+        int i = hash & mask;
+        while (keys[i] != null) {
+            if (equals(keys[i], b, from, to)) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        EventHeader header = EventHeader.classify(new String(b, from, to - from, StandardCharsets.US_ASCII).intern(),
+                collectorType);
+        keys[i] = Arrays.copyOfRange(b, from, to);
+        values[i] = header;
+        if (++size > keys.length >> 1) {
+            rehash();
+        }
+        return header;
+    }
+
+    private void rehash() {
+        byte[][] oldKeys = keys;
+        EventHeader[] oldValues = values;
+        keys = new byte[oldKeys.length << 1][];
+        values = new EventHeader[oldKeys.length << 1];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = hash(oldKeys[j], 0, oldKeys[j].length) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private static int hash(byte[] b, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + b[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(byte[] key, byte[] b, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != b[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,1058 @@
+package com.gcplot.log_processor.parser.hotspot;
+
+import com.gcplot.logs.ParserContext;
+import com.gcplot.logs.mapping.Mapper;
+import com.gcplot.model.gc.*;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Single parsing session over a HotSpot (JDK 6-8) CMS/Parallel/Serial/G1 log.
+ *
+ * Lines are handled as raw bytes. Event text which spans several lines (tenuring distribution,
+ * reference processing, G1 details) is accumulated into one reusable buffer until its brackets
+ * are balanced, then scanned once for the header, generation blocks, heap, pause and times.
+ * Not thread-safe, create one per stream.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class HotSpotLogReader {
+    private static final int MAX_EVENT_LENGTH = 1 << 16;
+    private static final int MAX_NESTED = 4;
+    private static final long START_MILLIS = Mapper.START.getMillis();
+    private static final double[] POW10 = new double[19];
+
+    private static final int IDLE = 0;
+    private static final int OPEN = 1;
+    private static final int CLOSED = 2;
+
+    private static final int B_NONE = 0;
+    private static final int B_YOUNG = 1;
+    private static final int B_TENURED = 2;
+    private static final int B_PERM = 3;
+    private static final int B_METASPACE = 4;
+    private static final int B_INITIAL_MARK = 5;
+    private static final int B_REMARK = 6;
+    private static final int B_CONCURRENT = 7;
+    // order matters, longer names sharing a prefix go first
+    private static final byte[][] BLOCK_NAMES = {
+            ascii("CMS-concurrent-"), ascii("CMS Perm"), ascii("CMS"), ascii("ParNew"), ascii("DefNew"),
+            ascii("PSYoungGen"), ascii("ASParNew"), ascii("ASPSYoungGen"), ascii("ASCMS"), ascii("Tenured"),
+            ascii("ParOldGen"), ascii("PSOldGen"), ascii("PSPermGen"), ascii("Perm"), ascii("Metaspace"),
+            ascii("1 CMS-initial-mark"), ascii("1 CMS-remark")
+    };
+    private static final int[] BLOCK_KINDS = {
+            B_CONCURRENT, B_PERM, B_TENURED, B_YOUNG, B_YOUNG,
+            B_YOUNG, B_YOUNG, B_YOUNG, B_TENURED, B_TENURED,
+            B_TENURED, B_TENURED, B_PERM, B_PERM, B_METASPACE,
+            B_INITIAL_MARK, B_REMARK
+    };
+
+    private static final byte[] AGES_PREFIX = ascii("- age");
+    private static final byte[] DESIRED_PREFIX = ascii("Desired");
+    private static final byte[] MEMORY_PREFIX = ascii("Memory:");
+    private static final byte[] CMD_PREFIX = ascii("CommandLine flags:");
+    private static final byte[] G1_ERGONOMICS = ascii("[G1Ergonomics");
+    private static final byte[] TAIL = ascii("] ");
+    private static final byte[] TIMES = ascii("[Times:");
+    private static final byte[] USER = ascii("user=");
+    private static final byte[] SYS = ascii("sys=");
+    private static final byte[] REAL = ascii("real=");
+    private static final byte[] SECS = ascii(" secs");
+    private static final byte[] EDEN = ascii("[Eden:");
+    private static final byte[] SURVIVORS = ascii("Survivors:");
+    private static final byte[] HEAP = ascii("Heap:");
+    private static final byte[] METASPACE = ascii("[Metaspace:");
+    private static final byte[] STOPPED = ascii("Total time for which application threads were stopped: ");
+    private static final String STOPPED_DESCRIPTION = "Total time for which application threads were stopped";
+
+    private final ParserContext ctx;
+    private final GCEventFactory eventFactory;
+    private final Consumer<GCEvent> eventsConsumer;
+    private final Consumer<String> agesConsumer;
+    private final Consumer<String> headerConsumer;
+    private final HeaderCache headers;
+    private final boolean isG1;
+
+    private int state = IDLE;
+    private byte[] ev = new byte[1024];
+    private int evLen;
+    private int depth;
+    private int eventStart;
+    private int headerEnd;
+    private int closeIdx;
+    private EventHeader header;
+    private double timestamp;
+    private long datestamp;
+    private boolean hasDatestamp;
+    private long firstDatestamp = Long.MIN_VALUE;
+
+    // prefix of the current line
+    private double lineTimestamp;
+    private boolean lineHasTimestamp;
+    private long lineDatestamp;
+    private boolean lineHasDatestamp;
+
+    // number and memory parsing results
+    private double num;
+    private long mem;
+    private long mPre, mPost, mTotal;
+
+    // values of the pending event
+    private double lastTimestamp;
+    private double pauseSecs;
+    private double concurrentDuration;
+    private double user, sys, real;
+    private boolean hasHeap, hasYoung, hasTenured, hasPerm, hasEden, permIsMetaspace;
+    private long heapPre, heapPost, heapTotal;
+    private long youngPre, youngPost, youngTotal;
+    private long tenuredPre, tenuredPost, tenuredTotal;
+    private long permPre, permPost, permTotal;
+    private long edenPre, edenPost, edenTotal, survivorPre, survivorPost;
+    private Phase cmsPhase;
+    private final EventHeader[] nestedHeaders = new EventHeader[MAX_NESTED];
+    private final double[] nestedTimestamps = new double[MAX_NESTED];
+    private final double[] nestedDurations = new double[MAX_NESTED];
+    private int nestedCount;
+
+    // the last G1 young collection, used to estimate tenured capacity of remark/cleanup
+    private Capacity lastYoung;
+    private Capacity lastYoungTotal;
+    // indexes of remark/cleanup events published before any young collection of this session
+    private final IntList unresolved = new IntArrayList();
+    private int published;
+
+    // resumable sessions skip the unterminated last line and track where the next session should start
+    private boolean resumable;
+    private long consumed;
+    // where the line being read and the line which started the pending event start
+    private long lineOffset;
+    private long eventOffset;
+
+    public HotSpotLogReader(ParserContext ctx, GCEventFactory eventFactory, Consumer<GCEvent> eventsConsumer,
+                            Consumer<String> agesConsumer, Consumer<String> headerConsumer) {
+        this.ctx = ctx;
+        this.eventFactory = eventFactory;
+        this.eventsConsumer = eventsConsumer;
+        this.agesConsumer = agesConsumer;
+        this.headerConsumer = headerConsumer;
+        this.headers = new HeaderCache(ctx.collectorType());
+        this.isG1 = ctx.collectorType() == GarbageCollectorType.ORACLE_G1;
+        reset();
+    }
+
+    public void read(InputStream in) throws IOException {
+        read(new LineReader(in));
+    }
+
+    public void read(ByteBuffer buffer) throws IOException {
+        read(new LineReader(buffer));
+    }
+
+    private void read(LineReader lr) throws IOException {
+        lineOffset = 0;
+        while (lr.next()) {
+            if (resumable && !lr.terminated()) {
+                break;
+            }
+            if (!lr.truncated()) {
+                line(lr.line(), lr.length());
+            }
+            lineOffset = lr.position();
+            // even the closed event might be followed by its details, so the next session reads it once again
+            consumed = state == IDLE ? lineOffset : eventOffset;
+        }
+        finish();
+    }
+
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
+
+    /**
+     * @return the number of bytes read by this session after which there is nothing left to emit, the pending
+     * event is left to the next session, see {@link #finish()}
+     */
+    public long consumed() {
+        return consumed;
+    }
+
+    /**
+     * @return the state which the next session over the rest of the log should be {@link #restore(String) restored} with
+     */
+    public String checkpoint() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("firstDatestamp=").append(firstDatestamp);
+        if (lastYoung != null) {
+            sb.append(";lastYoung=").append(capacity(lastYoung));
+            sb.append(";lastYoungTotal=").append(capacity(lastYoungTotal));
+        }
+        return sb.toString();
+    }
+
+    public void restore(String checkpoint) {
+        for (String entry : checkpoint.split(";")) {
+            int i = entry.indexOf('=');
+            if (i < 0) {
+                continue;
+            }
+            String value = entry.substring(i + 1);
+            switch (entry.substring(0, i)) {
+                case "firstDatestamp": firstDatestamp = Long.parseLong(value); break;
+                case "lastYoung": lastYoung = capacity(value); break;
+                case "lastYoungTotal": lastYoungTotal = capacity(value); break;
+            }
+        }
+        if (lastYoung == null || lastYoungTotal == null) {
+            lastYoung = lastYoungTotal = null;
+        }
+    }
+
+    private static String capacity(Capacity c) {
+        return c.usedBefore() + "," + c.usedAfter() + "," + c.total();
+    }
+
+    private static Capacity capacity(String s) {
+        String[] parts = s.split(",");
+        return Capacity.of(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    public void line(byte[] l, int len) {
+        if (state == OPEN) {
+            if (startsWith(l, 0, len, AGES_PREFIX) || startsWith(l, 0, len, DESIRED_PREFIX)) {
+                agesConsumer.accept(new String(l, 0, len, StandardCharsets.UTF_8));
+                return;
+            }
+            int p = prefix(l, 0, len);
+            if (p >= 0 && p < len && l[p] == '[') {
+                if (startsWith(l, p, len, G1_ERGONOMICS)) {
+                    return;
+                }
+                if (isStopTheWorldStart(l, p, len)) {
+                    ctx.logger().debug("Incomplete event dropped: {}", new String(ev, 0, evLen, StandardCharsets.UTF_8));
+                    reset();
+                    state = IDLE;
+                    line(l, len);
+                    return;
+                }
+            }
+            int from = evLen;
+            append(l, len);
+            close(balance(from));
+            if (state == OPEN && evLen > MAX_EVENT_LENGTH) {
+                ctx.logger().debug("Too long event dropped: {}", new String(ev, 0, 256, StandardCharsets.UTF_8));
+                reset();
+                state = IDLE;
+            }
+            return;
+        }
+        if (state == CLOSED) {
+            int s = skipSpaces(l, 0, len);
+            if (startsWith(l, s, len, TIMES)) {
+                times(l, s, len);
+                emit();
+                return;
+            } else if (startsWith(l, s, len, EDEN)) {
+                g1Details(l, s, len);
+                return;
+            } else if (s > 0 && s < len && l[s] == '[') {
+                // the rest of G1 details, like [Parallel Time: ...]
+                return;
+            } else if (indexOf(l, s, len, G1_ERGONOMICS) >= 0) {
+                return;
+            }
+            emit();
+        }
+        if (startsWith(l, 0, len, AGES_PREFIX) || startsWith(l, 0, len, DESIRED_PREFIX)) {
+            agesConsumer.accept(new String(l, 0, len, StandardCharsets.UTF_8));
+            return;
+        } else if (startsWith(l, 0, len, MEMORY_PREFIX) || startsWith(l, 0, len, CMD_PREFIX)) {
+            headerConsumer.accept(new String(l, 0, len, StandardCharsets.UTF_8));
+            return;
+        }
+        int from = 0;
+        int p;
+        while (true) {
+            p = prefix(l, from, len);
+            if (p < 0 || p >= len || l[p] != '[') {
+                break;
+            }
+            int he = headerEnd(l, p + 1, len);
+            EventHeader h = headers.get(l, p + 1, he);
+            if (h.kind() != EventHeader.Kind.IGNORED) {
+                start(l, len, p, he, h);
+                return;
+            } else if (lineHasTimestamp || lineHasDatestamp) {
+                return;
+            }
+            // an event might follow the tail of some diagnostic output, like
+            // " [4 iterations, 0 waits, 66075 cards)] 2016-04-12T18:00:30.108+0000: 5109.077: [CMS-concurrent-..."
+            from = indexOf(l, p, len, TAIL);
+            if (from < 0) {
+                return;
+            }
+            from += TAIL.length;
+        }
+        if (p >= 0 && p < len && (lineHasTimestamp || lineHasDatestamp) && startsWith(l, p, len, STOPPED)) {
+            number(l, p + STOPPED.length, len);
+            user = sys = real = -1;
+            publish(STOPPED_DESCRIPTION, VMEventType.STW_NON_GC, Capacity.NONE, Capacity.NONE, lineTimestamp(),
+                    occurred(lineTimestamp(), lineDatestamp, lineHasDatestamp), num, EnumSet.of(Generation.OTHER),
+                    Phase.OTHER, Cause.OTHER, 0, EventConcurrency.SERIAL, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Emits the closed event which might still miss its details, unless the session is resumable, as the next
+     * session reads the event once again along with the rest of it.
+     */
+    public void finish() {
+        if (state == CLOSED && !resumable) {
+            emit();
+        } else if (state == CLOSED) {
+            ctx.logger().debug("Closed event at the end of log left to the next session: {}",
+                    new String(ev, 0, evLen, StandardCharsets.UTF_8));
+            reset();
+            state = IDLE;
+        } else if (state == OPEN) {
+            ctx.logger().debug("Incomplete event at the end of log dropped: {}", new String(ev, 0, evLen, StandardCharsets.UTF_8));
+            reset();
+            state = IDLE;
+        }
+    }
+
+    /**
+     * Classifies the line regardless of the reader state, without changing it.
+     *
+     * @return the kind of the event the line starts, {@link EventHeader.Kind#IGNORED} if it starts none
+     */
+    public EventHeader.Kind eventKind(byte[] l, int len) {
+        int p = prefix(l, 0, len);
+        if (p < 0 || p >= len || l[p] != '[' || !(lineHasTimestamp || lineHasDatestamp)) {
+            return EventHeader.Kind.IGNORED;
+        }
+        return headers.get(l, p + 1, headerEnd(l, p + 1, len)).kind();
+    }
+
+    /**
+     * @return the datestamp of the line last passed to {@link #eventKind}, or {@link Long#MIN_VALUE} if it has none
+     */
+    public long lineDatestamp() {
+        return lineHasDatestamp ? lineDatestamp : Long.MIN_VALUE;
+    }
+
+    /**
+     * Logs with datestamps only have timestamps relative to the first event. A session which
+     * starts in the middle of the log should be given the datestamp of the first event of the log.
+     */
+    public void setFirstDatestamp(long firstDatestamp) {
+        this.firstDatestamp = firstDatestamp;
+    }
+
+    public Capacity lastYoung() {
+        return lastYoung;
+    }
+
+    public Capacity lastYoungTotal() {
+        return lastYoungTotal;
+    }
+
+    /**
+     * @return indexes (in the order of publishing) of G1 remark/cleanup events which have no tenured
+     * capacity, because there was no young collection before them in this session
+     */
+    public IntList unresolved() {
+        return unresolved;
+    }
+
+    /**
+     * Estimates tenured capacity of G1 remark/cleanup from the heap change and the last young collection,
+     * as the tenured used after the last young collection is the used-start for the tenured collection.
+     */
+    public static Capacity g1Tenured(Capacity lastYoung, Capacity lastYoungTotal, Capacity total) {
+        long usedBefore = lastYoungTotal.usedAfter() - lastYoung.usedAfter();
+        long usedAfter = usedBefore - (total.usedBefore() - total.usedAfter());
+        return Capacity.of(usedBefore, usedAfter, total.total() - lastYoung.total());
+    }
+
+    public static boolean isStopTheWorld(EventHeader.Kind kind) {
+        return kind == EventHeader.Kind.GC || kind == EventHeader.Kind.FULL_GC || kind == EventHeader.Kind.G1_PAUSE;
+    }
+
+    private void start(byte[] l, int len, int p, int he, EventHeader h) {
+        reset();
+        eventOffset = lineOffset;
+        header = h;
+        timestamp = lineTimestamp();
+        datestamp = lineDatestamp;
+        hasDatestamp = lineHasDatestamp;
+        evLen = 0;
+        append(l, len);
+        eventStart = p;
+        headerEnd = he;
+        depth = 0;
+        state = OPEN;
+        close(balance(p));
+    }
+
+    private void close(int idx) {
+        if (idx < 0) {
+            return;
+        }
+        closeIdx = idx;
+        scan();
+        state = CLOSED;
+        if (times(ev, closeIdx + 1, evLen)) {
+            emit();
+        }
+    }
+
+    private int balance(int from) {
+        for (int i = from; i < evLen; i++) {
+            if (ev[i] == '[') {
+                depth++;
+            } else if (ev[i] == ']') {
+                if (--depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void scan() {
+        byte[] b = ev;
+        int to = closeIdx;
+        int d = 0;
+        int block = B_NONE;
+        int i = eventStart;
+        while (i < to) {
+            byte c = b[i];
+            if (c == '[') {
+                d++;
+                if (d == 1) {
+                    i = headerEnd;
+                    continue;
+                }
+                int k = blockKind(b, i + 1, to);
+                if (k == B_CONCURRENT) {
+                    i = nested(b, i + 1, to);
+                    continue;
+                }
+                if (d == 2) {
+                    block = k;
+                }
+                i++;
+            } else if (c == ']') {
+                if (d == 2) {
+                    block = B_NONE;
+                }
+                d--;
+                i++;
+            } else if (isDigit(c) && isTokenStart(b, i)) {
+                i = token(b, i, to, d, block);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private int token(byte[] b, int i, int to, int d, int block) {
+        int j = number(b, i, to);
+        if (j >= to) {
+            return j;
+        }
+        byte c = b[j];
+        if (isUnit(c) && j + 1 < to && (b[j + 1] == '-' || b[j + 1] == '(')) {
+            int k = triple(b, i, to);
+            if (k < 0) {
+                return j + 1;
+            }
+            assign(d, block);
+            return k;
+        } else if (c == ':') {
+            lastTimestamp = num;
+            return j + 1;
+        } else if (d == 1 && c == '/' && j + 1 < to && isDigit(b[j + 1])) {
+            j = number(b, j + 1, to);
+            concurrentDuration = num;
+            return j;
+        } else if (d == 1 && startsWith(b, j, to, SECS)) {
+            pauseSecs = num;
+            return j + SECS.length;
+        }
+        return j;
+    }
+
+    private void assign(int d, int block) {
+        if (d == 1) {
+            if (!hasHeap) {
+                hasHeap = true;
+                heapPre = mPre;
+                heapPost = mPost;
+                heapTotal = mTotal;
+            }
+        } else if (d == 2) {
+            switch (block) {
+                case B_YOUNG:
+                    if (!hasYoung) {
+                        hasYoung = true;
+                        youngPre = mPre;
+                        youngPost = mPost;
+                        youngTotal = mTotal;
+                    }
+                    break;
+                case B_INITIAL_MARK:
+                case B_REMARK:
+                    cmsPhase = block == B_INITIAL_MARK ? Phase.CMS_INITIAL_MARK : Phase.CMS_REMARK;
+                case B_TENURED:
+                    if (!hasTenured) {
+                        hasTenured = true;
+                        tenuredPre = mPre;
+                        tenuredPost = mPost;
+                        tenuredTotal = mTotal;
+                    }
+                    break;
+                case B_PERM:
+                case B_METASPACE:
+                    if (!hasPerm) {
+                        hasPerm = true;
+                        permIsMetaspace = block == B_METASPACE;
+                        permPre = mPre;
+                        permPost = mPost;
+                        permTotal = mTotal;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Concurrent CMS phase logged in the middle of another event, e.g.
+     * "[ParNew123.456: [CMS-concurrent-abortable-preclean: 0.1/0.2 secs]: ...".
+     */
+    private int nested(byte[] b, int from, int to) {
+        int he = headerEnd(b, from, to);
+        if (nestedCount < MAX_NESTED && he < to && b[he] == ':') {
+            int i = skipSpaces(b, he + 1, to);
+            if (i < to && isDigit(b[i])) {
+                i = number(b, i, to);
+                if (i + 1 < to && b[i] == '/' && isDigit(b[i + 1])) {
+                    number(b, i + 1, to);
+                    EventHeader h = headers.get(b, from, he);
+                    if (h.kind() == EventHeader.Kind.CONCURRENT && num > 0) {
+                        nestedHeaders[nestedCount] = h;
+                        nestedTimestamps[nestedCount] = lastTimestamp;
+                        nestedDurations[nestedCount] = num;
+                        nestedCount++;
+                    }
+                }
+            }
+        }
+        return he;
+    }
+
+    private void g1Details(byte[] l, int from, int len) {
+        int i = indexOf(l, from, len, EDEN);
+        if (i >= 0 && triple(l, skipSpaces(l, i + EDEN.length, len), len) > 0) {
+            hasEden = true;
+            edenPre = mPre;
+            edenPost = mPost;
+            edenTotal = mTotal;
+            int s = indexOf(l, i, len, SURVIVORS);
+            if (s >= 0 && triple(l, skipSpaces(l, s + SURVIVORS.length, len), len) > 0) {
+                survivorPre = mPre;
+                survivorPost = mPost;
+            }
+        }
+        i = indexOf(l, from, len, HEAP);
+        if (i >= 0 && !hasHeap && triple(l, skipSpaces(l, i + HEAP.length, len), len) > 0) {
+            assign(1, B_NONE);
+        }
+        i = indexOf(l, from, len, METASPACE);
+        if (i >= 0 && triple(l, skipSpaces(l, i + METASPACE.length, len), len) > 0) {
+            assign(2, B_METASPACE);
+        }
+        times(l, from, len);
+    }
+
+    private boolean times(byte[] b, int from, int to) {
+        int i = indexOf(b, from, to, TIMES);
+        if (i < 0) {
+            return false;
+        }
+        int k = indexOf(b, i, to, USER);
+        if (k >= 0) {
+            number(b, k + USER.length, to);
+            user = num;
+        }
+        k = indexOf(b, i, to, SYS);
+        if (k >= 0) {
+            number(b, k + SYS.length, to);
+            sys = num;
+        }
+        k = indexOf(b, i, to, REAL);
+        if (k >= 0) {
+            number(b, k + REAL.length, to);
+            real = num;
+        }
+        return true;
+    }
+
+    private void emit() {
+        state = IDLE;
+        EventHeader h = header;
+        Capacity total = hasHeap ? Capacity.of(heapPre, heapPost, heapTotal) : Capacity.NONE;
+        Capacity capacity = Capacity.NONE;
+        Map<Generation, Capacity> capacityByGeneration = Collections.emptyMap();
+        EnumSet<Generation> generations;
+        Phase phase = h.phase();
+        double pause = pauseSecs;
+        EventConcurrency concurrency = EventConcurrency.SERIAL;
+        switch (h.kind()) {
+            case CONCURRENT: {
+                pause = concurrentDuration > 0 ? concurrentDuration : pauseSecs;
+                if (!(pause > 0)) {
+                    emitNested();
+                    return;
+                }
+                generations = EnumSet.of(Generation.TENURED);
+                concurrency = EventConcurrency.CONCURRENT;
+                break;
+            }
+            case G1_PAUSE: {
+                generations = EnumSet.of(Generation.YOUNG);
+                capacity = young();
+                if (isG1 && capacity != Capacity.NONE) {
+                    lastYoung = capacity;
+                    lastYoungTotal = total;
+                }
+                break;
+            }
+            case G1_REMARK:
+            case G1_CLEANUP: {
+                generations = EnumSet.of(Generation.TENURED);
+                if (isG1 && total != Capacity.NONE) {
+                    if (lastYoung != null) {
+                        capacity = g1Tenured(lastYoung, lastYoungTotal, total);
+                    } else {
+                        unresolved.add(published);
+                    }
+                }
+                break;
+            }
+            case FULL_GC: {
+                generations = EnumSet.of(Generation.YOUNG, Generation.TENURED);
+                capacityByGeneration = new IdentityHashMap<>(3);
+                capacity = total;
+                Capacity young = young();
+                if (young == Capacity.NONE && hasTenured && hasHeap) {
+                    young = Capacity.of(heapPre - tenuredPre, heapPost - tenuredPost, heapTotal - tenuredTotal);
+                }
+                if (young != Capacity.NONE) {
+                    capacityByGeneration.put(Generation.YOUNG, young);
+                }
+                if (hasTenured) {
+                    capacityByGeneration.put(Generation.TENURED, Capacity.of(tenuredPre, tenuredPost, tenuredTotal));
+                } else if (young != Capacity.NONE && hasHeap) {
+                    capacityByGeneration.put(Generation.TENURED, Capacity.of(heapPre - young.usedBefore(),
+                            heapPost - young.usedAfter(), heapTotal - young.total()));
+                }
+                if (hasPerm) {
+                    Generation g = permIsMetaspace ? Generation.METASPACE : Generation.PERM;
+                    capacityByGeneration.put(g, Capacity.of(permPre, permPost, permTotal));
+                    generations.add(g);
+                }
+                break;
+            }
+            default: {
+                if (hasYoung || hasEden) {
+                    generations = EnumSet.of(Generation.YOUNG);
+                    capacity = young();
+                } else if (hasTenured) {
+                    generations = EnumSet.of(Generation.TENURED);
+                    capacity = Capacity.of(tenuredPre, tenuredPost, tenuredTotal);
+                    if (cmsPhase != null) {
+                        phase = cmsPhase;
+                    }
+                } else if (hasPerm) {
+                    Generation g = permIsMetaspace ? Generation.METASPACE : Generation.PERM;
+                    generations = EnumSet.of(g);
+                    capacity = Capacity.of(permPre, permPost, permTotal);
+                } else {
+                    generations = EnumSet.of(Generation.YOUNG);
+                }
+            }
+        }
+        publish(h.description(), VMEventType.GARBAGE_COLLECTION, capacity, total, timestamp,
+                occurred(timestamp, datestamp, hasDatestamp), pause, generations, phase, h.cause(), h.properties(),
+                concurrency, capacityByGeneration);
+        emitNested();
+    }
+
+    private void emitNested() {
+        for (int i = 0; i < nestedCount; i++) {
+            EventHeader h = nestedHeaders[i];
+            double ts = nestedTimestamps[i];
+            long ds = datestamp + Math.round((ts - timestamp) * 1000);
+            user = sys = real = -1;
+            publish(h.description(), VMEventType.GARBAGE_COLLECTION, Capacity.NONE, Capacity.NONE, ts,
+                    occurred(ts, ds, hasDatestamp), nestedDurations[i], EnumSet.of(Generation.TENURED), h.phase(),
+                    h.cause(), h.properties(), EventConcurrency.CONCURRENT, Collections.emptyMap());
+        }
+        nestedCount = 0;
+    }
+
+    private Capacity young() {
+        if (hasEden) {
+            return Capacity.of(edenPre + survivorPre, edenPost + survivorPost, edenTotal + survivorPost);
+        } else if (hasYoung) {
+            return Capacity.of(youngPre, youngPost, youngTotal);
+        } else {
+            return Capacity.NONE;
+        }
+    }
+
+    private void publish(String description, VMEventType vmEventType, Capacity capacity, Capacity totalCapacity,
+                         double ts, long occurred, double pause, EnumSet<Generation> generations, Phase phase,
+                         Cause cause, long properties, EventConcurrency concurrency,
+                         Map<Generation, Capacity> capacityByGeneration) {
+        published++;
+        eventsConsumer.accept(eventFactory.create(null, null, ctx.streamChecksum(), occurred, description, vmEventType,
+                capacity, totalCapacity, ts, (long) (pause * 1_000_000), user, sys, real, generations, phase, cause,
+                properties, concurrency, capacityByGeneration, ""));
+    }
+
+    private long occurred(double ts, long ds, boolean hasDs) {
+        return hasDs ? ds : START_MILLIS + (long) (ts * 1000);
+    }
+
+    private double lineTimestamp() {
+        if (lineHasTimestamp) {
+            return lineTimestamp;
+        } else if (lineHasDatestamp) {
+            if (firstDatestamp == Long.MIN_VALUE) {
+                firstDatestamp = lineDatestamp;
+            }
+            return (lineDatestamp - firstDatestamp) / 1000d;
+        } else {
+            return 0;
+        }
+    }
+
+    private void reset() {
+        header = EventHeader.IGNORED;
+        depth = 0;
+        evLen = 0;
+        lastTimestamp = 0;
+        pauseSecs = 0;
+        concurrentDuration = 0;
+        user = sys = real = -1;
+        hasHeap = hasYoung = hasTenured = hasPerm = hasEden = permIsMetaspace = false;
+        survivorPre = survivorPost = 0;
+        cmsPhase = null;
+        nestedCount = 0;
+    }
+
+    private void append(byte[] l, int len) {
+        if (evLen + len > ev.length) {
+            ev = Arrays.copyOf(ev, Math.max(ev.length << 1, evLen + len));
+        }
+        System.arraycopy(l, 0, ev, evLen, len);
+        evLen += len;
+    }
+
+    /**
+     * Parses optional "2016-04-07T14:18:56.196+0000: " and "170240.954: " prefixes of the line.
+     *
+     * @return the index right after the prefix, or -1 if the line has none
+     */
+    private int prefix(byte[] l, int from, int len) {
+        lineHasDatestamp = false;
+        lineHasTimestamp = false;
+        int i = skipSpaces(l, from, len);
+        if (i + 29 <= len && l[i + 4] == '-' && l[i + 10] == 'T' && l[i + 28] == ':' && isDigit(l[i])) {
+            lineDatestamp = datestamp(l, i);
+            lineHasDatestamp = true;
+            i = skipSpaces(l, i + 29, len);
+        }
+        if (i < len && isDigit(l[i])) {
+            int j = number(l, i, len);
+            if (j < len && l[j] == ':') {
+                lineTimestamp = num;
+                lineHasTimestamp = true;
+                i = skipSpaces(l, j + 1, len);
+            } else {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    private boolean isStopTheWorldStart(byte[] l, int p, int len) {
+        return isStopTheWorld(headers.get(l, p + 1, headerEnd(l, p + 1, len)).kind());
+    }
+
+    /**
+     * Header is the name followed by the parenthesized qualifiers, e.g. "GC pause (G1 Evacuation Pause) (young)".
+     */
+    private static int headerEnd(byte[] l, int from, int len) {
+        int i = from;
+        while (i < len && (isLetter(l[i]) || l[i] == ' ' || l[i] == '-')) {
+            i++;
+        }
+        int end = i;
+        while (i < len && l[i] == '(') {
+            int close = indexOf(l, i, len, (byte) ')');
+            if (close < 0) {
+                break;
+            }
+            end = close + 1;
+            i = end;
+            if (i + 1 < len && l[i] == ' ' && l[i + 1] == '(') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        while (end > from && l[end - 1] == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int blockKind(byte[] b, int from, int to) {
+        for (int k = 0; k < BLOCK_NAMES.length; k++) {
+            if (startsWith(b, from, to, BLOCK_NAMES[k])) {
+                return BLOCK_KINDS[k];
+            }
+        }
+        return B_NONE;
+    }
+
+    /**
+     * Parses memory changes in one of the forms, converting them to KB:
+     * "1053170K->3682K(1179648K)", "3915.5M(4500.0M)->2081.9M(4500.0M)", "8756K(12288K)", "122.0M->130.0M".
+     *
+     * @return the index after the parsed text, or -1 if there is no memory change at the index
+     */
+    private int triple(byte[] b, int i, int to) {
+        int j = mem(b, i, to);
+        if (j < 0 || j >= to) {
+            return -1;
+        }
+        long first = mem;
+        if (b[j] == '(') {
+            int k = mem(b, j + 1, to);
+            if (k < 0 || k >= to || b[k] != ')') {
+                return -1;
+            }
+            long firstTotal = mem;
+            j = k + 1;
+            if (j + 1 < to && b[j] == '-' && b[j + 1] == '>') {
+                k = mem(b, j + 2, to);
+                if (k < 0) {
+                    return -1;
+                }
+                mPre = first;
+                mPost = mem;
+                mTotal = firstTotal;
+                if (k < to && b[k] == '(') {
+                    int t = mem(b, k + 1, to);
+                    if (t > 0 && t < to && b[t] == ')') {
+                        mTotal = mem;
+                        return t + 1;
+                    }
+                }
+                return k;
+            }
+            mPre = first;
+            mPost = first;
+            mTotal = firstTotal;
+            return j;
+        } else if (j + 1 < to && b[j] == '-' && b[j + 1] == '>') {
+            int k = mem(b, j + 2, to);
+            if (k < 0) {
+                return -1;
+            }
+            mPre = first;
+            mPost = mem;
+            mTotal = 0;
+            if (k < to && b[k] == '(') {
+                int t = mem(b, k + 1, to);
+                if (t > 0 && t < to && b[t] == ')') {
+                    mTotal = mem;
+                    return t + 1;
+                }
+            }
+            return k;
+        }
+        return -1;
+    }
+
+    private int mem(byte[] b, int i, int to) {
+        if (i >= to || !isDigit(b[i])) {
+            return -1;
+        }
+        int j = number(b, i, to);
+        if (j >= to) {
+            return -1;
+        }
+        switch (b[j]) {
+            case 'B': mem = Math.round(num / 1024); break;
+            case 'K': mem = Math.round(num); break;
+            case 'M': mem = Math.round(num * 1024); break;
+            case 'G': mem = Math.round(num * 1024 * 1024); break;
+            default: return -1;
+        }
+        return j + 1;
+    }
+
+    /**
+     * Parses an unsigned decimal number into {@link #num}, accepting both '.' and ',' as a separator.
+     *
+     * @return the index after the number
+     */
+    private int number(byte[] b, int i, int to) {
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        while (i < to) {
+            byte c = b[i];
+            if (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (fraction) {
+                        scale++;
+                    }
+                } else if (!fraction) {
+                    scale--;
+                }
+                i++;
+            } else if ((c == '.' || c == ',') && !fraction && i + 1 < to && isDigit(b[i + 1])) {
+                fraction = true;
+                i++;
+            } else {
+                break;
+            }
+        }
+        num = scale >= 0 ? mantissa / POW10[scale] : mantissa * Math.pow(10, -scale);
+        return i;
+    }
+
+    /**
+     * Parses "yyyy-MM-dd'T'HH:mm:ss.SSSZ" into epoch millis without any intermediate objects.
+     */
+    private static long datestamp(byte[] b, int i) {
+        int year = digits(b, i, 4);
+        int month = digits(b, i + 5, 2);
+        int day = digits(b, i + 8, 2);
+        int hour = digits(b, i + 11, 2);
+        int minute = digits(b, i + 14, 2);
+        int second = digits(b, i + 17, 2);
+        int millis = digits(b, i + 20, 3);
+        int offset = digits(b, i + 24, 2) * 60 + digits(b, i + 26, 2);
+        if (b[i + 23] == '-') {
+            offset = -offset;
+        }
+        long minutes = (daysFromCivil(year, month, day) * 24 + hour) * 60 + minute - offset;
+        return (minutes * 60 + second) * 1000 + millis;
+    }
+
+    private static long daysFromCivil(int y, int m, int d) {
+        y -= m <= 2 ? 1 : 0;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153 * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static int digits(byte[] b, int i, int count) {
+        int r = 0;
+        for (int k = i; k < i + count; k++) {
+            r = r * 10 + (b[k] - '0');
+        }
+        return r;
+    }
+
+    private static boolean isTokenStart(byte[] b, int i) {
+        if (i == 0) {
+            return true;
+        }
+        byte p = b[i - 1];
+        return !isDigit(p) && !isLetter(p) && p != '.' && p != ',';
+    }
+
+    private static boolean isUnit(byte c) {
+        return c == 'K' || c == 'M' || c == 'G' || c == 'B';
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(byte c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static int skipSpaces(byte[] b, int i, int to) {
+        while (i < to && (b[i] == ' ' || b[i] == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(byte[] b, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (b[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] b, int from, int to, byte[] s) {
+        byte first = s[0];
+        for (int i = from; i <= to - s.length; i++) {
+            if (b[i] == first && startsWith(b, i, to, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] b, int from, int to, byte c) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+}
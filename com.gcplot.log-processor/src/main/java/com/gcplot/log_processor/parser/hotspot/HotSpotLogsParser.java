@@ -0,0 +1,330 @@
+package com.gcplot.log_processor.parser.hotspot;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.gcplot.commons.Metrics;
+import com.gcplot.configuration.ConfigProperty;
+import com.gcplot.configuration.ConfigurationManager;
+import com.gcplot.log_processor.parser.producers.v8.MetadataInfoProducer;
+import com.gcplot.log_processor.parser.producers.v8.SurvivorAgesInfoProducer;
+import com.gcplot.logs.LogsParser;
+import com.gcplot.logs.ParseResult;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.logs.mapping.Mapper;
+import com.gcplot.logs.survivor.AgesState;
+import com.gcplot.model.gc.Capacity;
+import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GCEventFactory;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser of HotSpot JDK 6-8 logs which produces {@link GCEvent} straight from the bytes,
+ * without building GCViewer's model first. The mapping step is thus an identity.
+ *
+ * Large uncompressed files are memory-mapped and split right before stop-the-world event lines,
+ * where the reader holds no state except the G1 young collection and the first datestamp. The parts
+ * are parsed concurrently and their events are passed on in the log order, with that state carried over.
+ * At most {@code parallelism * 2} chunks are parsed ahead, their events are gauged by {@link #setMetrics(MetricRegistry)}.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class HotSpotLogsParser implements LogsParser<GCEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(HotSpotLogsParser.class);
+    private static final Mapper<GCEvent> IDENTITY = (noDatestampOffset, ctx, event) -> event;
+    private static final String RETAINED_EVENTS_METRIC = Metrics.name(HotSpotLogsParser.class, "chunks", "retained");
+    /**
+     * The chunks of all the parsing sessions in progress which are parsed, but not passed on yet.
+     */
+    private final Set<Chunk> retainedChunks = ConcurrentHashMap.newKeySet();
+    protected ConfigurationManager configurationManager;
+    protected GCEventFactory eventFactory;
+    protected int parallelism = Runtime.getRuntime().availableProcessors();
+    protected ExecutorService parseExecutor;
+
+    public void init() {
+        parseExecutor = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("logs-parse-%d").setDaemon(true).build());
+    }
+
+    public void destroy() {
+        try {
+            parseExecutor.shutdownNow();
+            parseExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+        }
+    }
+
+    @Override
+    public ParseResult parse(InputStream reader, Consumer<GCEvent> eventsConsumer, ParserContext ctx) {
+        return parse(reader, eventsConsumer, ctx, false, null);
+    }
+
+    @Override
+    public ParseResult parse(InputStream reader, Consumer<GCEvent> eventsConsumer, ParserContext ctx, String parserState) {
+        return parse(reader, eventsConsumer, ctx, true, parserState);
+    }
+
+    private ParseResult parse(InputStream reader, Consumer<GCEvent> eventsConsumer, ParserContext ctx,
+                              boolean resumable, String parserState) {
+        SurvivorAgesInfoProducer agesInfoProducer = new SurvivorAgesInfoProducer(ctx.agesWindowMillis(), ctx.agesConsumer());
+        MetadataInfoProducer metadataInfoProducer = new MetadataInfoProducer();
+        HotSpotLogReader r = new HotSpotLogReader(ctx, eventFactory, e -> {
+            agesInfoProducer.occurred(e.occurredMillis());
+            eventsConsumer.accept(e);
+        }, agesInfoProducer::parse, metadataInfoProducer::parse);
+        r.setResumable(resumable);
+        if (parserState != null) {
+            r.restore(parserState);
+        }
+        try {
+            r.read(reader);
+        } catch (IOException e) {
+            return ParseResult.failure(e);
+        }
+        agesInfoProducer.finish();
+        List<AgesState> agesStates = Collections.singletonList(agesInfoProducer.averageAgesState());
+        if (resumable) {
+            return ParseResult.success(agesStates, metadataInfoProducer.getLogMetadata(), r.consumed(), r.checkpoint());
+        } else {
+            return ParseResult.success(agesStates, metadataInfoProducer.getLogMetadata());
+        }
+    }
+
+    @Override
+    public ParseResult parse(File file, Consumer<GCEvent> eventsConsumer, ParserContext ctx) {
+        if (parseExecutor == null || !configurationManager.readBoolean(ConfigProperty.PARSE_LOG_PARALLEL_ENABLED)
+                || file.length() < configurationManager.readLong(ConfigProperty.PARSE_LOG_PARALLEL_MIN_FILE_SIZE)) {
+            return LogsParser.super.parse(file, eventsConsumer, ctx);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            HotSpotLogReader probe = new HotSpotLogReader(ctx, eventFactory, e -> {}, s -> {}, s -> {});
+            LongList bounds = splitPoints(channel, probe,
+                    configurationManager.readLong(ConfigProperty.PARSE_LOG_PARALLEL_CHUNK_SIZE));
+            for (int i = 1; i < bounds.size(); i++) {
+                if (bounds.getLong(i) - bounds.getLong(i - 1) > Integer.MAX_VALUE) {
+                    LOG.warn("No split point for too long in {}, parsing it as a whole.", file);
+                    return LogsParser.super.parse(file, eventsConsumer, ctx);
+                }
+            }
+            return parseChunks(channel, bounds, firstDatestamp(channel, probe), eventsConsumer, ctx);
+        } catch (IOException e) {
+            return ParseResult.failure(e);
+        }
+    }
+
+    private ParseResult parseChunks(FileChannel channel, LongList bounds, long firstDatestamp,
+                                    Consumer<GCEvent> eventsConsumer, ParserContext ctx) {
+        boolean isG1 = ctx.collectorType() == GarbageCollectorType.ORACLE_G1;
+        SurvivorAgesInfoProducer agesInfoProducer = new SurvivorAgesInfoProducer(ctx.agesWindowMillis(), ctx.agesConsumer());
+        MetadataInfoProducer metadataInfoProducer = null;
+        Capacity lastYoung = null;
+        Capacity lastYoungTotal = null;
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < bounds.size() - 1 || !inFlight.isEmpty()) {
+                while (next < bounds.size() - 1 && inFlight.size() < parallelism * 2) {
+                    long from = bounds.getLong(next);
+                    long to = bounds.getLong(next + 1);
+                    boolean first = next == 0;
+                    Chunk chunk = new Chunk(ctx.agesWindowMillis());
+                    retainedChunks.add(chunk);
+                    inFlight.add(chunk);
+                    chunk.future = parseExecutor.submit(() -> parseChunk(chunk, channel, from, to, first, firstDatestamp, ctx));
+                    next++;
+                }
+                Chunk chunk = inFlight.poll();
+                try {
+                    chunk.future.get();
+                    if (isG1 && lastYoung != null) {
+                        resolve(chunk, lastYoung, lastYoungTotal);
+                    }
+                    chunk.events.forEach(eventsConsumer);
+                } finally {
+                    retainedChunks.remove(chunk);
+                }
+                agesInfoProducer.merge(chunk.agesInfoProducer);
+                if (metadataInfoProducer == null) {
+                    metadataInfoProducer = chunk.metadataInfoProducer;
+                }
+                if (chunk.lastYoung != null) {
+                    lastYoung = chunk.lastYoung;
+                    lastYoungTotal = chunk.lastYoungTotal;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ParseResult.failure(e);
+        } catch (ExecutionException e) {
+            return ParseResult.failure(e.getCause());
+        } finally {
+            inFlight.forEach(c -> {
+                if (c.future != null) {
+                    c.future.cancel(true);
+                }
+                retainedChunks.remove(c);
+            });
+        }
+        agesInfoProducer.finish();
+        return ParseResult.success(Collections.singletonList(agesInfoProducer.averageAgesState()),
+                metadataInfoProducer == null ? new MetadataInfoProducer().getLogMetadata() : metadataInfoProducer.getLogMetadata());
+    }
+
+    private Chunk parseChunk(Chunk chunk, FileChannel channel, long from, long to, boolean first, long firstDatestamp,
+                             ParserContext ctx) throws IOException {
+        HotSpotLogReader r = new HotSpotLogReader(ctx, eventFactory, e -> {
+            chunk.agesInfoProducer.occurred(e.occurredMillis());
+            chunk.events.add(e);
+        }, chunk.agesInfoProducer::parse, first ? chunk.metadataInfoProducer::parse : s -> {});
+        if (!first && firstDatestamp != Long.MIN_VALUE) {
+            r.setFirstDatestamp(firstDatestamp);
+        }
+        r.read(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+        chunk.agesInfoProducer.finish();
+        chunk.lastYoung = r.lastYoung();
+        chunk.lastYoungTotal = r.lastYoungTotal();
+        chunk.unresolved = r.unresolved();
+        return chunk;
+    }
+
+    /**
+     * G1 remark/cleanup which precede the first young collection of the chunk are estimated from
+     * the last young collection of the previous chunks.
+     */
+    private void resolve(Chunk chunk, Capacity lastYoung, Capacity lastYoungTotal) {
+        for (int i = 0; i < chunk.unresolved.size(); i++) {
+            int idx = chunk.unresolved.getInt(i);
+            GCEvent e = chunk.events.get(idx);
+            chunk.events.set(idx, eventFactory.create(e, HotSpotLogReader.g1Tenured(lastYoung, lastYoungTotal,
+                    e.totalCapacity()), e.totalCapacity(), e.pauseMu(), e.phase()));
+        }
+    }
+
+    /**
+     * @return the offsets of the chunks, starting with 0 and ending with the file size
+     */
+    private LongList splitPoints(FileChannel channel, HotSpotLogReader probe, long chunkSize) throws IOException {
+        long size = channel.size();
+        LongList bounds = new LongArrayList();
+        bounds.add(0);
+        long last = 0;
+        while (last + chunkSize < size) {
+            last = nextSplitPoint(channel, last + chunkSize, probe);
+            if (last >= size) {
+                break;
+            }
+            bounds.add(last);
+        }
+        bounds.add(size);
+        return bounds;
+    }
+
+    /**
+     * Skips the line the offset points into and returns the start of the next line which starts
+     * a stop-the-world event, or the file size if there is none.
+     */
+    private long nextSplitPoint(FileChannel channel, long from, HotSpotLogReader probe) throws IOException {
+        LineReader lr = new LineReader(Channels.newInputStream(channel.position(from)));
+        if (!lr.next()) {
+            return channel.size();
+        }
+        while (true) {
+            long lineStart = from + lr.position();
+            if (!lr.next()) {
+                return channel.size();
+            }
+            if (HotSpotLogReader.isStopTheWorld(probe.eventKind(lr.line(), lr.length()))) {
+                return lineStart;
+            }
+        }
+    }
+
+    private long firstDatestamp(FileChannel channel, HotSpotLogReader probe) throws IOException {
+        LineReader lr = new LineReader(Channels.newInputStream(channel.position(0)));
+        while (lr.next()) {
+            if (probe.eventKind(lr.line(), lr.length()) != EventHeader.Kind.IGNORED) {
+                return probe.lineDatestamp();
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    @Override
+    public Mapper<GCEvent> getMapper() {
+        return IDENTITY;
+    }
+
+    public void setConfigurationManager(ConfigurationManager configurationManager) {
+        this.configurationManager = configurationManager;
+    }
+
+    public void setEventFactory(GCEventFactory eventFactory) {
+        this.eventFactory = eventFactory;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Registers the gauge of events held by the chunks which are parsed ahead of the consumer.
+     */
+    public void setMetrics(MetricRegistry metrics) {
+        metrics.register(RETAINED_EVENTS_METRIC, (Gauge<Long>) this::retainedEvents);
+    }
+
+    /**
+     * @return the number of events parsed from the chunks, but not passed on yet
+     */
+    public long retainedEvents() {
+        long events = 0;
+        for (Chunk chunk : retainedChunks) {
+            events += chunk.events.size();
+        }
+        return events;
+    }
+
+    private static class Chunk {
+        private final List<GCEvent> events = new ArrayList<>();
+        private final SurvivorAgesInfoProducer agesInfoProducer;
+        private final MetadataInfoProducer metadataInfoProducer = new MetadataInfoProducer();
+        private Capacity lastYoung;
+        private Capacity lastYoungTotal;
+        private IntList unresolved;
+        private Future<Chunk> future;
+
+        private Chunk(long agesWindowMillis) {
+            // the windows are kept until the chunk is merged, so that they are passed on in the log order
+            agesInfoProducer = new SurvivorAgesInfoProducer(agesWindowMillis, null);
+        }
+    }
+
+}
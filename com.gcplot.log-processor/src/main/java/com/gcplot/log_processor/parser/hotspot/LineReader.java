@@ -0,0 +1,138 @@
+package com.gcplot.log_processor.parser.hotspot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Splits a byte stream into lines without creating a String per line. The line
+ * content is valid until the next {@link #next()} call only.
+ *
+ * Lines longer than {@link #MAX_LINE_LENGTH} bytes, e.g. in a binary or corrupted upload, are cut
+ * at it and the rest of them is skipped, so that such input can't exhaust the memory.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class LineReader {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    public static final int MAX_LINE_LENGTH = 1 << 16;
+    private final InputStream in;
+    private final ByteBuffer source;
+    private final byte[] buf;
+    private int pos;
+    private int limit;
+    private byte[] line = new byte[256];
+    private int length;
+    private boolean terminated;
+    private boolean truncated;
+    private long position;
+
+    public LineReader(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public LineReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.source = null;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Reads the lines between the position and the limit of the buffer, e.g. a mapped part of a file.
+     */
+    public LineReader(ByteBuffer source) {
+        this.in = null;
+        this.source = source;
+        this.buf = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * @return false when the stream is exhausted and no more lines are available
+     */
+    public boolean next() throws IOException {
+        length = 0;
+        terminated = false;
+        truncated = false;
+        boolean any = false;
+        while (true) {
+            if (pos == limit) {
+                int read = fill();
+                pos = 0;
+                if (read <= 0) {
+                    limit = 0;
+                    return any;
+                }
+                limit = read;
+            }
+            any = true;
+            int start = pos;
+            while (pos < limit && buf[pos] != '\n') {
+                pos++;
+            }
+            append(start, pos - start);
+            position += pos - start;
+            if (pos < limit) {
+                pos++;
+                position++;
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                terminated = true;
+                return true;
+            }
+        }
+    }
+
+    public byte[] line() {
+        return line;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return false if the line is the last one and has no line break, e.g. while it's still being written
+     */
+    public boolean terminated() {
+        return terminated;
+    }
+
+    /**
+     * @return true if the line exceeded {@link #MAX_LINE_LENGTH} and only its beginning is available
+     */
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * @return the number of bytes consumed from the underlying stream so far
+     */
+    public long position() {
+        return position;
+    }
+
+    private int fill() throws IOException {
+        if (source == null) {
+            return in.read(buf, 0, buf.length);
+        }
+        int read = Math.min(buf.length, source.remaining());
+        source.get(buf, 0, read);
+        return read;
+    }
+
+    private void append(int from, int len) {
+        if (length + len > MAX_LINE_LENGTH) {
+            truncated = true;
+            len = MAX_LINE_LENGTH - length;
+        }
+        if (length + len > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length << 1, length + len));
+        }
+        System.arraycopy(buf, from, line, length, len);
+        length += len;
+    }
+
+}
@@ -2,82 +2,260 @@ package com.gcplot.log_processor.parser.producers.v8;
 
 import com.gcplot.logs.survivor.AgesState;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
+ * Collects the tenuring distribution printed with each collection into primitive per-age sums, so
+ * the memory doesn't depend on the log size.
+ *
+ * The lines of a collection are accounted once its event is read, see {@link #occurred(long)}. If
+ * the window is set, the ages are also averaged over the windows of that width, aligned to the epoch,
+ * and each window is passed to the consumer as soon as the next one starts. Without the consumer the
+ * windows are kept until {@link #merge(SurvivorAgesInfoProducer)}, which is the case of the log parts
+ * parsed concurrently.
+ *
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         8/1/16
  */
 public class SurvivorAgesInfoProducer {
-    private static final String DESIRED_PREFIX = "Desired";
-    private static final Pattern DESIRED_SIZE_PATTERN = Pattern.compile(DESIRED_PREFIX + " survivor size (?<sz>[0-9]+) bytes");
-    private static final String AGE_NUM_GROUP = "agenum";
-    private static final String AGE_OCCUPIED_GROUP = "occupied";
-    private static final String AGE_TOTAL_GROUP = "total";
+    private static final String DESIRED_PREFIX = "Desired survivor size ";
     private static final String AGES_PREFIX = "- age";
-    private static final Pattern AGE_PATTERN = Pattern.compile(AGES_PREFIX + "[ \\t]+(?<" + AGE_NUM_GROUP + ">[0-9]+):[ \\t]+" +
-            "(?<" + AGE_OCCUPIED_GROUP + ">[0-9]+)[ \\t]+bytes,[ \\t]+(?<" + AGE_TOTAL_GROUP + ">[0-9]+)[ \\t]+total");
-    protected SortedMap<Integer, List<Pair<Long, Long>>> ages = new TreeMap<>();
-    protected long desiredSurvivorSize;
-    protected long desiredSurvivorCount;
+    private static final String BYTES = "bytes,";
+    private static final String TOTAL = "total";
+    private static final int MAX_AGE = 255;
+    private final long windowMillis;
+    private final Consumer<AgesState> windowsConsumer;
+    private final List<Accumulator> closed = new ArrayList<>();
+    /**
+     * The lines of the collection which event isn't read yet.
+     */
+    private final Accumulator pending = new Accumulator();
+    private final Accumulator total = new Accumulator();
+    private Accumulator window;
+    private long lastOccurred = Long.MIN_VALUE;
     protected Runnable onFinished = () -> {};
 
+    public SurvivorAgesInfoProducer() {
+        this(0, null);
+    }
+
+    public SurvivorAgesInfoProducer(long windowMillis, Consumer<AgesState> windowsConsumer) {
+        this.windowMillis = windowMillis;
+        this.windowsConsumer = windowsConsumer;
+    }
+
     public void parse(String s) {
         if (s.startsWith(AGES_PREFIX)) {
-            Matcher m = AGE_PATTERN.matcher(s);
-            if (m.matches()) {
-                int age = Integer.parseInt(m.group(AGE_NUM_GROUP));
-                long ocp = Long.parseLong(m.group(AGE_OCCUPIED_GROUP));
-                long ttl = Long.parseLong(m.group(AGE_TOTAL_GROUP));
-                ages.computeIfAbsent(age, k -> new ArrayList<>()).add(Pair.of(ocp, ttl));
+            int i = skipSpaces(s, AGES_PREFIX.length());
+            int end = digitsEnd(s, i);
+            if (end == i || end - i > 3 || end >= s.length() || s.charAt(end) != ':') {
+                return;
+            }
+            int age = Integer.parseInt(s.substring(i, end));
+            i = skipSpaces(s, end + 1);
+            end = digitsEnd(s, i);
+            if (end == i || end - i > 18 || !s.startsWith(BYTES, skipSpaces(s, end))) {
+                return;
+            }
+            long ocp = Long.parseLong(s.substring(i, end));
+            i = skipSpaces(s, skipSpaces(s, end) + BYTES.length());
+            end = digitsEnd(s, i);
+            if (end == i || end - i > 18 || !s.startsWith(TOTAL, skipSpaces(s, end))) {
+                return;
+            }
+            if (age <= MAX_AGE) {
+                pending.age(age, ocp, Long.parseLong(s.substring(i, end)));
             }
         } else if (s.startsWith(DESIRED_PREFIX)) {
-            Matcher m = DESIRED_SIZE_PATTERN.matcher(s);
-            if (m.find()) {
-                desiredSurvivorSize += Long.parseLong(m.group("sz"));
-                desiredSurvivorCount++;
+            int i = DESIRED_PREFIX.length();
+            int end = digitsEnd(s, i);
+            if (end > i && end - i <= 18) {
+                pending.desiredSize += Long.parseLong(s.substring(i, end));
+                pending.desiredCount++;
             }
         }
     }
 
-    public void finish() {
-        onFinished.run();
+    /**
+     * Called with the time of every event in the log order, which attributes the lines parsed since
+     * the previous event to this one.
+     */
+    public void occurred(long millis) {
+        lastOccurred = millis;
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (windowMillis > 0) {
+            long start = millis - Math.floorMod(millis, windowMillis);
+            if (window == null || window.start != start) {
+                roll(start, millis);
+            }
+            window.add(pending);
+        }
+        total.add(pending);
+        pending.clear();
     }
 
-    public AgesState averageAgesState() {
-        long dss = desiredSurvivorSize / Math.max(desiredSurvivorCount, 1);
-        if (ages.size() == 0) {
-            return AgesState.NONE;
-        }
-        long[] occupied = new long[ages.size()];
-        long[] total = new long[ages.size()];
-        long[] count = new long[ages.size()];
-
-        AtomicInteger ctr = new AtomicInteger();
-        ages.forEach((age, sizes) -> {
-            for (Pair<Long, Long> size : sizes) {
-                occupied[ctr.get()] += size.getLeft();
-                total[ctr.get()] += size.getRight();
-                count[ctr.get()]++;
+    /**
+     * Adds the ages collected by another finished producer, e.g. the one of the next part of the same log.
+     */
+    public void merge(SurvivorAgesInfoProducer other) {
+        total.add(other.total);
+        for (Accumulator w : other.closed) {
+            if (window != null && window.start == w.start) {
+                window.add(w);
+            } else {
+                if (window != null) {
+                    close(window);
+                }
+                window = w;
             }
-            ctr.incrementAndGet();
-        });
-        for (int i = 0; i < ages.size(); i++) {
-            occupied[i] /= Math.max(count[i], 1);
-            total[i] /= Math.max(count[i], 1);
         }
+        other.closed.clear();
+        lastOccurred = Math.max(lastOccurred, other.lastOccurred);
+    }
 
-        return new AgesState(dss, Arrays.asList(ArrayUtils.toObject(occupied)),
-                Arrays.asList(ArrayUtils.toObject(total)));
+    public void finish() {
+        if (lastOccurred != Long.MIN_VALUE) {
+            occurred(lastOccurred);
+        } else {
+            total.add(pending);
+            pending.clear();
+        }
+        if (window != null) {
+            close(window);
+            window = null;
+        }
+        onFinished.run();
+    }
+
+    public AgesState averageAgesState() {
+        total.add(pending);
+        pending.clear();
+        return total.toState(0L);
     }
 
     public void setOnFinished(Runnable onFinished) {
         this.onFinished = onFinished;
     }
 
+    private void roll(long start, long millis) {
+        if (window != null) {
+            close(window);
+        }
+        if (window == null || windowsConsumer == null) {
+            window = new Accumulator();
+        } else {
+            window.clear();
+        }
+        window.start = start;
+        window.first = millis;
+    }
+
+    private void close(Accumulator w) {
+        if (windowsConsumer != null) {
+            windowsConsumer.accept(w.toState(w.first));
+        } else {
+            closed.add(w);
+        }
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && (s.charAt(i) == ' ' || s.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int digitsEnd(String s, int i) {
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * The sums of sizes of every age and the number of collections they are summed over.
+     */
+    private static class Accumulator {
+        private long start;
+        private long first;
+        private long desiredSize;
+        private long desiredCount;
+        private long[] occupied = new long[16];
+        private long[] total = new long[16];
+        private long[] counts = new long[16];
+        private int ages;
+
+        private void age(int age, long ocp, long ttl) {
+            ensure(age + 1);
+            occupied[age] += ocp;
+            total[age] += ttl;
+            counts[age]++;
+            ages = Math.max(ages, age + 1);
+        }
+
+        private void add(Accumulator other) {
+            ensure(other.ages);
+            for (int i = 0; i < other.ages; i++) {
+                occupied[i] += other.occupied[i];
+                total[i] += other.total[i];
+                counts[i] += other.counts[i];
+            }
+            ages = Math.max(ages, other.ages);
+            desiredSize += other.desiredSize;
+            desiredCount += other.desiredCount;
+        }
+
+        private void ensure(int size) {
+            if (size > occupied.length) {
+                int length = Math.max(size, occupied.length * 2);
+                occupied = Arrays.copyOf(occupied, length);
+                total = Arrays.copyOf(total, length);
+                counts = Arrays.copyOf(counts, length);
+            }
+        }
+
+        private boolean isEmpty() {
+            return ages == 0 && desiredCount == 0;
+        }
+
+        private void clear() {
+            Arrays.fill(occupied, 0, ages, 0);
+            Arrays.fill(total, 0, ages, 0);
+            Arrays.fill(counts, 0, ages, 0);
+            ages = 0;
+            desiredSize = 0;
+            desiredCount = 0;
+        }
+
+        private AgesState toState(long occurred) {
+            int size = 0;
+            for (int i = 0; i < ages; i++) {
+                if (counts[i] > 0) {
+                    size++;
+                }
+            }
+            if (size == 0) {
+                return occurred == 0 ? AgesState.NONE : new AgesState(occurred, desiredSize / Math.max(desiredCount, 1),
+                        Collections.emptyList(), Collections.emptyList());
+            }
+            long[] o = new long[size];
+            long[] t = new long[size];
+            for (int i = 0, j = 0; i < ages; i++) {
+                if (counts[i] > 0) {
+                    o[j] = occupied[i] / counts[i];
+                    t[j++] = total[i] / counts[i];
+                }
+            }
+            return new AgesState(occurred, desiredSize / Math.max(desiredCount, 1),
+                    Arrays.asList(ArrayUtils.toObject(o)), Arrays.asList(ArrayUtils.toObject(t)));
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package com.gcplot.log_processor.adapter;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.gcplot.log_processor.common.TestGCEventFactory;
 import com.gcplot.logs.ParseResult;
 import com.gcplot.log_processor.parser.adapter.GCViewerLogsParser;
@@ -57,10 +59,14 @@ public class TestGCViewerLogsParser {
         List<GCEvent> events = new CopyOnWriteArrayList<>();
         GCViewerLogsParser p = new GCViewerLogsParser();
         p.setEventFactory(new TestGCEventFactory());
+        MetricRegistry metrics = new MetricRegistry();
+        p.setMetrics(metrics);
         GCEvent[] first = new GCEvent[1], last = new GCEvent[1];
         ParserContext ctx = new ParserContext(LOG, "chcksm", GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_8, "1", "2");
         ParseResult pr = p.parse(log, e -> eventHandler(events, p, first, last, ctx, e), ctx);
 
+        Gauge<?> retained = metrics.getGauges().values().iterator().next();
+        Assert.assertEquals(0L, retained.getValue());
         Assert.assertEquals(first[0].timestamp(), 39996.730, 0.001);
         Assert.assertEquals(last[0].timestamp(), 40149.971, 0.001);
         Assert.assertNotNull(pr);
@@ -3,6 +3,7 @@ package com.gcplot.log_processor.common;
 import com.gcplot.model.VMEvent;
 import com.gcplot.model.gc.*;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 
 import java.util.EnumSet;
 import java.util.Map;
@@ -15,7 +16,7 @@ import java.util.Optional;
 public class TestGCEventFactory implements GCEventFactory {
 
     @Override
-    public GCEvent create(String id, String parentId, String bucketId, DateTime occurred, String description, VMEventType vmEventType,
+    public GCEvent create(String id, String parentId, String bucketId, long occurred, String description, VMEventType vmEventType,
                           Capacity capacity, Capacity totalCapacity, double timestamp, long pauseMu, double user, double sys, double real,
                           EnumSet<Generation> generations, Phase phase, Cause cause, long properties, EventConcurrency concurrency,
                           Map<Generation, Capacity> generationCapacityMap, String ext) {
@@ -117,6 +118,11 @@ public class TestGCEventFactory implements GCEventFactory {
 
             @Override
             public DateTime occurred() {
+                return new DateTime(occurred, DateTimeZone.UTC);
+            }
+
+            @Override
+            public long occurredMillis() {
                 return occurred;
             }
 
@@ -178,7 +184,10 @@ public class TestGCEventFactory implements GCEventFactory {
 
     @Override
     public GCEvent create(GCEvent event, Capacity capacity, Capacity totalCapacity, long pauseMu, Phase phase) {
-        throw new UnsupportedOperationException();
+        return create(event.id(), event.parentEvent().orElse(null), event.bucketId(), event.occurredMillis(), event.description(),
+                event.vmEventType(), capacity, totalCapacity, event.timestamp(), pauseMu, event.user(), event.sys(),
+                event.real(), event.generations(), phase, event.cause(), event.properties(), event.concurrency(),
+                event.capacityByGeneration(), event.ext());
     }
 
 }
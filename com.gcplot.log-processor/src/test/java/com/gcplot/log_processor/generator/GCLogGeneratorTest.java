@@ -0,0 +1,109 @@
+package com.gcplot.log_processor.generator;
+
+import com.gcplot.log_processor.common.TestGCEventFactory;
+import com.gcplot.log_processor.parser.hotspot.HotSpotLogsParser;
+import com.gcplot.logs.ParseResult;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.model.VMVersion;
+import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GarbageCollectorType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class GCLogGeneratorTest {
+
+    @Test
+    public void testDeterministic() throws Exception {
+        byte[] first = generate(generator(GarbageCollectorType.ORACLE_G1, VMVersion.HOTSPOT_1_8, 1));
+        Assert.assertArrayEquals(first, generate(generator(GarbageCollectorType.ORACLE_G1, VMVersion.HOTSPOT_1_8, 1)));
+        Assert.assertFalse(Arrays.equals(first, generate(generator(GarbageCollectorType.ORACLE_G1, VMVersion.HOTSPOT_1_8, 2))));
+    }
+
+    @Test
+    public void testParsed() throws Exception {
+        for (VMVersion vmVersion : new VMVersion[] { VMVersion.HOTSPOT_1_7, VMVersion.HOTSPOT_1_8 }) {
+            for (GarbageCollectorType collectorType : new GarbageCollectorType[] { GarbageCollectorType.ORACLE_G1,
+                    GarbageCollectorType.ORACLE_CMS, GarbageCollectorType.ORACLE_PAR_OLD_GC }) {
+                GCLogGenerator g = generator(collectorType, vmVersion, 3);
+                byte[] log = generate(g);
+                Assert.assertTrue(log.length >= g.getSize());
+
+                List<GCEvent> events = new ArrayList<>();
+                ParseResult pr = parser().parse(new ByteArrayInputStream(log), events::add, context(collectorType, vmVersion));
+                Assert.assertTrue(pr.isSuccessful());
+                Assert.assertEquals(g.getYoungCollections(), events.stream().filter(GCEvent::isYoung).count());
+                Assert.assertEquals(g.getFullCollections(), events.stream().filter(GCEvent::isFull).count());
+                Assert.assertTrue(g.getFullCollections() > 0);
+                if (collectorType != GarbageCollectorType.ORACLE_PAR_OLD_GC) {
+                    Assert.assertTrue(g.getConcurrentCycles() > 0);
+                    Assert.assertEquals(15, pr.getAgesStates().get(0).getOccupied().size());
+                }
+                Assert.assertTrue(pr.getLogMetadata().isPresent());
+            }
+        }
+    }
+
+    @Test
+    public void testRotation() throws Exception {
+        GCLogGenerator g = generator(GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_8, 4);
+        g.setFiles(3);
+        File dir = Files.createTempDirectory("gclog").toFile();
+        List<File> files = g.generate(new File(dir, "gc.log"));
+        Assert.assertEquals(3, files.size());
+        Assert.assertEquals(new File(dir, "gc.log.2"), files.get(2));
+
+        long young = 0;
+        double last = 0;
+        for (File file : files) {
+            List<GCEvent> events = new ArrayList<>();
+            parser().parse(file, events::add, context(GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_8));
+            young += events.stream().filter(GCEvent::isYoung).count();
+            Assert.assertTrue(events.get(0).timestamp() > last);
+            last = events.get(events.size() - 1).timestamp();
+            file.delete();
+        }
+        Assert.assertEquals(g.getYoungCollections(), young);
+        dir.delete();
+    }
+
+    private static GCLogGenerator generator(GarbageCollectorType collectorType, VMVersion vmVersion, long seed) {
+        GCLogGenerator g = new GCLogGenerator();
+        g.setCollectorType(collectorType);
+        g.setVmVersion(vmVersion);
+        g.setSeed(seed);
+        g.setSize(256 * 1024);
+        g.setFullGcEvery(50);
+        return g;
+    }
+
+    private static byte[] generate(GCLogGenerator g) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        g.generate(out);
+        return out.toByteArray();
+    }
+
+    private static HotSpotLogsParser parser() {
+        HotSpotLogsParser p = new HotSpotLogsParser();
+        p.setEventFactory(new TestGCEventFactory());
+        return p;
+    }
+
+    private static ParserContext context(GarbageCollectorType collectorType, VMVersion vmVersion) {
+        return new ParserContext(LoggerFactory.getLogger(GCLogGeneratorTest.class), "chcksm", collectorType,
+                vmVersion, "jvm", "analyse");
+    }
+
+}
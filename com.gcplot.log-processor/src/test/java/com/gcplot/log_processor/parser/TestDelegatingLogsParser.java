@@ -0,0 +1,91 @@
+package com.gcplot.log_processor.parser;
+
+import com.gcplot.log_processor.common.TestGCEventFactory;
+import com.gcplot.log_processor.parser.adapter.GCViewerLogsParser;
+import com.gcplot.log_processor.parser.hotspot.HotSpotLogsParser;
+import com.gcplot.logs.ParseResult;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.model.VMVersion;
+import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.tagtraum.perf.gcviewer.model.AbstractGCEvent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class TestDelegatingLogsParser {
+    protected static final Logger LOG = LoggerFactory.getLogger(TestDelegatingLogsParser.class);
+
+    @Test
+    public void testSerialGoesToFallback() {
+        List<Object> rawEvents = new ArrayList<>();
+        List<GCEvent> events = new ArrayList<>();
+        ParseResult pr = parse("gc_logs/serial_log_1.log", GarbageCollectorType.ORACLE_SERIAL, VMVersion.HOTSPOT_1_8,
+                rawEvents, events);
+
+        Assert.assertTrue(pr.isSuccessful());
+        Assert.assertEquals(-1, pr.getConsumedBytes());
+        Assert.assertFalse(rawEvents.isEmpty());
+        Assert.assertTrue(rawEvents.stream().allMatch(e -> e instanceof AbstractGCEvent));
+        Assert.assertEquals(0.412, events.get(0).timestamp(), 0.001);
+        Assert.assertTrue(events.get(0).isYoung());
+        Assert.assertEquals(1.226, events.get(events.size() - 1).timestamp(), 0.001);
+        Assert.assertTrue(events.get(events.size() - 1).isFull());
+        Assert.assertEquals("chcksm", events.get(0).bucketId());
+    }
+
+    @Test
+    public void testOldVersionGoesToFallback() {
+        List<Object> rawEvents = new ArrayList<>();
+        List<GCEvent> events = new ArrayList<>();
+        parse("gc_logs/cms_full_gc_log_2.log", GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_5, rawEvents, events);
+
+        Assert.assertFalse(rawEvents.isEmpty());
+        Assert.assertTrue(rawEvents.stream().allMatch(e -> e instanceof AbstractGCEvent));
+    }
+
+    @Test
+    public void testCmsGoesToHotSpot() {
+        List<Object> rawEvents = new ArrayList<>();
+        List<GCEvent> events = new ArrayList<>();
+        ParseResult pr = parse("gc_logs/cms_full_gc_log_2.log", GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_8,
+                rawEvents, events);
+
+        Assert.assertTrue(pr.isSuccessful());
+        Assert.assertTrue(pr.getConsumedBytes() > 0);
+        Assert.assertTrue(rawEvents.stream().allMatch(e -> e instanceof GCEvent));
+        Assert.assertEquals(rawEvents, events);
+        Assert.assertEquals(170240.954, events.get(0).timestamp(), 0.001);
+    }
+
+    private ParseResult parse(String resource, GarbageCollectorType type, VMVersion version,
+                              List<Object> rawEvents, List<GCEvent> events) {
+        InputStream log = getClass().getClassLoader().getResourceAsStream(resource);
+        HotSpotLogsParser hotSpotParser = new HotSpotLogsParser();
+        hotSpotParser.setEventFactory(new TestGCEventFactory());
+        GCViewerLogsParser gcViewerParser = new GCViewerLogsParser();
+        gcViewerParser.setEventFactory(new TestGCEventFactory());
+        DelegatingLogsParser p = new DelegatingLogsParser();
+        p.setHotSpotParser(hotSpotParser);
+        p.setFallbackParser(gcViewerParser);
+        ParserContext ctx = new ParserContext(LOG, "chcksm", type, version, "1", "2");
+        // resumable, as the continuous analyses parse it, so that the fallback has to report it can't resume
+        return p.parse(log, e -> {
+            rawEvents.add(e);
+            GCEvent event = p.getMapper().map(ctx, e);
+            if (event != null) {
+                events.add(event);
+            }
+        }, ctx, null);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.gcplot.log_processor.parser.adapter;
+
+import com.gcplot.model.Property;
+import com.gcplot.model.gc.Cause;
+import com.gcplot.model.gc.GarbageCollectorType;
+import com.gcplot.model.gc.Phase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class DescriptionClassifierTest {
+    private final DescriptionClassifier classifier = new DescriptionClassifier(16);
+
+    @Test
+    public void testG1() {
+        assertClassified("GC pause (G1 Evacuation Pause) (mixed)", false, GarbageCollectorType.ORACLE_G1,
+                Cause.G1_EVACUATION_PAUSE, Phase.G1_COPYING, Property.G1_MIXED);
+        assertClassified("GC pause (G1 Humongous Allocation) (young) (initial-mark)", false, GarbageCollectorType.ORACLE_G1,
+                Cause.G1_HUMONGOUS_ALLOCATION, Phase.G1_INITIAL_MARK, 0);
+        assertClassified("GC concurrent-root-region-scan-end", true, GarbageCollectorType.ORACLE_G1,
+                Cause.OTHER, Phase.G1_ROOT_REGION_SCANNING, 0);
+        assertClassified("GC concurrent-mark-end", true, GarbageCollectorType.ORACLE_G1,
+                Cause.OTHER, Phase.G1_CONCURRENT_MARKING, 0);
+        assertClassified("GC concurrent-mark-end", false, GarbageCollectorType.ORACLE_G1,
+                Cause.OTHER, Phase.OTHER, 0);
+        assertClassified("GC remark", false, GarbageCollectorType.ORACLE_G1, Cause.OTHER, Phase.G1_REMARK, 0);
+        assertClassified("Full GC (System.gc())", false, GarbageCollectorType.ORACLE_G1, Cause.SYSTEM_GC, Phase.OTHER, 0);
+    }
+
+    @Test
+    public void testCms() {
+        assertClassified("GC (CMS Initial Mark) CMS-initial-mark", false, GarbageCollectorType.ORACLE_CMS,
+                Cause.CMS_INITIAL_MARK, Phase.CMS_INITIAL_MARK, 0);
+        assertClassified("CMS-concurrent-mark", true, GarbageCollectorType.ORACLE_CMS,
+                Cause.OTHER, Phase.CMS_CONCURRENT_MARK, 0);
+        assertClassified("CMS-concurrent-abortable-preclean", true, GarbageCollectorType.ORACLE_CMS,
+                Cause.OTHER, Phase.CMS_CONCURRENT_PRECLEAN, 0);
+        assertClassified("GC (CMS Final Remark) CMS-remark", false, GarbageCollectorType.ORACLE_CMS,
+                Cause.CMS_FINAL_REMARK, Phase.CMS_REMARK, 0);
+        assertClassified("CMS-concurrent-sweep", true, GarbageCollectorType.ORACLE_CMS,
+                Cause.OTHER, Phase.CMS_CONCURRENT_SWEEP, 0);
+        assertClassified("CMS-concurrent-reset", true, GarbageCollectorType.ORACLE_CMS,
+                Cause.OTHER, Phase.CMS_CONCURRENT_RESET, 0);
+        assertClassified("GC (Allocation Failure) ParNew", false, GarbageCollectorType.ORACLE_CMS,
+                Cause.ALLOCATION_FAILURE, Phase.OTHER, 0);
+        // the precedence of causes
+        assertClassified("Full GC (Ergonomics) (GCLocker Initiated GC)", false, GarbageCollectorType.ORACLE_PAR_OLD_GC,
+                Cause.GC_LOCKER, Phase.OTHER, 0);
+    }
+
+    @Test
+    public void testInterned() {
+        EventDescription first = classifier.classify(new String("GC (Allocation Failure)"), false,
+                GarbageCollectorType.ORACLE_CMS);
+        EventDescription second = classifier.classify(new String("GC (Allocation Failure)"), false,
+                GarbageCollectorType.ORACLE_CMS);
+        Assert.assertSame(first, second);
+        Assert.assertSame(first.description(), second.description());
+    }
+
+    private void assertClassified(String description, boolean concurrent, GarbageCollectorType collectorType,
+                                  Cause cause, Phase phase, long properties) {
+        EventDescription d = classifier.classify(description, concurrent, collectorType);
+        Assert.assertEquals(description, d.description());
+        Assert.assertEquals(description, cause, d.cause());
+        Assert.assertEquals(description, phase, d.phase());
+        Assert.assertEquals(description, properties, d.properties());
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.gcplot.log_processor.parser.adapter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class RingListTest {
+
+    @Test
+    public void testEviction() {
+        List<Integer> evicted = new ArrayList<>();
+        RingList<Integer> ring = new RingList<>(3, evicted::add);
+        for (int i = 0; i < 7; i++) {
+            ring.add(i);
+        }
+
+        Assert.assertEquals(3, ring.size());
+        Assert.assertEquals(Arrays.asList(4, 5, 6), ring);
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), evicted);
+        Assert.assertEquals(6, (int) ring.get(ring.size() - 1));
+
+        ring.set(0, 10);
+        Assert.assertEquals(Arrays.asList(10, 5, 6), ring);
+
+        ring.clear();
+        Assert.assertTrue(ring.isEmpty());
+        ring.add(7);
+        Assert.assertEquals(Arrays.asList(7), ring);
+        Assert.assertEquals(4, evicted.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        RingList<Integer> ring = new RingList<>(3);
+        ring.add(1);
+        ring.get(1);
+    }
+
+}
@@ -0,0 +1,350 @@
+package com.gcplot.log_processor.parser.hotspot;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.gcplot.configuration.ConfigProperty;
+import com.gcplot.configuration.ConfigurationManager;
+import com.gcplot.log_processor.common.TestGCEventFactory;
+import com.gcplot.logs.ParseResult;
+import com.gcplot.logs.ParserContext;
+import com.gcplot.logs.survivor.AgesState;
+import com.gcplot.model.Property;
+import com.gcplot.model.VMVersion;
+import com.gcplot.model.gc.*;
+import com.google.common.io.ByteStreams;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class TestHotSpotLogsParser {
+    protected static final Logger LOG = LoggerFactory.getLogger(TestHotSpotLogsParser.class);
+
+    @Test
+    public void testCmsFullGc() {
+        List<GCEvent> events = new ArrayList<>();
+        ParseResult pr = parse("gc_logs/cms_full_gc_log_2.log", GarbageCollectorType.ORACLE_CMS, events);
+
+        Assert.assertEquals(170240.954, events.get(0).timestamp(), 0.001);
+        Assert.assertEquals(170291.419, events.get(events.size() - 1).timestamp(), 0.001);
+        Assert.assertEquals(1, events.stream().filter(GCEvent::isFull).count());
+        GCEvent fullGcEvent = events.stream().filter(GCEvent::isFull).findFirst().get();
+        Assert.assertEquals(5_072_694, fullGcEvent.pauseMu());
+        Assert.assertEquals(Cause.GC_LOCKER, fullGcEvent.cause());
+        Assert.assertEquals(Capacity.of(3072363, 1929901, 3932160), fullGcEvent.capacityByGeneration().get(Generation.TENURED));
+        Assert.assertEquals(Capacity.of(78835, 78835, 1128448), fullGcEvent.capacityByGeneration().get(Generation.METASPACE));
+        Assert.assertEquals(0, events.stream().filter(GCEvent::isMetaspace).count());
+        Assert.assertEquals("chcksm", events.get(0).bucketId());
+
+        GCEvent young = events.get(0);
+        Assert.assertTrue(young.isYoung());
+        Assert.assertEquals(Cause.ALLOCATION_FAILURE, young.cause());
+        Assert.assertEquals(Capacity.of(1053170, 3682, 1179648), young.capacity());
+        Assert.assertEquals(Capacity.of(4080351, 3031096, 5111808), young.totalCapacity());
+        Assert.assertEquals(11_168, young.pauseMu());
+        Assert.assertEquals(0.06, young.user(), 0.001);
+        Assert.assertEquals("2016-04-07T14:18:56.196Z", young.occurred().toString());
+
+        Assert.assertTrue(pr.isSuccessful());
+        Assert.assertEquals(1, pr.getAgesStates().size());
+        Assert.assertEquals(6, pr.getAgesStates().get(0).getOccupied().size());
+        Assert.assertFalse(pr.getLogMetadata().isPresent());
+    }
+
+    @Test
+    public void testStreaming() {
+        List<GCEvent> events = new ArrayList<>();
+        parse("gc_logs/cms_long_log_young_only.log", GarbageCollectorType.ORACLE_CMS, events);
+
+        Assert.assertEquals(81, events.size());
+        Assert.assertEquals(39996.730, events.get(0).timestamp(), 0.001);
+        Assert.assertEquals(40149.971, events.get(events.size() - 1).timestamp(), 0.001);
+        Assert.assertEquals(0, events.stream().filter(GCEvent::isFull).count());
+        for (int i = 1; i < events.size(); i++) {
+            Assert.assertTrue("" + i, events.get(i).occurred().isAfter(events.get(i - 1).occurred()));
+        }
+    }
+
+    @Test
+    public void testCmsPhases() {
+        List<GCEvent> events = new ArrayList<>();
+        parse("gc_logs/cms_log_old_1.log", GarbageCollectorType.ORACLE_CMS, events);
+
+        GCEvent initialMark = events.stream().filter(e -> e.phase() == Phase.CMS_INITIAL_MARK).findFirst().get();
+        Assert.assertTrue(initialMark.isTenured());
+        Assert.assertEquals(Cause.CMS_INITIAL_MARK, initialMark.cause());
+        Assert.assertEquals(1, events.stream().filter(e -> e.phase() == Phase.CMS_REMARK).count());
+        Assert.assertEquals(2, events.stream().filter(e -> e.phase() == Phase.CMS_CONCURRENT_PRECLEAN).count());
+        Assert.assertTrue(events.stream().filter(e -> e.phase() == Phase.CMS_CONCURRENT_MARK)
+                .allMatch(e -> e.concurrency() == EventConcurrency.CONCURRENT && e.pauseMu() > 0));
+    }
+
+    @Test
+    public void testG1() {
+        List<GCEvent> events = new ArrayList<>();
+        parse("gc_logs/g1_log_1.log", GarbageCollectorType.ORACLE_G1, events);
+
+        Assert.assertEquals(11, events.size());
+        GCEvent young = events.get(0);
+        Assert.assertEquals(Phase.G1_COPYING, young.phase());
+        Assert.assertEquals(Cause.G1_EVACUATION_PAUSE, young.cause());
+        Assert.assertEquals(67_209, young.pauseMu());
+        Assert.assertEquals(Capacity.of((1824 + 122) * 1024, 130 * 1024, (94 + 130) * 1024), young.capacity());
+        Assert.assertEquals(2, events.stream().filter(e -> e.hasProperty(Property.G1_MIXED)).count());
+        Assert.assertEquals(1, events.stream().filter(e -> e.phase() == Phase.G1_INITIAL_MARK).count());
+        Assert.assertEquals(1, events.stream().filter(e -> e.phase() == Phase.G1_REMARK).count());
+        GCEvent cleanup = events.stream().filter(e -> e.description().equals("GC cleanup")).findFirst().get();
+        Assert.assertTrue(cleanup.isTenured());
+        Assert.assertNotEquals(Capacity.NONE, cleanup.capacity());
+    }
+
+    @Test
+    public void testMetadata() {
+        ParseResult pr = parse("gc_logs/log_with_header.log", GarbageCollectorType.ORACLE_G1, new ArrayList<>());
+        Assert.assertTrue(pr.getLogMetadata().isPresent());
+    }
+
+    @Test
+    public void testChunked() throws Exception {
+        assertChunkedParse("gc_logs/cms_full_gc_log_2.log", GarbageCollectorType.ORACLE_CMS);
+        assertChunkedParse("gc_logs/cms_log_old_1.log", GarbageCollectorType.ORACLE_CMS);
+        assertChunkedParse("gc_logs/g1_log_1.log", GarbageCollectorType.ORACLE_G1);
+    }
+
+    private void assertChunkedParse(String resource, GarbageCollectorType type) throws Exception {
+        List<GCEvent> expected = new ArrayList<>();
+        ParseResult expectedPr = parse(resource, type, expected);
+
+        File file = File.createTempFile("gclog", ".log");
+        file.deleteOnExit();
+        Files.copy(getClass().getClassLoader().getResourceAsStream(resource), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        HotSpotLogsParser p = new HotSpotLogsParser();
+        p.setEventFactory(new TestGCEventFactory());
+        // every stop-the-world event line starts a new chunk
+        p.setConfigurationManager(config(1));
+        p.setParallelism(3);
+        MetricRegistry metrics = new MetricRegistry();
+        p.setMetrics(metrics);
+        Gauge<?> retained = metrics.getGauges().values().iterator().next();
+        p.init();
+        List<GCEvent> events = new ArrayList<>();
+        long[] maxRetained = { 0 };
+        ParserContext ctx = new ParserContext(LOG, "chcksm", type, VMVersion.HOTSPOT_1_8, "1", "2");
+        ParseResult pr;
+        try {
+            pr = p.parse(file, e -> {
+                maxRetained[0] = Math.max(maxRetained[0], (Long) retained.getValue());
+                events.add(e);
+            }, ctx);
+        } finally {
+            p.destroy();
+        }
+
+        Assert.assertTrue(pr.isSuccessful());
+        Assert.assertTrue(maxRetained[0] > 0);
+        Assert.assertEquals(0L, retained.getValue());
+        Assert.assertEquals(expected.stream().map(Object::toString).collect(Collectors.toList()),
+                events.stream().map(Object::toString).collect(Collectors.toList()));
+        Assert.assertEquals(expectedPr.getAgesStates().get(0).getOccupied(), pr.getAgesStates().get(0).getOccupied());
+        Assert.assertEquals(expectedPr.getLogMetadata().isPresent(), pr.getLogMetadata().isPresent());
+    }
+
+    @Test
+    public void testAgesWindows() throws Exception {
+        List<AgesState> windows = new ArrayList<>();
+        HotSpotLogsParser p = new HotSpotLogsParser();
+        p.setEventFactory(new TestGCEventFactory());
+        ParserContext ctx = new ParserContext(LOG, "chcksm", GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_8,
+                "1", "2", 10_000, windows::add);
+        ParseResult pr = p.parse(getClass().getClassLoader().getResourceAsStream("gc_logs/survivor_log_test.log"),
+                e -> {}, ctx);
+
+        Assert.assertTrue(pr.isSuccessful());
+        Assert.assertEquals(5, windows.size());
+        long lastWindow = Long.MIN_VALUE;
+        for (AgesState as : windows) {
+            Assert.assertTrue(as.getAges() > 0);
+            Assert.assertTrue(as.getOccurred() / 10_000 > lastWindow);
+            lastWindow = as.getOccurred() / 10_000;
+        }
+        Assert.assertEquals(new DateTime(2016, 4, 12, 18, 0, 1, 943, DateTimeZone.UTC).getMillis(),
+                windows.get(0).getOccurred());
+        Assert.assertEquals(0, pr.getAgesStates().get(0).getOccurred());
+        Assert.assertEquals(20_037_749L, (long) pr.getAgesStates().get(0).getOccupied().get(0));
+
+        File file = File.createTempFile("gclog", ".log");
+        file.deleteOnExit();
+        Files.copy(getClass().getClassLoader().getResourceAsStream("gc_logs/survivor_log_test.log"), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        p.setConfigurationManager(config(1));
+        p.setParallelism(3);
+        p.init();
+        List<AgesState> chunkedWindows = new ArrayList<>();
+        try {
+            p.parse(file, e -> {}, new ParserContext(LOG, "chcksm", GarbageCollectorType.ORACLE_CMS,
+                    VMVersion.HOTSPOT_1_8, "1", "2", 10_000, chunkedWindows::add));
+        } finally {
+            p.destroy();
+        }
+        Assert.assertEquals(windows.toString(), chunkedWindows.toString());
+    }
+
+    @Test
+    public void testTooLongLine() throws Exception {
+        List<GCEvent> expected = new ArrayList<>();
+        parse("gc_logs/cms_full_gc_log_2.log", GarbageCollectorType.ORACLE_CMS, expected);
+        byte[] log = ByteStreams.toByteArray(getClass().getClassLoader().getResourceAsStream("gc_logs/cms_full_gc_log_2.log"));
+        byte[] garbage = new byte[LineReader.MAX_LINE_LENGTH * 16];
+        Arrays.fill(garbage, (byte) '[');
+        byte[] input = new byte[garbage.length + 1 + log.length];
+        System.arraycopy(garbage, 0, input, 0, garbage.length);
+        input[garbage.length] = '\n';
+        System.arraycopy(log, 0, input, garbage.length + 1, log.length);
+
+        HotSpotLogsParser p = new HotSpotLogsParser();
+        p.setEventFactory(new TestGCEventFactory());
+        ParserContext ctx = new ParserContext(LOG, "chcksm", GarbageCollectorType.ORACLE_CMS, VMVersion.HOTSPOT_1_8, "1", "2");
+        List<GCEvent> events = new ArrayList<>();
+        Assert.assertTrue(p.parse(new ByteArrayInputStream(input), events::add, ctx).isSuccessful());
+
+        Assert.assertEquals(expected.stream().map(Object::toString).collect(Collectors.toList()),
+                events.stream().map(Object::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        assertResumedParse("gc_logs/cms_full_gc_log_2.log", GarbageCollectorType.ORACLE_CMS);
+        assertResumedParse("gc_logs/cms_log_old_1.log", GarbageCollectorType.ORACLE_CMS);
+        assertResumedParse("gc_logs/g1_log_1.log", GarbageCollectorType.ORACLE_G1);
+    }
+
+    @Test
+    public void testResumeWithinDetails() throws Exception {
+        String resource = "gc_logs/g1_log_1.log";
+        String log = new String(ByteStreams.toByteArray(getClass().getClassLoader().getResourceAsStream(resource)),
+                StandardCharsets.UTF_8);
+        // just after the pause is closed, and before its heap and times lines
+        int closed = log.indexOf("secs]\n   [Parallel Time");
+        Assert.assertTrue(closed > 0);
+        closed += "secs]\n".length();
+        int times = log.indexOf("\n [Times:", closed) + 1;
+        Assert.assertTrue(times > closed);
+        assertResumedParse(resource, GarbageCollectorType.ORACLE_G1, closed, times, log.length() / 2 + 13);
+    }
+
+    /**
+     * Parses the log as if it was growing, cut at arbitrary bytes, each time resuming from the previous checkpoint.
+     */
+    private void assertResumedParse(String resource, GarbageCollectorType type) throws Exception {
+        byte[] log = ByteStreams.toByteArray(getClass().getClassLoader().getResourceAsStream(resource));
+        assertResumedParse(resource, type, log.length / 3 + 7, log.length / 2 + 13, log.length - 1);
+    }
+
+    private void assertResumedParse(String resource, GarbageCollectorType type, int... cuts) throws Exception {
+        List<GCEvent> expected = new ArrayList<>();
+        parse(resource, type, expected);
+        byte[] original = ByteStreams.toByteArray(getClass().getClassLoader().getResourceAsStream(resource));
+        // the last event is emitted once the log grows past it, as it might be followed by its details
+        byte[] log = Arrays.copyOf(original, original.length + 1);
+        log[original.length] = '\n';
+
+        HotSpotLogsParser p = new HotSpotLogsParser();
+        p.setEventFactory(new TestGCEventFactory());
+        ParserContext ctx = new ParserContext(LOG, "chcksm", type, VMVersion.HOTSPOT_1_8, "1", "2");
+        List<GCEvent> events = new ArrayList<>();
+        long offset = 0;
+        String state = null;
+        int[] ends = Arrays.copyOf(cuts, cuts.length + 2);
+        ends[cuts.length] = original.length;
+        ends[cuts.length + 1] = log.length;
+        for (int end : ends) {
+            ParseResult pr = p.parse(new ByteArrayInputStream(log, (int) offset, end - (int) offset),
+                    events::add, ctx, state);
+            Assert.assertTrue(pr.isSuccessful());
+            Assert.assertTrue(pr.getConsumedBytes() >= 0);
+            offset += pr.getConsumedBytes();
+            state = pr.getParserState().orElse(null);
+        }
+
+        Assert.assertEquals(expected.size(), events.size());
+        for (int i = 0; i < expected.size(); i++) {
+            GCEvent e = expected.get(i);
+            GCEvent r = events.get(i);
+            Assert.assertEquals(e.occurred(), r.occurred());
+            Assert.assertEquals(e.phase(), r.phase());
+            Assert.assertEquals(e.pauseMu(), r.pauseMu());
+            Assert.assertEquals(e.capacity(), r.capacity());
+            Assert.assertEquals(e.totalCapacity(), r.totalCapacity());
+            Assert.assertEquals(e.capacityByGeneration(), r.capacityByGeneration());
+            Assert.assertEquals(e.user(), r.user(), 0.0001);
+            Assert.assertEquals(e.sys(), r.sys(), 0.0001);
+            Assert.assertEquals(e.real(), r.real(), 0.0001);
+            Assert.assertEquals(e.toString(), r.toString());
+        }
+    }
+
+    private static ConfigurationManager config(long chunkSize) {
+        return new ConfigurationManager() {
+            @Override
+            public String readString(ConfigProperty configProperty) {
+                return (String) configProperty.getDefaultValue();
+            }
+
+            @Override
+            public int readInt(ConfigProperty configProperty) {
+                return ((Number) configProperty.getDefaultValue()).intValue();
+            }
+
+            @Override
+            public long readLong(ConfigProperty configProperty) {
+                if (configProperty == ConfigProperty.PARSE_LOG_PARALLEL_CHUNK_SIZE) {
+                    return chunkSize;
+                } else if (configProperty == ConfigProperty.PARSE_LOG_PARALLEL_MIN_FILE_SIZE) {
+                    return 0;
+                }
+                return ((Number) configProperty.getDefaultValue()).longValue();
+            }
+
+            @Override
+            public boolean readBoolean(ConfigProperty configProperty) {
+                return (Boolean) configProperty.getDefaultValue();
+            }
+
+            @Override
+            public double readDouble(ConfigProperty configProperty) {
+                return ((Number) configProperty.getDefaultValue()).doubleValue();
+            }
+
+            @Override
+            public void putProperty(ConfigProperty key, Object value) {
+            }
+        };
+    }
+
+    private ParseResult parse(String resource, GarbageCollectorType type, List<GCEvent> events) {
+        InputStream log = getClass().getClassLoader().getResourceAsStream(resource);
+        HotSpotLogsParser p = new HotSpotLogsParser();
+        p.setEventFactory(new TestGCEventFactory());
+        ParserContext ctx = new ParserContext(LOG, "chcksm", type, VMVersion.HOTSPOT_1_8, "1", "2");
+        return p.parse(log, e -> events.add(p.getMapper().map(ctx, e)), ctx);
+    }
+
+}
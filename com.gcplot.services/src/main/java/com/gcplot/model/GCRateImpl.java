@@ -2,18 +2,24 @@ package com.gcplot.model;
 
 import com.gcplot.model.gc.GCRate;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         2/24/17
  */
 public class GCRateImpl implements GCRate {
-    private final DateTime occurred;
+    private final long occurred;
     private final long allocationRate;
     private final long promotionRate;
 
     @Override
     public DateTime occurred() {
+        return new DateTime(occurred, DateTimeZone.UTC);
+    }
+
+    @Override
+    public long occurredMillis() {
         return occurred;
     }
 
@@ -27,7 +33,7 @@ public class GCRateImpl implements GCRate {
         return promotionRate;
     }
 
-    public GCRateImpl(DateTime occurred, long allocationRate, long promotionRate) {
+    public GCRateImpl(long occurred, long allocationRate, long promotionRate) {
         this.occurred = occurred;
         this.allocationRate = allocationRate;
         this.promotionRate = promotionRate;
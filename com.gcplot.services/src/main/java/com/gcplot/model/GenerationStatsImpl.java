@@ -116,7 +116,7 @@ public class GenerationStatsImpl implements GenerationStats {
     public GenerationStatsImpl nextInterval(GCEvent event) {
         if (prevIntervalEvent != null &&
                 (!isRestrictedInterval || prevIntervalEvent.phase().equals(event.phase()))) {
-            interval.next(Math.abs(event.occurred().getMillis() - prevIntervalEvent.occurred().getMillis()));
+            interval.next(Math.abs(event.occurredMillis() - prevIntervalEvent.occurredMillis()));
         }
         if (prevIntervalEvent == null || prevIntervalEvent.phase().equals(event.phase())) {
             prevIntervalEvent = event;
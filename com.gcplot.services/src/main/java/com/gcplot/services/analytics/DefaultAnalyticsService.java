@@ -11,6 +11,7 @@ import com.gcplot.model.IdentifiedEvent;
 import com.gcplot.model.gc.*;
 import com.gcplot.repository.GCAnalyseRepository;
 import com.gcplot.repository.GCEventRepository;
+import com.gcplot.repository.GCEventRollupRepository;
 import com.gcplot.commons.interceptors.EventInterceptor;
 import com.gcplot.commons.interceptors.PhaseSampler;
 import com.gcplot.commons.interceptors.Sampler;
@@ -57,6 +58,7 @@ public class DefaultAnalyticsService implements AnalyticsService {
     }};
     private GCAnalyseRepository analyseRepository;
     private GCEventRepository eventRepository;
+    private GCEventRollupRepository rollupRepository;
     private GCEventFactory eventFactory;
     private EventsAnalyticsProcessor eventsAnalyticsProcessor;
 
@@ -72,6 +74,9 @@ public class DefaultAnalyticsService implements AnalyticsService {
         long secondsBetween = new Duration(range.from(), range.to()).getStandardSeconds();
         int sampleSeconds = samplingSeconds > 0 ? samplingSeconds : pickUpSampling(secondsBetween);
 
+        if (processRollups(analyseId, jvmId, range, sampleSeconds, features, listener)) {
+            return EventsResult.SUCCESS;
+        }
         Iterator<GCEvent> i = eventRepository.lazyEvents(analyseId, jvmId, range);
         List<EventInterceptor<GCEvent>> samplers = buildSamplers(features, sampleSeconds);
         List<EventInterceptor> interceptors = buildInterceptors(features, sampleSeconds, isG1(jvmId, analyse));
@@ -80,6 +85,31 @@ public class DefaultAnalyticsService implements AnalyticsService {
         return EventsResult.SUCCESS;
     }
 
+    /**
+     * Only the samplers can be served from the rollups, the rates and the statistics need every event.
+     * The events are read instead unless all the events of the range are rolled up, e.g. some of them were
+     * parsed before the rollups were introduced, or while they were disabled, or their rollups failed to persist.
+     *
+     * @return whether the rollups were processed
+     */
+    private boolean processRollups(String analyseId, String jvmId, Range range, int sampleSeconds,
+                                   EnumSet<GCEventFeature> features, Consumer<IdentifiedEvent> listener) {
+        RollupGranularity granularity = RollupGranularity.coarsest(sampleSeconds);
+        if (rollupRepository == null || granularity == null || !features.equals(GCEventFeature.getSamplers())) {
+            return false;
+        }
+        Optional<DateTime> coveredFrom = rollupRepository.coveredFrom(analyseId, jvmId);
+        if (!coveredFrom.isPresent() || granularity.bucket(range.from().getMillis()) < coveredFrom.get().getMillis()) {
+            return false;
+        }
+        Iterator<GCEventRollup> rollups = rollupRepository.rollups(analyseId, jvmId, granularity, range);
+        if (!rollups.hasNext()) {
+            return false;
+        }
+        eventsAnalyticsProcessor.processRollups(listener, sampleSeconds, rollups);
+        return true;
+    }
+
     private List<EventInterceptor> buildInterceptors(EnumSet<GCEventFeature> features, int sampleSeconds, boolean isG1) {
         boolean hasRates = features.contains(GCEventFeature.CALC_RATES);
         boolean hasStats = features.contains(GCEventFeature.CALC_STATISTIC);
@@ -166,6 +196,14 @@ public class DefaultAnalyticsService implements AnalyticsService {
         this.eventRepository = eventRepository;
     }
 
+    public GCEventRollupRepository getRollupRepository() {
+        return rollupRepository;
+    }
+
+    public void setRollupRepository(GCEventRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
     public GCEventFactory getEventFactory() {
         return eventFactory;
     }
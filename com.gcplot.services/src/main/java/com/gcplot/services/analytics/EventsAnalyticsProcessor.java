@@ -3,7 +3,9 @@ package com.gcplot.services.analytics;
 import com.gcplot.commons.interceptors.EventInterceptor;
 import com.gcplot.model.IdentifiedEvent;
 import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GCEventRollup;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
@@ -38,4 +40,38 @@ public class EventsAnalyticsProcessor {
         interceptors.forEach(ic -> ic.complete().forEach(listener));
     }
 
+    /**
+     * Samples the rollups instead of the events, the extreme events of every group within the sampling
+     * window are passed, so the cost depends on the number of windows rather than events.
+     *
+     * @param i the rollups, the most recent buckets first
+     */
+    public void processRollups(Consumer<IdentifiedEvent> listener, int sampleSeconds, Iterator<GCEventRollup> i) {
+        final long sampleMillis = sampleSeconds * 1000L;
+        List<GCEventRollup> window = new ArrayList<>();
+        long windowStart = Long.MIN_VALUE;
+        while (i.hasNext()) {
+            GCEventRollup next = i.next();
+            long start = next.bucket() - Math.floorMod(next.bucket(), sampleMillis);
+            if (start != windowStart) {
+                window.forEach(r -> r.exemplars().forEach(listener));
+                window.clear();
+                windowStart = start;
+            }
+            GCEventRollup same = null;
+            for (GCEventRollup r : window) {
+                if (r.isSameGroup(next)) {
+                    same = r;
+                    break;
+                }
+            }
+            if (same != null) {
+                same.merge(next);
+            } else {
+                window.add(next);
+            }
+        }
+        window.forEach(r -> r.exemplars().forEach(listener));
+    }
+
 }
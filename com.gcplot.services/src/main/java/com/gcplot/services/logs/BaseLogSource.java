@@ -1,19 +1,32 @@
 package com.gcplot.services.logs;
 
+import com.gcplot.commons.FileUtils;
 import com.gcplot.utils.Exceptions;
 import com.gcplot.logs.LogHandle;
 import com.gcplot.logs.LogSource;
+import com.google.common.io.ByteStreams;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.function.Predicate;
 import java.util.zip.GZIPInputStream;
 
 /**
+ * Unless provided, the checksum of the log is the one of the whole log, calculated within the same read
+ * which detects the VM properties. It's the bucket id of the events and the key of their deduplication,
+ * so it has to be known before the parser passes on the first event, and stay the same for the logs
+ * processed before.
+ *
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         2/26/17
  */
 public abstract class BaseLogSource implements LogSource {
     protected LogHandle handle;
+    protected String checksum;
 
     @Override
     public LogHandle handle() {
@@ -35,4 +48,33 @@ public abstract class BaseLogSource implements LogSource {
         }
     }
 
+    @Override
+    public String checksum() {
+        if (checksum == null) {
+            scan(line -> false);
+        }
+        return checksum;
+    }
+
+    @Override
+    public void scan(Predicate<String> lines) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            try (DigestInputStream in = new DigestInputStream(logStream(), digest)) {
+                in.on(checksum == null);
+                BufferedReader br = new BufferedReader(new InputStreamReader(in));
+                String line;
+                while ((line = br.readLine()) != null && lines.test(line)) {
+                }
+                // whatever the reader has buffered is digested already, the rest goes straight to the digest
+                if (checksum == null) {
+                    ByteStreams.exhaust(in);
+                    checksum = FileUtils.hex(digest.digest());
+                }
+            }
+        } catch (Throwable t) {
+            throw Exceptions.runtime(t);
+        }
+    }
+
 }
@@ -3,6 +3,7 @@ package com.gcplot.services.logs;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.core.FileAppender;
+import com.codahale.metrics.MetricRegistry;
 import com.gcplot.Identifier;
 import com.gcplot.configuration.ConfigProperty;
 import com.gcplot.commons.ErrorMessages;
@@ -18,14 +19,21 @@ import com.gcplot.model.gc.vm.VMProperties;
 import com.gcplot.model.gc.vm.VMPropertiesDetector;
 import com.gcplot.repository.GCAnalyseRepository;
 import com.gcplot.repository.GCEventRepository;
+import com.gcplot.repository.GCEventRollupRepository;
+import com.gcplot.repository.LogCheckpointRepository;
 import com.gcplot.repository.VMEventsRepository;
 import com.gcplot.repository.operations.analyse.AddJvmOperation;
 import com.gcplot.repository.operations.analyse.AnalyseOperation;
 import com.gcplot.repository.operations.analyse.UpdateCornerEventsOperation;
 import com.gcplot.repository.operations.analyse.UpdateJvmInfoOperation;
 import com.gcplot.resource.ResourceManager;
+import com.gcplot.services.logs.disruptor.AsyncPersister;
 import com.gcplot.services.logs.disruptor.ParsingState;
 import com.gcplot.services.logs.disruptor.PipeEventProcessor;
+import com.gcplot.services.logs.disruptor.RollupAggregator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.io.ByteStreams;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.lang3.tuple.Pair;
 import org.joda.time.DateTime;
@@ -36,8 +44,13 @@ import org.slf4j.helpers.NOPLogger;
 
 import java.io.*;
 import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 import static com.gcplot.utils.CollectionUtils.cloneAndAdd;
 import static com.gcplot.utils.CollectionUtils.cloneAndPut;
@@ -51,40 +64,118 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultLogsProcessorService.class);
     private static final String ANONYMOUS_ANALYSE_NAME = "Files";
     private static final String LOG_PATTERN = "%d{yyyyMMdd HH:mm:ss.SSS} [[%5p] %c{1} [%t]] %m%n";
+    private static final int LOG_ID_HEAD_SIZE = 4 * 1024;
+    private static final int CHECKPOINT_TAIL_SIZE = 4 * 1024;
+    private static final int CHECKPOINT_RING_SIZE = 256 * 1024;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
     private ThreadLocal<ch.qos.logback.classic.Logger> loggers = ThreadLocal.withInitial(
             () -> ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Thread.currentThread().getName()));
     private ExecutorService uploadExecutor;
+    private ExecutorService jobExecutor;
+    private Cache<String, LogProcessJob> jobs;
+    private final ConcurrentMap<Identifier, AtomicInteger> pendingJobs = new ConcurrentHashMap<>();
     private ResourceManager resourceManager;
     private GCAnalyseRepository analyseRepository;
     private GCEventRepository eventRepository;
+    private GCEventRollupRepository rollupRepository;
     private VMEventsRepository<ObjectsAges> agesStateRepository;
+    private LogCheckpointRepository logCheckpointRepository;
     private LogsParser logsParser;
     private VMPropertiesDetector vmPropertiesDetector;
     private GCAnalyseFactory analyseFactory;
     private ObjectsAgesFactory objectsAgesFactory;
     private ConfigurationManager config;
-    private PipeEventProcessor pipeEventProcessor;
+    private IngestionLane realtimeLane;
+    private IngestionLane bulkLane;
+    private MetricRegistry metrics;
+    private volatile Pair<String, Map<String, Double>> weights = Pair.of("", Collections.emptyMap());
 
     public void init() {
         uploadExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 8,
                 new ThreadFactoryBuilder().setNameFormat("logs-proc-%d").build());
-        pipeEventProcessor = new PipeEventProcessor(eventRepository::add, eventRepository::add, logsParser.getMapper());
-        pipeEventProcessor.init();
+        jobExecutor = Executors.newFixedThreadPool(getConfig().readInt(ConfigProperty.PARSE_LOG_JOB_THREADS),
+                new ThreadFactoryBuilder().setNameFormat("logs-job-%d").build());
+        jobs = Caffeine.newBuilder()
+                .expireAfterAccess(getConfig().readLong(ConfigProperty.PARSE_LOG_JOB_RETENTION_MINUTES), TimeUnit.MINUTES)
+                .build();
+        realtimeLane = createLane(true);
+        bulkLane = createLane(false);
+        realtimeLane.init();
+        bulkLane.init();
     }
 
     public void destroy() {
         try {
+            jobExecutor.shutdownNow();
+            jobExecutor.awaitTermination(1, TimeUnit.MINUTES);
             uploadExecutor.shutdownNow();
             uploadExecutor.awaitTermination(1, TimeUnit.MINUTES);
-            pipeEventProcessor.shutdown();
+            realtimeLane.shutdown();
+            bulkLane.shutdown();
         } catch (Throwable t) {
             LOG.error(t.getMessage(), t);
         }
     }
 
+    /**
+     * The real-time lane serves the continuous analyses, which are fed by the agents and should be fresh,
+     * while the bulk one serves the uploads. Each has its own rings, threads and in-flight writes limit.
+     */
+    protected IngestionLane createLane(boolean realtime) {
+        String name = realtime ? "realtime" : "bulk";
+        FairScheduler scheduler = new FairScheduler(name, () -> getConfig().readInt(realtime ?
+                ConfigProperty.PARSE_LOG_REALTIME_MAX_RUNNING : ConfigProperty.PARSE_LOG_FAIR_MAX_RUNNING),
+                () -> getConfig().readInt(ConfigProperty.PARSE_LOG_FAIR_MAX_RUNNING_PER_TENANT),
+                () -> getConfig().readInt(ConfigProperty.PARSE_LOG_FAIR_MAX_QUEUED_PER_TENANT));
+        PipeEventProcessor pipe = new PipeEventProcessor(eventRepository::add, eventRepository::add,
+                eventRepository::partitionKey, logsParser.getMapper());
+        pipe.setName(name);
+        pipe.setRingSizes(getConfig().readInt(realtime ? ConfigProperty.PARSE_LOG_REALTIME_INPUT_SIZE : ConfigProperty.PARSE_LOG_INPUT_SIZE),
+                getConfig().readInt(realtime ? ConfigProperty.PARSE_LOG_REALTIME_OUTPUT_SIZE : ConfigProperty.PARSE_LOG_OUTPUT_SIZE));
+        pipe.setMappers(getConfig().readInt(realtime ? ConfigProperty.PARSE_LOG_REALTIME_MAPPERS : ConfigProperty.PARSE_LOG_MAPPERS));
+        pipe.setShards(getConfig().readInt(realtime ? ConfigProperty.PARSE_LOG_REALTIME_SHARDS : ConfigProperty.PARSE_LOG_PROCESSING_SHARDS));
+        pipe.setPersisters(getConfig().readInt(realtime ? ConfigProperty.PARSE_LOG_REALTIME_PERSISTERS : ConfigProperty.PARSE_LOG_PERSISTERS));
+        pipe.setWaitStrategy(getConfig().readString(ConfigProperty.PARSE_LOG_WAIT_STRATEGY));
+        pipe.setBatchSize(getConfig().readInt(ConfigProperty.PARSE_LOG_PERSIST_BATCH_SIZE));
+        pipe.setLingerMillis(getConfig().readLong(ConfigProperty.PARSE_LOG_PERSIST_LINGER_MS));
+        if (rollupRepository != null) {
+            pipe.setRollupWriter(rollupRepository::addAsync,
+                    getConfig().readInt(ConfigProperty.PARSE_LOG_ROLLUPS_MAX_IN_FLIGHT));
+        }
+        pipe.setLastEventMarker(eventRepository::updateLastEvent);
+        AsyncPersister asyncPersister = null;
+        if (getConfig().readBoolean(ConfigProperty.PARSE_LOG_PERSIST_ASYNC)) {
+            asyncPersister = new AsyncPersister(events -> events.size() == 1 ? eventRepository.addAsync(events.get(0))
+                    : eventRepository.addAsync(events), getConfig().readInt(realtime ?
+                    ConfigProperty.PARSE_LOG_REALTIME_MAX_IN_FLIGHT : ConfigProperty.PARSE_LOG_PERSIST_MAX_IN_FLIGHT),
+                    getConfig().readInt(ConfigProperty.PARSE_LOG_PERSIST_MAX_RETRIES),
+                    getConfig().readLong(ConfigProperty.PARSE_LOG_PERSIST_RETRY_DELAY_MS));
+            asyncPersister.setName(name);
+            pipe.setAsyncPersister(asyncPersister);
+        }
+        if (metrics != null) {
+            scheduler.setMetrics(metrics);
+            pipe.setMetrics(metrics);
+            if (asyncPersister != null) {
+                asyncPersister.setMetrics(metrics);
+            }
+        }
+        return new IngestionLane(name, pipe, asyncPersister, scheduler);
+    }
+
+    protected IngestionLane lane(GCAnalyse analyse) {
+        return analyse.isContinuous() ? realtimeLane : bulkLane;
+    }
+
     @Override
     public LogProcessResult process(LogSource source, Account account, String analyzeId, String jvmId,
                                     boolean sync) {
+        return process(source, account, analyzeId, jvmId, sync, new LogProcessProgress());
+    }
+
+    protected LogProcessResult process(LogSource source, Account account, String analyzeId, String jvmId,
+                                       boolean sync, LogProcessProgress progress) {
         try {
             final Identifier userId = account.id();
             GCAnalyse analyze;
@@ -98,7 +189,7 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
                     analyze = oAnalyse.get();
                 }
                 if (!jvmBelongsAnalyze(jvmId, analyze)) {
-                    VMProperties props = vmPropertiesDetector.detect(source);
+                    VMProperties props = detect(source);
                     if (props == VMProperties.EMPTY) {
                         return new LogProcessResult(ErrorMessages.buildJson(ErrorMessages.LOG_FILE_UNDETECTABLE));
                     }
@@ -108,7 +199,7 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
             } else {
                 analyze = analyseRepository.analyse(userId, analyzeId).orElse(null);
             }
-            return processLog(source, account, jvmId, sync, analyze);
+            return processLog(source, account, jvmId, sync, analyze, progress);
         } catch (Throwable t) {
             throw Exceptions.runtime(t);
         } finally {
@@ -122,7 +213,7 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
     @Override
     public LogProcessResult process(LogSource source, Account account, GCAnalyse analyse, String jvmId) {
         try {
-            return processLog(source, account, jvmId, false, analyse);
+            return processLog(source, account, jvmId, false, analyse, new LogProcessProgress());
         } catch (Throwable t) {
             throw Exceptions.runtime(t);
         } finally {
@@ -133,10 +224,70 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
         }
     }
 
-    protected LogProcessResult processLog(LogSource source, Account account, String jvmId, boolean sync, GCAnalyse analyze) throws IOException {
+    @Override
+    public LogProcessJob submit(LogSource source, Account account, String analyzeId, String jvmId) {
+        LogProcessJob job = new LogProcessJob(UUID.randomUUID().toString(), account.id(), analyzeId, jvmId,
+                source.localFile().map(File::length).orElse(-1L));
+        jobs.put(job.getId(), job);
+        AtomicInteger pending = pendingJobs.computeIfAbsent(account.id(), k -> new AtomicInteger());
+        if (pending.incrementAndGet() > getConfig().readInt(ConfigProperty.PARSE_LOG_JOB_MAX_PENDING)) {
+            pending.decrementAndGet();
+            source.localFile().ifPresent(org.apache.commons.io.FileUtils::deleteQuietly);
+            job.finished(new LogProcessResult(ErrorMessages.buildJson(ErrorMessages.LOGS_QUEUE_IS_FULL)));
+            return job;
+        }
+        try {
+            jobExecutor.submit(() -> {
+                job.started();
+                try {
+                    job.finished(process(source, account, analyzeId, jvmId, false, job.getProgress()));
+                } catch (Throwable t) {
+                    LOG.error(t.getMessage(), t);
+                    job.finished(new LogProcessResult(ErrorMessages.buildJson(ErrorMessages.INTERNAL_ERROR)));
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            source.localFile().ifPresent(org.apache.commons.io.FileUtils::deleteQuietly);
+            job.finished(new LogProcessResult(ErrorMessages.buildJson(ErrorMessages.SERVING_IS_DISABLED)));
+        }
+        return job;
+    }
+
+    @Override
+    public Optional<LogProcessJob> job(Identifier accountId, String jobId) {
+        LogProcessJob job = jobs.getIfPresent(jobId);
+        return job != null && job.getAccountId().equals(accountId) ? Optional.of(job) : Optional.empty();
+    }
+
+    protected LogProcessResult processLog(LogSource source, Account account, String jvmId, boolean sync, GCAnalyse analyze,
+                                          LogProcessProgress progress) throws IOException, InterruptedException {
         LogProcessResult x = checkAnalyzeCorrect(analyze.id(), jvmId, account.id(), analyze);
         if (x != null) return x;
 
+        FairScheduler.Permit permit;
+        try {
+            permit = lane(analyze).getScheduler().acquire(tenant(account, analyze), weight(account),
+                    source.localFile().map(File::length).orElse(1L));
+        } catch (RejectedExecutionException e) {
+            LOG.warn(e.getMessage());
+            return new LogProcessResult(ErrorMessages.buildJson(ErrorMessages.LOGS_QUEUE_IS_FULL));
+        }
+        try {
+            return processLog(source, account, jvmId, sync, analyze, permit, progress);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * @param permit releases the slot of the tenant, once the events are persisted
+     */
+    private LogProcessResult processLog(LogSource source, Account account, String jvmId, boolean sync, GCAnalyse analyze,
+                                        FairScheduler.Permit permit, LogProcessProgress progress) throws IOException {
+
         Logger log;
         File logFile = null;
         if (analyze.isContinuous()) {
@@ -146,13 +297,16 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
             log = createLogger(logFile);
         }
 
-        Pair<ParseResult, ParsingState> p = parseAndPersist(source, jvmId, analyze, log);
+        long agesWindowMillis = getConfig().readLong(ConfigProperty.SURVIVOR_AGES_WINDOW_SECONDS) * 1000;
+        Pair<ParseResult, ParsingState> p = parseAndPersist(source, jvmId, analyze, log, agesWindowMillis, progress);
+        permit.close();
         ParseResult pr = p.getLeft();
         ParsingState ps = p.getRight();
 
         if (pr.isSuccessful()) {
             updateAnalyzeInfo(analyze.id(), jvmId, account.id(), pr, ps);
-            if (pr.getAgesStates().size() > 0) {
+            // the windows are persisted while parsing, otherwise there is only the average over the log
+            if (agesWindowMillis <= 0 && pr.getAgesStates().size() > 0) {
                 persistObjectAges(analyze.id(), jvmId, pr);
             }
         } else {
@@ -169,6 +323,37 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
         return LogProcessResult.SUCCESS;
     }
 
+    /**
+     * The sessions are scheduled fairly between the accounts, or their analyses if configured.
+     */
+    protected Object tenant(Account account, GCAnalyse analyse) {
+        if (getConfig().readBoolean(ConfigProperty.PARSE_LOG_FAIR_BY_ANALYSIS)) {
+            return Pair.of(account.id().toString(), analyse.id());
+        }
+        return account.id().toString();
+    }
+
+    protected double weight(Account account) {
+        String config = getConfig().readString(ConfigProperty.PARSE_LOG_FAIR_WEIGHTS);
+        Pair<String, Map<String, Double>> w = weights;
+        if (!w.getLeft().equals(config)) {
+            Map<String, Double> m = new HashMap<>();
+            for (String pair : config.split(",")) {
+                int i = pair.indexOf('=');
+                if (i > 0) {
+                    try {
+                        m.put(pair.substring(0, i).trim(), Double.parseDouble(pair.substring(i + 1).trim()));
+                    } catch (NumberFormatException e) {
+                        LOG.warn("Invalid weight: {}", pair);
+                    }
+                }
+            }
+            w = Pair.of(config, m);
+            weights = w;
+        }
+        return w.getRight().getOrDefault(account.id().toString(), 1.0);
+    }
+
     protected void updateAnalyzeInfo(String analyzeId, String jvmId, Identifier userId, ParseResult pr,
                                      ParsingState ps) {
         List<AnalyseOperation> ops = new ArrayList<>(2);
@@ -206,6 +391,21 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
                 false, DateTime.now(DateTimeZone.UTC), "");
     }
 
+    /**
+     * Detects VM properties within the same read which calculates the log checksum,
+     * so that only the parser has to read the log again.
+     */
+    protected VMProperties detect(LogSource source) {
+        VMProperties[] props = { VMProperties.EMPTY };
+        try {
+            source.scan(line -> (props[0] = vmPropertiesDetector.detect(line)) == VMProperties.EMPTY);
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+            return VMProperties.EMPTY;
+        }
+        return props[0];
+    }
+
     protected GCAnalyse addJvmToAnalyze(LogSource source, String analyzeId, String jvmId, Identifier userId, GCAnalyse analyze, VMProperties props) {
         analyseRepository.perform(new AddJvmOperation(userId, analyzeId, UUID.fromString(jvmId), source.handle().getName(),
                 props.getVersion(), props.getGcType(), "", null));
@@ -233,20 +433,177 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
         return null;
     }
 
-    private Pair<ParseResult, ParsingState> parseAndPersist(LogSource source, String jvmId, GCAnalyse analyse, Logger log) throws IOException {
+    private Pair<ParseResult, ParsingState> parseAndPersist(LogSource source, String jvmId, GCAnalyse analyse, Logger log,
+                                                            long agesWindowMillis, LogProcessProgress progress) throws IOException {
+        ObjectsAgesBatch agesBatch = new ObjectsAgesBatch(analyse.id(), jvmId,
+                getConfig().readInt(ConfigProperty.SURVIVOR_AGES_BATCH_SIZE));
         ParserContext ctx = new ParserContext(log, source.checksum(), analyse.jvmGCTypes().get(jvmId),
-                analyse.jvmVersions().get(jvmId), jvmId, analyse.id());
+                analyse.jvmVersions().get(jvmId), jvmId, analyse.id(), agesWindowMillis,
+                agesWindowMillis > 0 ? agesBatch : null);
+        try {
+            Pair<ParseResult, ParsingState> p = parseAndPersist(source, analyse, ctx, lane(analyse).getPipe(), progress);
+            updateRollupsCoverage(analyse, jvmId, p.getRight());
+            return p;
+        } finally {
+            agesBatch.flush();
+        }
+    }
+
+    /**
+     * The events of the JVM are served from the rollups only since the time all of them are rolled up. The session
+     * which persisted the events without their rollups moves that time past its events, while the first session with
+     * the rollups starts it after the events persisted before.
+     */
+    private void updateRollupsCoverage(GCAnalyse analyse, String jvmId, ParsingState ps) {
+        if (rollupRepository == null || ps.getLastEvent() == null) {
+            return;
+        }
+        try {
+            Optional<DateTime> coveredFrom = rollupRepository.coveredFrom(analyse.id(), jvmId);
+            if (ps.getRollups() == null || ps.hasFailedRollups()) {
+                DateTime after = ps.getLastEvent().occurred().plusMillis(1);
+                if (coveredFrom.isPresent() && coveredFrom.get().isBefore(after)) {
+                    rollupRepository.updateCoveredFrom(analyse.id(), jvmId, after);
+                }
+            } else if (!coveredFrom.isPresent()) {
+                DateTime from = ps.getFirstEvent() != null ? ps.getFirstEvent().occurred() : ps.getLastEvent().occurred();
+                DateTime persistedBefore = analyse.lastEvent() != null ? analyse.lastEvent().get(jvmId) : null;
+                if (persistedBefore != null && !persistedBefore.isBefore(from)) {
+                    from = persistedBefore.plusMillis(1);
+                }
+                rollupRepository.updateCoveredFrom(analyse.id(), jvmId, from);
+            }
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+        }
+    }
+
+    private Pair<ParseResult, ParsingState> parseAndPersist(LogSource source, GCAnalyse analyse, ParserContext ctx,
+                                                            PipeEventProcessor pipe, LogProcessProgress progress) throws IOException {
+        if (analyse.isContinuous() && source.isReplayable() && logCheckpointRepository != null
+                && getConfig().readBoolean(ConfigProperty.PARSE_LOG_CHECKPOINTS_ENABLED)) {
+            String logId = logId(source);
+            if (logId != null) {
+                return parseAndPersist(source, ctx, logId, pipe, progress);
+            }
+        }
 
         ParseResult pr;
         ParsingState ps = new ParsingState(ctx, eventRepository, source.checksum(),
                 getConfig().readInt(ConfigProperty.PARSE_LOG_SAMPLING_SECONDS));
-        try (InputStream fis = source.logStream()) {
-            pr = logsParser.parse(fis, e -> pipeEventProcessor.processNext(e, ctx, ps), ctx);
+        ps.setProgress(progress);
+        ps.setRollups(rollups(source.checksum()));
+        Optional<File> localFile = source.localFile();
+        if (localFile.isPresent() && !source.isGzipped()) {
+            // the parser is free to split plain files and parse them concurrently, so the bytes are counted at the end
+            pr = logsParser.parse(localFile.get(), next(pipe, ctx, ps), ctx);
+            progress.bytesRead(localFile.get().length());
+        } else {
+            try (InputStream fis = new ProgressInputStream(source.logStream(), progress)) {
+                pr = logsParser.parse(fis, next(pipe, ctx, ps), ctx);
+            }
+        }
+        pipe.finish(ps);
+        if (!ps.hasFailedWrites()) {
+            markLastEvent(ps);
         }
-        pipeEventProcessor.finish(ps);
         return Pair.of(pr, ps);
     }
 
+    /**
+     * Parses the log from the checkpoint of the previous run over it, if there is one and the bytes
+     * before it are still the same, and saves the new checkpoint once all the events are persisted.
+     */
+    private Pair<ParseResult, ParsingState> parseAndPersist(LogSource source, ParserContext ctx, String logId,
+                                                            PipeEventProcessor pipe, LogProcessProgress progress) throws IOException {
+        Optional<LogCheckpoint> checkpoint = logCheckpointRepository.checkpoint(ctx.analysisId(), ctx.jvmId(), logId);
+        TailInputStream in = new TailInputStream(source.logStream(), CHECKPOINT_RING_SIZE);
+        if (checkpoint.isPresent() && !(in.skipTo(checkpoint.get().offset()) && checkpoint.get().tailChecksum()
+                .equals(in.tailChecksum(checkpoint.get().offset(), CHECKPOINT_TAIL_SIZE)))) {
+            LOG.warn("The log {} doesn't match its checkpoint {}, parsing from the start.", source.handle(), checkpoint.get());
+            in.close();
+            in = new TailInputStream(source.logStream(), CHECKPOINT_RING_SIZE);
+            checkpoint = Optional.empty();
+        }
+        long offset = checkpoint.map(LogCheckpoint::offset).orElse(0L);
+        ParsingState ps = new ParsingState(ctx, eventRepository, source.checksum(),
+                getConfig().readInt(ConfigProperty.PARSE_LOG_SAMPLING_SECONDS), !checkpoint.isPresent());
+        ps.setProgress(progress);
+        // the log is parsed from the checkpoint, so its rollups are the same as long as the checkpoint is
+        ps.setRollups(rollups(logId + ":" + offset));
+        ParseResult pr;
+        try (InputStream fis = new ProgressInputStream(in, progress)) {
+            pr = logsParser.parse(fis, next(pipe, ctx, ps), ctx,
+                    checkpoint.map(LogCheckpoint::parserState).orElse(null));
+        }
+        pipe.finish(ps);
+        if (ps.hasFailedWrites()) {
+            // the next run has to parse the missing events again, so neither it nor the dedup may skip them
+            LOG.warn("Some events of {} failed to persist, keeping the checkpoint {}.", source.handle(), checkpoint.orElse(null));
+            return Pair.of(pr, ps);
+        }
+        markLastEvent(ps);
+
+        if (pr.isSuccessful() && pr.getConsumedBytes() > 0) {
+            long newOffset = offset + pr.getConsumedBytes();
+            String tailChecksum = in.tailChecksum(newOffset, CHECKPOINT_TAIL_SIZE);
+            if (tailChecksum != null) {
+                logCheckpointRepository.save(new LogCheckpoint(ctx.analysisId(), ctx.jvmId(), logId, newOffset,
+                        tailChecksum, pr.getParserState().orElse(null)));
+            } else {
+                LOG.warn("The checkpoint of {} at {} is out of the retained tail, skipping it.", source.handle(), newOffset);
+            }
+        }
+        return Pair.of(pr, ps);
+    }
+
+    /**
+     * The next session of the same JVM or log finds where this one stopped with a single read. The pipe marks
+     * the events while the session goes on as well, as soon as their writes are acknowledged, this one marks
+     * the events the young sampler held back.
+     */
+    private void markLastEvent(ParsingState ps) {
+        if (ps.getLastEvent() != null) {
+            try {
+                eventRepository.updateLastEvent(ps.getLastEvent());
+            } catch (Throwable t) {
+                LOG.error(t.getMessage(), t);
+            }
+        }
+    }
+
+    private RollupAggregator rollups(String source) {
+        if (rollupRepository != null && getConfig().readBoolean(ConfigProperty.PARSE_LOG_ROLLUPS_ENABLED)) {
+            return new RollupAggregator(getConfig().readInt(ConfigProperty.PARSE_LOG_ROLLUPS_BATCH_SIZE), source);
+        }
+        return null;
+    }
+
+    private Consumer<Object> next(PipeEventProcessor pipe, ParserContext ctx, ParsingState ps) {
+        return e -> {
+            ps.getProgress().eventParsed();
+            pipe.processNext(e, ctx, ps);
+        };
+    }
+
+    /**
+     * The log is identified by the checksum of its head, which doesn't change while the log grows.
+     *
+     * @return null if the log is too short to be identified
+     */
+    private String logId(LogSource source) throws IOException {
+        try (InputStream in = source.logStream()) {
+            byte[] head = new byte[LOG_ID_HEAD_SIZE];
+            int read = ByteStreams.read(in, head, 0, head.length);
+            if (read < head.length) {
+                return null;
+            }
+            return FileUtils.hex(MessageDigest.getInstance("MD5").digest(head));
+        } catch (NoSuchAlgorithmException e) {
+            throw Exceptions.runtime(e);
+        }
+    }
+
     private Logger createLogger(File logFile) {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
         ch.qos.logback.classic.Logger log = loggers.get();
@@ -279,19 +636,19 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
                                String analyseId, String jvmId, String username, File logFile) {
         if (!resourceManager.isDisabled()) {
             Future f = uploadExecutor.submit(() -> {
-                File logFileGz = null;
                 try {
-                    logFileGz = FileUtils.gzip(logFile);
-                    LOG.debug("Starting uploading {}", logFileGz);
-                    resourceManager.upload(logFileGz,
-                            rootFolder + "/" + esc(username) + "/" + analyseId + "/" + jvmId);
+                    LOG.debug("Starting uploading {}", logFile);
+                    // compressed straight into the parts being uploaded
+                    resourceManager.upload(rootFolder + "/" + esc(username) + "/" + analyseId + "/" + jvmId + "/"
+                            + logFile.getName() + ".gz", GZIP_CONTENT_TYPE, out -> {
+                        try (GZIPOutputStream gz = new GZIPOutputStream(out, GZIP_BUFFER_SIZE)) {
+                            java.nio.file.Files.copy(logFile.toPath(), gz);
+                        }
+                    });
                 } catch (Throwable t) {
                     LOG.error(t.getMessage(), t);
                 } finally {
                     org.apache.commons.io.FileUtils.deleteQuietly(logFile);
-                    if (logFileGz != null) {
-                        org.apache.commons.io.FileUtils.deleteQuietly(logFileGz);
-                    }
                 }
             });
             if (isSync) {
@@ -340,6 +697,14 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
         this.eventRepository = eventRepository;
     }
 
+    public GCEventRollupRepository getRollupRepository() {
+        return rollupRepository;
+    }
+
+    public void setRollupRepository(GCEventRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
     public VMEventsRepository<ObjectsAges> getAgesStateRepository() {
         return agesStateRepository;
     }
@@ -348,6 +713,14 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
         this.agesStateRepository = agesStateRepository;
     }
 
+    public LogCheckpointRepository getLogCheckpointRepository() {
+        return logCheckpointRepository;
+    }
+
+    public void setLogCheckpointRepository(LogCheckpointRepository logCheckpointRepository) {
+        this.logCheckpointRepository = logCheckpointRepository;
+    }
+
     public LogsParser getLogsParser() {
         return logsParser;
     }
@@ -387,4 +760,42 @@ public class DefaultLogsProcessorService implements LogsProcessorService {
     public void setConfig(ConfigurationManager config) {
         this.config = config;
     }
+
+    public void setMetrics(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Persists the survivor ages windows in batches, as the parser passes them on.
+     */
+    private class ObjectsAgesBatch implements Consumer<AgesState> {
+        private final String analyseId;
+        private final String jvmId;
+        private final int batchSize;
+        private final List<ObjectsAges> batch;
+
+        private ObjectsAgesBatch(String analyseId, String jvmId, int batchSize) {
+            this.analyseId = analyseId;
+            this.jvmId = jvmId;
+            this.batchSize = Math.max(batchSize, 1);
+            this.batch = new ArrayList<>(this.batchSize);
+        }
+
+        @Override
+        public void accept(AgesState as) {
+            batch.add(objectsAgesFactory.create(analyseId, jvmId, new DateTime(as.getOccurred(), DateTimeZone.UTC),
+                    as.getDesiredSurvivorSize(), as.getOccupied(), as.getTotal(), ""));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.size() > 0) {
+                agesStateRepository.add(batch);
+                batch.clear();
+            }
+        }
+    }
+
 }
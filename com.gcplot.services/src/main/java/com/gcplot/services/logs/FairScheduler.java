@@ -0,0 +1,188 @@
+package com.gcplot.services.logs;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gcplot.commons.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Admits the parsing sessions to the pipe with the start-time fair queuing between the tenants, e.g. the
+ * accounts. Every session is tagged with the virtual time its tenant would start it at if the tenants were
+ * served in parallel at the speed of their weights, so a tenant which has queued a lot of logs waits for
+ * its own earlier ones, while a new tenant is admitted as soon as there is a free slot.
+ *
+ * The limits are read on every call, so they may be changed at runtime. A tenant can't run more than
+ * {@code maxRunningPerTenant} sessions at once, and its sessions over {@code maxQueuedPerTenant} are rejected.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class FairScheduler {
+    private final String name;
+    private final IntSupplier maxRunning;
+    private final IntSupplier maxRunningPerTenant;
+    private final IntSupplier maxQueuedPerTenant;
+    private final Map<Object, Tenant> tenants = new HashMap<>();
+    private double virtualTime;
+    private int running;
+    private int queued;
+    private Meter rejected = new Meter();
+    private Timer waits = new Timer();
+
+    /**
+     * @param name distinguishes the metrics of the scheduler, if there are a few of them
+     */
+    public FairScheduler(String name, IntSupplier maxRunning, IntSupplier maxRunningPerTenant,
+                         IntSupplier maxQueuedPerTenant) {
+        this.name = name;
+        this.maxRunning = maxRunning;
+        this.maxRunningPerTenant = maxRunningPerTenant;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+    }
+
+    /**
+     * Blocks until the session is admitted.
+     *
+     * @param cost the amount of work of the session, e.g. the log size
+     * @return the permit which should be closed once the session is done
+     * @throws RejectedExecutionException if the tenant has too many sessions queued
+     */
+    public synchronized Permit acquire(Object tenantKey, double weight, long cost) throws InterruptedException {
+        Tenant tenant = tenants.computeIfAbsent(tenantKey, Tenant::new);
+        if (tenant.waiting.size() >= maxQueuedPerTenant.getAsInt()) {
+            rejected.mark();
+            removeIfIdle(tenant);
+            throw new RejectedExecutionException("Too many logs are queued for " + tenantKey);
+        }
+        double start = Math.max(virtualTime, tenant.finish);
+        tenant.finish = start + Math.max(cost, 1) / Math.max(weight, Double.MIN_NORMAL);
+        Permit permit = new Permit(tenant, start);
+        tenant.waiting.add(permit);
+        queued++;
+        long waitStart = System.nanoTime();
+        dispatch();
+        try {
+            while (!permit.admitted) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            if (permit.admitted) {
+                release(permit);
+            } else {
+                tenant.waiting.remove(permit);
+                queued--;
+                removeIfIdle(tenant);
+                dispatch();
+            }
+            throw e;
+        }
+        waits.update(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+
+    public synchronized int queued() {
+        return queued;
+    }
+
+    public synchronized int running() {
+        return running;
+    }
+
+    public synchronized int tenants() {
+        return tenants.size();
+    }
+
+    public void setMetrics(MetricRegistry metrics) {
+        metrics.register(Metrics.name(FairScheduler.class, name, "queued"), (Gauge<Integer>) this::queued);
+        metrics.register(Metrics.name(FairScheduler.class, name, "running"), (Gauge<Integer>) this::running);
+        metrics.register(Metrics.name(FairScheduler.class, name, "tenants"), (Gauge<Integer>) this::tenants);
+        rejected = metrics.meter(Metrics.name(FairScheduler.class, name, "rejected"));
+        waits = metrics.timer(Metrics.name(FairScheduler.class, name, "wait"));
+    }
+
+    private synchronized void release(Permit permit) {
+        if (!permit.released) {
+            permit.released = true;
+            permit.tenant.running--;
+            running--;
+            removeIfIdle(permit.tenant);
+            dispatch();
+        }
+    }
+
+    /**
+     * Admits the waiting sessions with the least start tags while there are free slots.
+     */
+    private void dispatch() {
+        int perTenant = maxRunningPerTenant.getAsInt();
+        boolean admitted = false;
+        while (running < maxRunning.getAsInt()) {
+            Permit next = null;
+            for (Tenant t : tenants.values()) {
+                Permit head = t.waiting.peek();
+                if (head != null && t.running < perTenant && (next == null || head.start < next.start)) {
+                    next = head;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            next.tenant.waiting.poll();
+            next.tenant.running++;
+            next.admitted = true;
+            virtualTime = Math.max(virtualTime, next.start);
+            queued--;
+            running++;
+            admitted = true;
+        }
+        if (admitted) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * The idle tenant is forgotten, so it starts from the current virtual time once it's back.
+     */
+    private void removeIfIdle(Tenant tenant) {
+        if (tenant.running == 0 && tenant.waiting.isEmpty()) {
+            tenants.remove(tenant.key);
+        }
+    }
+
+    private static class Tenant {
+        private final Object key;
+        private final ArrayDeque<Permit> waiting = new ArrayDeque<>();
+        private double finish;
+        private int running;
+
+        private Tenant(Object key) {
+            this.key = key;
+        }
+    }
+
+    public class Permit implements AutoCloseable {
+        private final Tenant tenant;
+        private final double start;
+        private boolean admitted;
+        private boolean released;
+
+        private Permit(Tenant tenant, double start) {
+            this.tenant = tenant;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+}
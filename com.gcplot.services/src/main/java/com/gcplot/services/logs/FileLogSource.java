@@ -1,6 +1,5 @@
 package com.gcplot.services.logs;
 
-import com.gcplot.commons.FileUtils;
 import com.gcplot.utils.Exceptions;
 import com.gcplot.logs.LogHandle;
 import com.gcplot.logs.LogSource;
@@ -8,7 +7,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.security.MessageDigest;
 import java.util.Optional;
 import java.util.zip.GZIPInputStream;
 
@@ -19,7 +17,7 @@ import java.util.zip.GZIPInputStream;
 public class FileLogSource extends BaseLogSource implements LogSource {
     private static final Logger LOG = LoggerFactory.getLogger(FileLogSource.class);
     private File file;
-    private String checksum;
+    private Boolean gzipped;
 
     public FileLogSource(File file, LogHandle handle) {
         this.file = file;
@@ -37,6 +35,13 @@ public class FileLogSource extends BaseLogSource implements LogSource {
 
     @Override
     public boolean isGzipped() {
+        if (gzipped == null) {
+            gzipped = readGzipMagic();
+        }
+        return gzipped;
+    }
+
+    private boolean readGzipMagic() {
         try (InputStream in = inputStream()){
             final int b1 = in.read();
             final int b2 = in.read();
@@ -58,15 +63,9 @@ public class FileLogSource extends BaseLogSource implements LogSource {
     @Override
     public String checksum() {
         if (checksum == null) {
-            try {
-                LOG.warn("No checksum was provided in the request, calculating own: {}", localFile());
-                try (InputStream is = logStream()) {
-                    checksum = FileUtils.getFileChecksum(MessageDigest.getInstance("MD5"), is);
-                }
-                LOG.warn("The calculated checksum for {} is {}", handle.getName(), checksum);
-            } catch (Throwable t) {
-                throw Exceptions.runtime(t);
-            }
+            LOG.warn("No checksum was provided in the request, calculating own: {}", localFile());
+            super.checksum();
+            LOG.warn("The calculated checksum for {} is {}", handle.getName(), checksum);
         }
         return checksum;
     }
@@ -0,0 +1,55 @@
+package com.gcplot.services.logs;
+
+import com.gcplot.services.logs.disruptor.AsyncPersister;
+import com.gcplot.services.logs.disruptor.PipeEventProcessor;
+
+/**
+ * The pipe, the writes and the admission of the parsing sessions of a single kind, which don't share
+ * their capacity with the other lanes, e.g. the continuous analyses aren't delayed by the bulk uploads.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class IngestionLane {
+    private final String name;
+    private final PipeEventProcessor pipe;
+    private final AsyncPersister asyncPersister;
+    private final FairScheduler scheduler;
+
+    /**
+     * @param asyncPersister null if the events are written synchronously
+     */
+    public IngestionLane(String name, PipeEventProcessor pipe, AsyncPersister asyncPersister, FairScheduler scheduler) {
+        this.name = name;
+        this.pipe = pipe;
+        this.asyncPersister = asyncPersister;
+        this.scheduler = scheduler;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public PipeEventProcessor getPipe() {
+        return pipe;
+    }
+
+    public FairScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public void init() {
+        if (asyncPersister != null) {
+            asyncPersister.init();
+        }
+        pipe.init();
+    }
+
+    public void shutdown() {
+        pipe.shutdown();
+        if (asyncPersister != null) {
+            asyncPersister.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.gcplot.services.logs;
+
+import com.gcplot.commons.FileUtils;
+import com.gcplot.logs.LogHandle;
+import com.gcplot.logs.LogSource;
+import com.gcplot.utils.Exceptions;
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The log which can be read only once, e.g. the body of the request while it's still arriving.
+ * Only the head of the log is retained, so that the VM properties can be detected before the parser
+ * reads it, and the log is identified by the checksum of its head, unless the checksum is provided, since
+ * the whole log isn't known until the parser has read it.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class StreamLogSource extends BaseLogSource implements LogSource {
+    private final BufferedInputStream in;
+    private final int headSize;
+    private Boolean gzipped;
+    private BufferedInputStream log;
+
+    /**
+     * @param checksum null if unknown
+     */
+    public StreamLogSource(InputStream in, LogHandle handle, String checksum, int headSize) {
+        this.in = new BufferedInputStream(in);
+        this.handle = handle;
+        this.checksum = checksum;
+        this.headSize = headSize;
+    }
+
+    @Override
+    public InputStream inputStream() {
+        return in;
+    }
+
+    @Override
+    public InputStream logStream() {
+        if (log == null) {
+            try {
+                log = isGzipped() ? new BufferedInputStream(new GZIPInputStream(in)) : in;
+            } catch (Throwable t) {
+                throw Exceptions.runtime(t);
+            }
+        }
+        return log;
+    }
+
+    @Override
+    public boolean isGzipped() {
+        if (gzipped == null) {
+            try {
+                in.mark(2);
+                final int b1 = in.read();
+                final int b2 = in.read();
+                in.reset();
+                gzipped = b2 >= 0 && ((b2 << 8) | b1) == GZIPInputStream.GZIP_MAGIC;
+            } catch (Throwable t) {
+                throw Exceptions.runtime(t);
+            }
+        }
+        return gzipped;
+    }
+
+    @Override
+    public Optional<File> localFile() {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isReplayable() {
+        return false;
+    }
+
+    /**
+     * Passes the lines of the head of the log only, and leaves the log at its start for the parser.
+     */
+    @Override
+    public void scan(Predicate<String> lines) {
+        try {
+            InputStream log = logStream();
+            log.mark(headSize);
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            DigestInputStream head = new DigestInputStream(ByteStreams.limit(log, headSize), digest);
+            head.on(checksum == null);
+            BufferedReader br = new BufferedReader(new InputStreamReader(head));
+            String line;
+            while ((line = br.readLine()) != null && lines.test(line)) {
+            }
+            if (checksum == null) {
+                ByteStreams.exhaust(head);
+                checksum = FileUtils.hex(digest.digest());
+            }
+            log.reset();
+        } catch (Throwable t) {
+            throw Exceptions.runtime(t);
+        }
+    }
+
+}
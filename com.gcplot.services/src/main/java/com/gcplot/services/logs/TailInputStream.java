@@ -0,0 +1,103 @@
+package com.gcplot.services.logs;
+
+import com.gcplot.commons.FileUtils;
+import com.gcplot.utils.Exceptions;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+/**
+ * Counts the bytes read through it and keeps the last of them in a ring, so that the bytes
+ * right before some recent position can be checksummed without reading the stream again.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class TailInputStream extends FilterInputStream {
+    private final byte[] ring;
+    private long position;
+
+    public TailInputStream(InputStream in, int capacity) {
+        super(in);
+        this.ring = new byte[capacity];
+    }
+
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            ring[(int) (position++ % ring.length)] = (byte) b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            int from = read > ring.length ? off + read - ring.length : off;
+            int count = off + read - from;
+            position += read - count;
+            int at = (int) (position % ring.length);
+            int first = Math.min(count, ring.length - at);
+            System.arraycopy(b, from, ring, at, first);
+            System.arraycopy(b, from + first, ring, 0, count - first);
+            position += count;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buf = new byte[(int) Math.min(n, 8 * 1024)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buf, 0, (int) Math.min(buf.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return false if the stream ended before the offset
+     */
+    public boolean skipTo(long offset) throws IOException {
+        long n = offset - position;
+        return n >= 0 && skip(n) == n;
+    }
+
+    /**
+     * @return MD5 of the up to {@code length} bytes right before the {@code end} position, or null
+     * if they are no longer kept
+     */
+    public String tailChecksum(long end, int length) {
+        long from = Math.max(0, end - length);
+        if (end > position || position - from > ring.length) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            for (long i = from; i < end; i++) {
+                digest.update(ring[(int) (i % ring.length)]);
+            }
+            return FileUtils.hex(digest.digest());
+        } catch (Throwable t) {
+            throw Exceptions.runtime(t);
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.gcplot.commons.Metrics;
+import com.gcplot.logs.LogProcessProgress;
+import com.gcplot.model.gc.GCEvent;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes the batches of events without waiting for the acknowledgement, so that a few persister threads
+ * keep many writes in flight. Their number is bounded, the persister waits for a permit once there are
+ * {@code maxInFlight} of them, which holds the whole pipe back instead of queueing the events in memory.
+ *
+ * A failed write is retried with an exponential delay, and is given up after {@code maxRetries} attempts.
+ * The writes are registered with the phaser of their parsing session, so that the session may wait for them.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class AsyncPersister {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncPersister.class);
+    private final Function<List<GCEvent>, CompletableFuture<Void>> writer;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+    private String name = "pipe";
+    private ScheduledExecutorService retryExecutor;
+    private MetricRegistry metrics;
+    private Meter retried = new Meter();
+    private Meter failed = new Meter();
+    private Meter lostEvents = new Meter();
+
+    public AsyncPersister(Function<List<GCEvent>, CompletableFuture<Void>> writer, int maxInFlight,
+                          int maxRetries, long retryDelayMillis) {
+        this.writer = writer;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    public void init() {
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(name + "-persist-retry-%d").setDaemon(true).build());
+        if (metrics != null) {
+            metrics.register(Metrics.name(AsyncPersister.class, name, "writes", "in_flight"), (Gauge<Integer>) this::inFlight);
+            retried = metrics.meter(Metrics.name(AsyncPersister.class, name, "writes", "retried"));
+            failed = metrics.meter(Metrics.name(AsyncPersister.class, name, "writes", "failed"));
+            lostEvents = metrics.meter(Metrics.name(AsyncPersister.class, name, "events", "lost"));
+        }
+    }
+
+    public void shutdown() {
+        retryExecutor.shutdown();
+    }
+
+    /**
+     * Blocks while there are too many writes in flight.
+     */
+    public void persist(List<GCEvent> events, Phaser writes) {
+        persist(events, writes, null);
+    }
+
+    /**
+     * @param progress counts the written events and the failed writes, if not null
+     */
+    public void persist(List<GCEvent> events, Phaser writes, LogProcessProgress progress) {
+        persist(events, writes, progress, null);
+    }
+
+    /**
+     * @param completed told whether the events are written or the write is given up, if not null, before
+     *                  the write arrives at the phaser
+     */
+    public void persist(List<GCEvent> events, Phaser writes, LogProcessProgress progress, Consumer<Boolean> completed) {
+        inFlight.acquireUninterruptibly();
+        writes.register();
+        write(events, writes, progress, completed, 0);
+    }
+
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void write(List<GCEvent> events, Phaser writes, LogProcessProgress progress, Consumer<Boolean> completed,
+                       int attempt) {
+        CompletableFuture<Void> f;
+        try {
+            f = writer.apply(events);
+        } catch (Throwable t) {
+            f = new CompletableFuture<>();
+            f.completeExceptionally(t);
+        }
+        f.whenComplete((r, t) -> {
+            if (t == null) {
+                if (progress != null) {
+                    progress.eventsPersisted(events.size());
+                }
+                done(writes, completed, true);
+            } else if (attempt < maxRetries) {
+                retried.mark();
+                try {
+                    retryExecutor.schedule(() -> write(events, writes, progress, completed, attempt + 1),
+                            retryDelayMillis << attempt, TimeUnit.MILLISECONDS);
+                } catch (Throwable tt) {
+                    giveUp(events, writes, progress, completed, tt);
+                }
+            } else {
+                giveUp(events, writes, progress, completed, t);
+            }
+        });
+    }
+
+    private void giveUp(List<GCEvent> events, Phaser writes, LogProcessProgress progress, Consumer<Boolean> completed,
+                        Throwable t) {
+        LOG.error("Failed to write " + events.size() + " events: " + t.getMessage(), t);
+        failed.mark();
+        lostEvents.mark(events.size());
+        if (progress != null) {
+            progress.writeFailed();
+        }
+        done(writes, completed, false);
+    }
+
+    private void done(Phaser writes, Consumer<Boolean> completed, boolean written) {
+        try {
+            if (completed != null) {
+                completed.accept(written);
+            }
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+        } finally {
+            inFlight.release();
+            writes.arriveAndDeregister();
+        }
+    }
+
+    /**
+     * Distinguishes the threads and the metrics of the persister, if there are a few of them.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setMetrics(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+}
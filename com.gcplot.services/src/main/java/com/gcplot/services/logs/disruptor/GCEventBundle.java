@@ -4,6 +4,7 @@ import com.gcplot.logs.ParserContext;
 import com.gcplot.model.gc.GCEvent;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -16,17 +17,49 @@ public class GCEventBundle {
     public boolean isIgnore;
     public CompletableFuture future;
     public ParsingState parsingState;
+    /**
+     * The epoch the mapped event is written with, see {@link WriteEpoch}.
+     */
+    public WriteEpoch epoch;
     public ParserContext parserContext;
     public boolean isControl;
+    /**
+     * The number of handlers yet to process the control event, the last one completes its future.
+     */
+    public AtomicInteger handlersLeft;
+    /**
+     * The {@link System#nanoTime()} the event is published at, if its latency is sampled.
+     */
+    public long published;
 
     public GCEventBundle reset() {
         rawEvent = null;
         event = null;
         parsingState = null;
+        epoch = null;
         future = null;
         parserContext = null;
         isIgnore = false;
         isControl = false;
+        handlersLeft = null;
+        published = 0;
+        return this;
+    }
+
+    /**
+     * Takes over the event which is passed on to another ring.
+     */
+    public GCEventBundle copy(GCEventBundle other) {
+        rawEvent = other.rawEvent;
+        event = other.event;
+        parsingState = other.parsingState;
+        epoch = other.epoch;
+        future = other.future;
+        parserContext = other.parserContext;
+        isIgnore = other.isIgnore;
+        isControl = other.isControl;
+        handlersLeft = other.handlersLeft;
+        published = other.published;
         return this;
     }
 
@@ -55,11 +88,29 @@ public class GCEventBundle {
         return this;
     }
 
+    public GCEventBundle epoch(WriteEpoch epoch) {
+        this.epoch = epoch;
+        return this;
+    }
+
     public GCEventBundle parserContext(ParserContext parserContext) {
         this.parserContext = parserContext;
         return this;
     }
 
+    /**
+     * @param handlersLeft shared by the copies of the control event published to a few rings
+     */
+    public GCEventBundle handlersLeft(AtomicInteger handlersLeft) {
+        this.handlersLeft = handlersLeft;
+        return this;
+    }
+
+    public GCEventBundle published(long published) {
+        this.published = published;
+        return this;
+    }
+
     public GCEventBundle control() {
         this.isControl = true;
         return this;
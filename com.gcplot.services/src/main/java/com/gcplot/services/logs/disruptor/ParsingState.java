@@ -2,30 +2,64 @@ package com.gcplot.services.logs.disruptor;
 
 import com.gcplot.commons.LazyVal;
 import com.gcplot.commons.interceptors.Sampler;
+import com.gcplot.logs.LogProcessProgress;
 import com.gcplot.logs.ParserContext;
 import com.gcplot.model.gc.GCEvent;
 import com.gcplot.repository.GCEventRepository;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.Phaser;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
  *         6/14/17
  */
 public class ParsingState {
-    public static final int MAX_BATCH_SIZE = 5;
     private final LazyVal<GCEvent> lastPersistedEvent;
     private final Sampler youngSampler;
+    private final int jvmHash;
+    /**
+     * The session itself is registered as a party, the writes in flight register and deregister on their own.
+     */
+    private final Phaser writes = new Phaser(1);
+    private LogProcessProgress progress = new LogProcessProgress();
     private GCEvent firstEvent;
     private GCEvent lastEvent;
-    private ThreadLocal<List<GCEvent>> batch = ThreadLocal.withInitial(() -> new ArrayList<GCEvent>(MAX_BATCH_SIZE));
-    private ThreadLocal<Integer> monthsSum = ThreadLocal.withInitial(() -> 0);
+    private long persisted;
+    /**
+     * The epochs not completed yet, in the order they are passed on, guarded by itself.
+     */
+    private final Deque<WriteEpoch> epochs = new ArrayDeque<>();
+    private WriteEpoch epoch;
+    private boolean markStopped;
+    private GCEvent toMark;
+    private volatile boolean rollupsFailed;
+    private RollupAggregator rollups;
 
     public ParsingState(ParserContext ctx, GCEventRepository repository, String checksum, int youngSamplingInterval) {
-        this.lastPersistedEvent = LazyVal.ofOpt(() ->
-                repository.lastEvent(ctx.analysisId(), ctx.jvmId(), checksum, getFirstEvent().occurred().minusDays(1)));
+        this(ctx, repository, checksum, youngSamplingInterval, true);
+    }
+
+    /**
+     * @param checkPersisted whether events might be persisted already, e.g. it's not the case
+     *                       when the parsing resumes from a checkpoint
+     */
+    public ParsingState(ParserContext ctx, GCEventRepository repository, String checksum, int youngSamplingInterval,
+                        boolean checkPersisted) {
+        this.lastPersistedEvent = checkPersisted ? LazyVal.ofOpt(() ->
+                repository.lastEvent(ctx.analysisId(), ctx.jvmId(), checksum, getFirstEvent().occurred().minusDays(1)))
+                : LazyVal.of(() -> null);
         this.youngSampler = youngSamplingInterval > 0 ? new Sampler(youngSamplingInterval, GCEvent::isYoung, true) : null;
+        this.jvmHash = Objects.hash(ctx.analysisId(), ctx.jvmId());
+    }
+
+    /**
+     * The hash of the analysis and JVM the events belong to, which routes them to the same processing shard.
+     */
+    public int getJvmHash() {
+        return jvmHash;
     }
 
     public LazyVal<GCEvent> getLastPersistedEvent() {
@@ -45,20 +79,150 @@ public class ParsingState {
     }
 
     public void setLastEvent(GCEvent lastEvent) {
-        if (this.lastEvent == null || lastEvent.occurred().isAfter(this.lastEvent.occurred())) {
+        if (this.lastEvent == null || lastEvent.occurredMillis() > this.lastEvent.occurredMillis()) {
             this.lastEvent = lastEvent;
         }
     }
 
-    public ThreadLocal<List<GCEvent>> getBatch() {
-        return batch;
+    /**
+     * Called by the processing shard thread only, see {@link #getJvmHash()}.
+     *
+     * @return the number of events passed on to be persisted before this one
+     */
+    public long countPersisted() {
+        return persisted++;
+    }
+
+    /**
+     * Called by the processing shard thread only, a new epoch is started once the previous one is sealed.
+     *
+     * @return the epoch the event is written with
+     */
+    public WriteEpoch epochOf(GCEvent event) {
+        if (epoch == null || epoch.isSealed()) {
+            epoch = new WriteEpoch(this);
+            synchronized (epochs) {
+                if (!markStopped) {
+                    epochs.addLast(epoch);
+                }
+            }
+        }
+        epoch.add(event);
+        return epoch;
     }
 
-    public ThreadLocal<Integer> getMonthsSum() {
-        return monthsSum;
+    /**
+     * Called by the processing shard thread once no more events are added to the current epoch.
+     *
+     * @return true if there is a new event to mark, see {@link #takeToMark()}
+     */
+    public boolean sealEpoch() {
+        if (epoch == null || epoch.isSealed()) {
+            return false;
+        }
+        synchronized (epochs) {
+            epoch.seal();
+            return advance();
+        }
+    }
+
+    /**
+     * Counts the completed write of the events of the epoch. Once all the writes of the epoch and of the ones
+     * before it are acknowledged, the last event of the epoch might be marked, since every event up to it is
+     * persisted. A failed write stops the marking for the rest of the session, so the mark never passes
+     * the missing events.
+     *
+     * The young events are sampled out of the order, and the sampler holds some of the events back, so they are
+     * marked at the end of the session only.
+     *
+     * @return true if there is a new event to mark, see {@link #takeToMark()}
+     */
+    public boolean acknowledged(WriteEpoch epoch, int events, boolean written) {
+        synchronized (epochs) {
+            epoch.acknowledged(events, written);
+            return advance();
+        }
+    }
+
+    /**
+     * @return the latest event every write of the session is acknowledged up to, which isn't marked yet, or null
+     */
+    public GCEvent takeToMark() {
+        synchronized (epochs) {
+            GCEvent e = toMark;
+            toMark = null;
+            return e;
+        }
+    }
+
+    private boolean advance() {
+        GCEvent last = null;
+        while (!markStopped && !epochs.isEmpty() && epochs.peekFirst().isCompleted()) {
+            WriteEpoch completed = epochs.pollFirst();
+            if (completed.isFailed()) {
+                markStopped = true;
+                epochs.clear();
+            } else {
+                last = completed.getLastEvent();
+            }
+        }
+        if (last == null || youngSampler != null) {
+            return false;
+        }
+        boolean scheduled = toMark != null;
+        toMark = last;
+        return !scheduled;
+    }
+
+    public Phaser getWrites() {
+        return writes;
+    }
+
+    /**
+     * Waits for all the writes of the session issued so far to complete.
+     */
+    public void awaitWrites() {
+        writes.arriveAndAwaitAdvance();
+    }
+
+    public LogProcessProgress getProgress() {
+        return progress;
+    }
+
+    public void setProgress(LogProcessProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * @return true if any event write of the session was given up, so its events are missing
+     */
+    public boolean hasFailedWrites() {
+        return progress.getFailedWrites() > 0;
     }
 
     public Sampler getYoungSampler() {
         return youngSampler;
     }
+
+    /**
+     * Rolls up all the persisted events, before the young ones are sampled, or null if the rollups are disabled.
+     */
+    public RollupAggregator getRollups() {
+        return rollups;
+    }
+
+    /**
+     * @return true if any rollups write of the session failed, so some of its events aren't rolled up
+     */
+    public boolean hasFailedRollups() {
+        return rollupsFailed;
+    }
+
+    public void rollupsFailed() {
+        this.rollupsFailed = true;
+    }
+
+    public void setRollups(RollupAggregator rollups) {
+        this.rollups = rollups;
+    }
 }
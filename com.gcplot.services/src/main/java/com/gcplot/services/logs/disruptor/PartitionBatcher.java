@@ -0,0 +1,102 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.gcplot.model.gc.GCEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Groups the events by the partition they are written to, so that each group is written with a
+ * single-partition batch, which costs the coordinator about the same as a single insert. A group
+ * is passed on once it's full or has waited for longer than the linger time.
+ *
+ * A batch belongs to a single owner, e.g. the write epoch of the parsing session, so the batch is passed on early if
+ * another owner writes to the same partition meanwhile. Not thread-safe, every persister thread has its own.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class PartitionBatcher<S> {
+    private final Function<GCEvent, Object> partitioner;
+    private final BiConsumer<List<GCEvent>, S> persister;
+    private final BiConsumer<GCEvent, S> singlePersister;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Map<Object, Batch<S>> batches = new HashMap<>();
+
+    public PartitionBatcher(Function<GCEvent, Object> partitioner, BiConsumer<List<GCEvent>, S> persister,
+                            BiConsumer<GCEvent, S> singlePersister, int batchSize, long lingerNanos) {
+        this.partitioner = partitioner;
+        this.persister = persister;
+        this.singlePersister = singlePersister;
+        this.batchSize = batchSize;
+        this.lingerNanos = lingerNanos;
+    }
+
+    public void add(GCEvent event, S owner, long nanoTime) {
+        Object key = partitioner.apply(event);
+        Batch<S> batch = batches.get(key);
+        if (batch != null && batch.owner != owner) {
+            persist(batch);
+            batch = null;
+        }
+        if (batch == null) {
+            batch = new Batch<>(owner, nanoTime, batchSize);
+            batches.put(key, batch);
+        }
+        batch.events.add(event);
+        if (batch.events.size() >= batchSize) {
+            batches.remove(key);
+            persist(batch);
+        }
+    }
+
+    /**
+     * Passes on the batches which have waited for the linger time.
+     */
+    public void flushExpired(long nanoTime) {
+        Iterator<Batch<S>> i = batches.values().iterator();
+        while (i.hasNext()) {
+            Batch<S> batch = i.next();
+            if (nanoTime - batch.created >= lingerNanos) {
+                i.remove();
+                persist(batch);
+            }
+        }
+    }
+
+    public void flush() {
+        batches.values().forEach(this::persist);
+        batches.clear();
+    }
+
+    public int pending() {
+        return batches.size();
+    }
+
+    private void persist(Batch<S> batch) {
+        if (batch.events.size() == 1) {
+            singlePersister.accept(batch.events.get(0), batch.owner);
+        } else {
+            persister.accept(batch.events, batch.owner);
+        }
+    }
+
+    private static class Batch<S> {
+        private final S owner;
+        private final long created;
+        private final List<GCEvent> events;
+
+        private Batch(S owner, long created, int batchSize) {
+            this.owner = owner;
+            this.created = created;
+            this.events = new ArrayList<>(batchSize);
+        }
+    }
+
+}
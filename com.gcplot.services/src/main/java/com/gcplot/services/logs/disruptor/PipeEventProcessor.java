@@ -1,22 +1,37 @@
 package com.gcplot.services.logs.disruptor;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.gcplot.commons.Metrics;
 import com.gcplot.logs.ParserContext;
 import com.gcplot.logs.mapping.Mapper;
 import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GCEventRollup;
+import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutHandler;
+import com.lmax.disruptor.WorkHandler;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -25,145 +40,301 @@ import java.util.function.Consumer;
 public class PipeEventProcessor {
     private static final Logger LOG = LoggerFactory.getLogger(PipeEventProcessor.class);
     private static final Object DUMMY = new Object();
+    /**
+     * Every 64th event is timed, which is enough for the latency percentiles and keeps the timers uncontended.
+     */
+    private static final long LATENCY_SAMPLE_MASK = 63;
+    private static final int MIN_PERSISTER_RING_SIZE = 256;
+    private static final EventTranslatorOneArg<GCEventBundle, GCEventBundle> ROUTE = (e, sequence, from) -> e.copy(from);
     private final Consumer<List<GCEvent>> persister;
     private final Consumer<GCEvent> singlePersister;
+    private final Function<GCEvent, Object> partitioner;
     private final Mapper eventMapper;
     private Disruptor<GCEventBundle> input;
-    private Disruptor<GCEventBundle> output;
+    private Disruptor<GCEventBundle>[] shardRings;
+    private Disruptor<GCEventBundle>[] outputs;
+    private String name = "pipe";
+    private int inputSize = 8 * 1024;
+    private int outputSize = 16 * 1024;
+    private int mapperCount = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+    private int shards = 1;
+    private int persisterCount = Runtime.getRuntime().availableProcessors() * 2;
+    private String waitStrategy = WaitStrategies.BLOCKING;
+    private int batchSize = 32;
+    private long lingerMillis = 200;
+    private AsyncPersister asyncPersister;
+    private Function<List<GCEventRollup>, CompletableFuture<Void>> rollupWriter;
+    private int maxRollupsInFlight;
+    private Semaphore rollupsInFlight;
+    private Consumer<GCEvent> lastEventMarker;
+    private ExecutorService markExecutor;
+    private int epochSize;
+    private MetricRegistry metrics;
+    private Timer mapLatency = new Timer();
+    private Timer stateLatency = new Timer();
+    private Timer persistLatency = new Timer();
 
+    /**
+     * @param partitioner the key of the partition the event is written to, the events are batched by it
+     */
     public PipeEventProcessor(Consumer<List<GCEvent>> persister, Consumer<GCEvent> singlePersister,
-                              Mapper eventMapper) {
+                              Function<GCEvent, Object> partitioner, Mapper eventMapper) {
         this.persister = persister;
         this.singlePersister = singlePersister;
+        this.partitioner = partitioner;
         this.eventMapper = eventMapper;
     }
 
+    /**
+     * Distinguishes the threads and the metrics of the pipe, if there are a few of them.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The sizes of the rings of the raw and the mapped events, should be the powers of 2.
+     * Every shard ring is of the raw events ring size, while the mapped events one is split between the persisters.
+     */
+    public void setRingSizes(int inputSize, int outputSize) {
+        Preconditions.checkArgument(Integer.bitCount(inputSize) == 1 && Integer.bitCount(outputSize) == 1,
+                "Ring sizes should be the powers of 2!");
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+    }
+
+    /**
+     * The number of threads mapping the raw events, each event is taken by one of them.
+     */
+    public void setMappers(int mappers) {
+        Preconditions.checkArgument(mappers > 0, "Mappers count should be positive!");
+        this.mapperCount = mappers;
+    }
+
+    /**
+     * The number of threads processing the mapped events. If there are a few of them, the mapped events
+     * are routed by their JVM to the ring of one of them, so every JVM is processed by a single thread,
+     * which isn't woken up by the events of the other shards, and the JVMs don't wait for each other.
+     */
+    public void setShards(int shards) {
+        Preconditions.checkArgument(shards > 0, "Shards count should be positive!");
+        this.shards = shards;
+    }
+
+    /**
+     * The number of threads batching and writing the events, each consuming its own ring, see {@link PersisterHandler}.
+     */
+    public void setPersisters(int persisters) {
+        Preconditions.checkArgument(persisters > 0, "Persisters count should be positive!");
+        this.persisterCount = persisters;
+    }
+
+    /**
+     * The name of the wait strategy of both rings, see {@link WaitStrategies}.
+     */
+    public void setWaitStrategy(String waitStrategy) {
+        WaitStrategies.of(waitStrategy);
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * The max number of events of the same partition written with a single batch.
+     */
+    public void setBatchSize(int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size should be positive!");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * How long the events may wait for the batch of their partition to fill up.
+     */
+    public void setLingerMillis(long lingerMillis) {
+        Preconditions.checkArgument(lingerMillis > 0, "Linger time should be positive!");
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * If set, the batches are written without waiting for each to complete, see {@link AsyncPersister}.
+     */
+    public void setAsyncPersister(AsyncPersister asyncPersister) {
+        this.asyncPersister = asyncPersister;
+    }
+
+    /**
+     * Writes the rollups of the sessions which have them, see {@link ParsingState#getRollups()}.
+     *
+     * @param maxInFlight the max number of the rollups writes in flight, the processing shard waits for
+     *                    a free one beyond it, the same way the persisters do, see {@link AsyncPersister}
+     */
+    public void setRollupWriter(Function<List<GCEventRollup>, CompletableFuture<Void>> rollupWriter, int maxInFlight) {
+        Preconditions.checkArgument(maxInFlight > 0, "Max rollups in flight should be positive!");
+        this.rollupWriter = rollupWriter;
+        this.maxRollupsInFlight = maxInFlight;
+        this.rollupsInFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * If set, the last event every write of a session is acknowledged up to is marked while the session goes on,
+     * so that a session which is cut off midway doesn't leave its persisted events unmarked, see
+     * {@link ParsingState#acknowledged(WriteEpoch, int, boolean)}. The marks are written by a thread of their own.
+     */
+    public void setLastEventMarker(Consumer<GCEvent> lastEventMarker) {
+        this.lastEventMarker = lastEventMarker;
+    }
+
     public void init() {
-        input = new Disruptor<>(GCEventBundle::new, 8 * 1024, new ThreadFactoryBuilder()
-                .setDaemon(false).setNameFormat("ds-in-%d").build(), ProducerType.MULTI, new BlockingWaitStrategy());
-        output = new Disruptor<>(GCEventBundle::new, 16 * 1024, new ThreadFactoryBuilder()
-                .setDaemon(false).setNameFormat("ds-out-%d").build(), ProducerType.MULTI, new BlockingWaitStrategy());
+        // an epoch is a round of the runs over all the persisters, see persistEvent
+        epochSize = batchSize * persisterCount;
+        if (lastEventMarker != null) {
+            markExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setDaemon(true).setNameFormat(name + "-mark-%d").build());
+        }
+        if (metrics != null) {
+            mapLatency = metrics.timer(Metrics.name(PipeEventProcessor.class, name, "map", "latency"));
+            stateLatency = metrics.timer(Metrics.name(PipeEventProcessor.class, name, "state", "latency"));
+            persistLatency = metrics.timer(Metrics.name(PipeEventProcessor.class, name, "persist", "latency"));
+        }
+        input = new Disruptor<>(GCEventBundle::new, inputSize, new ThreadFactoryBuilder()
+                .setDaemon(false).setNameFormat(name + "-in-%d").build(), ProducerType.MULTI, WaitStrategies.of(waitStrategy));
+        // the persisters are woken up at least every linger time to flush the batches which wait for too long
+        outputs = new Disruptor[persisterCount];
+        int persisterRingSize = Math.max(Integer.highestOneBit(outputSize / persisterCount), MIN_PERSISTER_RING_SIZE);
+        for (int i = 0; i < persisterCount; i++) {
+            outputs[i] = new Disruptor<>(GCEventBundle::new, persisterRingSize, new ThreadFactoryBuilder()
+                    .setDaemon(false).setNameFormat(name + "-out-" + i + "-%d").build(), ProducerType.MULTI,
+                    WaitStrategies.withTimeout(waitStrategy, lingerMillis));
+            outputs[i].handleEventsWith(new PersisterHandler());
+        }
         EventHandlerGroup group = null;
         if (eventMapper != Mapper.EMPTY) {
-            final long mapperCount = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
-            EventHandler<GCEventBundle>[] mapperHandlers = new EventHandler[(int) mapperCount];
+            // the mapping is stateless, so every event is taken by a single free mapper
+            WorkHandler<GCEventBundle>[] mapperHandlers = new WorkHandler[mapperCount];
             for (int i = 0; i < mapperCount; i++) {
-                final long s = i;
-                mapperHandlers[i] = (e, sequence, endOfBatch) -> {
-                    if (!e.isControl && sequence % mapperCount == s) {
-                        try {
-                            e.event = eventMapper.map(e.parserContext, e.rawEvent);
-                            if (e.event == null) {
-                                e.ignore();
-                            }
-                        } catch (Throwable t) {
-                            e.ignore();
-                            LOG.error(t.getMessage(), t);
-                        }
-                    }
-                };
+                mapperHandlers[i] = this::map;
             }
-            group = input.handleEventsWith(mapperHandlers);
+            group = input.handleEventsWithWorkerPool(mapperHandlers);
         }
-        EventHandler<GCEventBundle> eventHandler = (e, sequence, endOfBatch) -> {
-            try {
-                final ParsingState parsingState = e.parsingState;
-                if (e.isControl) {
-                    if (e.parsingState.getYoungSampler() != null) {
-                        e.parsingState.getYoungSampler().complete().forEach(event -> persistEvent(event, parsingState));
-                    }
-                    e.future.complete(DUMMY);
-                } else if (!e.isIgnore) {
-                    e.event.analyseId(e.parserContext.analysisId()).jvmId(e.parserContext.jvmId());
-                    if (e.parsingState.getFirstEvent() == null && !e.event.isOther()) {
-                        e.parsingState.setFirstEvent(e.event);
-                    }
-                    if (!e.event.isOther() && (e.parsingState.getLastPersistedEvent().get() == null ||
-                            e.parsingState.getLastPersistedEvent().get().occurred().getMillis() < e.event.occurred().getMillis())) {
-                        e.parsingState.setLastEvent(e.event);
-
-                        if (e.parsingState.getYoungSampler() == null ||
-                                !e.parsingState.getYoungSampler().isApplicable(e.event)) {
-                            persistEvent(e.event, parsingState);
-                        } else {
-                            List<GCEvent> gcs = e.parsingState.getYoungSampler().process(e.event);
-                            if (gcs.size() > 0) {
-                                gcs.forEach(event -> persistEvent(event, parsingState));
-                            }
-                        }
-                    }
-                }
-            } catch (Throwable t) {
-                LOG.error(t.getMessage(), t);
+        EventHandler<GCEventBundle> stateHandler = (e, sequence, endOfBatch) -> {
+            processState(e);
+            if (e.published != 0) {
+                stateLatency.update(System.nanoTime() - e.published, TimeUnit.NANOSECONDS);
             }
         };
+        EventHandler<GCEventBundle> last = stateHandler;
+        if (shards > 1) {
+            // the mapped events are passed on in the order of the raw ones, so the events of a JVM keep the log order
+            shardRings = new Disruptor[shards];
+            for (int i = 0; i < shards; i++) {
+                shardRings[i] = new Disruptor<>(GCEventBundle::new, inputSize, new ThreadFactoryBuilder()
+                        .setDaemon(false).setNameFormat(name + "-shard-" + i + "-%d").build(), ProducerType.SINGLE,
+                        WaitStrategies.of(waitStrategy));
+                shardRings[i].handleEventsWith(stateHandler);
+            }
+            last = (e, sequence, endOfBatch) -> route(e);
+        }
         if (group != null) {
-            group.then(eventHandler);
+            group.then(last);
         } else {
-            input.handleEventsWith(eventHandler);
+            input.handleEventsWith(last);
         }
-        long persisterCount = Runtime.getRuntime().availableProcessors() * 2;
-        EventHandler<GCEventBundle>[] persisterHandlers = new EventHandler[(int) persisterCount];
-        for (int i = 0; i < persisterCount; i++) {
-            final long s = i;
-            persisterHandlers[i] = new EventHandler<GCEventBundle>() {
-                @Override
-                public void onEvent(GCEventBundle e, long sequence, boolean endOfBatch) throws Exception {
-                    try {
-                        ParsingState ps = e.parsingState;
-                        List<GCEvent> batch = ps.getBatch().get();
-                        if (!e.isControl && sequence % persisterCount == s) {
-                            if (batch.size() > 0 && (batch.size() == ParsingState.MAX_BATCH_SIZE || endOfBatch)) {
-                                persist(ps, batch);
-                            }
-                            if (endOfBatch) {
-                                singlePersister.accept(e.event);
-                            } else {
-                                batch.add(e.event);
-                                ps.getMonthsSum().set(ps.getMonthsSum().get() + e.event.occurred().getMonthOfYear());
-                            }
-                        } else if ((endOfBatch || e.isControl) && batch.size() > 0) {
-                            persist(ps, batch);
-                        }
-                    } catch (Throwable t) {
-                        LOG.error(t.getMessage(), t);
-                    } finally {
-                        if (e.isControl) {
-                            e.future.complete(DUMMY);
-                        }
-                    }
-                }
-
-                private void persist(ParsingState ps, List<GCEvent> batch) {
-                    if (ps.getMonthsSum().get() %
-                            batch.get(0).occurred().getMonthOfYear() != 0) {
-                        batch.forEach(singlePersister);
-                    } else {
-                        persister.accept(new ArrayList<>(batch));
-                    }
-                    batch.clear();
-                    ps.getMonthsSum().set(0);
-                }
-            };
-        }
-        output.handleEventsWith(persisterHandlers);
 
         LOG.info("Starting Pipe Event Processor ...");
+        for (Disruptor<GCEventBundle> output : outputs) {
+            output.start();
+        }
+        if (shardRings != null) {
+            for (Disruptor<GCEventBundle> shardRing : shardRings) {
+                shardRing.start();
+            }
+        }
         input.start();
-        output.start();
+        if (metrics != null) {
+            metrics.register(Metrics.name(PipeEventProcessor.class, name, "input", "occupancy"),
+                    (Gauge<Long>) () -> occupancy(input.getRingBuffer()));
+            if (shardRings != null) {
+                metrics.register(Metrics.name(PipeEventProcessor.class, name, "shards", "occupancy"),
+                        (Gauge<Long>) () -> occupancy(shardRings));
+            }
+            metrics.register(Metrics.name(PipeEventProcessor.class, name, "output", "occupancy"),
+                    (Gauge<Long>) () -> occupancy(outputs));
+            if (rollupWriter != null) {
+                metrics.register(Metrics.name(PipeEventProcessor.class, name, "rollups", "in_flight"),
+                        (Gauge<Integer>) () -> maxRollupsInFlight - rollupsInFlight.availablePermits());
+            }
+        }
         LOG.info("Pipe Event Processor started!");
     }
 
     public void shutdown() {
         LOG.info("Shutting down Pipe Event Processor ...");
         input.shutdown();
-        output.shutdown();
+        if (shardRings != null) {
+            for (Disruptor<GCEventBundle> shardRing : shardRings) {
+                shardRing.shutdown();
+            }
+        }
+        for (Disruptor<GCEventBundle> output : outputs) {
+            output.shutdown();
+        }
+        if (markExecutor != null) {
+            markExecutor.shutdown();
+        }
         LOG.info("Pipe Event Processor stopped.");
     }
 
     public void processNext(Object rawEvent, ParserContext context, ParsingState commonState) {
         input.publishEvent((event, sequence) ->
-                event.reset().parsingState(commonState).rawEvent(rawEvent).parserContext(context));
+                event.reset().parsingState(commonState).rawEvent(rawEvent).parserContext(context).published(sample(sequence)));
+    }
+
+    public void setMetrics(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    private void map(GCEventBundle e) {
+        if (!e.isControl) {
+            try {
+                e.event = eventMapper.map(e.parserContext, e.rawEvent);
+                if (e.event == null) {
+                    e.ignore();
+                }
+            } catch (Throwable t) {
+                e.ignore();
+                e.parsingState.getProgress().error();
+                LOG.error(t.getMessage(), t);
+            }
+            if (e.published != 0) {
+                mapLatency.update(System.nanoTime() - e.published, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Passes the event on to the ring of the shard of its JVM, the ignored ones are dropped right away.
+     */
+    private void route(GCEventBundle e) {
+        if (e.isControl || !e.isIgnore) {
+            shardRings[Math.floorMod(e.parsingState.getJvmHash(), shards)].publishEvent(ROUTE, e);
+        }
+    }
+
+    /**
+     * @return the time the event is published, if its latency is sampled, or 0 otherwise
+     */
+    private static long sample(long sequence) {
+        return (sequence & LATENCY_SAMPLE_MASK) == 0 ? System.nanoTime() : 0;
+    }
+
+    private static long occupancy(RingBuffer<GCEventBundle> ring) {
+        return ring.getBufferSize() - ring.remainingCapacity();
+    }
+
+    private static long occupancy(Disruptor<GCEventBundle>[] rings) {
+        long occupancy = 0;
+        for (Disruptor<GCEventBundle> ring : rings) {
+            occupancy += occupancy(ring.getRingBuffer());
+        }
+        return occupancy;
     }
 
     public void finish(ParsingState commonState) {
@@ -175,15 +346,211 @@ public class PipeEventProcessor {
         } catch (InterruptedException | ExecutionException e) {
             LOG.error(e.getMessage(), e);
         }
-        output.publishEvent((event, sequence) -> event.reset().future(futureOut).control().parsingState(commonState));
+        // any persister might hold the batches of the session
+        AtomicInteger handlersLeft = new AtomicInteger(persisterCount);
+        for (Disruptor<GCEventBundle> output : outputs) {
+            output.publishEvent((event, sequence) -> event.reset().future(futureOut).control().parsingState(commonState)
+                    .handlersLeft(handlersLeft));
+        }
         try {
             futureOut.get();
         } catch (InterruptedException | ExecutionException e) {
             LOG.error(e.getMessage(), e);
         }
+        commonState.awaitWrites();
+    }
+
+    /**
+     * Deduplicates, tracks the first and last events, rolls up and samples the events of a single JVM, which
+     * are always passed to the same shard in the log order.
+     */
+    private void processState(GCEventBundle e) {
+        try {
+            final ParsingState parsingState = e.parsingState;
+            if (e.isControl) {
+                if (e.parsingState.getYoungSampler() != null) {
+                    e.parsingState.getYoungSampler().complete().forEach(event -> persistEvent(event, parsingState));
+                }
+                if (e.parsingState.getRollups() != null) {
+                    persistRollups(e.parsingState.getRollups().flush(), parsingState);
+                }
+                if (parsingState.sealEpoch()) {
+                    mark(parsingState);
+                }
+                e.future.complete(DUMMY);
+            } else if (!e.isIgnore) {
+                e.event.analyseId(e.parserContext.analysisId()).jvmId(e.parserContext.jvmId());
+                if (e.parsingState.getFirstEvent() == null && !e.event.isOther()) {
+                    e.parsingState.setFirstEvent(e.event);
+                }
+                // the events persisted before are rolled up as well, see RollupAggregator
+                if (!e.event.isOther() && e.parsingState.getRollups() != null) {
+                    persistRollups(e.parsingState.getRollups().add(e.event), parsingState);
+                }
+                if (!e.event.isOther() && (e.parsingState.getLastPersistedEvent().get() == null ||
+                        e.parsingState.getLastPersistedEvent().get().occurredMillis() < e.event.occurredMillis())) {
+                    e.parsingState.setLastEvent(e.event);
+
+                    if (e.parsingState.getYoungSampler() == null ||
+                            !e.parsingState.getYoungSampler().isApplicable(e.event)) {
+                        persistEvent(e.event, parsingState);
+                    } else {
+                        List<GCEvent> gcs = e.parsingState.getYoungSampler().process(e.event);
+                        if (gcs.size() > 0) {
+                            gcs.forEach(event -> persistEvent(event, parsingState));
+                        }
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+        }
     }
 
+    /**
+     * Every persister takes the runs of {@code batchSize} consecutive events of the session in turn, so that
+     * the events of a single log are written concurrently, yet mostly with full batches. Every round of the runs
+     * over the persisters is a new {@link WriteEpoch}.
+     */
     private void persistEvent(GCEvent gcEvent, ParsingState parsingState) {
-        output.publishEvent((event, s) -> event.reset().event(gcEvent).parsingState(parsingState));
+        long persisted = parsingState.countPersisted();
+        if (persisted % epochSize == 0 && parsingState.sealEpoch()) {
+            mark(parsingState);
+        }
+        WriteEpoch epoch = parsingState.epochOf(gcEvent);
+        int persister = Math.floorMod(parsingState.getJvmHash() + (int) (persisted / batchSize), persisterCount);
+        outputs[persister].publishEvent((event, s) -> event.reset().event(gcEvent).parsingState(parsingState)
+                .epoch(epoch).published(sample(s)));
+    }
+
+    private void acknowledged(WriteEpoch epoch, int events, boolean written) {
+        if (epoch.getState().acknowledged(epoch, events, written)) {
+            mark(epoch.getState());
+        }
+    }
+
+    /**
+     * Only a single mark of the session is scheduled at once, it takes the latest event to mark when it runs.
+     */
+    private void mark(ParsingState parsingState) {
+        if (lastEventMarker == null) {
+            return;
+        }
+        try {
+            markExecutor.execute(() -> {
+                GCEvent event = parsingState.takeToMark();
+                if (event != null) {
+                    try {
+                        lastEventMarker.accept(event);
+                    } catch (Throwable t) {
+                        LOG.error(t.getMessage(), t);
+                    }
+                }
+            });
+        } catch (Throwable t) {
+            LOG.error(t.getMessage(), t);
+        }
+    }
+
+    /**
+     * The rollups are written right away, since there are few of them, yet no more than the max in flight at once.
+     * A failed write only loses the rollups, the events are still there and are read instead, see
+     * {@link ParsingState#hasFailedRollups()}.
+     */
+    private void persistRollups(List<GCEventRollup> rollups, ParsingState parsingState) {
+        if (rollups.isEmpty() || rollupWriter == null) {
+            return;
+        }
+        rollupsInFlight.acquireUninterruptibly();
+        parsingState.getWrites().register();
+        CompletableFuture<Void> f;
+        try {
+            f = rollupWriter.apply(rollups);
+        } catch (Throwable t) {
+            f = new CompletableFuture<>();
+            f.completeExceptionally(t);
+        }
+        f.whenComplete((r, t) -> {
+            if (t != null) {
+                LOG.error("Failed to write " + rollups.size() + " rollups: " + t.getMessage(), t);
+                parsingState.rollupsFailed();
+            }
+            rollupsInFlight.release();
+            parsingState.getWrites().arriveAndDeregister();
+        });
+    }
+
+    /**
+     * Batches and writes the events of its own ring only, see {@link #persistEvent(GCEvent, ParsingState)}. Unlike
+     * the mappers, this stage isn't a worker pool, since the pool hands the consecutive events to different
+     * threads, which would break the batches up. The control events are published to every ring, so that
+     * every persister flushes its batches.
+     */
+    private class PersisterHandler implements EventHandler<GCEventBundle>, TimeoutHandler {
+        private final PartitionBatcher<WriteEpoch> batcher;
+
+        private PersisterHandler() {
+            long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+            if (asyncPersister != null) {
+                batcher = new PartitionBatcher<>(partitioner, (l, ep) -> persistAsync(l, ep),
+                        (e, ep) -> persistAsync(Collections.singletonList(e), ep), batchSize, lingerNanos);
+            } else {
+                batcher = new PartitionBatcher<>(partitioner, (l, ep) -> persist(() -> persister.accept(l), l.size(), ep),
+                        (e, ep) -> persist(() -> singlePersister.accept(e), 1, ep), batchSize, lingerNanos);
+            }
+        }
+
+        private void persistAsync(List<GCEvent> events, WriteEpoch epoch) {
+            ParsingState ps = epoch.getState();
+            asyncPersister.persist(events, ps.getWrites(), ps.getProgress(),
+                    written -> acknowledged(epoch, events.size(), written));
+        }
+
+        private void persist(Runnable write, int events, WriteEpoch epoch) {
+            try {
+                write.run();
+                epoch.getState().getProgress().eventsPersisted(events);
+            } catch (Throwable t) {
+                epoch.getState().getProgress().writeFailed();
+                acknowledged(epoch, events, false);
+                throw t;
+            }
+            acknowledged(epoch, events, true);
+        }
+
+        @Override
+        public void onEvent(GCEventBundle e, long sequence, boolean endOfBatch) throws Exception {
+            try {
+                if (e.isControl) {
+                    batcher.flush();
+                } else {
+                    long now = System.nanoTime();
+                    batcher.add(e.event, e.epoch, now);
+                    if (e.published != 0) {
+                        persistLatency.update(now - e.published, TimeUnit.NANOSECONDS);
+                    }
+                }
+                if (endOfBatch && batcher.pending() > 0) {
+                    batcher.flushExpired(System.nanoTime());
+                }
+            } catch (Throwable t) {
+                LOG.error(t.getMessage(), t);
+            } finally {
+                if (e.isControl && e.handlersLeft.decrementAndGet() == 0) {
+                    e.future.complete(DUMMY);
+                }
+            }
+        }
+
+        @Override
+        public void onTimeout(long sequence) throws Exception {
+            try {
+                if (batcher.pending() > 0) {
+                    batcher.flushExpired(System.nanoTime());
+                }
+            } catch (Throwable t) {
+                LOG.error(t.getMessage(), t);
+            }
+        }
     }
 }
@@ -0,0 +1,88 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.gcplot.model.gc.GCEvent;
+import com.gcplot.model.gc.GCEventRollup;
+import com.gcplot.model.gc.RollupGranularity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rolls the events of a single JVM up into the buckets of every granularity. The events come in the log order,
+ * so a bucket is complete once an event of another bucket comes, and the complete rollups are handed out in
+ * batches. If the events are out of order, the bucket is just rolled up a few times, which is merged on read.
+ *
+ * All the events of the log are rolled up, including the ones persisted by an earlier session, so that
+ * the rollups of the same log are always the same and overwrite the ones written before.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class RollupAggregator {
+    private static final RollupGranularity[] GRANULARITIES = RollupGranularity.values();
+    private final int batchSize;
+    private final String source;
+    private final long[] buckets = new long[GRANULARITIES.length];
+    private final List<List<GCEventRollup>> open = new ArrayList<>(GRANULARITIES.length);
+    private List<GCEventRollup> complete = new ArrayList<>();
+
+    /**
+     * @param source identifies the events of the log, see {@link GCEventRollup#source()}
+     */
+    public RollupAggregator(int batchSize, String source) {
+        this.batchSize = batchSize;
+        this.source = source;
+        for (int i = 0; i < GRANULARITIES.length; i++) {
+            buckets[i] = Long.MIN_VALUE;
+            open.add(new ArrayList<>(4));
+        }
+    }
+
+    /**
+     * @return the complete rollups, once there are at least {@code batchSize} of them, or the empty list
+     */
+    public List<GCEventRollup> add(GCEvent event) {
+        for (int i = 0; i < GRANULARITIES.length; i++) {
+            long bucket = GRANULARITIES[i].bucket(event.occurredMillis());
+            List<GCEventRollup> rollups = open.get(i);
+            if (bucket != buckets[i]) {
+                complete.addAll(rollups);
+                rollups.clear();
+                buckets[i] = bucket;
+            }
+            GCEventRollup rollup = null;
+            for (GCEventRollup r : rollups) {
+                if (r.isSameGroup(event)) {
+                    rollup = r;
+                    break;
+                }
+            }
+            if (rollup == null) {
+                rollup = GCEventRollup.of(event, GRANULARITIES[i]).source(source);
+                rollups.add(rollup);
+            }
+            rollup.add(event);
+        }
+        return complete.size() >= batchSize ? drain() : Collections.emptyList();
+    }
+
+    /**
+     * @return all the rollups, including the ones of the buckets which might be continued by the next log
+     */
+    public List<GCEventRollup> flush() {
+        for (int i = 0; i < GRANULARITIES.length; i++) {
+            complete.addAll(open.get(i));
+            open.get(i).clear();
+            buckets[i] = Long.MIN_VALUE;
+        }
+        return drain();
+    }
+
+    private List<GCEventRollup> drain() {
+        List<GCEventRollup> r = complete;
+        complete = new ArrayList<>();
+        return r;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wait strategies of the pipe rings by their configured names. The blocking one is the cheapest
+ * for the CPU, the spinning ones trade the cores for the lower latency.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public abstract class WaitStrategies {
+    public static final String BLOCKING = "blocking";
+    public static final String SLEEPING = "sleeping";
+    public static final String YIELDING = "yielding";
+    public static final String BUSY_SPIN = "busy_spin";
+    public static final String PHASED = "phased";
+    private static final long SPIN_MICROS = 100;
+    private static final long YIELD_MICROS = 1000;
+
+    public static WaitStrategy of(String name) {
+        switch (name.toLowerCase()) {
+            case BLOCKING: return new BlockingWaitStrategy();
+            case SLEEPING: return new SleepingWaitStrategy();
+            case YIELDING: return new YieldingWaitStrategy();
+            case BUSY_SPIN: return new BusySpinWaitStrategy();
+            case PHASED: return PhasedBackoffWaitStrategy.withLock(SPIN_MICROS, YIELD_MICROS, TimeUnit.MICROSECONDS);
+            default: throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+
+    /**
+     * The strategy which wakes the handlers up at least every {@code timeoutMillis}, see
+     * {@link com.lmax.disruptor.TimeoutHandler}. Only the blocking strategy supports the timeouts, so
+     * the others spin or yield for a while before falling back to it.
+     */
+    public static WaitStrategy withTimeout(String name, long timeoutMillis) {
+        TimeoutBlockingWaitStrategy blocking = new TimeoutBlockingWaitStrategy(timeoutMillis, TimeUnit.MILLISECONDS);
+        switch (name.toLowerCase()) {
+            case BLOCKING: return blocking;
+            case SLEEPING:
+            case YIELDING: return new PhasedBackoffWaitStrategy(0, YIELD_MICROS, TimeUnit.MICROSECONDS, blocking);
+            case BUSY_SPIN: return new PhasedBackoffWaitStrategy(YIELD_MICROS, 0, TimeUnit.MICROSECONDS, blocking);
+            case PHASED: return new PhasedBackoffWaitStrategy(SPIN_MICROS, YIELD_MICROS, TimeUnit.MICROSECONDS, blocking);
+            default: throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        }
+    }
+
+}
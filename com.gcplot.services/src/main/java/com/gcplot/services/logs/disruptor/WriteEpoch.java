@@ -0,0 +1,68 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.gcplot.model.gc.GCEvent;
+
+/**
+ * A run of consecutive events of the parsing session passed on to be persisted. The events of an epoch
+ * are batched apart from the other epochs, so that every acknowledged batch is counted against its own epoch,
+ * and the session knows up to which event all the writes are acknowledged, see {@link ParsingState#acknowledged}.
+ *
+ * Filled by the processing shard thread, the counters are read and updated under the lock of the session.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class WriteEpoch {
+    private final ParsingState state;
+    private int events;
+    private GCEvent lastEvent;
+    private boolean sealed;
+    private int acknowledged;
+    private boolean failed;
+
+    public WriteEpoch(ParsingState state) {
+        this.state = state;
+    }
+
+    public ParsingState getState() {
+        return state;
+    }
+
+    void add(GCEvent event) {
+        events++;
+        if (lastEvent == null || event.occurredMillis() > lastEvent.occurredMillis()) {
+            lastEvent = event;
+        }
+    }
+
+    /**
+     * No events are added to the epoch afterwards.
+     */
+    void seal() {
+        sealed = true;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    void acknowledged(int events, boolean written) {
+        acknowledged += events;
+        failed |= !written;
+    }
+
+    /**
+     * @return true if all the events of the epoch are passed on and their writes are completed
+     */
+    boolean isCompleted() {
+        return sealed && acknowledged >= events;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    GCEvent getLastEvent() {
+        return lastEvent;
+    }
+}
@@ -75,12 +75,12 @@ public class GraphiteInterceptor implements IdentifiedEventInterceptor {
         if (event.isGCEvent()) {
             GCEvent gcEvent = (GCEvent) event;
             if (gcEvent.concurrency() == EventConcurrency.SERIAL) {
-                long occurred = gcEvent.occurred().getMillis() / 1000 / 60;
+                long occurred = gcEvent.occurredMillis() / 1000 / 60;
                 stwEvents.computeIfAbsent(Pair.of(occurred, EventType.from(gcEvent)), k -> new MinMaxAvg())
                         .next(gcEvent.pauseMu() / 1000);
                 memoryEvents.putIfAbsent(occurred, gcEvent);
             } else if (gcEvent.concurrency() == EventConcurrency.CONCURRENT) {
-                concEvents.computeIfAbsent(Pair.of(gcEvent.occurred().getMillis() / 1000 / 60, gcEvent.phase()), k -> new MinMaxAvg())
+                concEvents.computeIfAbsent(Pair.of(gcEvent.occurredMillis() / 1000 / 60, gcEvent.phase()), k -> new MinMaxAvg())
                         .next(gcEvent.pauseMu() / 1000);
             }
         } else if (event.isGCRate()) {
@@ -102,10 +102,10 @@ public class GraphiteInterceptor implements IdentifiedEventInterceptor {
 
     private void fillGCRate(GCRate rate, String prefix, Map<String, Long> m) {
         String p = prefix + "rates.";
-        m.put(p + "alloc.kb_s " + rate.allocationRate(), rate.occurred().getMillis());
-        m.put(p + "alloc.mb_s " + rate.allocationRate() / 1024, rate.occurred().getMillis());
-        m.put(p + "promote.kb_s " + rate.promotionRate(), rate.occurred().getMillis());
-        m.put(p + "promote.mb_s " + rate.promotionRate() / 1024, rate.occurred().getMillis());
+        m.put(p + "alloc.kb_s " + rate.allocationRate(), rate.occurredMillis());
+        m.put(p + "alloc.mb_s " + rate.allocationRate() / 1024, rate.occurredMillis());
+        m.put(p + "promote.kb_s " + rate.promotionRate(), rate.occurredMillis());
+        m.put(p + "promote.mb_s " + rate.promotionRate() / 1024, rate.occurredMillis());
     }
 
     private void fillMemory(GCEvent gcEvent, EventType eventType, long occurred,
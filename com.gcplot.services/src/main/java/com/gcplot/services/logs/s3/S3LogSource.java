@@ -19,6 +19,7 @@ public class S3LogSource extends BaseLogSource implements LogSource {
     public S3LogSource(LogHandle handle, S3Object object) {
         this.handle = handle;
         this.object = object;
+        this.checksum = handle.getName().substring(0, handle.getName().indexOf('.'));
     }
 
     @Override
@@ -35,9 +36,4 @@ public class S3LogSource extends BaseLogSource implements LogSource {
     public Optional<File> localFile() {
         return Optional.empty();
     }
-
-    @Override
-    public String checksum() {
-        return handle.getName().substring(0, handle.getName().indexOf('.'));
-    }
 }
@@ -0,0 +1,48 @@
+package com.gcplot.services.resources;
+
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The buffers of the parts being uploaded, which are allocated on demand up to the limit and reused afterwards,
+ * so that the memory taken by all the uploads together is bounded.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class PartBufferPool {
+    private final int bufferSize;
+    private final Semaphore permits;
+    private final Queue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+    public PartBufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.permits = new Semaphore(maxBuffers);
+    }
+
+    /**
+     * Blocks until some buffer is released, if all of them are taken.
+     */
+    public byte[] acquire() throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        free.offer(buffer);
+        permits.release();
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+}
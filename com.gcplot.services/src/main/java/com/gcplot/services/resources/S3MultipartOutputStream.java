@@ -0,0 +1,170 @@
+package com.gcplot.services.resources;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Uploads the bytes written to it as the parts of the multipart upload, each one as soon as it's full,
+ * so the parts are sent concurrently while the next ones are being written. The parts are buffered in
+ * the memory taken from the pool, so the writer waits once the pool is exhausted.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class S3MultipartOutputStream extends OutputStream {
+    private final AmazonS3 client;
+    private final String bucket;
+    private final String key;
+    private final String uploadId;
+    private final ExecutorService executor;
+    private final PartBufferPool pool;
+    private final List<Future<PartETag>> parts = new ArrayList<>();
+    private volatile Throwable error;
+    private volatile boolean aborted;
+    private byte[] buffer;
+    private int position;
+    private boolean closed;
+    private boolean finished;
+
+    public S3MultipartOutputStream(AmazonS3 client, String bucket, String key, String uploadId,
+                                   ExecutorService executor, PartBufferPool pool) {
+        this.client = client;
+        this.bucket = bucket;
+        this.key = key;
+        this.uploadId = uploadId;
+        this.executor = executor;
+        this.pool = pool;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkState();
+        while (len > 0) {
+            if (buffer == null) {
+                buffer = pool.acquire();
+                position = 0;
+            }
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(b, off, buffer, position, n);
+            position += n;
+            off += n;
+            len -= n;
+            if (position == buffer.length) {
+                uploadPart();
+            }
+        }
+    }
+
+    /**
+     * Uploads the last part and completes the upload, once the other parts are uploaded.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        checkState();
+        if (buffer != null || parts.isEmpty()) {
+            uploadPart();
+        }
+        closed = true;
+        List<PartETag> tags = new ArrayList<>(parts.size());
+        try {
+            for (Future<PartETag> part : parts) {
+                tags.add(part.get());
+            }
+            client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, tags));
+            finished = true;
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            abort();
+            throw new IOException(e.getCause());
+        } catch (Throwable t) {
+            abort();
+            throw new IOException(t);
+        }
+    }
+
+    /**
+     * Discards the parts uploaded so far, unless the upload is completed already.
+     */
+    public void abort() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        closed = true;
+        // the parts which are not sent yet are skipped, so that their buffers are still released
+        aborted = true;
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+        client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+    }
+
+    private void uploadPart() throws IOException {
+        final byte[] part = buffer != null ? buffer : new byte[0];
+        final int size = position;
+        final int number = parts.size() + 1;
+        buffer = null;
+        position = 0;
+        try {
+            parts.add(executor.submit(() -> {
+                try {
+                    if (aborted) {
+                        return null;
+                    }
+                    return client.uploadPart(new UploadPartRequest()
+                            .withBucketName(bucket).withKey(key)
+                            .withUploadId(uploadId).withPartNumber(number)
+                            .withInputStream(new ByteArrayInputStream(part, 0, size))
+                            .withPartSize(size)).getPartETag();
+                } catch (Throwable t) {
+                    error = t;
+                    throw t;
+                } finally {
+                    if (part.length > 0) {
+                        pool.release(part);
+                    }
+                }
+            }));
+        } catch (Throwable t) {
+            if (part.length > 0) {
+                pool.release(part);
+            }
+            throw new IOException(t);
+        }
+    }
+
+    private void checkState() throws IOException {
+        if (closed) {
+            throw new IOException("The upload of " + key + " is closed.");
+        }
+        if (error != null) {
+            throw new IOException(error);
+        }
+    }
+
+}
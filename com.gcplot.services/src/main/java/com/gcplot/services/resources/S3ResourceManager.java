@@ -4,14 +4,16 @@ import com.amazonaws.services.s3.model.*;
 import com.gcplot.resource.ResourceManager;
 import com.gcplot.services.S3Connector;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -20,67 +22,60 @@ import java.util.List;
 public class S3ResourceManager implements ResourceManager {
     private static final Logger LOG = LoggerFactory.getLogger(S3ResourceManager.class);
     private S3Connector connector;
+    private int partSize = 5 * 1024 * 1024;
+    private int maxBuffers = Runtime.getRuntime().availableProcessors() * 4;
+    private int uploadThreads = Runtime.getRuntime().availableProcessors() * 2;
+    private ExecutorService partsExecutor;
+    private PartBufferPool bufferPool;
+
+    public void init() {
+        partsExecutor = Executors.newFixedThreadPool(uploadThreads,
+                new ThreadFactoryBuilder().setNameFormat("s3-part-%d").setDaemon(true).build());
+        bufferPool = new PartBufferPool(partSize, maxBuffers);
+    }
+
+    public void destroy() {
+        try {
+            partsExecutor.shutdownNow();
+            partsExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ignored) {
+        }
+    }
 
     @Override
     public void upload(File file, String newPath, String contentType) {
-        List<PartETag> partETags = new ArrayList<>();
-
-        newPath = newPath + "/" + file.getName();
-        // Step 1: Initialize.
-        ObjectMetadata om = new ObjectMetadata();
         if (contentType == null) {
             try {
                 contentType = Files.probeContentType(file.toPath());
             } catch (IOException ignored) {
             }
         }
+        upload(newPath + "/" + file.getName(), contentType, out -> Files.copy(file.toPath(), out));
+    }
+
+    @Override
+    public void upload(String newPath, String contentType, ContentWriter writer) {
+        ObjectMetadata om = new ObjectMetadata();
         if (contentType != null) {
             om.addUserMetadata("Content-Type", contentType);
         }
-        InitiateMultipartUploadRequest initRequest;
-        InitiateMultipartUploadResult initResponse = null;
-
+        S3MultipartOutputStream out = null;
         try {
-            initRequest = new InitiateMultipartUploadRequest(connector.getBucket(), newPath, om);
+            InitiateMultipartUploadRequest initRequest = new InitiateMultipartUploadRequest(connector.getBucket(), newPath, om);
             initRequest.setCannedACL(CannedAccessControlList.PublicRead);
-            initResponse = connector.getClient().initiateMultipartUpload(initRequest);
-
-            long contentLength = file.length();
-            long partSize = 5242880; // Set part size to 5 MB.
-            // Step 2: Upload parts.
-            long filePosition = 0;
-            for (int i = 1; filePosition < contentLength; i++) {
-                // Last part can be less than 5 MB. Adjust part size.
-                partSize = Math.min(partSize, (contentLength - filePosition));
-
-                // Create request to upload a part.
-                UploadPartRequest uploadRequest = new UploadPartRequest()
-                        .withBucketName(connector.getBucket()).withKey(newPath)
-                        .withUploadId(initResponse.getUploadId()).withPartNumber(i)
-                        .withFileOffset(filePosition)
-                        .withFile(file)
-                        .withPartSize(partSize);
-
-                // Upload part and add response to our list.
-                partETags.add(connector.getClient().uploadPart(uploadRequest).getPartETag());
-
-                filePosition += partSize;
-            }
-
-            // Step 3: Complete.
-            CompleteMultipartUploadRequest compRequest = new
-                    CompleteMultipartUploadRequest(
-                    connector.getBucket(),
-                    newPath,
-                    initResponse.getUploadId(),
-                    partETags);
-
-            connector.getClient().completeMultipartUpload(compRequest);
+            InitiateMultipartUploadResult initResponse = connector.getClient().initiateMultipartUpload(initRequest);
+            out = new S3MultipartOutputStream(connector.getClient(), connector.getBucket(), newPath,
+                    initResponse.getUploadId(), partsExecutor, bufferPool);
+            writer.write(out);
+            out.close();
         } catch (Throwable e) {
             LOG.error(e.getMessage(), e);
-            if (initResponse != null) {
-                connector.getClient().abortMultipartUpload(new AbortMultipartUploadRequest(
-                        connector.getBucket(), newPath, initResponse.getUploadId()));
+            if (out != null) {
+                try {
+                    out.abort();
+                } catch (Throwable t) {
+                    LOG.error(t.getMessage(), t);
+                }
             }
         }
     }
@@ -97,4 +92,28 @@ public class S3ResourceManager implements ResourceManager {
     public void setConnector(S3Connector connector) {
         this.connector = connector;
     }
+
+    public int getPartSize() {
+        return partSize;
+    }
+    /**
+     * S3 requires all the parts but the last one to be at least 5 MB.
+     */
+    public void setPartSize(int partSize) {
+        this.partSize = partSize;
+    }
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+    public void setMaxBuffers(int maxBuffers) {
+        this.maxBuffers = maxBuffers;
+    }
+
+    public int getUploadThreads() {
+        return uploadThreads;
+    }
+    public void setUploadThreads(int uploadThreads) {
+        this.uploadThreads = uploadThreads;
+    }
 }
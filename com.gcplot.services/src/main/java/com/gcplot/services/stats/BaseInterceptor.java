@@ -23,7 +23,7 @@ public abstract class BaseInterceptor {
             Capacity capacity = event.isYoung() ? event.capacity() : event.capacityByGeneration().get(Generation.YOUNG);
             Capacity prevCapacity = ratePreviousEvent.isYoung() ? ratePreviousEvent.capacity() :
                     ratePreviousEvent.capacityByGeneration().get(Generation.YOUNG);
-            long period = Math.abs(ratePreviousEvent.occurred().getMillis() - event.occurred().getMillis());
+            long period = Math.abs(ratePreviousEvent.occurredMillis() - event.occurredMillis());
             long allocated = Math.abs(prevCapacity.usedBefore() - capacity.usedAfter());
             if (period > 0) {
                 allocatedSum += allocated;
@@ -4,7 +4,6 @@ import com.gcplot.model.GCRateImpl;
 import com.gcplot.model.gc.GCEvent;
 import com.gcplot.model.gc.GCRate;
 import com.gcplot.commons.interceptors.EventInterceptor;
-import org.joda.time.DateTime;
 
 import java.util.Collections;
 import java.util.List;
@@ -18,8 +17,8 @@ import java.util.List;
  */
 public class RatesInterceptor extends BaseInterceptor implements EventInterceptor<GCRate> {
     private final int sampleSeconds;
-    private DateTime edge = null;
-    private DateTime edgeMinus = null;
+    private boolean hasEdge = false;
+    private long edgeMinus;
 
     public RatesInterceptor(int sampleSeconds) {
         this.sampleSeconds = sampleSeconds;
@@ -27,14 +26,14 @@ public class RatesInterceptor extends BaseInterceptor implements EventIntercepto
 
     @Override
     public List<GCRate> process(GCEvent event) {
-        if (edge == null) {
+        if (!hasEdge) {
             edge(event);
         }
         if (event.isYoung() || (event.isFull() && event.hasYoungCapacity())) {
             try {
                 if (ratePreviousEvent != null) {
                     if (sampleSeconds > 1) {
-                        if (edgeMinus.isBefore(event.occurred())) {
+                        if (edgeMinus < event.occurredMillis()) {
                             countRates(event);
                         } else {
                             return flush(event);
@@ -66,7 +65,7 @@ public class RatesInterceptor extends BaseInterceptor implements EventIntercepto
                 promotionRateCount > 0)) {
             long allRate = allocationRateSum / Math.max(allocationRateCount, 1);
             long prRate = promotionRateSum / Math.max(promotionRateCount, 1);
-            return Collections.singletonList(new GCRateImpl(event.occurred(), allRate, prRate));
+            return Collections.singletonList(new GCRateImpl(event.occurredMillis(), allRate, prRate));
         }
         return Collections.emptyList();
     }
@@ -77,7 +76,7 @@ public class RatesInterceptor extends BaseInterceptor implements EventIntercepto
     }
 
     protected void edge(GCEvent event) {
-        edge = event.occurred();
-        edgeMinus = edge.minusSeconds(sampleSeconds);
+        hasEdge = true;
+        edgeMinus = event.occurredMillis() - sampleSeconds * 1000L;
     }
 }
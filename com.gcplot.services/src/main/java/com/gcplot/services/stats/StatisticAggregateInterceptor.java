@@ -214,9 +214,9 @@ public class StatisticAggregateInterceptor extends BaseInterceptor implements Ev
 
         if (event.isYoung() || (event.isFull() && event.hasYoungCapacity())) {
             if (firstEvent == 0) {
-                firstEvent = event.occurred().getMillis();
+                firstEvent = event.occurredMillis();
             }
-            lastEvent = event.occurred().getMillis();
+            lastEvent = event.occurredMillis();
             countRates(event);
         }
 
@@ -244,7 +244,7 @@ public class StatisticAggregateInterceptor extends BaseInterceptor implements Ev
         if (lastSerialEvent == null) {
             lastSerialEvent = event;
         } else {
-            long timeDiff = Math.abs(event.occurred().getMillis() - lastSerialEvent.occurred().getMillis());
+            long timeDiff = Math.abs(event.occurredMillis() - lastSerialEvent.occurredMillis());
             if (timeDiff < 60 * 1000) {
                 stwCount++;
                 stwSum += event.pauseMu();
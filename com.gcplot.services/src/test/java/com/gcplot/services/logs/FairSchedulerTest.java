@@ -0,0 +1,74 @@
+package com.gcplot.services.logs;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class FairSchedulerTest {
+
+    @Test
+    public void testNewTenantOvertakesQueue() throws Exception {
+        FairScheduler scheduler = new FairScheduler("test", () -> 1, () -> 1, () -> 10);
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        FairScheduler.Permit first = scheduler.acquire("noisy", 1, 100);
+        Thread[] noisy = new Thread[3];
+        for (int i = 0; i < noisy.length; i++) {
+            noisy[i] = session(scheduler, "noisy", admitted);
+            noisy[i].start();
+            waitQueued(scheduler, i + 1);
+        }
+        Thread quiet = session(scheduler, "quiet", admitted);
+        quiet.start();
+        waitQueued(scheduler, 4);
+
+        first.close();
+        for (Thread t : noisy) {
+            t.join(5000);
+        }
+        quiet.join(5000);
+        Assert.assertEquals(4, admitted.size());
+        Assert.assertEquals("quiet", admitted.get(0));
+        Assert.assertEquals(0, scheduler.running());
+        Assert.assertEquals(0, scheduler.tenants());
+    }
+
+    @Test
+    public void testRejectsOverQueueLimit() throws Exception {
+        FairScheduler scheduler = new FairScheduler("test", () -> 1, () -> 1, () -> 1);
+        FairScheduler.Permit first = scheduler.acquire("a", 1, 1);
+        Thread t = session(scheduler, "a", new CopyOnWriteArrayList<>());
+        t.start();
+        waitQueued(scheduler, 1);
+        try {
+            scheduler.acquire("a", 1, 1);
+            Assert.fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+        first.close();
+        t.join(5000);
+        Assert.assertFalse(t.isAlive());
+    }
+
+    private static Thread session(FairScheduler scheduler, String tenant, List<String> admitted) {
+        return new Thread(() -> {
+            try (FairScheduler.Permit ignored = scheduler.acquire(tenant, 1, 100)) {
+                admitted.add(tenant);
+            } catch (InterruptedException ignored) {
+            }
+        });
+    }
+
+    private static void waitQueued(FairScheduler scheduler, int queued) throws InterruptedException {
+        while (scheduler.queued() < queued) {
+            Thread.sleep(1);
+        }
+    }
+
+}
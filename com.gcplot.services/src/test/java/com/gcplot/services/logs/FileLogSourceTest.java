@@ -0,0 +1,58 @@
+package com.gcplot.services.logs;
+
+import com.gcplot.logs.LogHandle;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class FileLogSourceTest {
+    private static final String CHECKSUM = "3cbc9e4b0932ca6e745b3f344a27ff95";
+
+    @Test
+    public void testScanCalculatesChecksum() throws URISyntaxException {
+        for (String name : new String[] { CHECKSUM + ".log", CHECKSUM + ".log.gz" }) {
+            FileLogSource source = new FileLogSource(file("logs/" + name), new LogHandle(name, "acc", "an", "jvm"));
+            AtomicInteger lines = new AtomicInteger();
+            source.scan(line -> lines.incrementAndGet() < 3);
+
+            Assert.assertEquals(3, lines.get());
+            Assert.assertEquals(CHECKSUM, source.checksum());
+            Assert.assertEquals(name.endsWith(".gz"), source.isGzipped());
+        }
+    }
+
+    @Test
+    public void testChecksumOfWholeLog() throws Exception {
+        File log = file("logs/" + CHECKSUM + ".log");
+        File grown = File.createTempFile("gcplot_log", ".log");
+        try {
+            Files.copy(log.toPath(), grown.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.write(grown.toPath(), "2016-04-07T14:19:56.196+0300: 1.1: [GC pause]\n".getBytes(), StandardOpenOption.APPEND);
+            FileLogSource grownSource = new FileLogSource(grown, new LogHandle("b", "acc", "an", "jvm"));
+            AtomicInteger lines = new AtomicInteger();
+            grownSource.scan(line -> lines.incrementAndGet() < 3);
+
+            Assert.assertEquals(3, lines.get());
+            Assert.assertNotEquals(CHECKSUM, grownSource.checksum());
+            Assert.assertEquals(CHECKSUM, new FileLogSource(log, new LogHandle("a", "acc", "an", "jvm")).checksum());
+        } finally {
+            grown.delete();
+        }
+    }
+
+    protected File file(String file) throws URISyntaxException {
+        return new File(Thread.currentThread().
+                getContextClassLoader().getResource(file).toURI());
+    }
+
+}
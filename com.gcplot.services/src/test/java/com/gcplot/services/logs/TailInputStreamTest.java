@@ -0,0 +1,50 @@
+package com.gcplot.services.logs;
+
+import com.gcplot.commons.FileUtils;
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class TailInputStreamTest {
+
+    @Test
+    public void testTailChecksum() throws Exception {
+        byte[] data = new byte[100_000];
+        new Random(1).nextBytes(data);
+        TailInputStream in = new TailInputStream(new ByteArrayInputStream(data), 16 * 1024);
+        ByteStreams.exhaust(in);
+
+        Assert.assertEquals(data.length, in.position());
+        Assert.assertEquals(md5(data, data.length - 4096, data.length), in.tailChecksum(data.length, 4096));
+        Assert.assertEquals(md5(data, 90_000, 95_000), in.tailChecksum(95_000, 5000));
+        Assert.assertNull(in.tailChecksum(80_000, 4096));
+        Assert.assertNull(in.tailChecksum(data.length + 1, 4096));
+    }
+
+    @Test
+    public void testSkipTo() throws Exception {
+        byte[] data = new byte[100_000];
+        new Random(2).nextBytes(data);
+        TailInputStream in = new TailInputStream(new ByteArrayInputStream(data), 16 * 1024);
+
+        Assert.assertTrue(in.skipTo(50_000));
+        Assert.assertEquals(50_000, in.position());
+        Assert.assertEquals(md5(data, 46_000, 50_000), in.tailChecksum(50_000, 4000));
+        Assert.assertFalse(in.skipTo(40_000));
+        Assert.assertFalse(in.skipTo(200_000));
+    }
+
+    private static String md5(byte[] data, int from, int to) throws Exception {
+        return FileUtils.hex(MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(data, from, to)));
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.gcplot.logs.LogProcessProgress;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class AsyncPersisterTest {
+
+    @Test
+    public void testBoundedInFlight() throws Exception {
+        List<CompletableFuture<Void>> writes = new CopyOnWriteArrayList<>();
+        AsyncPersister persister = new AsyncPersister(l -> {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            writes.add(f);
+            return f;
+        }, 2, 0, 1);
+        persister.init();
+        try {
+            Phaser session = new Phaser(1);
+            persister.persist(Collections.emptyList(), session);
+            persister.persist(Collections.emptyList(), session);
+            Assert.assertEquals(2, persister.inFlight());
+
+            Thread t = new Thread(() -> persister.persist(Collections.emptyList(), session));
+            t.start();
+            t.join(200);
+            Assert.assertTrue(t.isAlive());
+            Assert.assertEquals(2, writes.size());
+
+            writes.get(0).complete(null);
+            t.join(5000);
+            Assert.assertFalse(t.isAlive());
+            Assert.assertEquals(3, writes.size());
+
+            writes.get(1).complete(null);
+            writes.get(2).completeExceptionally(new RuntimeException("failed"));
+            session.arriveAndAwaitAdvance();
+            Assert.assertEquals(0, persister.inFlight());
+        } finally {
+            persister.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncPersister persister = new AsyncPersister(l -> {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            if (attempts.incrementAndGet() < 3) {
+                f.completeExceptionally(new RuntimeException("timeout"));
+            } else {
+                f.complete(null);
+            }
+            return f;
+        }, 1, 3, 1);
+        persister.init();
+        try {
+            Phaser session = new Phaser(1);
+            persister.persist(Collections.emptyList(), session);
+            session.arriveAndAwaitAdvance();
+            Assert.assertEquals(3, attempts.get());
+            Assert.assertEquals(0, persister.inFlight());
+        } finally {
+            persister.shutdown();
+        }
+    }
+
+    @Test
+    public void testGivenUpCounted() throws Exception {
+        AsyncPersister persister = new AsyncPersister(l -> {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            f.completeExceptionally(new RuntimeException("timeout"));
+            return f;
+        }, 1, 1, 1);
+        persister.init();
+        try {
+            Phaser session = new Phaser(1);
+            LogProcessProgress progress = new LogProcessProgress();
+            persister.persist(Collections.emptyList(), session, progress);
+            session.arriveAndAwaitAdvance();
+            Assert.assertEquals(1, progress.getFailedWrites());
+            Assert.assertEquals(1, progress.getErrors());
+            Assert.assertEquals(0, progress.getEventsPersisted());
+        } finally {
+            persister.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompletedBeforeArrival() throws Exception {
+        AtomicInteger failures = new AtomicInteger(1);
+        AsyncPersister persister = new AsyncPersister(l -> {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            if (failures.getAndDecrement() > 0) {
+                f.completeExceptionally(new RuntimeException("timeout"));
+            } else {
+                f.complete(null);
+            }
+            return f;
+        }, 2, 1, 1);
+        persister.init();
+        try {
+            Phaser session = new Phaser(1);
+            List<Boolean> completed = new CopyOnWriteArrayList<>();
+            persister.persist(Collections.emptyList(), session, null, completed::add);
+            session.arriveAndAwaitAdvance();
+            Assert.assertEquals(Collections.singletonList(true), completed);
+
+            failures.set(2);
+            completed.clear();
+            persister.persist(Collections.emptyList(), session, null, completed::add);
+            session.arriveAndAwaitAdvance();
+            Assert.assertEquals(Collections.singletonList(false), completed);
+        } finally {
+            persister.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.gcplot.logs.ParserContext;
+import com.gcplot.model.gc.GCEvent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.helpers.NOPLogger;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class ParsingStateTest {
+
+    @Test
+    public void testMarkedOnceEarlierEpochsAcknowledged() {
+        ParsingState ps = state(0);
+        WriteEpoch first = ps.epochOf(event(1));
+        ps.epochOf(event(2));
+        Assert.assertFalse(ps.sealEpoch());
+        WriteEpoch second = ps.epochOf(event(3));
+        Assert.assertFalse(ps.sealEpoch());
+
+        // the later epoch is written first, the earlier one is still in flight
+        Assert.assertFalse(ps.acknowledged(second, 1, true));
+        Assert.assertNull(ps.takeToMark());
+
+        Assert.assertFalse(ps.acknowledged(first, 1, true));
+        Assert.assertTrue(ps.acknowledged(first, 1, true));
+        Assert.assertEquals(3, ps.takeToMark().occurredMillis());
+        Assert.assertNull(ps.takeToMark());
+    }
+
+    @Test
+    public void testNotMarkedPastFailedWrite() {
+        ParsingState ps = state(0);
+        WriteEpoch first = ps.epochOf(event(1));
+        ps.sealEpoch();
+        WriteEpoch second = ps.epochOf(event(2));
+        ps.sealEpoch();
+        WriteEpoch third = ps.epochOf(event(3));
+        ps.sealEpoch();
+
+        Assert.assertTrue(ps.acknowledged(first, 1, true));
+        Assert.assertEquals(1, ps.takeToMark().occurredMillis());
+        Assert.assertFalse(ps.acknowledged(third, 1, true));
+        Assert.assertFalse(ps.acknowledged(second, 1, false));
+        Assert.assertNull(ps.takeToMark());
+
+        WriteEpoch fourth = ps.epochOf(event(4));
+        ps.sealEpoch();
+        Assert.assertFalse(ps.acknowledged(fourth, 1, true));
+        Assert.assertNull(ps.takeToMark());
+    }
+
+    @Test
+    public void testMarkedUpToFailedWrite() {
+        ParsingState ps = state(0);
+        WriteEpoch first = ps.epochOf(event(1));
+        ps.sealEpoch();
+        WriteEpoch second = ps.epochOf(event(2));
+        ps.sealEpoch();
+
+        Assert.assertFalse(ps.acknowledged(second, 1, false));
+        Assert.assertTrue(ps.acknowledged(first, 1, true));
+        Assert.assertEquals(1, ps.takeToMark().occurredMillis());
+    }
+
+    @Test
+    public void testNotMarkedWhileSampling() {
+        ParsingState ps = state(60);
+        WriteEpoch epoch = ps.epochOf(event(1));
+        ps.sealEpoch();
+        Assert.assertFalse(ps.acknowledged(epoch, 1, true));
+        Assert.assertNull(ps.takeToMark());
+    }
+
+    private static ParsingState state(int youngSamplingInterval) {
+        ParserContext ctx = new ParserContext(NOPLogger.NOP_LOGGER, "chcksm", null, null, "jvm", "analysis");
+        return new ParsingState(ctx, null, "chcksm", youngSamplingInterval, false);
+    }
+
+    private static GCEvent event(long occurred) {
+        GCEvent event = createMock(GCEvent.class);
+        expect(event.occurredMillis()).andReturn(occurred).anyTimes();
+        replay(event);
+        return event;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.gcplot.services.logs.disruptor;
+
+import com.gcplot.model.gc.GCEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.easymock.EasyMock.createNiceMock;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class PartitionBatcherTest {
+    private static final String OWNER = "session";
+    private final Map<GCEvent, String> partitions = new IdentityHashMap<>();
+    private final List<List<GCEvent>> batches = new ArrayList<>();
+    private final List<GCEvent> singles = new ArrayList<>();
+    private final PartitionBatcher<String> batcher = new PartitionBatcher<>(partitions::get,
+            (l, owner) -> batches.add(new ArrayList<>(l)), (e, owner) -> singles.add(e), 3, 100);
+
+    @Test
+    public void testBatchedByPartition() {
+        List<GCEvent> a = events("a", 4);
+        List<GCEvent> b = events("b", 2);
+        batcher.add(a.get(0), OWNER, 0);
+        batcher.add(b.get(0), OWNER, 0);
+        batcher.add(a.get(1), OWNER, 0);
+        batcher.add(b.get(1), OWNER, 0);
+        batcher.add(a.get(2), OWNER, 0);
+
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(a.subList(0, 3), batches.get(0));
+        Assert.assertEquals(1, batcher.pending());
+
+        batcher.add(a.get(3), OWNER, 10);
+        batcher.flush();
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(b, batches.get(1));
+        Assert.assertEquals(a.subList(3, 4), singles);
+        Assert.assertEquals(0, batcher.pending());
+    }
+
+    @Test
+    public void testLinger() {
+        List<GCEvent> a = events("a", 2);
+        List<GCEvent> b = events("b", 1);
+        batcher.add(a.get(0), OWNER, 0);
+        batcher.add(a.get(1), OWNER, 50);
+        batcher.add(b.get(0), OWNER, 60);
+
+        batcher.flushExpired(99);
+        Assert.assertTrue(batches.isEmpty());
+        batcher.flushExpired(100);
+        Assert.assertEquals(a, batches.get(0));
+        Assert.assertEquals(1, batcher.pending());
+        batcher.flushExpired(160);
+        Assert.assertEquals(b, singles);
+        Assert.assertEquals(0, batcher.pending());
+    }
+
+    @Test
+    public void testOwners() {
+        List<GCEvent> a = events("a", 3);
+        batcher.add(a.get(0), OWNER, 0);
+        batcher.add(a.get(1), OWNER, 0);
+        batcher.add(a.get(2), "other", 0);
+
+        Assert.assertEquals(a.subList(0, 2), batches.get(0));
+        Assert.assertEquals(1, batcher.pending());
+    }
+
+    private List<GCEvent> events(String partition, int count) {
+        List<GCEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GCEvent e = createNiceMock(GCEvent.class);
+            partitions.put(e, partition);
+            events.add(e);
+        }
+        return events;
+    }
+
+}
@@ -24,6 +24,8 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
@@ -59,6 +61,7 @@ public class S3ServicesTest {
         S3Connector connector = getConnector();
         S3ResourceManager rm = new S3ResourceManager();
         rm.setConnector(connector);
+        rm.init();
 
         rm.upload(file("logs/3cbc9e4b0932ca6e745b3f344a27ff95.log"),
                 "connector-logs/" + Utils.toBase64("#81:20") + "/analyze/jvm");
@@ -101,6 +104,38 @@ public class S3ServicesTest {
                 IOUtils.toByteArray(new FileInputStream(file("logs/3cbc9e4b0932ca6e745b3f344a27ff95.log"))));
     }
 
+    @Test
+    public void testStreamUpload() throws Exception {
+        S3Connector connector = getConnector();
+        S3ResourceManager rm = new S3ResourceManager();
+        rm.setConnector(connector);
+        rm.setMaxBuffers(2);
+        rm.init();
+
+        // a few parts, which are not compressed much
+        byte[] content = new byte[rm.getPartSize() * 3 + 17];
+        new Random(42).nextBytes(content);
+        rm.upload("connector-logs/" + Utils.toBase64("#81:20") + "/analyze/jvm/3cbc9e4b0932ca6e745b3f344a27ff95.log.gz",
+                "application/gzip", out -> {
+                    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                        gz.write(content);
+                    }
+                });
+
+        DefaultLogsStorageProvider logsStorageProvider = new DefaultLogsStorageProvider();
+        logsStorageProvider.setPrefix("connector-logs");
+        logsStorageProvider.setInternalConnector(connector);
+        logsStorageProvider.init();
+
+        LogsStorage ls = logsStorageProvider.get(SourceType.INTERNAL, null);
+        List<LogHandle> lhl = Lists.newArrayList(ls.listAll());
+        Assert.assertEquals(lhl.size(), 1);
+        LogSource source = ls.get(lhl.get(0));
+        Assert.assertEquals(source.isGzipped(), true);
+        Assert.assertArrayEquals(IOUtils.toByteArray(source.logStream()), content);
+        rm.destroy();
+    }
+
     protected S3Connector getConnector() {
         S3Connector connector = new S3Connector();
         connector.setEndpoint(endpoint);
@@ -211,6 +211,20 @@ public class GCTests extends IntegrationTest {
         }
     }
 
+    @Test
+    public void streamLogTest() throws Exception {
+        String token = login();
+
+        JsonObject resp = streamGCLogFile(token, "", "", "par_old_pigsty_log_1.log");
+        Assert.assertTrue(success().test(resp));
+
+        AnalyseResponse ar = getAnalyse(token, EventsController.ANONYMOUS_ANALYSE_ID);
+        long to = ar.lastEventUTC.values().iterator().next();
+        List<GCEventResponse> events = getEventsStream(token, EventsController.ANONYMOUS_ANALYSE_ID, ar.jvmIds.iterator().next(),
+                to - 60 * 1000, to);
+        Assert.assertTrue(events.size() > 1);
+    }
+
     @Test
     public void gcStatsTest() throws Exception {
         String token = login();
@@ -226,6 +240,28 @@ public class GCTests extends IntegrationTest {
         Assert.assertTrue(events.size() > 1);
     }
 
+    @Test
+    public void logJobTest() throws Exception {
+        String token = login();
+
+        JsonObject resp = submitGCLogFile(token, "", "", "hs18_log_cms.log");
+        String jobId = r(resp).getString("id");
+        Assert.assertNotNull(jobId);
+        Assert.assertTrue(Utils.waitFor(() -> {
+            try {
+                return "SUCCEEDED".equals(r(get("/gc/jvm/log/job?id=" + jobId, token)).getString("status"));
+            } catch (Throwable t) {
+                LOG.error(t.getMessage(), t);
+                return false;
+            }
+        }, TimeUnit.SECONDS.toNanos(30)));
+        JsonObject job = r(get("/gc/jvm/log/job?id=" + jobId, token));
+        Assert.assertTrue(job.getLong("events_parsed") > 0);
+        Assert.assertEquals(job.getLong("bytes_total"), job.getLong("bytes_read"));
+
+        get("/gc/jvm/log/job?id=" + UUID.randomUUID(), token, ErrorMessages.RESOURCE_NOT_FOUND_RESPONSE);
+    }
+
     @Test
     public void sampleLogParseTest() throws Exception {
         String token = login();
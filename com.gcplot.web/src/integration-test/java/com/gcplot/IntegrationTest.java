@@ -27,6 +27,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
@@ -421,13 +422,32 @@ public abstract class IntegrationTest {
     }
 
     protected JsonObject processGCLogFile(String token, String analyseId, String jvmId, String fileName) throws IOException {
+        return uploadGCLogFile("/gc/jvm/log/process", token, "?token=" + token + "&analyse_id=" + analyseId
+                + "&jvm_id=" + jvmId + "&sync=true", fileName);
+    }
+
+    protected JsonObject submitGCLogFile(String token, String analyseId, String jvmId, String fileName) throws IOException {
+        return uploadGCLogFile("/gc/jvm/log/job", token, "?token=" + token + "&analyse_id=" + analyseId
+                + "&jvm_id=" + jvmId, fileName);
+    }
+
+    protected JsonObject streamGCLogFile(String token, String analyseId, String jvmId, String fileName) throws IOException {
+        org.apache.http.client.HttpClient hc = HttpClientBuilder.create().build();
+        HttpPost post = new HttpPost("http://" + LOCALHOST + ":" + getPort() + "/gc/jvm/log/stream?token=" + token
+                + "&analyse_id=" + analyseId + "&jvm_id=" + jvmId + "&name=" + fileName);
+        post.setEntity(new InputStreamEntity(GCTests.class.getClassLoader().getResourceAsStream(fileName),
+                ContentType.APPLICATION_OCTET_STREAM));
+        HttpResponse response = hc.execute(post);
+        Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+        return new JsonObject(EntityUtils.toString(response.getEntity()));
+    }
+
+    private JsonObject uploadGCLogFile(String path, String token, String query, String fileName) throws IOException {
         org.apache.http.client.HttpClient hc = HttpClientBuilder.create().build();
         HttpEntity file = MultipartEntityBuilder.create()
                 .addBinaryBody("gc.log", GCTests.class.getClassLoader().getResourceAsStream(fileName),
                         ContentType.TEXT_PLAIN, fileName).build();
-        HttpPost post = new HttpPost("http://" + LOCALHOST + ":" +
-                getPort() + "/gc/jvm/log/process" + "?token=" + token + "&analyse_id=" + analyseId
-                + "&jvm_id=" + jvmId + "&sync=true");
+        HttpPost post = new HttpPost("http://" + LOCALHOST + ":" + getPort() + path + query);
         post.setEntity(file);
         HttpResponse response = hc.execute(post);
         Assert.assertEquals(200, response.getStatusLine().getStatusCode());
@@ -12,6 +12,7 @@ import com.gcplot.messages.*;
 import com.gcplot.model.VMVersion;
 import com.gcplot.model.gc.*;
 import com.gcplot.repository.GCAnalyseRepository;
+import com.gcplot.repository.GCEventRepository;
 import com.gcplot.repository.operations.analyse.*;
 import com.gcplot.roles.Restrictions;
 import com.gcplot.web.RequestContext;
@@ -272,7 +273,17 @@ public class AnalyseController extends Controller {
             analyse.jvmGCTypes(jvmGCTypes).jvmVersions(jvmVersions).jvmIds(jvmIds).jvmNames(jvmNames);
         }
 
-        ctx.response(new NewAnalyseResponse(analyseRepository.newAnalyse(analyse)));
+        PartitionGranularity granularity = PartitionGranularity.get(req.partition != null ? req.partition :
+                config.readInt(ConfigProperty.EVENTS_PARTITION_GRANULARITY));
+        if (granularity == null) {
+            ctx.write(ErrorMessages.buildJson(ErrorMessages.INVALID_REQUEST_PARAM, "Unknown partition granularity."));
+            return;
+        }
+        String id = analyseRepository.newAnalyse(analyse);
+        if (granularity != PartitionGranularity.MONTH) {
+            eventRepository.partitionBy(id, granularity);
+        }
+        ctx.response(new NewAnalyseResponse(id));
         newAnalyses.invalidate(userId);
     }
 
@@ -307,4 +318,6 @@ public class AnalyseController extends Controller {
     protected GCAnalyseRepository analyseRepository;
     @Autowired
     protected LogsStorageProvider logsStorageProvider;
+    @Autowired
+    protected GCEventRepository eventRepository;
 }
@@ -12,10 +12,14 @@ import com.gcplot.controllers.Controller;
 import com.gcplot.logs.*;
 import com.gcplot.messages.GCEventResponse;
 import com.gcplot.messages.GCRateResponse;
+import com.gcplot.messages.LogProcessJobResponse;
 import com.gcplot.model.gc.*;
 import com.gcplot.repository.GCAnalyseRepository;
 import com.gcplot.repository.GCEventRepository;
+import com.gcplot.repository.GCEventRollupRepository;
+import com.gcplot.repository.LogCheckpointRepository;
 import com.gcplot.services.logs.FileLogSource;
+import com.gcplot.services.logs.StreamLogSource;
 import com.gcplot.services.stats.StatisticAggregateInterceptor;
 import com.gcplot.utils.Range;
 import com.gcplot.web.RequestContext;
@@ -30,6 +34,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.annotation.PostConstruct;
+import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Predicate;
@@ -50,6 +55,10 @@ public class EventsController extends Controller {
     @Autowired
     private GCEventRepository eventRepository;
     @Autowired
+    private GCEventRollupRepository rollupRepository;
+    @Autowired
+    private LogCheckpointRepository logCheckpointRepository;
+    @Autowired
     private AnalyticsService analyticsService;
     @Autowired
     private LogsProcessorService logsProcessorService;
@@ -64,6 +73,14 @@ public class EventsController extends Controller {
                 c.files().size() == 1,
                 "You should provide only a single log file.")
                 .postUpload("/gc/jvm/log/process", this::processJvmLog);
+        dispatcher.requireAuth().blocking().filter(c ->
+                c.files().size() == 1,
+                "You should provide only a single log file.")
+                .postUpload("/gc/jvm/log/job", this::submitJvmLog);
+        dispatcher.requireAuth().blocking()
+                .postStream("/gc/jvm/log/stream", this::streamJvmLog);
+        dispatcher.requireAuth().filter(c -> c.hasParam("id"), "Job id is required.")
+                .get("/gc/jvm/log/job", this::jvmLogJob);
         dispatcher.blocking().requireAuth().filter(requiredWithPeriod(), periodMessage())
                 .get("/gc/jvm/events", this::jvmEvents);
         dispatcher.blocking().requireAuth().filter(requiredWithPeriod(), periodMessage())
@@ -102,6 +119,64 @@ public class EventsController extends Controller {
         }
     }
 
+    /**
+     * POST /gc/jvm/log/stream
+     * Require Auth (token)
+     * Params:
+     *  - analyse_id, string (optional)
+     *  - jvm_id, string (optional)
+     *  - name, string (optional)
+     *  - checksum, string (optional)
+     * Body: The log itself, plain or gzipped, which is parsed while it's being uploaded
+     */
+    public void streamJvmLog(InputStream body, RequestContext ctx) {
+        final String analyzeId = ctx.param("analyse_id", LogsProcessorService.ANONYMOUS_ANALYSE_ID);
+        final String jvmId = ctx.param("jvm_id", UUID.randomUUID().toString());
+
+        LogProcessResult r = logsProcessorService.process(new StreamLogSource(body, new LogHandle(ctx.param("name", jvmId),
+                        account(ctx).id().toString(), analyzeId, jvmId), ctx.param("checksum"),
+                        config.readInt(ConfigProperty.PARSE_LOG_STREAM_HEAD_SIZE)), account(ctx),
+                analyzeId, jvmId, false);
+
+        if (r.isSuccess()) {
+            ctx.response(SUCCESS);
+        } else {
+            ctx.response(r.getErrorMessage());
+        }
+    }
+
+    /**
+     * POST /gc/jvm/log/job
+     * Require Auth (token)
+     * Body: Single file upload
+     * Responds: LogProcessJobResponse (JSON), as soon as the log is queued
+     */
+    public void submitJvmLog(RequestContext ctx) {
+        UploadedFile uf = ctx.files().get(0);
+        final String analyzeId = ctx.param("analyse_id", LogsProcessorService.ANONYMOUS_ANALYSE_ID);
+        final String jvmId = ctx.param("jvm_id", UUID.randomUUID().toString());
+
+        LogProcessJob job = logsProcessorService.submit(new FileLogSource(uf.file(), new LogHandle(uf.originalName(),
+                account(ctx).id().toString(), analyzeId, jvmId)), account(ctx), analyzeId, jvmId);
+        ctx.response(new LogProcessJobResponse(job));
+    }
+
+    /**
+     * GET /gc/jvm/log/job
+     * Require Auth (token)
+     * Params:
+     *  - id, string (required)
+     * Responds: LogProcessJobResponse (JSON)
+     */
+    public void jvmLogJob(RequestContext ctx) {
+        Optional<LogProcessJob> job = logsProcessorService.job(account(ctx).id(), ctx.param("id"));
+        if (job.isPresent()) {
+            ctx.response(new LogProcessJobResponse(job.get()));
+        } else {
+            ctx.write(ErrorMessages.buildJson(ErrorMessages.RESOURCE_NOT_FOUND_RESPONSE));
+        }
+    }
+
     /**
      * GET /gc/jvm/events
      * Require Auth (token)
@@ -219,8 +294,10 @@ public class EventsController extends Controller {
         PeriodParams pp = new PeriodParams(ctx);
 
         Optional<GCAnalyse> analyse = analyseRepository.analyse(account(ctx).id(), pp.getAnalyseId());
-        analyse.ifPresent(gcAnalyse ->
-                eventRepository.erase(pp.getAnalyseId(), pp.getJvmId(), Range.of(pp.getInterval())));
+        analyse.ifPresent(gcAnalyse -> {
+            eventRepository.erase(pp.getAnalyseId(), pp.getJvmId(), Range.of(pp.getInterval()));
+            rollupRepository.erase(pp.getAnalyseId(), pp.getJvmId(), Range.of(pp.getInterval()));
+        });
         ctx.response(SUCCESS);
     }
 
@@ -240,8 +317,12 @@ public class EventsController extends Controller {
             DateTime lastEvent = analyse.get().lastEvent().get(jvmId);
 
             if (lastEvent != null) {
-                eventRepository.erase(analyseId, jvmId, Range.of(lastEvent.minusYears(ERASE_ALL_PERIOD_YEARS), lastEvent.plusDays(1)));
+                Range range = Range.of(lastEvent.minusYears(ERASE_ALL_PERIOD_YEARS), lastEvent.plusDays(1));
+                eventRepository.erase(analyseId, jvmId, range);
+                rollupRepository.erase(analyseId, jvmId, range);
             }
+            // otherwise the logs would be parsed only after the erased events next time
+            logCheckpointRepository.erase(analyseId, jvmId);
         }
         ctx.response(SUCCESS);
     }
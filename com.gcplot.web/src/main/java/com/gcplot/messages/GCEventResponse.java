@@ -111,7 +111,7 @@ public class GCEventResponse {
         Map<String, CapacityResponse> cbg = event.capacityByGeneration().size() != 0 ?
                 CollectionUtils.processKeyMap(event.capacityByGeneration(), Generation::toString, CapacityResponse::from) :
                 Collections.emptyMap();
-        return new GCEventResponse(event.pauseMu(), event.occurred().getMillis(),
+        return new GCEventResponse(event.pauseMu(), event.occurredMillis(),
                 gens, event.concurrency().type(), event.phase().type(), event.cause().type(),
                 event.properties(), event.user(), event.sys(), event.real(), CapacityResponse.from(event.capacity()),
                 CapacityResponse.from(event.totalCapacity()), cbg, event.ext());
@@ -124,7 +124,7 @@ public class GCEventResponse {
         StringBuilder sb = stringBuilder.get();
         try {
             sb.append("{").append("\"p\":").append(event.pauseMu()).append(",")
-                    .append("\"d\":").append(event.occurred().getMillis());
+                    .append("\"d\":").append(event.occurredMillis());
             if (event.generations().size() == 1) {
                 Generation g = event.generations().iterator().next();
                 if (g != Generation.YOUNG) {
@@ -14,7 +14,7 @@ public class GCRateResponse {
         StringBuilder sb = stringBuilder.get();
         try {
             sb.append("{\"alr\":").append(rate.allocationRate()).append(",\"prr\":").append(rate.promotionRate())
-                    .append(",\"d\":").append(rate.occurred().getMillis()).append("}");
+                    .append(",\"d\":").append(rate.occurredMillis()).append("}");
             return sb.toString();
         } finally {
             sb.setLength(0);
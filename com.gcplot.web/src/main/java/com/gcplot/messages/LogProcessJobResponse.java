@@ -0,0 +1,58 @@
+package com.gcplot.messages;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.gcplot.logs.LogProcessJob;
+import com.gcplot.logs.LogProcessProgress;
+
+/**
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class LogProcessJobResponse {
+    @JsonProperty("id")
+    public String id;
+    @JsonProperty("analyse_id")
+    public String analyseId;
+    @JsonProperty("jvm_id")
+    public String jvmId;
+    @JsonProperty("status")
+    public String status;
+    @JsonProperty("bytes_total")
+    public long bytesTotal;
+    @JsonProperty("bytes_read")
+    public long bytesRead;
+    @JsonProperty("events_parsed")
+    public long eventsParsed;
+    @JsonProperty("events_persisted")
+    public long eventsPersisted;
+    @JsonProperty("errors")
+    public long errors;
+    @JsonProperty("created_utc")
+    public long createdUTC;
+    @JsonProperty("started_utc")
+    public long startedUTC;
+    @JsonProperty("finished_utc")
+    public long finishedUTC;
+    @JsonProperty("error")
+    @JsonRawValue
+    public String error;
+
+    public LogProcessJobResponse(LogProcessJob job) {
+        LogProcessProgress progress = job.getProgress();
+        this.id = job.getId();
+        this.analyseId = job.getAnalyseId();
+        this.jvmId = job.getJvmId();
+        this.status = job.getStatus().name();
+        this.bytesTotal = job.getBytesTotal();
+        this.bytesRead = progress.getBytesRead();
+        this.eventsParsed = progress.getEventsParsed();
+        this.eventsPersisted = progress.getEventsPersisted();
+        this.errors = progress.getErrors();
+        this.createdUTC = job.getCreatedAt();
+        this.startedUTC = job.getStartedAt();
+        this.finishedUTC = job.getFinishedAt();
+        this.error = job.getErrorMessage();
+    }
+
+}
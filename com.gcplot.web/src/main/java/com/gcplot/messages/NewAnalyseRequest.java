@@ -24,6 +24,11 @@ public class NewAnalyseRequest {
     public String sourceConfig;
     @JsonProperty(value = "ext")
     public String ext;
+    /**
+     * The type of the granularity the events are partitioned by, the configured one if not set.
+     */
+    @JsonProperty(value = "partition")
+    public Integer partition;
 
     public NewAnalyseRequest(@JsonProperty(value = "name", required = true) String name,
                              @JsonProperty(value = "cnts", required = true) boolean isContinuous,
@@ -5,6 +5,8 @@ import com.gcplot.Identifier;
 import com.gcplot.cluster.ClusterManager;
 import com.gcplot.cluster.WorkerTask;
 import com.gcplot.commons.Metrics;
+import com.gcplot.configuration.ConfigProperty;
+import com.gcplot.configuration.ConfigurationManager;
 import com.gcplot.fs.LogsStorage;
 import com.gcplot.fs.LogsStorageProvider;
 import com.gcplot.logs.LogHandle;
@@ -21,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * TODO in future it should be event listener, not timer
@@ -43,7 +46,13 @@ public class ProcessingWorker {
     private LogsStorageProvider logsStorageProvider;
     private LogsProcessorService logsProcessor;
     private MetricRegistry metrics;
+    private ConfigurationManager config;
     private Set<String> inProgress = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    /**
+     * The tasks of an account over its running limit are left for the next round, so that they
+     * don't hold the worker threads while waiting for their turn, see {@link ConfigProperty#PARSE_LOG_FAIR_MAX_RUNNING_PER_TENANT}.
+     */
+    private ConcurrentMap<String, AtomicInteger> inProgressByAccount = new ConcurrentHashMap<>();
 
     public void init() {
         timer = Executors.newSingleThreadScheduledExecutor();
@@ -80,6 +89,11 @@ public class ProcessingWorker {
                     if (inProgress.contains(logHandle.hash())) {
                         continue;
                     }
+                    AtomicInteger accountTasks = inProgressByAccount.computeIfAbsent(logHandle.getAccountId(),
+                            k -> new AtomicInteger());
+                    if (accountTasks.get() >= config.readInt(ConfigProperty.PARSE_LOG_FAIR_MAX_RUNNING_PER_TENANT)) {
+                        continue;
+                    }
                     metrics.meter(CHECKED_TASKS).mark();
                     LOG.debug("Processing handle: {}", logHandle);
                     Identifier accountId = Identifier.fromStr(logHandle.getAccountId());
@@ -92,6 +106,7 @@ public class ProcessingWorker {
 
                                 LOG.debug("Running {}, process {}", analyze.id(), logHandle);
                                 inProgress.add(logHandle.hash());
+                                accountTasks.incrementAndGet();
                                 executorService.submit(() -> {
                                     LOG.debug("Processing {}, process {}", analyze.id(), logHandle);
                                     try {
@@ -105,6 +120,7 @@ public class ProcessingWorker {
                                         LOG.error("ProcessingWorker: " + t.getMessage(), t);
                                     } finally {
                                         inProgress.remove(logHandle.hash());
+                                        accountTasks.decrementAndGet();
                                     }
                                 });
 
@@ -165,6 +181,10 @@ public class ProcessingWorker {
         this.metrics = metrics;
     }
 
+    public void setConfig(ConfigurationManager config) {
+        this.config = config;
+    }
+
     public void setLogsProcessor(LogsProcessorService logsProcessor) {
         this.logsProcessor = logsProcessor;
     }
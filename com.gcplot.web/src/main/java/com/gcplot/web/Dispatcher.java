@@ -3,6 +3,7 @@ package com.gcplot.web;
 import io.vertx.core.json.JsonObject;
 
 import java.io.Closeable;
+import java.io.InputStream;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -44,6 +45,16 @@ public interface Dispatcher<Route> extends Closeable {
 
     Dispatcher<Route> postUpload(Route route, Consumer<RequestContext> handler);
 
+    /**
+     * The body is passed to the handler as it arrives, instead of being buffered first,
+     * so the handler should be {@link #blocking()}.
+     *
+     * @param route
+     * @param handler
+     * @return
+     */
+    Dispatcher<Route> postStream(Route route, BiConsumer<InputStream, RequestContext> handler);
+
     Dispatcher<Route> put(Route route, Consumer<RequestContext> handler);
 
     <Payload> Dispatcher<Route> put(Route route, Class<? extends Payload> payloadType,
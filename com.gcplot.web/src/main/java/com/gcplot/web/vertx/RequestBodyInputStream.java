@@ -0,0 +1,139 @@
+package com.gcplot.web.vertx;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The body of the request as it arrives, for the blocking handler to read while the client is still
+ * sending it. The request is paused once {@code bufferSize} bytes are waiting to be read, and resumed
+ * when the reader has taken the half of them, so a slow reader holds the client back instead of
+ * buffering the whole body.
+ *
+ * Closing the stream before the end discards the rest of the body.
+ *
+ * @author <a href="mailto:art.dm.ser@gmail.com">Artem Dmitriev</a>
+ *         10/17/26
+ */
+public class RequestBodyInputStream extends InputStream {
+    private static final byte[] END = new byte[0];
+    private final HttpServerRequest request;
+    private final Context context;
+    private final long bufferSize;
+    private final long maxSize;
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private final AtomicLong buffered = new AtomicLong();
+    private volatile boolean paused;
+    private volatile boolean closed;
+    private volatile IOException error;
+    private long received;
+    private byte[] chunk;
+    private int position;
+
+    /**
+     * Should be created on the event loop of the request, before any of the body is read.
+     */
+    public RequestBodyInputStream(HttpServerRequest request, long bufferSize, long maxSize) {
+        this.request = request;
+        this.context = Vertx.currentContext();
+        this.bufferSize = bufferSize;
+        this.maxSize = maxSize;
+        request.handler(this::onData);
+        request.endHandler(v -> chunks.add(END));
+        request.exceptionHandler(t -> fail(new IOException(t.getMessage(), t)));
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            chunks.clear();
+            context.runOnContext(v -> resumeIfDrained());
+        }
+    }
+
+    private boolean nextChunk() throws IOException {
+        while (chunk == null || position == chunk.length) {
+            if (chunk == END) {
+                if (error != null) {
+                    throw error;
+                }
+                return false;
+            }
+            if (chunk != null && buffered.addAndGet(-chunk.length) <= bufferSize / 2 && paused) {
+                context.runOnContext(v -> resumeIfDrained());
+            }
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            position = 0;
+        }
+        return true;
+    }
+
+    private void onData(Buffer data) {
+        if (closed) {
+            return;
+        }
+        received += data.length();
+        if (received > maxSize) {
+            fail(new IOException("The request body exceeds " + maxSize + " bytes."));
+            return;
+        }
+        chunks.add(data.getBytes());
+        if (buffered.addAndGet(data.length()) >= bufferSize && !paused) {
+            paused = true;
+            request.pause();
+            // the reader might have drained the buffer before it could see the pause
+            resumeIfDrained();
+        }
+    }
+
+    private void fail(IOException e) {
+        if (!closed) {
+            error = e;
+            closed = true;
+            chunks.add(END);
+            resumeIfDrained();
+        }
+    }
+
+    private void resumeIfDrained() {
+        if (paused && (closed || buffered.get() <= bufferSize / 2)) {
+            paused = false;
+            request.resume();
+        }
+    }
+
+}
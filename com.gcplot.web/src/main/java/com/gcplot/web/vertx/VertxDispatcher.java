@@ -18,6 +18,9 @@ import io.vertx.ext.web.handler.BodyHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
@@ -32,7 +35,15 @@ public class VertxDispatcher extends DispatcherBase implements Dispatcher<String
         httpServer = vertx.createHttpServer();
         router = Router.router(vertx);
         router.exceptionHandler(e -> LOG.error(e.getMessage(), e));
-        router.route().order(0).handler(bodyHandler.setBodyLimit(maxUploadSize));
+        BodyHandler body = bodyHandler.setBodyLimit(maxUploadSize);
+        router.route().order(0).handler(rc -> {
+            if (rc.request().method() == io.vertx.core.http.HttpMethod.POST && streamRoutes.contains(rc.normalisedPath())) {
+                rc.put(BODY_STREAM, new RequestBodyInputStream(rc.request(), streamBufferSize, maxUploadSize));
+                rc.next();
+            } else {
+                body.handle(rc);
+            }
+        });
         router.route().last().handler(f -> {
             if (!f.response().ended() && f.response().bytesWritten() == 0) {
                 f.response().end(ErrorMessages.buildJson(ErrorMessages.NOT_FOUND));
@@ -131,6 +142,12 @@ public class VertxDispatcher extends DispatcherBase implements Dispatcher<String
         return handler(s, HttpMethod.POST, (rc, c) -> handler.accept(c));
     }
 
+    @Override
+    public Dispatcher<String> postStream(String s, BiConsumer<InputStream, RequestContext> handler) {
+        streamRoutes.add(s);
+        return handler(s, HttpMethod.POST, (rc, c) -> handler.accept(rc.get(BODY_STREAM), c));
+    }
+
     @Override
     public Dispatcher<String> put(String s, Consumer<RequestContext> handler) {
         return handler(s, HttpMethod.PUT, (rc, c) -> handler.accept(c));
@@ -260,6 +277,10 @@ public class VertxDispatcher extends DispatcherBase implements Dispatcher<String
                     if (!c.isFinished()) {
                         c.finish();
                     }
+                    RequestBodyInputStream body = rc.get(BODY_STREAM);
+                    if (body != null) {
+                        body.close();
+                    }
                 }
             };
             if (blocking) {
@@ -275,10 +296,12 @@ public class VertxDispatcher extends DispatcherBase implements Dispatcher<String
 
     protected final ThreadLocal<VertxRequestContext> contexts = ThreadLocal.withInitial(() ->
             new VertxRequestContext().setAccountRepository(getAccountRepository()));
+    protected final Set<String> streamRoutes = ConcurrentHashMap.newKeySet();
     protected HttpServer httpServer;
     protected Router router;
 
     protected static final Logger LOG = LoggerFactory.getLogger(VertxDispatcher.class);
+    protected static final String BODY_STREAM = "bodyStream";
 
     private Vertx vertx;
     public Vertx getVertx() {
@@ -295,4 +318,12 @@ public class VertxDispatcher extends DispatcherBase implements Dispatcher<String
     public void setBodyHandler(BodyHandler bodyHandler) {
         this.bodyHandler = bodyHandler;
     }
+
+    private long streamBufferSize = 1024 * 1024;
+    public long getStreamBufferSize() {
+        return streamBufferSize;
+    }
+    public void setStreamBufferSize(long streamBufferSize) {
+        this.streamBufferSize = streamBufferSize;
+    }
 }